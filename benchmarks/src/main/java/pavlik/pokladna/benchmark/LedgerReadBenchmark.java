@@ -0,0 +1,99 @@
+package pavlik.pokladna.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import pavlik.pokladna.common.entity.TransactionListItem;
+import pavlik.pokladna.controller.ApiTransactionController;
+import pavlik.pokladna.entity.SaleListItem;
+import pavlik.pokladna.entity.TransactionSummary;
+import pavlik.pokladna.service.SaleService;
+import pavlik.pokladna.service.TransactionService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Čtení z knihy transakcí - úvodní stránka, stránkované výpisy transakcí a tržeb a API pro graf zůstatku.
+ * Výpisy se měří na první stránce a na stránce uprostřed knihy, kde se projeví cena posunu (OFFSET).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class LedgerReadBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private TransactionService transactionService;
+
+    private SaleService saleService;
+
+    private ApiTransactionController apiTransactionController;
+
+    private Pageable firstTransactionPage;
+
+    private Pageable middleTransactionPage;
+
+    private Pageable firstSalePage;
+
+    private Pageable middleSalePage;
+
+    @Setup(Level.Trial)
+    public void setUp(PokladnaState state) {
+        transactionService = state.getBean(TransactionService.class);
+        saleService = state.getBean(SaleService.class);
+        apiTransactionController = state.getBean(ApiTransactionController.class);
+
+        int middlePage = state.ledgerSize / PAGE_SIZE / 2;
+        // stejne razeni jako obrazovky /transactions/index a /sales/index
+        firstTransactionPage = PageRequest.of(0, PAGE_SIZE, Sort.by("idTransaction").descending());
+        middleTransactionPage = PageRequest.of(middlePage, PAGE_SIZE, Sort.by("idTransaction").descending());
+        firstSalePage = PageRequest.of(0, PAGE_SIZE, Sort.by("idSale").descending());
+        middleSalePage = PageRequest.of(middlePage, PAGE_SIZE, Sort.by("idSale").descending());
+    }
+
+    @Benchmark
+    public List<TransactionListItem> getFirst20Transactions() {
+        return transactionService.getFirst20Transactions();
+    }
+
+    @Benchmark
+    public Page<TransactionListItem> getTransactionsFirstPage() {
+        return transactionService.getTransactionsPage(firstTransactionPage);
+    }
+
+    @Benchmark
+    public Page<TransactionListItem> getTransactionsMiddlePage() {
+        return transactionService.getTransactionsPage(middleTransactionPage);
+    }
+
+    @Benchmark
+    public Page<SaleListItem> getSalesFirstPage() {
+        return saleService.getSalesPage(firstSalePage);
+    }
+
+    @Benchmark
+    public Page<SaleListItem> getSalesMiddlePage() {
+        return saleService.getSalesPage(middleSalePage);
+    }
+
+    @Benchmark
+    public List<TransactionSummary> getLast20Transactions() {
+        return apiTransactionController.getLast20Transactions();
+    }
+}
@@ -0,0 +1,39 @@
+package pavlik.pokladna.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Naplnění knihy transakcí zadaným počtem tržeb.
+ * Řádky se generují v databázi jedním dotazem na tabulku (generate_series), naplnění milionu řádků tak trvá sekundy.
+ * Každá tržba má částku 100 a navazující zůstatky, ID tržby a transakce jsou stejná.
+ */
+final class LedgerSeeder {
+
+    private static final int SALE_AMOUNT = 100;
+
+    private LedgerSeeder() {
+    }
+
+    /**
+     * Smaže tržby, transakce a denní souhrny a vloží zadaný počet tržeb.
+     *
+     * @param jdbcTemplate JdbcTemplate pro přístup k databázi.
+     * @param size         Počet tržeb (a transakcí).
+     * @param userId       ID pokladního, pod kterým se tržby zapíší.
+     */
+    static void seed(JdbcTemplate jdbcTemplate, int size, int userId) {
+        jdbcTemplate.execute("TRUNCATE public.ledger_daily_rollup, public.financialtransaction, public.sales RESTART IDENTITY");
+        jdbcTemplate.update("INSERT INTO public.sales (id_sale, amount, sold_goods, user_id) " +
+                "SELECT i, ?, 'zbozi ' || i, ? FROM generate_series(1, ?) i", SALE_AMOUNT, userId, size);
+        // casy zapisu po sekundach az do soucasnosti
+        jdbcTemplate.update("INSERT INTO public.financialtransaction " +
+                        "(id_transaction, description, amount, balance_before, balance_after, sale_id, user_id, deleted, created_at) " +
+                        "SELECT i, 'Nová tržba - prodané zboží: zbozi ' || i, ?, (i - 1) * ?, i * ?, i, ?, false, " +
+                        "clock_timestamp() - (? - i) * INTERVAL '1 second' FROM generate_series(1, ?) i",
+                SALE_AMOUNT, SALE_AMOUNT, SALE_AMOUNT, userId, size, size);
+        jdbcTemplate.queryForObject("SELECT setval(pg_get_serial_sequence('public.sales', 'id_sale'), GREATEST(?, 1))", Long.class, size);
+        jdbcTemplate.queryForObject("SELECT setval(pg_get_serial_sequence('public.financialtransaction', 'id_transaction'), GREATEST(?, 1))",
+                Long.class, size);
+        jdbcTemplate.execute("ANALYZE public.sales, public.financialtransaction");
+    }
+}
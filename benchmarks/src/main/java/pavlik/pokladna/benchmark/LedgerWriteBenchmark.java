@@ -0,0 +1,60 @@
+package pavlik.pokladna.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pavlik.pokladna.entity.Sale;
+import pavlik.pokladna.entity.User;
+import pavlik.pokladna.service.SaleService;
+import pavlik.pokladna.service.TransactionService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Zápisy do knihy transakcí - vklad, výběr a tržba. Každé volání čeká na potvrzení zápisu v databázi.
+ * Výběr je menší než vklad a tržba, zůstatek tedy při měření neklesne pod nulu.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class LedgerWriteBenchmark {
+
+    private TransactionService transactionService;
+
+    private SaleService saleService;
+
+    private User cashier;
+
+    @Setup(Level.Trial)
+    public void setUp(PokladnaState state) {
+        transactionService = state.getBean(TransactionService.class);
+        saleService = state.getBean(SaleService.class);
+        cashier = state.getCashier();
+    }
+
+    @Benchmark
+    public void depositMoney() {
+        transactionService.depositMoney(100, cashier);
+    }
+
+    @Benchmark
+    public void withdrawMoney() {
+        transactionService.withdrawMoney(1, cashier);
+    }
+
+    @Benchmark
+    public Sale addSaleWithTransaction() {
+        return saleService.addSaleWithTransaction(new Sale(100, "zbozi", cashier));
+    }
+}
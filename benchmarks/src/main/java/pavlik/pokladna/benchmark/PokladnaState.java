@@ -0,0 +1,108 @@
+package pavlik.pokladna.benchmark;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pavlik.pokladna.PokladnaApplication;
+import pavlik.pokladna.entity.User;
+import pavlik.pokladna.repository.UserRepositoryInterface;
+import pavlik.pokladna.service.LedgerBalanceHolder;
+import pavlik.pokladna.service.LedgerRowCounter;
+
+import java.io.IOException;
+
+/**
+ * Spuštěná aplikace nad databází s knihou transakcí zadané velikosti.
+ * Bez proměnné prostředí {@code POKLADNA_BENCHMARK_JDBC_URL} se spustí vestavěný PostgreSQL,
+ * jinak se použije zadaná lokální databáze ({@code POKLADNA_BENCHMARK_USERNAME}, {@code POKLADNA_BENCHMARK_PASSWORD}).
+ * Tržby a transakce v databázi se při každém spuštění (pro každou velikost knihy) smažou a vloží znovu.
+ */
+@State(Scope.Benchmark)
+public class PokladnaState {
+
+    private static final String CASHIER = "Pokladni";
+
+    /**
+     * Počet záznamů v knize transakcí.
+     */
+    @Param({"10000", "100000", "1000000"})
+    public int ledgerSize;
+
+    private EmbeddedPostgres embeddedPostgres;
+
+    private ConfigurableApplicationContext context;
+
+    private User cashier;
+
+    /**
+     * Spustí databázi a aplikaci a naplní knihu transakcí.
+     *
+     * @throws IOException Pokud se nepodaří spustit vestavěný PostgreSQL.
+     */
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        String jdbcUrl = System.getenv("POKLADNA_BENCHMARK_JDBC_URL");
+        String username = System.getenv().getOrDefault("POKLADNA_BENCHMARK_USERNAME", "postgres");
+        String password = System.getenv().getOrDefault("POKLADNA_BENCHMARK_PASSWORD", "");
+        if (jdbcUrl == null) {
+            embeddedPostgres = EmbeddedPostgres.start();
+            jdbcUrl = embeddedPostgres.getJdbcUrl("postgres", "postgres");
+        }
+
+        // parametry prikazove radky maji prednost pred application.properties aplikace
+        context = new SpringApplicationBuilder(PokladnaApplication.class).run(
+                "--spring.datasource.url=" + jdbcUrl,
+                "--spring.datasource.username=" + username,
+                "--spring.datasource.password=" + password,
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.org.springframework.jdbc.core=WARN",
+                "--pokladna.security.bcrypt.strength=4",
+                "--pokladna.rollup.rebuild-on-start=false");
+
+        cashier = context.getBean(UserRepositoryInterface.class).findByUsername(CASHIER)
+                .orElseThrow(() -> new IllegalStateException("Uživatel " + CASHIER + " nebyl nalezen."));
+        LedgerSeeder.seed(context.getBean(JdbcTemplate.class), ledgerSize, cashier.getIdUser());
+        // zustatek a pocty zaznamu v pameti podle naplnene databaze
+        context.getBean(LedgerBalanceHolder.class).verify();
+        context.getBean(LedgerRowCounter.class).resync();
+    }
+
+    /**
+     * Zastaví aplikaci a vestavěnou databázi.
+     *
+     * @throws IOException Pokud se nepodaří zastavit vestavěný PostgreSQL.
+     */
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        if (context != null) {
+            context.close();
+        }
+        if (embeddedPostgres != null) {
+            embeddedPostgres.close();
+        }
+    }
+
+    /**
+     * @param type Typ komponenty aplikace.
+     * @param <T>  Typ komponenty.
+     * @return Komponenta aplikace.
+     */
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * @return Pokladní, pod kterým se zapisují vklady, výběry a tržby.
+     */
+    public User getCashier() {
+        return cashier;
+    }
+}
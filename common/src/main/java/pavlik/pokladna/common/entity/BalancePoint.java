@@ -0,0 +1,46 @@
+package pavlik.pokladna.common.entity;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Třída BalancePoint představuje zůstatek pokladny po konkrétním záznamu knihy transakcí.
+ * Pokud dotazu neodpovídá žádný záznam (okamžik před první transakcí), ID i čas jsou null a zůstatek je 0.
+ */
+public class BalancePoint {
+
+    private final Integer idTransaction;
+    private final OffsetDateTime createdAt;
+    private final int balance;
+
+    /**
+     * Konstruktor pro zůstatek po záznamu knihy transakcí.
+     *
+     * @param idTransaction ID záznamu, po kterém zůstatek platí, nebo null.
+     * @param createdAt     Čas zápisu záznamu nebo null.
+     * @param balance       Zůstatek po záznamu.
+     */
+    public BalancePoint(Integer idTransaction, OffsetDateTime createdAt, int balance) {
+        this.idTransaction = idTransaction;
+        this.createdAt = createdAt;
+        this.balance = balance;
+    }
+
+    /**
+     * @return Zůstatek prázdné knihy transakcí.
+     */
+    public static BalancePoint empty() {
+        return new BalancePoint(null, null, 0);
+    }
+
+    public Integer getIdTransaction() {
+        return idTransaction;
+    }
+
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getBalance() {
+        return balance;
+    }
+}
@@ -0,0 +1,87 @@
+package pavlik.pokladna.common.entity;
+
+/**
+ * Třída TransactionListItem představuje jeden řádek výpisu transakcí.
+ * Obsahuje jen zobrazované sloupce, ID tržby, prodané zboží a uživatele místo celých entit.
+ */
+public class TransactionListItem {
+
+    private final Integer idTransaction;
+    private final String description;
+    private final Integer amount;
+    private final Integer balanceBefore;
+    private final Integer balanceAfter;
+    private final Integer saleId;
+    private final String soldGoods;
+    private final Integer userId;
+    private final String username;
+    private final boolean deleted;
+
+    /**
+     * Konstruktor pro řádek výpisu transakcí.
+     *
+     * @param idTransaction ID transakce.
+     * @param description   Popis transakce.
+     * @param amount        Částka transakce.
+     * @param balanceBefore Zůstatek před transakcí.
+     * @param balanceAfter  Zůstatek po transakci.
+     * @param saleId        ID tržby nebo null.
+     * @param soldGoods     Prodané zboží tržby nebo null.
+     * @param userId        ID uživatele nebo null.
+     * @param username      Uživatelské jméno nebo null.
+     * @param deleted       Zda je transakce smazána.
+     */
+    public TransactionListItem(Integer idTransaction, String description, Integer amount, Integer balanceBefore, Integer balanceAfter,
+                               Integer saleId, String soldGoods, Integer userId, String username, boolean deleted) {
+        this.idTransaction = idTransaction;
+        this.description = description;
+        this.amount = amount;
+        this.balanceBefore = balanceBefore;
+        this.balanceAfter = balanceAfter;
+        this.saleId = saleId;
+        this.soldGoods = soldGoods;
+        this.userId = userId;
+        this.username = username;
+        this.deleted = deleted;
+    }
+
+    public Integer getIdTransaction() {
+        return idTransaction;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Integer getAmount() {
+        return amount;
+    }
+
+    public Integer getBalanceBefore() {
+        return balanceBefore;
+    }
+
+    public Integer getBalanceAfter() {
+        return balanceAfter;
+    }
+
+    public Integer getSaleId() {
+        return saleId;
+    }
+
+    public String getSoldGoods() {
+        return soldGoods;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+}
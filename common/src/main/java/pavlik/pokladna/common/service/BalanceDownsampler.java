@@ -0,0 +1,98 @@
+package pavlik.pokladna.common.service;
+
+import pavlik.pokladna.common.entity.BalancePoint;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Zmenšení řady zůstatků na pevný počet bodů při jednom průchodu (min/max dělení do intervalů, M4).
+ * Osa se rozdělí na stejně široké intervaly a z každého se ponechá první, poslední, nejnižší a nejvyšší bod.
+ * Tvar křivky včetně špiček se tak zachová, paměť závisí jen na počtu intervalů, ne na počtu bodů řady.
+ */
+public class BalanceDownsampler {
+
+    private static final int POINTS_PER_BUCKET = 4;
+
+    private final long start;
+    private final long width;
+    private final Bucket[] buckets;
+
+    /**
+     * @param start     Začátek osy (včetně) - ID transakce nebo čas v mikrosekundách.
+     * @param end       Konec osy (včetně).
+     * @param maxPoints Nejvyšší počet bodů výsledku.
+     */
+    public BalanceDownsampler(long start, long end, int maxPoints) {
+        int bucketCount = Math.max(1, maxPoints / POINTS_PER_BUCKET);
+        this.start = start;
+        // sirka intervalu zaokrouhlena nahoru, posledni interval konci nejpozdeji na konci osy
+        this.width = Math.max(1, Math.floorDiv(end - start, bucketCount) + 1);
+        this.buckets = new Bucket[bucketCount];
+    }
+
+    /**
+     * Přidá bod řady. Body se přidávají v pořadí osy.
+     *
+     * @param position Pozice bodu na ose.
+     * @param point    Bod řady.
+     */
+    public void add(long position, BalancePoint point) {
+        int index = (int) Math.min(buckets.length - 1, Math.max(0, Math.floorDiv(position - start, width)));
+        Bucket bucket = buckets[index];
+        if (bucket == null) {
+            buckets[index] = new Bucket(point);
+        } else {
+            bucket.add(point);
+        }
+    }
+
+    /**
+     * @return Zmenšená řada seřazená podle ID transakce.
+     */
+    public List<BalancePoint> result() {
+        List<BalancePoint> points = new ArrayList<>();
+        for (Bucket bucket : buckets) {
+            if (bucket != null) {
+                bucket.collect(points);
+            }
+        }
+        return points;
+    }
+
+    private static final class Bucket {
+        private final BalancePoint first;
+        private BalancePoint last;
+        private BalancePoint min;
+        private BalancePoint max;
+
+        private Bucket(BalancePoint point) {
+            first = point;
+            last = point;
+            min = point;
+            max = point;
+        }
+
+        private void add(BalancePoint point) {
+            last = point;
+            if (point.getBalance() < min.getBalance()) {
+                min = point;
+            }
+            if (point.getBalance() > max.getBalance()) {
+                max = point;
+            }
+        }
+
+        private void collect(List<BalancePoint> points) {
+            List<BalancePoint> selected = new ArrayList<>(POINTS_PER_BUCKET);
+            for (BalancePoint point : new BalancePoint[]{first, min, max, last}) {
+                if (!selected.contains(point)) {
+                    selected.add(point);
+                }
+            }
+            selected.sort(Comparator.comparing(BalancePoint::getIdTransaction));
+            points.addAll(selected);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package pavlik.pokladna.common.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Měření souběžných požadavků pro zátěžové testy - propustnost a doba odezvy (p50, p99).
+ * Požadavky se spouští v pevném počtu vláken, doba se měří u každého požadavku zvlášť.
+ */
+public final class LatencyBenchmark {
+
+	private LatencyBenchmark() {
+	}
+
+	/**
+	 * Jeden požadavek měření.
+	 */
+	@FunctionalInterface
+	public interface Request {
+
+		/**
+		 * @param index Pořadí požadavku (od 0).
+		 * @return Zda požadavek uspěl, neúspěšné požadavky se jen počítají.
+		 * @throws Exception Výjimka (i nesplněná aserce) ukončí měření.
+		 */
+		boolean execute(int index) throws Exception;
+	}
+
+	/**
+	 * Spustí požadavky v zadaném počtu vláken a počká na všechny.
+	 *
+	 * @param threads  Počet vláken (souběžných klientů).
+	 * @param requests Počet požadavků.
+	 * @param request  Požadavek.
+	 * @return Výsledek měření.
+	 * @throws ExecutionException Pokud některý požadavek skončil výjimkou; nesplněná aserce se vyhodí přímo.
+	 */
+	public static Result run(int threads, int requests, Request request) throws InterruptedException, ExecutionException {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Long>> results = new ArrayList<>(requests);
+			long start = System.nanoTime();
+			for (int i = 0; i < requests; i++) {
+				int index = i;
+				results.add(executor.submit(() -> {
+					long requestStart = System.nanoTime();
+					boolean succeeded = request.execute(index);
+					long latency = System.nanoTime() - requestStart;
+					// neuspesny pozadavek se pozna podle znamenka
+					return succeeded ? latency : -latency - 1;
+				}));
+			}
+
+			long[] latencies = new long[requests];
+			int failed = 0;
+			for (int i = 0; i < requests; i++) {
+				long latency = get(results.get(i));
+				if (latency < 0) {
+					failed++;
+					latency = -latency - 1;
+				}
+				latencies[i] = latency;
+			}
+			long elapsed = System.nanoTime() - start;
+
+			Arrays.sort(latencies);
+			return new Result(requests, threads, requests / (elapsed / 1e9),
+					percentileMillis(latencies, 0.5), percentileMillis(latencies, 0.99), failed);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static long get(Future<Long> result) throws InterruptedException, ExecutionException {
+		try {
+			return result.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof Error error) {
+				throw error;
+			}
+			throw e;
+		}
+	}
+
+	private static long percentileMillis(long[] sortedLatencies, double percentile) {
+		if (sortedLatencies.length == 0) {
+			return 0;
+		}
+		int index = Math.max(0, (int) Math.ceil(sortedLatencies.length * percentile) - 1);
+		return TimeUnit.NANOSECONDS.toMillis(sortedLatencies[index]);
+	}
+
+	/**
+	 * Výsledek měření.
+	 *
+	 * @param requests   Počet požadavků.
+	 * @param threads    Počet vláken.
+	 * @param throughput Požadavků za sekundu.
+	 * @param p50Millis  Medián doby odezvy v milisekundách.
+	 * @param p99Millis  99. percentil doby odezvy v milisekundách.
+	 * @param failed     Počet neúspěšných požadavků.
+	 */
+	public record Result(int requests, int threads, double throughput, long p50Millis, long p99Millis, int failed) {
+
+		@Override
+		public String toString() {
+			return String.format("požadavků: %d, vláken: %d, propustnost: %.1f/s, p50: %d ms, p99: %d ms, neúspěšných: %d",
+					requests, threads, throughput, p50Millis, p99Millis, failed);
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package pavlik.pokladna.common.test;
+
+import java.util.List;
+
+/**
+ * SQL pro úklid dat, která test zapsal do databáze - uživatelé, jejich tržby a záznamy knihy transakcí.
+ * Před testem se zjistí poslední ID knihy transakcí a tržeb, po testu se v jedné transakci pod zámkem knihy
+ * smaže vše zapsané po nich. Kniha je řetěz zůstatků, smazáním konce řetězu se vrátí do stavu před testem.
+ * Pokud po začátku testu zapsal do knihy nebo tržeb i jiný uživatel (dotaz {@link #FOREIGN_ROWS}),
+ * konec knihy už nepatří jen testu a nesmí se mazat nic.
+ * <p>
+ * Parametry: {@code :transactionMark}, {@code :saleMark} (hodnoty z {@link #TRANSACTION_MARK} a {@link #SALE_MARK})
+ * a {@code :usernames} (uživatelé vytvoření testem).
+ */
+public final class LedgerTestData {
+
+	/**
+	 * Poslední ID knihy transakcí před testem.
+	 */
+	public static final String TRANSACTION_MARK = "SELECT COALESCE(MAX(id_transaction), 0) FROM financialtransaction";
+
+	/**
+	 * Poslední ID tržby před testem.
+	 */
+	public static final String SALE_MARK = "SELECT COALESCE(MAX(id_sale), 0) FROM sales";
+
+	/**
+	 * Zámek knihy transakcí do konce transakce, klíč musí odpovídat LedgerJdbcRepository.LEDGER_LOCK_KEY.
+	 */
+	public static final String LOCK_LEDGER = "SELECT pg_advisory_xact_lock(7431001)";
+
+	/**
+	 * Počet záznamů knihy a tržeb zapsaných po začátku testu jinými uživateli než testovacími.
+	 */
+	public static final String FOREIGN_ROWS = "SELECT " +
+			"(SELECT COUNT(*) FROM financialtransaction WHERE id_transaction > :transactionMark " +
+			"AND (user_id IS NULL OR user_id NOT IN (SELECT id_user FROM users WHERE username IN (:usernames)))) + " +
+			"(SELECT COUNT(*) FROM sales WHERE id_sale > :saleMark " +
+			"AND (user_id IS NULL OR user_id NOT IN (SELECT id_user FROM users WHERE username IN (:usernames))))";
+
+	/**
+	 * Smazání dat testu v tomto pořadí. Denní souhrny testovacích uživatelů obsahují právě smazané záznamy knihy.
+	 */
+	public static final List<String> DELETE = List.of(
+			"DELETE FROM ledger_daily_rollup WHERE user_id IN (SELECT id_user FROM users WHERE username IN (:usernames))",
+			"DELETE FROM financialtransaction WHERE id_transaction > :transactionMark",
+			"DELETE FROM sales WHERE id_sale > :saleMark",
+			"DELETE FROM authorities WHERE username IN (:usernames)",
+			"DELETE FROM users WHERE username IN (:usernames)");
+
+	private LedgerTestData() {
+	}
+}
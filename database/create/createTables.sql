@@ -1,7 +1,7 @@
 CREATE TABLE IF NOT EXISTS public.users (
     id_user SERIAL PRIMARY KEY,
     username VARCHAR(50) COLLATE pg_catalog."default",
-    password VARCHAR(50) COLLATE pg_catalog."default" NOT NULL,
+    password VARCHAR(100) COLLATE pg_catalog."default" NOT NULL,
     enabled SMALLINT NOT NULL,
     role VARCHAR(50) COLLATE pg_catalog."default" DEFAULT 'EMPLOYEE'::VARCHAR,
     CONSTRAINT users_username_key UNIQUE (username)
@@ -38,6 +38,7 @@ CREATE TABLE IF NOT EXISTS public.financialtransaction (
     sale_id INTEGER,
     user_id INTEGER,
     deleted BOOLEAN DEFAULT false,
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT clock_timestamp(),
     CONSTRAINT financialtransaction_sale_id_fkey FOREIGN KEY (sale_id)
         REFERENCES public.sales (id_sale) MATCH SIMPLE
         ON UPDATE NO ACTION
@@ -47,3 +48,35 @@ CREATE TABLE IF NOT EXISTS public.financialtransaction (
         ON UPDATE NO ACTION
         ON DELETE NO ACTION
 );
+
+CREATE INDEX IF NOT EXISTS financialtransaction_sale_id_idx
+    ON public.financialtransaction (sale_id);
+
+-- cas zapisu transakce pro dotazy na zustatek k danemu okamziku
+-- sloupec se pridava bez vychozi hodnoty (tabulka se neprepisuje), drivejsi zaznamy maji cas null - neznamy
+ALTER TABLE public.financialtransaction
+    ADD COLUMN IF NOT EXISTS created_at TIMESTAMP WITH TIME ZONE;
+ALTER TABLE public.financialtransaction
+    ALTER COLUMN created_at SET DEFAULT clock_timestamp();
+CREATE INDEX IF NOT EXISTS financialtransaction_created_at_idx
+    ON public.financialtransaction (created_at);
+
+-- denni souhrny knihy transakci, aplikace je pri startu vytvori sama (src/main/resources/db/ledger-functions.sql)
+CREATE TABLE IF NOT EXISTS public.ledger_daily_rollup (
+    day DATE NOT NULL,
+    user_id INTEGER,
+    sales_count BIGINT NOT NULL DEFAULT 0,
+    sales_amount BIGINT NOT NULL DEFAULT 0,
+    deposits_count BIGINT NOT NULL DEFAULT 0,
+    deposits_amount BIGINT NOT NULL DEFAULT 0,
+    withdrawals_count BIGINT NOT NULL DEFAULT 0,
+    withdrawals_amount BIGINT NOT NULL DEFAULT 0,
+    reversals_count BIGINT NOT NULL DEFAULT 0,
+    reversals_amount BIGINT NOT NULL DEFAULT 0
+);
+CREATE UNIQUE INDEX IF NOT EXISTS ledger_daily_rollup_day_user_idx
+    ON public.ledger_daily_rollup (day, (COALESCE(user_id, 0)));
+
+-- Hibernate si rezervuje ID uzivatelu a autorit po blocich o velikosti 50
+ALTER SEQUENCE IF EXISTS public.users_id_user_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS public.authorities_id_authority_seq INCREMENT BY 50;
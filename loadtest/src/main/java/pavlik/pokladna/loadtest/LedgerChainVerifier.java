@@ -0,0 +1,101 @@
+package pavlik.pokladna.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Kontrola návaznosti zůstatků v knize transakcí po zátěžovém testu.
+ * Kniha se čte exportem {@code /transactions/export?format=ndjson} (jeden záznam na řádek, seřazeno podle ID),
+ * export smí jen role ADMIN.
+ */
+final class LedgerChainVerifier {
+
+    private static final int MAX_REPORTED_BREAKS = 10;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * ID posledního záznamu knihy transakcí podle API, 0 pro prázdnou knihu.
+     *
+     * @param session Přihlášené sezení.
+     * @return ID posledního záznamu.
+     */
+    int findLastTransactionId(TillSession session) throws IOException, InterruptedException {
+        TillSession.Response response = session.get("/api/transactions/last20");
+        if (response.status() != 200) {
+            throw new IOException("/api/transactions/last20 vrátil HTTP " + response.status() + ".");
+        }
+        int lastId = 0;
+        for (JsonNode summary : objectMapper.readTree(response.body())) {
+            lastId = Math.max(lastId, summary.path("idTransaction").asInt());
+        }
+        return lastId;
+    }
+
+    /**
+     * Projde celou knihu transakcí a ověří, že každý záznam navazuje na předchozí
+     * a že zůstatek po záznamu odpovídá zůstatku před ním a částce.
+     *
+     * @param session Přihlášené sezení správce.
+     * @param afterId Záznamy s vyšším ID se spočítají jako zapsané během testu.
+     * @return Výsledek kontroly.
+     */
+    Result verify(TillSession session, int afterId) throws IOException, InterruptedException {
+        Result result = new Result();
+        Integer previousBalance = null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                session.stream("/transactions/export?format=ndjson"), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode row = objectMapper.readTree(line);
+                int id = row.path("idTransaction").asInt();
+                int amount = row.path("amount").asInt();
+                int before = row.path("balanceBefore").asInt();
+                int after = row.path("balanceAfter").asInt();
+
+                result.rows++;
+                if (id > afterId) {
+                    result.rowsAfterStart++;
+                }
+                if (after != before + amount) {
+                    result.addBreak("ID " + id + ": zůstatek po (" + after + ") se nerovná zůstatku před (" + before + ") + částce (" + amount + ")");
+                }
+                if (previousBalance != null && before != previousBalance) {
+                    result.addBreak("ID " + id + ": zůstatek před (" + before + ") nenavazuje na předchozí záznam (" + previousBalance + ")");
+                }
+                previousBalance = after;
+            }
+        }
+        result.finalBalance = previousBalance != null ? previousBalance : 0;
+        return result;
+    }
+
+    /**
+     * Výsledek kontroly knihy transakcí.
+     */
+    static final class Result {
+        long rows;
+        long rowsAfterStart;
+        long breaks;
+        int finalBalance;
+        final StringBuilder details = new StringBuilder();
+
+        private void addBreak(String detail) {
+            if (breaks++ < MAX_REPORTED_BREAKS) {
+                details.append("  ").append(detail).append('\n');
+            }
+        }
+
+        boolean isConsistent() {
+            return breaks == 0;
+        }
+    }
+}
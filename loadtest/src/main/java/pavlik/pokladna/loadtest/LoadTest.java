@@ -0,0 +1,288 @@
+package pavlik.pokladna.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Zátěžový test běžící instance pokladny v uzavřené smyčce.
+ * Každé vlákno představuje jednu pokladnu - přihlásí se formulářem jako pokladní (a pro vklady a výběry jako správce),
+ * pak opakovaně posílá požadavky podle zadaného poměru operací a čeká na odpověď.
+ * Celkovou rychlost lze omezit, odezva se pak měří od plánovaného začátku požadavku.
+ * Po skončení vypíše propustnost, percentily odezvy a chybovost a ověří návaznost zůstatků v knize transakcí.
+ * <pre>
+ * mvn -f loadtest/pom.xml compile exec:exec -Dloadtest.args="--base-url=http://localhost:8080 --concurrency=50 --rate=200 --duration=120"
+ * </pre>
+ * Návratový kód je 1, pokud kniha transakcí nenavazuje nebo chybovost překročí {@code --max-error-rate}.
+ */
+public final class LoadTest {
+
+    private static final Duration PROGRESS_INTERVAL = Duration.ofSeconds(10);
+
+    private final LoadTestSettings settings;
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    // zapisy vcetne zahrivaci faze, pro porovnani s poctem novych zaznamu v knize
+    private final LongAdder successfulWrites = new LongAdder();
+    private final LongAdder failedWrites = new LongAdder();
+
+    private LoadTest(LoadTestSettings settings) {
+        this.settings = settings;
+        Map<Operation, Integer> mix = settings.getMix();
+        operations = mix.keySet().toArray(new Operation[0]);
+        cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += mix.get(operations[i]);
+            cumulativeWeights[i] = total;
+            stats.put(operations[i], new OperationStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings;
+        try {
+            settings = LoadTestSettings.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Parametry: --base-url --cashier-pattern --cashiers --cashier-password --admin-username --admin-password "
+                    + "--concurrency --rate --warmup --duration --mix --verify --max-error-rate");
+            System.exit(2);
+            return;
+        }
+        System.exit(new LoadTest(settings).run());
+    }
+
+    private int run() throws Exception {
+        System.out.println("Zátěžový test: " + settings);
+        HttpClient client = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        List<Till> tills = login(client);
+        LedgerChainVerifier verifier = new LedgerChainVerifier();
+        int startId = verifier.findLastTransactionId(tills.get(0).cashier);
+
+        long started = System.nanoTime();
+        long measureFrom = started + settings.getWarmup().toNanos();
+        long end = measureFrom + settings.getDuration().toNanos();
+        Pacer pacer = new Pacer(settings.getRate());
+
+        ExecutorService workers = Executors.newFixedThreadPool(settings.getConcurrency());
+        List<Future<?>> futures = new ArrayList<>();
+        for (Till till : tills) {
+            futures.add(workers.submit(() -> drive(till, pacer, measureFrom, end)));
+        }
+        workers.shutdown();
+        while (!workers.awaitTermination(PROGRESS_INTERVAL.toMillis(), TimeUnit.MILLISECONDS)) {
+            long elapsed = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started);
+            System.out.printf(Locale.ROOT, "  %d s, dokončeno %d požadavků%n", elapsed, completed());
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                System.err.println("Vlákno pokladny skončilo chybou: " + e.getCause());
+            }
+        }
+        double measuredSeconds = (Math.min(System.nanoTime(), end) - measureFrom) / 1e9;
+
+        double errorRate = report(measuredSeconds);
+        boolean consistent = true;
+        if (settings.isVerify()) {
+            consistent = verify(verifier, tills.get(0).admin, client, startId);
+        }
+        if (errorRate > settings.getMaxErrorRate()) {
+            System.out.printf(Locale.ROOT, "Chybovost %.2f %% překročila povolených %.2f %%.%n",
+                    errorRate * 100, settings.getMaxErrorRate() * 100);
+        }
+        return consistent && errorRate <= settings.getMaxErrorRate() ? 0 : 1;
+    }
+
+    /**
+     * Přihlásí všechny pokladny souběžně, přihlášení (bcrypt) se do měření nepočítá.
+     */
+    private List<Till> login(HttpClient client) throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(settings.getConcurrency(), 16));
+        try {
+            List<Future<Till>> logins = new ArrayList<>();
+            for (int i = 0; i < settings.getConcurrency(); i++) {
+                String username = settings.cashierUsername(i % settings.getCashiers() + 1);
+                boolean withAdmin = settings.needsAdmin() || (i == 0 && settings.isVerify());
+                logins.add(executor.submit(() -> {
+                    TillSession cashier = new TillSession(client, settings.getBaseUrl(), username, settings.getCashierPassword());
+                    cashier.login();
+                    TillSession admin = null;
+                    if (withAdmin) {
+                        admin = new TillSession(client, settings.getBaseUrl(), settings.getAdminUsername(), settings.getAdminPassword());
+                        admin.login();
+                    }
+                    return new Till(cashier, admin);
+                }));
+            }
+            List<Till> tills = new ArrayList<>();
+            for (Future<Till> login : logins) {
+                tills.add(login.get());
+            }
+            System.out.printf(Locale.ROOT, "Přihlášeno %d pokladen (%d pokladních).%n",
+                    tills.size(), Math.min(settings.getConcurrency(), settings.getCashiers()));
+            return tills;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void drive(Till till, Pacer pacer, long measureFrom, long end) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            long scheduled = pacer.acquire();
+            if (scheduled >= end || Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            Operation operation = pick(random);
+            TillSession session = operation.isAdminOnly() ? till.admin : till.cashier;
+
+            Operation.Outcome outcome;
+            try {
+                TillSession.Response response = operation.execute(session, random);
+                if (response.isLoginRedirect()) {
+                    // vyprsele sezeni - pozadavek je chyba, pokladna se prihlasi znovu
+                    outcome = Operation.Outcome.ERROR;
+                    session.login();
+                } else {
+                    outcome = operation.evaluate(response);
+                }
+            } catch (IOException e) {
+                outcome = Operation.Outcome.ERROR;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long latency = System.nanoTime() - scheduled;
+
+            if (scheduled >= measureFrom) {
+                stats.get(operation).record(outcome, latency);
+            }
+            if (operation.isWrite()) {
+                if (outcome == Operation.Outcome.OK) {
+                    successfulWrites.increment();
+                } else if (outcome == Operation.Outcome.ERROR) {
+                    failedWrites.increment();
+                }
+            }
+        }
+    }
+
+    private Operation pick(ThreadLocalRandom random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private long completed() {
+        return stats.values().stream().mapToLong(OperationStats::getCount).sum();
+    }
+
+    /**
+     * Vypíše výsledky měřené části testu.
+     *
+     * @return Podíl chybných požadavků.
+     */
+    private double report(double seconds) {
+        System.out.println();
+        System.out.printf(Locale.ROOT, "Výsledky za %.1f s (bez zahřívací fáze), odezvy v ms:%n", seconds);
+        System.out.printf(Locale.ROOT, "%-9s %9s %9s %9s %9s %9s %8s %8s %8s %8s %8s%n",
+                "operace", "počet", "ok", "odmítnuto", "chyby", "req/s", "p50", "p90", "p99", "p99.9", "max");
+
+        Histogram all = new Histogram(3);
+        long count = 0;
+        long errors = 0;
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats operationStats = entry.getValue();
+            printRow(entry.getKey().getName(), operationStats.getCount(), operationStats.getOk(), operationStats.getRejected(),
+                    operationStats.getErrors(), seconds, operationStats.getLatencies());
+            all.add(operationStats.getLatencies());
+            count += operationStats.getCount();
+            errors += operationStats.getErrors();
+        }
+        long ok = stats.values().stream().mapToLong(OperationStats::getOk).sum();
+        long rejected = stats.values().stream().mapToLong(OperationStats::getRejected).sum();
+        printRow("celkem", count, ok, rejected, errors, seconds, all);
+
+        double errorRate = count > 0 ? (double) errors / count : 0;
+        System.out.printf(Locale.ROOT, "Chybovost %.2f %%, odmítnuté zápisy (např. výběr nad zůstatek) se za chybu nepočítají.%n",
+                errorRate * 100);
+        return errorRate;
+    }
+
+    private static void printRow(String name, long count, long ok, long rejected, long errors, double seconds, Histogram latencies) {
+        System.out.printf(Locale.ROOT, "%-9s %9d %9d %9d %9d %9.1f %8.1f %8.1f %8.1f %8.1f %8.1f%n",
+                name, count, ok, rejected, errors, count / seconds,
+                millis(latencies.getValueAtPercentile(50)), millis(latencies.getValueAtPercentile(90)),
+                millis(latencies.getValueAtPercentile(99)), millis(latencies.getValueAtPercentile(99.9)),
+                millis(latencies.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    /**
+     * Ověří návaznost zůstatků a počet záznamů zapsaných během testu.
+     *
+     * @return Zda je kniha transakcí v pořádku.
+     */
+    private boolean verify(LedgerChainVerifier verifier, TillSession admin, HttpClient client, int startId) throws Exception {
+        if (admin == null) {
+            admin = new TillSession(client, settings.getBaseUrl(), settings.getAdminUsername(), settings.getAdminPassword());
+        }
+        // sezeni mohlo behem testu vyprset
+        admin.login();
+
+        System.out.println();
+        System.out.println("Kontrola knihy transakcí...");
+        LedgerChainVerifier.Result result = verifier.verify(admin, startId);
+        System.out.printf(Locale.ROOT, "Záznamů %d, zůstatek %d, během testu zapsáno %d záznamů (úspěšných zápisů %d, chybných %d).%n",
+                result.rows, result.finalBalance, result.rowsAfterStart, successfulWrites.sum(), failedWrites.sum());
+
+        boolean consistent = result.isConsistent();
+        if (!consistent) {
+            System.out.println("Zůstatky nenavazují (" + result.breaks + "x):");
+            System.out.print(result.details);
+        }
+        // chybny zapis (napr. vyprseni casu) mohl byt presto potvrzen
+        if (result.rowsAfterStart < successfulWrites.sum() || result.rowsAfterStart > successfulWrites.sum() + failedWrites.sum()) {
+            System.out.println("Počet nových záznamů neodpovídá počtu zápisů (zapisoval do knihy i někdo jiný?).");
+            consistent = false;
+        }
+        System.out.println(consistent ? "Kniha transakcí je v pořádku." : "Kniha transakcí NENÍ v pořádku.");
+        return consistent;
+    }
+
+    /**
+     * Jedna pokladna - sezení pokladní a sezení správce pro vklady a výběry.
+     */
+    private record Till(TillSession cashier, TillSession admin) {
+    }
+}
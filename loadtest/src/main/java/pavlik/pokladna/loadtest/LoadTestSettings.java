@@ -0,0 +1,165 @@
+package pavlik.pokladna.loadtest;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Nastavení zátěžového testu z parametrů příkazové řádky ve tvaru {@code --nazev=hodnota}.
+ */
+final class LoadTestSettings {
+
+    private final URI baseUrl;
+    private final String cashierPattern;
+    private final int cashiers;
+    private final String cashierPassword;
+    private final String adminUsername;
+    private final String adminPassword;
+    private final int concurrency;
+    private final int rate;
+    private final Duration warmup;
+    private final Duration duration;
+    private final Map<Operation, Integer> mix;
+    private final boolean verify;
+    private final double maxErrorRate;
+
+    private LoadTestSettings(Map<String, String> values) {
+        baseUrl = URI.create(stripTrailingSlash(take(values, "base-url", "http://localhost:8080")));
+        cashierPattern = take(values, "cashier-pattern", "pokladni-%05d");
+        cashiers = Integer.parseInt(take(values, "cashiers", "100"));
+        cashierPassword = take(values, "cashier-password", "heslo");
+        adminUsername = take(values, "admin-username", "Admin");
+        adminPassword = take(values, "admin-password", "b");
+        concurrency = Integer.parseInt(take(values, "concurrency", "50"));
+        rate = Integer.parseInt(take(values, "rate", "0"));
+        warmup = Duration.ofSeconds(Long.parseLong(take(values, "warmup", "10")));
+        duration = Duration.ofSeconds(Long.parseLong(take(values, "duration", "60")));
+        mix = parseMix(take(values, "mix", "sale:70,deposit:3,withdraw:2,home:15,last20:10"));
+        verify = Boolean.parseBoolean(take(values, "verify", "true"));
+        maxErrorRate = Double.parseDouble(take(values, "max-error-rate", "0.01"));
+
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Neznámé parametry: " + values.keySet());
+        }
+        if (cashiers < 1 || concurrency < 1 || rate < 0) {
+            throw new IllegalArgumentException("Počet pokladních a souběžnost musí být kladné, rychlost nezáporná.");
+        }
+    }
+
+    /**
+     * Načte nastavení z parametrů příkazové řádky, chybějící parametry mají výchozí hodnotu.
+     *
+     * @param args Parametry ve tvaru {@code --nazev=hodnota}.
+     * @return Nastavení testu.
+     * @throws IllegalArgumentException Pokud parametr nemá správný tvar nebo není známý.
+     */
+    static LoadTestSettings parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Parametr musí mít tvar --nazev=hodnota: " + arg);
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return new LoadTestSettings(values);
+    }
+
+    private static String take(Map<String, String> values, String name, String defaultValue) {
+        String value = values.remove(name);
+        return value != null ? value : defaultValue;
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Poměr operací musí mít tvar nazev:vaha, např. sale:70,home:30: " + value);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.fromName(pair[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Poměr operací neobsahuje žádnou operaci s kladnou vahou.");
+        }
+        return weights;
+    }
+
+    URI getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Uživatelské jméno pokladní podle pořadí (od 1), výchozí vzor odpovídá generátoru testovacích dat.
+     */
+    String cashierUsername(int index) {
+        return String.format(cashierPattern, index);
+    }
+
+    int getCashiers() {
+        return cashiers;
+    }
+
+    String getCashierPassword() {
+        return cashierPassword;
+    }
+
+    String getAdminUsername() {
+        return adminUsername;
+    }
+
+    String getAdminPassword() {
+        return adminPassword;
+    }
+
+    int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Celkový počet požadavků za sekundu, 0 znamená bez omezení.
+     */
+    int getRate() {
+        return rate;
+    }
+
+    Duration getWarmup() {
+        return warmup;
+    }
+
+    Duration getDuration() {
+        return duration;
+    }
+
+    Map<Operation, Integer> getMix() {
+        return mix;
+    }
+
+    boolean isVerify() {
+        return verify;
+    }
+
+    double getMaxErrorRate() {
+        return maxErrorRate;
+    }
+
+    boolean needsAdmin() {
+        return mix.keySet().stream().anyMatch(Operation::isAdminOnly);
+    }
+
+    @Override
+    public String toString() {
+        return "base-url=" + baseUrl + ", cashiers=" + cashiers + ", concurrency=" + concurrency
+                + ", rate=" + (rate == 0 ? "bez omezení" : rate + "/s") + ", warmup=" + warmup.toSeconds() + " s"
+                + ", duration=" + duration.toSeconds() + " s, mix=" + mix;
+    }
+}
@@ -0,0 +1,119 @@
+package pavlik.pokladna.loadtest;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Operace pokladny, ze kterých se skládá zátěž.
+ * Vklady a výběry smí jen role ADMIN, provádí je proto sezení správce.
+ */
+enum Operation {
+
+    SALE("sale", false) {
+        @Override
+        TillSession.Response execute(TillSession session, ThreadLocalRandom random) throws IOException, InterruptedException {
+            return session.post("/sales/create", Map.of(
+                    "amount", String.valueOf(10 + random.nextInt(4991)),
+                    "soldGoods", GOODS[random.nextInt(GOODS.length)]));
+        }
+    },
+    DEPOSIT("deposit", true) {
+        @Override
+        TillSession.Response execute(TillSession session, ThreadLocalRandom random) throws IOException, InterruptedException {
+            return session.post("/transactions/deposit", Map.of("amount", String.valueOf(100 + random.nextInt(4901))));
+        }
+    },
+    WITHDRAW("withdraw", true) {
+        @Override
+        TillSession.Response execute(TillSession session, ThreadLocalRandom random) throws IOException, InterruptedException {
+            return session.post("/transactions/withdraw", Map.of("amount", String.valueOf(100 + random.nextInt(1901))));
+        }
+    },
+    HOME("home", false) {
+        @Override
+        TillSession.Response execute(TillSession session, ThreadLocalRandom random) throws IOException, InterruptedException {
+            return session.get("/");
+        }
+    },
+    LAST20("last20", false) {
+        @Override
+        TillSession.Response execute(TillSession session, ThreadLocalRandom random) throws IOException, InterruptedException {
+            return session.get("/api/transactions/last20");
+        }
+    };
+
+    private static final String[] GOODS = {"Chléb", "Mléko", "Káva", "Noviny", "Baterie", "Sešit, A4"};
+
+    // zpravy z FormConfirmationFragment.html
+    private static final String SUCCESS_MARK = "color: green;";
+    private static final String REJECTION_MARK = "color: red;";
+
+    private final String name;
+    private final boolean adminOnly;
+
+    Operation(String name, boolean adminOnly) {
+        this.name = name;
+        this.adminOnly = adminOnly;
+    }
+
+    /**
+     * Provede operaci v rámci sezení.
+     *
+     * @param session Přihlášené sezení.
+     * @param random  Zdroj náhodných částek.
+     * @return Odpověď serveru.
+     */
+    abstract TillSession.Response execute(TillSession session, ThreadLocalRandom random) throws IOException, InterruptedException;
+
+    /**
+     * Vyhodnotí odpověď. Zápisy vrací stránku se zprávou i při chybě (HTTP 200),
+     * odmítnutý zápis (např. výběr nad zůstatek) se proto pozná podle zprávy.
+     *
+     * @param response Odpověď serveru.
+     * @return Výsledek operace.
+     */
+    Outcome evaluate(TillSession.Response response) {
+        if (response.status() != 200) {
+            return Outcome.ERROR;
+        }
+        if (this == HOME || this == LAST20) {
+            return Outcome.OK;
+        }
+        if (response.body().contains(SUCCESS_MARK)) {
+            return Outcome.OK;
+        }
+        return response.body().contains(REJECTION_MARK) ? Outcome.REJECTED : Outcome.ERROR;
+    }
+
+    /**
+     * Zda operace zapisuje do knihy transakcí.
+     */
+    boolean isWrite() {
+        return this == SALE || this == DEPOSIT || this == WITHDRAW;
+    }
+
+    boolean isAdminOnly() {
+        return adminOnly;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    static Operation fromName(String name) {
+        for (Operation operation : values()) {
+            if (operation.name.equalsIgnoreCase(name)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Neznámá operace: " + name + " (sale, deposit, withdraw, home, last20).");
+    }
+
+    /**
+     * Výsledek jedné operace.
+     */
+    enum Outcome {
+        OK, REJECTED, ERROR
+    }
+}
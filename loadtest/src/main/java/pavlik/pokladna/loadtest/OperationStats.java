@@ -0,0 +1,55 @@
+package pavlik.pokladna.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Výsledky jedné operace - histogram odezev v mikrosekundách a počty podle výsledku.
+ */
+final class OperationStats {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Histogram latencies = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * Zaznamená dokončenou operaci.
+     *
+     * @param outcome      Výsledek operace.
+     * @param latencyNanos Odezva od plánovaného začátku operace.
+     */
+    void record(Operation.Outcome outcome, long latencyNanos) {
+        latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_LATENCY_MICROS));
+        switch (outcome) {
+            case OK -> ok.increment();
+            case REJECTED -> rejected.increment();
+            case ERROR -> errors.increment();
+        }
+    }
+
+    long getCount() {
+        return ok.sum() + rejected.sum() + errors.sum();
+    }
+
+    long getOk() {
+        return ok.sum();
+    }
+
+    long getRejected() {
+        return rejected.sum();
+    }
+
+    long getErrors() {
+        return errors.sum();
+    }
+
+    Histogram getLatencies() {
+        return latencies;
+    }
+}
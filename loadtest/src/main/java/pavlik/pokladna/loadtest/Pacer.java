@@ -0,0 +1,41 @@
+package pavlik.pokladna.loadtest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Rozvržení požadavků do pravidelných intervalů podle cílové rychlosti, sdílené všemi vlákny.
+ * Vrací plánovaný začátek požadavku - odezva se měří od něj, takže zdržení čekajícího požadavku
+ * (fronta před pomalým serverem) se do odezvy započítá.
+ */
+final class Pacer {
+
+    private final long intervalNanos;
+    private final AtomicLong nextSlot;
+
+    /**
+     * @param rate Počet požadavků za sekundu, 0 znamená bez omezení.
+     */
+    Pacer(int rate) {
+        this.intervalNanos = rate > 0 ? TimeUnit.SECONDS.toNanos(1) / rate : 0;
+        this.nextSlot = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Počká na další volný interval.
+     *
+     * @return Plánovaný začátek požadavku ({@link System#nanoTime()}).
+     */
+    long acquire() {
+        if (intervalNanos == 0) {
+            return System.nanoTime();
+        }
+        long slot = nextSlot.getAndAdd(intervalNanos);
+        long wait;
+        while ((wait = slot - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+        }
+        return slot;
+    }
+}
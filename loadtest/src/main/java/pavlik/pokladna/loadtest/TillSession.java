@@ -0,0 +1,168 @@
+package pavlik.pokladna.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Přihlášení jednoho uživatele přes formulář - session cookie a CSRF token jako v prohlížeči.
+ * HTTP klient je sdílený všemi sezeními, cookie si každé sezení drží samo.
+ * Instance není bezpečná pro souběžné použití, každé vlákno testu má vlastní sezení.
+ */
+final class TillSession {
+
+    private static final String LOGIN_PAGE = "/authentication/login";
+    private static final String LOGIN_PROCESSING_URL = "/authenticateTheUser";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    // Spring Security vklada token do kazdeho formulare s th:action
+    private static final Pattern CSRF_INPUT = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+    private static final Pattern SESSION_COOKIE = Pattern.compile("JSESSIONID=([^;]+)");
+
+    private final HttpClient client;
+    private final URI baseUrl;
+    private final String username;
+    private final String password;
+
+    private String sessionId;
+    private String csrfToken;
+
+    TillSession(HttpClient client, URI baseUrl, String username, String password) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.username = username;
+        this.password = password;
+    }
+
+    /**
+     * Přihlásí uživatele formulářem a načte CSRF token platný pro přihlášené sezení.
+     *
+     * @throws IOException          Pokud požadavek selže nebo přihlášení není přijato.
+     * @throws InterruptedException Pokud je vlákno přerušeno.
+     */
+    void login() throws IOException, InterruptedException {
+        sessionId = null;
+        csrfToken = null;
+
+        Response loginPage = get(LOGIN_PAGE);
+        String loginToken = findCsrfToken(loginPage.body());
+        if (loginPage.status() != 200 || loginToken == null) {
+            throw new IOException("Přihlašovací stránka nevrátila formulář s CSRF tokenem (HTTP " + loginPage.status() + ").");
+        }
+
+        Response login = send(HttpRequest.newBuilder(baseUrl.resolve(LOGIN_PROCESSING_URL))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form(Map.of("username", username, "password", password, "_csrf", loginToken)))));
+        String location = login.location();
+        if (login.status() != 302 || location == null || location.contains("error")) {
+            throw new IOException("Přihlášení uživatele " + username + " selhalo (HTTP " + login.status() + ", " + location + ").");
+        }
+
+        // po prihlaseni se meni session i token
+        Response home = get("/");
+        csrfToken = findCsrfToken(home.body());
+        if (home.status() != 200 || csrfToken == null) {
+            throw new IOException("Úvodní stránka po přihlášení uživatele " + username + " nevrátila CSRF token (HTTP " + home.status() + ").");
+        }
+    }
+
+    /**
+     * Odešle požadavek GET v rámci sezení.
+     *
+     * @param path Cesta od kořene aplikace.
+     * @return Odpověď.
+     */
+    Response get(String path) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(baseUrl.resolve(path)).GET());
+    }
+
+    /**
+     * Odešle formulář metodou POST v rámci sezení, CSRF token se přidá automaticky.
+     *
+     * @param path   Cesta od kořene aplikace.
+     * @param fields Pole formuláře.
+     * @return Odpověď.
+     */
+    Response post(String path, Map<String, String> fields) throws IOException, InterruptedException {
+        StringJoiner body = new StringJoiner("&");
+        body.add(form(fields));
+        body.add("_csrf=" + URLEncoder.encode(csrfToken, StandardCharsets.UTF_8));
+        return send(HttpRequest.newBuilder(baseUrl.resolve(path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString())));
+    }
+
+    /**
+     * Odešle požadavek GET a vrátí tělo odpovědi jako proud, pro velké exporty.
+     *
+     * @param path Cesta od kořene aplikace.
+     * @return Tělo odpovědi, volající jej musí zavřít.
+     * @throws IOException Pokud požadavek selže nebo server nevrátí HTTP 200.
+     */
+    InputStream stream(String path) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(baseUrl.resolve(path)).GET();
+        if (sessionId != null) {
+            request.header("Cookie", "JSESSIONID=" + sessionId);
+        }
+        HttpResponse<InputStream> response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() != 200) {
+            response.body().close();
+            throw new IOException("GET " + path + " vrátil HTTP " + response.statusCode() + ".");
+        }
+        return response.body();
+    }
+
+    String getUsername() {
+        return username;
+    }
+
+    private Response send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        request.timeout(REQUEST_TIMEOUT);
+        if (sessionId != null) {
+            request.header("Cookie", "JSESSIONID=" + sessionId);
+        }
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        for (String cookie : response.headers().allValues("Set-Cookie")) {
+            Matcher matcher = SESSION_COOKIE.matcher(cookie);
+            if (matcher.find()) {
+                sessionId = matcher.group(1);
+            }
+        }
+        return new Response(response.statusCode(), response.body(), response.headers().firstValue("Location").orElse(null));
+    }
+
+    private static String findCsrfToken(String html) {
+        Matcher matcher = CSRF_INPUT.matcher(html);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static String form(Map<String, String> fields) {
+        StringJoiner body = new StringJoiner("&");
+        fields.forEach((name, value) -> body.add(URLEncoder.encode(name, StandardCharsets.UTF_8) + "="
+                + URLEncoder.encode(value, StandardCharsets.UTF_8)));
+        return body.toString();
+    }
+
+    /**
+     * Odpověď serveru - stav, tělo a cíl přesměrování.
+     */
+    record Response(int status, String body, String location) {
+
+        /**
+         * Přesměrování na přihlášení znamená, že sezení vypršelo.
+         */
+        boolean isLoginRedirect() {
+            return status == 302 && location != null && location.contains(LOGIN_PAGE);
+        }
+    }
+}
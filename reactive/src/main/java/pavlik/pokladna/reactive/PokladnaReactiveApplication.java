@@ -0,0 +1,23 @@
+package pavlik.pokladna.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Neblokující varianta JSON API pokladny (WebFlux a R2DBC) nad stejnou databází jako hlavní aplikace.
+ * Obsluhuje čtení transakcí ({@code /api/transactions/...}) a zápis jedné tržby ({@code POST /api/sales}).
+ * Schéma databáze i databázové funkce knihy transakcí vytváří hlavní aplikace.
+ */
+@SpringBootApplication
+public class PokladnaReactiveApplication {
+
+    /**
+     * Metoda pro spuštění Spring Boot aplikace.
+     *
+     * @param args Argumenty příkazové řádky.
+     */
+    public static void main(String[] args) {
+        SpringApplication.run(PokladnaReactiveApplication.class, args);
+    }
+
+}
@@ -0,0 +1,51 @@
+package pavlik.pokladna.reactive.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import pavlik.pokladna.reactive.entity.PostedSale;
+import pavlik.pokladna.reactive.entity.SaleRequest;
+import pavlik.pokladna.reactive.service.SaleService;
+import reactor.core.publisher.Mono;
+
+import java.security.Principal;
+
+/**
+ * RestController pro zápis tržeb přes neblokující API.
+ */
+@RestController
+@RequestMapping("/api/sales")
+public class ApiSaleController {
+
+    private final SaleService saleService;
+
+    /**
+     * Konstruktor pro ApiSaleController.
+     *
+     * @param saleService Služba pro zápis tržeb.
+     */
+    @Autowired
+    public ApiSaleController(SaleService saleService) {
+        this.saleService = saleService;
+    }
+
+    /**
+     * Metoda pro zápis jedné tržby pokladnou ve formátu JSON ({@code {"amount": 100, "soldGoods": "zboží"}}).
+     * Tržba se zapíše pod přihlášeným uživatelem.
+     *
+     * @param sale      Tržba.
+     * @param principal Přihlášený uživatel.
+     * @return Zapsaná tržba s ID a zůstatky (201), nebo 400, pokud tržba není platná (např. částka není kladná).
+     */
+    @PostMapping
+    public Mono<ResponseEntity<PostedSale>> addSale(@RequestBody SaleRequest sale, Mono<Principal> principal) {
+        return principal
+                .flatMap(user -> saleService.addSaleWithTransaction(sale, user.getName()))
+                .map(posted -> ResponseEntity.status(HttpStatus.CREATED).body(posted))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+}
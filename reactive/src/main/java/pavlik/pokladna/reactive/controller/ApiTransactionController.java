@@ -0,0 +1,147 @@
+package pavlik.pokladna.reactive.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import pavlik.pokladna.common.entity.BalancePoint;
+import pavlik.pokladna.common.entity.TransactionListItem;
+import pavlik.pokladna.reactive.entity.TransactionSummary;
+import pavlik.pokladna.reactive.service.BalanceHistoryService;
+import pavlik.pokladna.reactive.service.KeysetPage;
+import pavlik.pokladna.reactive.service.TransactionService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * RestController pro čtení transakcí přes neblokující API.
+ * Adresy, parametry i odpovědi odpovídají ApiTransactionController hlavní aplikace.
+ */
+@RestController
+@RequestMapping("/api/transactions")
+public class ApiTransactionController {
+
+    private final TransactionService transactionService;
+    private final BalanceHistoryService balanceHistoryService;
+
+    private final int maxHistoryPoints;
+
+    /**
+     * Konstruktor pro ApiTransactionController.
+     *
+     * @param transactionService    Služba pro čtení transakcí.
+     * @param balanceHistoryService Služba pro zjištění zůstatku k bodu v historii.
+     * @param maxHistoryPoints      Nejvyšší povolený počet bodů průběhu zůstatku.
+     */
+    @Autowired
+    public ApiTransactionController(TransactionService transactionService, BalanceHistoryService balanceHistoryService,
+                                    @Value("${pokladna.balance.history.max-points:5000}") int maxHistoryPoints) {
+        this.transactionService = transactionService;
+        this.balanceHistoryService = balanceHistoryService;
+        this.maxHistoryPoints = maxHistoryPoints;
+    }
+
+    /**
+     * Metoda pro získání posledních 20 transakcí přes API.
+     *
+     * @return ID a zůstatky posledních 20 transakcí seřazené vzestupně.
+     */
+    @GetMapping("/last20")
+    public Flux<TransactionSummary> getLast20Transactions() {
+        return balanceHistoryService.getLastBalances(20)
+                .map(point -> new TransactionSummary(point.getIdTransaction(), point.getBalance()));
+    }
+
+    /**
+     * Metoda pro získání stránky transakcí přes API se stránkováním podle klíče.
+     *
+     * @param before ID, před kterým stránka začíná (starší záznamy), nebo null.
+     * @param after  ID, za kterým stránka začíná (novější záznamy), nebo null.
+     * @param size   Velikost stránky (1 až {@link KeysetPage#MAX_SIZE}).
+     * @return Stránka transakcí s kurzory pro sousední stránky nebo 400 při neplatné velikosti stránky.
+     */
+    @GetMapping("/seek")
+    public Mono<ResponseEntity<KeysetPage<TransactionListItem>>> seek(@RequestParam(value = "before", required = false) Integer before,
+                                                                      @RequestParam(value = "after", required = false) Integer after,
+                                                                      @RequestParam(value = "size", defaultValue = "20") int size) {
+        return transactionService.getTransactionsKeyset(before, after, size)
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    /**
+     * Metoda pro získání zůstatku pokladny k bodu v historii přes API.
+     * Zadává se právě jeden z parametrů: ID transakce, okamžik (ISO 8601 s časovým pásmem) nebo den.
+     *
+     * @param transactionId ID transakce, po které se zůstatek zjišťuje.
+     * @param at            Okamžik, ke kterému se zůstatek zjišťuje.
+     * @param day           Den, na jehož konci se zůstatek zjišťuje.
+     * @return Zůstatek s ID a časem transakce, po které platí, nebo 400, pokud není zadán právě jeden parametr
+     * nebo zůstatek k zadanému okamžiku není znám (před prvním záznamem s časem zápisu).
+     */
+    @GetMapping("/balance")
+    public Mono<ResponseEntity<BalancePoint>> getBalance(@RequestParam(value = "transactionId", required = false) Integer transactionId,
+                                                         @RequestParam(value = "at", required = false)
+                                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime at,
+                                                         @RequestParam(value = "day", required = false)
+                                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day) {
+        int given = (transactionId != null ? 1 : 0) + (at != null ? 1 : 0) + (day != null ? 1 : 0);
+        if (given != 1) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        Mono<BalancePoint> point;
+        if (transactionId != null) {
+            point = balanceHistoryService.getBalanceAtTransaction(transactionId);
+        } else if (at != null) {
+            point = balanceHistoryService.getBalanceAt(at);
+        } else {
+            point = balanceHistoryService.getClosingBalance(day);
+        }
+        return point.map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    /**
+     * Metoda pro získání průběhu zůstatku pro graf přes API.
+     * Rozsah se zadává buď časem (from a to, ISO 8601 s časovým pásmem), nebo ID transakcí (fromId a toId, bez nich celá kniha).
+     *
+     * @param fromId Nejnižší ID transakce (včetně), nebo null.
+     * @param toId   Nejvyšší ID transakce (včetně), nebo null.
+     * @param from   Začátek období (včetně), nebo null.
+     * @param to     Konec období (včetně), nebo null.
+     * @param points Nejvyšší počet bodů.
+     * @return Body průběhu zůstatku seřazené podle ID transakce, nebo 400 při neplatném rozsahu nebo počtu bodů
+     * a při období začínajícím před prvním záznamem s časem zápisu.
+     */
+    @GetMapping("/balance-history")
+    public Mono<ResponseEntity<List<BalancePoint>>> getBalanceHistory(@RequestParam(value = "fromId", required = false) Integer fromId,
+                                                                      @RequestParam(value = "toId", required = false) Integer toId,
+                                                                      @RequestParam(value = "from", required = false)
+                                                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+                                                                      @RequestParam(value = "to", required = false)
+                                                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+                                                                      @RequestParam(value = "points", defaultValue = "500") int points) {
+        if (points < 4 || points > maxHistoryPoints) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        if (from != null || to != null) {
+            if (from == null || to == null || from.isAfter(to) || fromId != null || toId != null) {
+                return Mono.just(ResponseEntity.badRequest().build());
+            }
+            return balanceHistoryService.getHistoryByTime(from, to, points).map(ResponseEntity::ok)
+                    .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+        }
+        if (fromId != null && toId != null && fromId > toId) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return balanceHistoryService.getHistoryByIds(fromId, toId, points).map(ResponseEntity::ok);
+    }
+}
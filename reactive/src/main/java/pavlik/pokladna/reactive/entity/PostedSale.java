@@ -0,0 +1,43 @@
+package pavlik.pokladna.reactive.entity;
+
+/**
+ * Třída PostedSale představuje zapsanou tržbu a její záznam v knize transakcí.
+ */
+public class PostedSale {
+
+    private final int idSale;
+    private final int idTransaction;
+    private final int balanceBefore;
+    private final int balanceAfter;
+
+    /**
+     * Konstruktor pro zapsanou tržbu.
+     *
+     * @param idSale        ID tržby.
+     * @param idTransaction ID záznamu v knize transakcí.
+     * @param balanceBefore Zůstatek před tržbou.
+     * @param balanceAfter  Zůstatek po tržbě.
+     */
+    public PostedSale(int idSale, int idTransaction, int balanceBefore, int balanceAfter) {
+        this.idSale = idSale;
+        this.idTransaction = idTransaction;
+        this.balanceBefore = balanceBefore;
+        this.balanceAfter = balanceAfter;
+    }
+
+    public int getIdSale() {
+        return idSale;
+    }
+
+    public int getIdTransaction() {
+        return idTransaction;
+    }
+
+    public int getBalanceBefore() {
+        return balanceBefore;
+    }
+
+    public int getBalanceAfter() {
+        return balanceAfter;
+    }
+}
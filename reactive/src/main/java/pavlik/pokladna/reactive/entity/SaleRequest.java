@@ -0,0 +1,31 @@
+package pavlik.pokladna.reactive.entity;
+
+/**
+ * Třída SaleRequest představuje tržbu odeslanou pokladnou ve formátu JSON.
+ * Tržba se zapíše pod přihlášeným uživatelem.
+ */
+public class SaleRequest {
+
+    private Integer amount;
+    private String soldGoods;
+
+    public SaleRequest() {
+
+    }
+
+    public Integer getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Integer amount) {
+        this.amount = amount;
+    }
+
+    public String getSoldGoods() {
+        return soldGoods;
+    }
+
+    public void setSoldGoods(String soldGoods) {
+        this.soldGoods = soldGoods;
+    }
+}
@@ -0,0 +1,30 @@
+package pavlik.pokladna.reactive.entity;
+
+/**
+ * Třída TransactionSummary představuje souhrn transakce,
+ * včetně ID transakce a zůstatku po provedení transakce.
+ */
+public class TransactionSummary {
+
+    private final int idTransaction;
+    private final int balanceAfter;
+
+    /**
+     * Konstruktor pro souhrn transakce.
+     *
+     * @param idTransaction ID transakce.
+     * @param balanceAfter  Zůstatek po transakci.
+     */
+    public TransactionSummary(int idTransaction, int balanceAfter) {
+        this.idTransaction = idTransaction;
+        this.balanceAfter = balanceAfter;
+    }
+
+    public int getIdTransaction() {
+        return idTransaction;
+    }
+
+    public int getBalanceAfter() {
+        return balanceAfter;
+    }
+}
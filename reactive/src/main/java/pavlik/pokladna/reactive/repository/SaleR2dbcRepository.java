@@ -0,0 +1,56 @@
+package pavlik.pokladna.reactive.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import pavlik.pokladna.reactive.entity.PostedSale;
+import reactor.core.publisher.Mono;
+
+/**
+ * Neblokující zápis tržeb přes R2DBC.
+ * Tržba i její záznam v knize transakcí se zapíší jedním dotazem na databázovou funkci ledger_post_sale
+ * (src/main/resources/db/ledger-functions.sql hlavní aplikace), která drží zámek knihy transakcí
+ * a přičte záznam do denních souhrnů stejně jako zápisy hlavní aplikace.
+ */
+@Repository
+public class SaleR2dbcRepository {
+
+    private final DatabaseClient databaseClient;
+
+    private final String zone;
+
+    /**
+     * Konstruktor pro SaleR2dbcRepository.
+     *
+     * @param databaseClient DatabaseClient pro přístup k databázi.
+     * @param zone           Časové pásmo, ve kterém se určují hranice dnů denních souhrnů.
+     */
+    @Autowired
+    public SaleR2dbcRepository(DatabaseClient databaseClient, @Value("${pokladna.balance.zone:Europe/Prague}") String zone) {
+        this.databaseClient = databaseClient;
+        this.zone = zone;
+    }
+
+    /**
+     * Zapíše tržbu pod zadaným uživatelem.
+     *
+     * @param amount      Částka tržby.
+     * @param soldGoods   Prodané zboží.
+     * @param username    Uživatelské jméno pokladního.
+     * @param description Popis transakce.
+     * @return Zapsaná tržba s ID a zůstatky.
+     */
+    public Mono<PostedSale> postSale(int amount, String soldGoods, String username, String description) {
+        return databaseClient.sql("SELECT id_sale, id_transaction, balance_before, balance_after FROM ledger_post_sale(:amount, " +
+                        ":soldGoods, (SELECT id_user FROM users WHERE username = :username), :description, :zone)")
+                .bind("amount", amount)
+                .bind("soldGoods", soldGoods)
+                .bind("username", username)
+                .bind("description", description)
+                .bind("zone", zone)
+                .map(row -> new PostedSale(row.get("id_sale", Integer.class), row.get("id_transaction", Integer.class),
+                        row.get("balance_before", Integer.class), row.get("balance_after", Integer.class)))
+                .one();
+    }
+}
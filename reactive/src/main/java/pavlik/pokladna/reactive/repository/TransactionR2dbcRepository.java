@@ -0,0 +1,212 @@
+package pavlik.pokladna.reactive.repository;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import pavlik.pokladna.common.entity.BalancePoint;
+import pavlik.pokladna.common.entity.TransactionListItem;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Neblokující dotazy na knihu transakcí přes R2DBC.
+ * Dotazy odpovídají dotazům hlavní aplikace (TransactionRepositoryInterface a BalanceHistoryJdbcRepository).
+ */
+@Repository
+public class TransactionR2dbcRepository {
+
+    /**
+     * Dotaz na řádky výpisu transakcí - jen zobrazované sloupce, tržba a uživatel připojeny v jednom dotazu.
+     */
+    private static final String LIST_ITEM_QUERY = "SELECT t.id_transaction, t.description, t.amount, t.balance_before, " +
+            "t.balance_after, s.id_sale, s.sold_goods, u.id_user, u.username, t.deleted FROM financialtransaction t " +
+            "LEFT JOIN sales s ON s.id_sale = t.sale_id LEFT JOIN users u ON u.id_user = t.user_id";
+
+    private static final String POINT_COLUMNS = "SELECT id_transaction, created_at, balance_after FROM financialtransaction ";
+
+    private final DatabaseClient databaseClient;
+
+    private final int fetchSize;
+
+    /**
+     * Konstruktor pro TransactionR2dbcRepository.
+     *
+     * @param databaseClient DatabaseClient pro přístup k databázi.
+     * @param fetchSize      Počet řádků načítaných najednou při průchodu řadou zůstatků.
+     */
+    @Autowired
+    public TransactionR2dbcRepository(DatabaseClient databaseClient,
+                                      @Value("${pokladna.balance.history.fetch-size:1000}") int fetchSize) {
+        this.databaseClient = databaseClient;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Najde řádky výpisu transakcí s ID menším než kurzor, seřazené sestupně.
+     *
+     * @param idTransaction Kurzor (exkluzivně).
+     * @param limit         Nejvyšší počet řádků.
+     * @return Řádky výpisu starší než kurzor.
+     */
+    public Flux<TransactionListItem> findListItemsBefore(int idTransaction, int limit) {
+        return databaseClient.sql(LIST_ITEM_QUERY + " WHERE t.id_transaction < :idTransaction ORDER BY t.id_transaction DESC LIMIT :limit")
+                .bind("idTransaction", idTransaction)
+                .bind("limit", limit)
+                .map(TransactionR2dbcRepository::mapListItem)
+                .all();
+    }
+
+    /**
+     * Najde řádky výpisu transakcí s ID větším než kurzor, seřazené vzestupně.
+     *
+     * @param idTransaction Kurzor (exkluzivně).
+     * @param limit         Nejvyšší počet řádků.
+     * @return Řádky výpisu novější než kurzor.
+     */
+    public Flux<TransactionListItem> findListItemsAfter(int idTransaction, int limit) {
+        return databaseClient.sql(LIST_ITEM_QUERY + " WHERE t.id_transaction > :idTransaction ORDER BY t.id_transaction LIMIT :limit")
+                .bind("idTransaction", idTransaction)
+                .bind("limit", limit)
+                .map(TransactionR2dbcRepository::mapListItem)
+                .all();
+    }
+
+    /**
+     * Najde poslední záznam s ID menším nebo rovným zadanému.
+     *
+     * @param idTransaction ID transakce.
+     * @return Zůstatek po nalezeném záznamu, nebo prázdný Mono, pokud žádný takový záznam neexistuje.
+     */
+    public Mono<BalancePoint> findAtTransaction(int idTransaction) {
+        return databaseClient.sql(POINT_COLUMNS + "WHERE id_transaction <= :idTransaction ORDER BY id_transaction DESC LIMIT 1")
+                .bind("idTransaction", idTransaction)
+                .map(TransactionR2dbcRepository::mapPoint)
+                .one();
+    }
+
+    /**
+     * Najde poslední záznam zapsaný před zadaným okamžikem (exkluzivně).
+     *
+     * @param before Okamžik.
+     * @return Zůstatek po nalezeném záznamu, nebo prázdný Mono, pokud žádný takový záznam neexistuje.
+     */
+    public Mono<BalancePoint> findBefore(OffsetDateTime before) {
+        return databaseClient.sql(POINT_COLUMNS + "WHERE created_at < :before ORDER BY created_at DESC, id_transaction DESC LIMIT 1")
+                .bind("before", before)
+                .map(TransactionR2dbcRepository::mapPoint)
+                .one();
+    }
+
+    /**
+     * Najde poslední záznam zapsaný nejpozději v zadaném okamžiku (včetně).
+     *
+     * @param at Okamžik.
+     * @return Zůstatek po nalezeném záznamu, nebo prázdný Mono, pokud žádný takový záznam neexistuje.
+     */
+    public Mono<BalancePoint> findAtOrBefore(OffsetDateTime at) {
+        return databaseClient.sql(POINT_COLUMNS + "WHERE created_at <= :at ORDER BY created_at DESC, id_transaction DESC LIMIT 1")
+                .bind("at", at)
+                .map(TransactionR2dbcRepository::mapPoint)
+                .one();
+    }
+
+    /**
+     * Zjistí, zda kniha transakcí obsahuje záznamy bez času zápisu (zapsané před zavedením sloupce created_at).
+     *
+     * @return Zda existuje záznam bez času zápisu.
+     */
+    public Mono<Boolean> hasEntriesWithoutTime() {
+        return databaseClient.sql("SELECT EXISTS (SELECT 1 FROM financialtransaction WHERE created_at IS NULL) AS missing")
+                .map(row -> Boolean.TRUE.equals(row.get("missing", Boolean.class)))
+                .one();
+    }
+
+    /**
+     * Vrátí nejstarší známý čas zápisu.
+     *
+     * @return Nejstarší čas zápisu, nebo prázdný Mono, pokud žádný záznam čas zápisu nemá.
+     */
+    public Mono<OffsetDateTime> findEarliestTime() {
+        return databaseClient.sql("SELECT MIN(created_at) AS earliest FROM financialtransaction HAVING MIN(created_at) IS NOT NULL")
+                .map(row -> row.get("earliest", OffsetDateTime.class))
+                .one();
+    }
+
+    /**
+     * Vrátí posledních několik záznamů bez načtení celých řádků.
+     *
+     * @param limit Počet záznamů.
+     * @return Záznamy seřazené vzestupně podle ID.
+     */
+    public Flux<BalancePoint> findLast(int limit) {
+        return databaseClient.sql("SELECT * FROM (" + POINT_COLUMNS + "ORDER BY id_transaction DESC LIMIT :limit) last ORDER BY id_transaction")
+                .bind("limit", limit)
+                .map(TransactionR2dbcRepository::mapPoint)
+                .all();
+    }
+
+    /**
+     * Vrátí nejnižší a nejvyšší ID v zadaném rozsahu.
+     *
+     * @param fromId Nejnižší ID (včetně).
+     * @param toId   Nejvyšší ID (včetně).
+     * @return Dvojice [nejnižší, nejvyšší], nebo prázdný Mono, pokud rozsah neobsahuje žádný záznam.
+     */
+    public Mono<int[]> findIdBounds(int fromId, int toId) {
+        return databaseClient.sql("SELECT MIN(id_transaction) AS min_id, MAX(id_transaction) AS max_id FROM financialtransaction " +
+                        "WHERE id_transaction BETWEEN :fromId AND :toId HAVING COUNT(*) > 0")
+                .bind("fromId", fromId)
+                .bind("toId", toId)
+                .map(row -> new int[]{row.get("min_id", Integer.class), row.get("max_id", Integer.class)})
+                .one();
+    }
+
+    /**
+     * Projde zůstatky po záznamech s ID v zadaném rozsahu seřazené podle ID.
+     * Řádky se čtou z kurzoru po částech podle poptávky odběratele.
+     *
+     * @param fromId Nejnižší ID (včetně).
+     * @param toId   Nejvyšší ID (včetně).
+     * @return Body řady zůstatků.
+     */
+    public Flux<BalancePoint> streamByIds(int fromId, int toId) {
+        return databaseClient.sql(POINT_COLUMNS + "WHERE id_transaction BETWEEN :fromId AND :toId ORDER BY id_transaction")
+                .bind("fromId", fromId)
+                .bind("toId", toId)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(TransactionR2dbcRepository::mapPoint)
+                .all();
+    }
+
+    /**
+     * Projde zůstatky po záznamech zapsaných v zadaném období seřazené podle času zápisu.
+     *
+     * @param from Začátek období (včetně).
+     * @param to   Konec období (včetně).
+     * @return Body řady zůstatků.
+     */
+    public Flux<BalancePoint> streamByTime(OffsetDateTime from, OffsetDateTime to) {
+        return databaseClient.sql(POINT_COLUMNS + "WHERE created_at BETWEEN :from AND :to ORDER BY created_at, id_transaction")
+                .bind("from", from)
+                .bind("to", to)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(TransactionR2dbcRepository::mapPoint)
+                .all();
+    }
+
+    private static TransactionListItem mapListItem(Readable row) {
+        return new TransactionListItem(row.get("id_transaction", Integer.class), row.get("description", String.class),
+                row.get("amount", Integer.class), row.get("balance_before", Integer.class), row.get("balance_after", Integer.class),
+                row.get("id_sale", Integer.class), row.get("sold_goods", String.class), row.get("id_user", Integer.class),
+                row.get("username", String.class), Boolean.TRUE.equals(row.get("deleted", Boolean.class)));
+    }
+
+    private static BalancePoint mapPoint(Readable row) {
+        return new BalancePoint(row.get("id_transaction", Integer.class), row.get("created_at", OffsetDateTime.class),
+                row.get("balance_after", Integer.class));
+    }
+}
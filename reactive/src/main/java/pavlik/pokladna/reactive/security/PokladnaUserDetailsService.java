@@ -0,0 +1,74 @@
+package pavlik.pokladna.reactive.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Načítání uživatelů pro přihlášení bez blokování vláken.
+ * Uživatel i jeho oprávnění se načtou jedním dotazem jako v hlavní aplikaci.
+ * Hesla spravuje hlavní aplikace, zde se jen ověřují.
+ */
+@Service
+public class PokladnaUserDetailsService implements ReactiveUserDetailsService {
+
+    private static final String USER_WITH_AUTHORITIES = """
+            SELECT u.username, u.password, u.enabled, a.authority
+            FROM public.users u
+            LEFT JOIN public.authorities a ON a.username = u.username
+            WHERE u.username = :username
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Konstruktor pro PokladnaUserDetailsService.
+     *
+     * @param databaseClient DatabaseClient pro přístup k databázi.
+     */
+    @Autowired
+    public PokladnaUserDetailsService(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Načte uživatele s heslem a oprávněními.
+     *
+     * @param username Uživatelské jméno.
+     * @return Uživatel, nebo prázdný Mono, pokud uživatel neexistuje nebo nemá žádné oprávnění.
+     */
+    @Override
+    public Mono<UserDetails> findByUsername(String username) {
+        return databaseClient.sql(USER_WITH_AUTHORITIES)
+                .bind("username", username)
+                .fetch()
+                .all()
+                .collectList()
+                .flatMap(rows -> {
+                    List<String> authorities = new ArrayList<>();
+                    for (Map<String, Object> row : rows) {
+                        Object authority = row.get("authority");
+                        if (authority != null) {
+                            authorities.add((String) authority);
+                        }
+                    }
+                    if (authorities.isEmpty()) {
+                        return Mono.empty();
+                    }
+                    Map<String, Object> user = rows.get(0);
+                    return Mono.just(User.withUsername((String) user.get("username"))
+                            .password((String) user.get("password"))
+                            .disabled(((Number) user.get("enabled")).intValue() == 0)
+                            .authorities(authorities.toArray(String[]::new))
+                            .build());
+                });
+    }
+}
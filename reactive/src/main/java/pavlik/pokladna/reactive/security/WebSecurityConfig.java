@@ -0,0 +1,53 @@
+package pavlik.pokladna.reactive.security;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+import java.util.Map;
+
+@Configuration
+@EnableWebFluxSecurity
+public class WebSecurityConfig {
+
+    // pokladny volaji API bez prohlizece - HTTP Basic u kazdeho pozadavku, bez session a CSRF tokenu
+
+    @Bean
+    public SecurityWebFilterChain filterChain(ServerHttpSecurity http) {
+        http.authorizeExchange(configurer ->
+                        configurer
+                                .pathMatchers(HttpMethod.POST, "/api/sales").hasAnyRole("EMPLOYEE")
+                                .anyExchange().authenticated()
+                )
+                .httpBasic(Customizer.withDefaults())
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance());
+
+        return http.build();
+    }
+
+    /**
+     * Ověřování hesel uložených hlavní aplikací (bcrypt, starší {@code {noop}}).
+     * Hash se počítá mimo vlákna event loop (výchozí plánovač ověřování je boundedElastic).
+     *
+     * @return Kódování hesel.
+     */
+    @Bean
+    // NoOpPasswordEncoder jen pro overeni starsich hesel {noop}, nova hesla zde nevznikaji
+    @SuppressWarnings("deprecation")
+    public PasswordEncoder passwordEncoder() {
+        return new DelegatingPasswordEncoder("bcrypt", Map.of(
+                "bcrypt", new BCryptPasswordEncoder(),
+                "noop", NoOpPasswordEncoder.getInstance()));
+    }
+}
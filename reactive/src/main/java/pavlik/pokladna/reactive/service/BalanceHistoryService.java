@@ -0,0 +1,137 @@
+package pavlik.pokladna.reactive.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import pavlik.pokladna.common.entity.BalancePoint;
+import pavlik.pokladna.common.service.BalanceDownsampler;
+import pavlik.pokladna.reactive.repository.TransactionR2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Služba pro zjištění zůstatku pokladny k bodu v historii a průběhu zůstatku bez blokování vláken.
+ * Zůstatek k okamžiku před prvním záznamem s časem zápisu není znám (starší záznamy mají čas null),
+ * takový dotaz skončí chybou IllegalArgumentException.
+ */
+@Service
+public class BalanceHistoryService {
+
+    private final TransactionR2dbcRepository transactionRepository;
+
+    private final ZoneId zone;
+
+    /**
+     * Konstruktor pro BalanceHistoryService.
+     *
+     * @param transactionRepository Repozitář pro knihu transakcí.
+     * @param zone                  Časové pásmo, ve kterém se určují hranice dnů.
+     */
+    @Autowired
+    public BalanceHistoryService(TransactionR2dbcRepository transactionRepository,
+                                 @Value("${pokladna.balance.zone:Europe/Prague}") ZoneId zone) {
+        this.transactionRepository = transactionRepository;
+        this.zone = zone;
+    }
+
+    /**
+     * Vrátí zůstatek po zadané transakci, případně po nejbližší starší transakci.
+     *
+     * @param idTransaction ID transakce.
+     * @return Zůstatek po transakci.
+     */
+    public Mono<BalancePoint> getBalanceAtTransaction(int idTransaction) {
+        return transactionRepository.findAtTransaction(idTransaction).defaultIfEmpty(BalancePoint.empty());
+    }
+
+    /**
+     * Vrátí zůstatek po poslední transakci zapsané nejpozději v zadaném okamžiku.
+     *
+     * @param at Okamžik.
+     * @return Zůstatek v daném okamžiku.
+     */
+    public Mono<BalancePoint> getBalanceAt(OffsetDateTime at) {
+        return orEmptyIfKnown(transactionRepository.findAtOrBefore(at));
+    }
+
+    /**
+     * Vrátí zůstatek na konci zadaného dne.
+     *
+     * @param day Den v nastaveném časovém pásmu.
+     * @return Zůstatek na konci dne.
+     */
+    public Mono<BalancePoint> getClosingBalance(LocalDate day) {
+        OffsetDateTime nextDayStart = day.plusDays(1).atStartOfDay(zone).toOffsetDateTime();
+        return orEmptyIfKnown(transactionRepository.findBefore(nextDayStart));
+    }
+
+    /**
+     * Vrátí zůstatky po posledních transakcích.
+     *
+     * @param count Počet transakcí.
+     * @return Zůstatky seřazené vzestupně podle ID transakce.
+     */
+    public Flux<BalancePoint> getLastBalances(int count) {
+        return transactionRepository.findLast(count);
+    }
+
+    /**
+     * Vrátí průběh zůstatku po transakcích v rozsahu ID zmenšený na nejvýše zadaný počet bodů.
+     *
+     * @param fromId    Nejnižší ID (včetně), nebo null pro začátek knihy transakcí.
+     * @param toId      Nejvyšší ID (včetně), nebo null pro konec knihy transakcí.
+     * @param maxPoints Nejvyšší počet bodů výsledku.
+     * @return Body průběhu zůstatku seřazené podle ID transakce.
+     */
+    public Mono<List<BalancePoint>> getHistoryByIds(Integer fromId, Integer toId, int maxPoints) {
+        return transactionRepository.findIdBounds(fromId != null ? fromId : Integer.MIN_VALUE, toId != null ? toId : Integer.MAX_VALUE)
+                .flatMap(bounds -> {
+                    BalanceDownsampler downsampler = new BalanceDownsampler(bounds[0], bounds[1], maxPoints);
+                    return transactionRepository.streamByIds(bounds[0], bounds[1])
+                            .doOnNext(point -> downsampler.add(point.getIdTransaction(), point))
+                            .then(Mono.fromSupplier(downsampler::result));
+                })
+                .defaultIfEmpty(List.of());
+    }
+
+    /**
+     * Vrátí průběh zůstatku v období zmenšený na nejvýše zadaný počet bodů.
+     *
+     * @param from      Začátek období (včetně).
+     * @param to        Konec období (včetně).
+     * @param maxPoints Nejvyšší počet bodů výsledku.
+     * @return Body průběhu zůstatku seřazené podle ID transakce.
+     */
+    public Mono<List<BalancePoint>> getHistoryByTime(OffsetDateTime from, OffsetDateTime to, int maxPoints) {
+        Mono<Void> known = transactionRepository.hasEntriesWithoutTime()
+                .filter(Boolean::booleanValue)
+                .flatMap(missing -> transactionRepository.findEarliestTime()
+                        .filter(earliest -> !from.isBefore(earliest))
+                        .switchIfEmpty(unknownBefore()))
+                .then();
+        return known.then(Mono.defer(() -> {
+            BalanceDownsampler downsampler = new BalanceDownsampler(0, ChronoUnit.MICROS.between(from, to), maxPoints);
+            return transactionRepository.streamByTime(from, to)
+                    .doOnNext(point -> downsampler.add(ChronoUnit.MICROS.between(from, point.getCreatedAt()), point))
+                    .then(Mono.fromSupplier(downsampler::result));
+        }));
+    }
+
+    /**
+     * Prázdný výsledek znamená nulový zůstatek jen tehdy, pokud kniha nemá záznamy bez času zápisu.
+     */
+    private Mono<BalancePoint> orEmptyIfKnown(Mono<BalancePoint> point) {
+        return point.switchIfEmpty(transactionRepository.hasEntriesWithoutTime()
+                .flatMap(missing -> missing ? unknownBefore() : Mono.just(BalancePoint.empty())));
+    }
+
+    private <T> Mono<T> unknownBefore() {
+        return Mono.error(new IllegalArgumentException("Zůstatek není znám, starší záznamy knihy transakcí nemají čas zápisu."));
+    }
+}
@@ -0,0 +1,125 @@
+package pavlik.pokladna.reactive.service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Stránka záznamů seřazených sestupně podle ID, načtená podle klíče (keyset / seek).
+ * Stejné kurzory a stejný tvar odpovědi jako KeysetPage hlavní aplikace, dotazy se ale skládají neblokujícím způsobem.
+ *
+ * @param <T> Typ záznamů na stránce.
+ */
+public class KeysetPage<T> {
+
+    /**
+     * Kurzor pro nejstarší stránku.
+     */
+    public static final int OLDEST = Integer.MIN_VALUE;
+
+    /**
+     * Nejvyšší povolená velikost stránky.
+     */
+    public static final int MAX_SIZE = 200;
+
+    private final List<T> items;
+    private final int size;
+    private final boolean hasNewer;
+    private final boolean hasOlder;
+    private final Integer newerCursor;
+    private final Integer olderCursor;
+
+    private KeysetPage(List<T> items, int size, boolean hasNewer, boolean hasOlder, Integer newerCursor, Integer olderCursor) {
+        this.items = items;
+        this.size = size;
+        this.hasNewer = hasNewer;
+        this.hasOlder = hasOlder;
+        this.newerCursor = newerCursor;
+        this.olderCursor = olderCursor;
+    }
+
+    /**
+     * Načte stránku záznamů podle kurzoru.
+     * Bez kurzoru se vrátí nejnovější stránka, s kurzorem {@code before} stránka starších záznamů,
+     * s kurzorem {@code after} stránka novějších záznamů.
+     *
+     * @param before     ID, před kterým stránka začíná (exkluzivně), nebo null.
+     * @param after      ID, za kterým stránka začíná (exkluzivně), nebo null.
+     * @param size       Počet záznamů na stránce (1 až {@link #MAX_SIZE}).
+     * @param olderQuery Dotaz na záznamy s ID menším než kurzor seřazené sestupně (kurzor, nejvyšší počet).
+     * @param newerQuery Dotaz na záznamy s ID větším než kurzor seřazené vzestupně (kurzor, nejvyšší počet).
+     * @param idOf       Získání ID záznamu.
+     * @param <T>        Typ záznamů.
+     * @return Stránka záznamů seřazených sestupně podle ID.
+     */
+    public static <T> Mono<KeysetPage<T>> seek(Integer before, Integer after, int size,
+                                               BiFunction<Integer, Integer, Flux<T>> olderQuery,
+                                               BiFunction<Integer, Integer, Flux<T>> newerQuery,
+                                               ToIntFunction<T> idOf) {
+        if (size < 1 || size > MAX_SIZE) {
+            return Mono.error(new IllegalArgumentException("Velikost stránky musí být od 1 do " + MAX_SIZE + "."));
+        }
+
+        if (after != null) {
+            // o jeden zaznam vic, aby bylo poznat, zda existuje dalsi stranka
+            return newerQuery.apply(after, size + 1).collectList().flatMap(rows -> {
+                if (rows.isEmpty()) {
+                    return seek(null, null, size, olderQuery, newerQuery, idOf);
+                }
+                boolean hasNewer = rows.size() > size;
+                List<T> page = new ArrayList<>(rows.subList(0, Math.min(size, rows.size())));
+                Collections.reverse(page);
+                return Mono.just(of(page, size, hasNewer, after != OLDEST, idOf));
+            });
+        }
+
+        return olderQuery.apply(before != null ? before : Integer.MAX_VALUE, size + 1).collectList().flatMap(rows -> {
+            if (rows.isEmpty() && before != null) {
+                return seek(null, OLDEST, size, olderQuery, newerQuery, idOf);
+            }
+            boolean hasOlder = rows.size() > size;
+            return Mono.just(of(hasOlder ? rows.subList(0, size) : rows, size, before != null, hasOlder, idOf));
+        });
+    }
+
+    private static <T> KeysetPage<T> of(List<T> rows, int size, boolean hasNewer, boolean hasOlder, ToIntFunction<T> idOf) {
+        Integer newerCursor = rows.isEmpty() ? null : idOf.applyAsInt(rows.get(0));
+        Integer olderCursor = rows.isEmpty() ? null : idOf.applyAsInt(rows.get(rows.size() - 1));
+        return new KeysetPage<>(List.copyOf(rows), size, hasNewer, hasOlder, newerCursor, olderCursor);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isHasNewer() {
+        return hasNewer;
+    }
+
+    public boolean isHasOlder() {
+        return hasOlder;
+    }
+
+    /**
+     * @return ID prvního (nejnovějšího) záznamu stránky - kurzor {@code after} pro novější stránku.
+     */
+    public Integer getNewerCursor() {
+        return newerCursor;
+    }
+
+    /**
+     * @return ID posledního (nejstaršího) záznamu stránky - kurzor {@code before} pro starší stránku.
+     */
+    public Integer getOlderCursor() {
+        return olderCursor;
+    }
+}
@@ -0,0 +1,57 @@
+package pavlik.pokladna.reactive.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import pavlik.pokladna.reactive.entity.PostedSale;
+import pavlik.pokladna.reactive.entity.SaleRequest;
+import pavlik.pokladna.reactive.repository.SaleR2dbcRepository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Služba pro zápis tržeb bez blokování vláken.
+ * Hlavní aplikace se o těchto zápisech nedozví hned (nevzniká v ní událost o zápisu do knihy transakcí):
+ * připojené obrazovky je nedostanou a zůstatek a počty záznamů v její paměti se opraví až při pravidelné
+ * kontrole proti databázi.
+ */
+@Service
+public class SaleService {
+
+    private static final int SOLD_GOODS_MAX_LENGTH = 255;
+
+    private final SaleR2dbcRepository saleRepository;
+
+    /**
+     * Konstruktor pro SaleService.
+     *
+     * @param saleRepository Repozitář pro tržby.
+     */
+    @Autowired
+    public SaleService(SaleR2dbcRepository saleRepository) {
+        this.saleRepository = saleRepository;
+    }
+
+    /**
+     * Zapíše tržbu a její záznam v knize transakcí pod přihlášeným uživatelem.
+     * Popis transakce je stejný jako u tržeb zapsaných hlavní aplikací.
+     *
+     * @param sale     Tržba od pokladny.
+     * @param username Uživatelské jméno přihlášeného pokladního.
+     * @return Zapsaná tržba, nebo chyba IllegalArgumentException, pokud tržba není platná.
+     */
+    public Mono<PostedSale> addSaleWithTransaction(SaleRequest sale, String username) {
+        if (sale.getAmount() == null) {
+            return Mono.error(new IllegalArgumentException("Chybí částka."));
+        }
+        if (sale.getAmount() <= 0) {
+            return Mono.error(new IllegalArgumentException("Částka musí být kladná."));
+        }
+        String soldGoods = sale.getSoldGoods();
+        if (soldGoods == null || soldGoods.isBlank()) {
+            return Mono.error(new IllegalArgumentException("Chybí prodané zboží."));
+        }
+        if (soldGoods.length() > SOLD_GOODS_MAX_LENGTH) {
+            return Mono.error(new IllegalArgumentException("Prodané zboží je delší než " + SOLD_GOODS_MAX_LENGTH + " znaků."));
+        }
+        return saleRepository.postSale(sale.getAmount(), soldGoods, username, "Nová tržba - prodané zboží: " + soldGoods);
+    }
+}
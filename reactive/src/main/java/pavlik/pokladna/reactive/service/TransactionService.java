@@ -0,0 +1,39 @@
+package pavlik.pokladna.reactive.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import pavlik.pokladna.common.entity.TransactionListItem;
+import pavlik.pokladna.reactive.repository.TransactionR2dbcRepository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Služba pro čtení transakcí bez blokování vláken.
+ */
+@Service
+public class TransactionService {
+
+    private final TransactionR2dbcRepository transactionRepository;
+
+    /**
+     * Konstruktor pro TransactionService.
+     *
+     * @param transactionRepository Repozitář pro knihu transakcí.
+     */
+    @Autowired
+    public TransactionService(TransactionR2dbcRepository transactionRepository) {
+        this.transactionRepository = transactionRepository;
+    }
+
+    /**
+     * Načte stránku řádků výpisu transakcí podle kurzoru.
+     *
+     * @param before ID, před kterým stránka začíná, nebo null.
+     * @param after  ID, za kterým stránka začíná, nebo null.
+     * @param size   Velikost stránky.
+     * @return Stránka transakcí s kurzory pro sousední stránky.
+     */
+    public Mono<KeysetPage<TransactionListItem>> getTransactionsKeyset(Integer before, Integer after, int size) {
+        return KeysetPage.seek(before, after, size, transactionRepository::findListItemsBefore,
+                transactionRepository::findListItemsAfter, TransactionListItem::getIdTransaction);
+    }
+}
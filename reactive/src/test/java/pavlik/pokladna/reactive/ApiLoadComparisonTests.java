@@ -0,0 +1,178 @@
+package pavlik.pokladna.reactive;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import pavlik.pokladna.common.test.LatencyBenchmark;
+import pavlik.pokladna.common.test.LedgerTestData;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Porovnání neblokujícího API s API hlavní aplikace (servlet, JDBC) při vysokém počtu souběžných pokladen.
+ * Obě aplikace pracují nad stejnou databází, hlavní aplikace musí běžet na {@code pokladna.benchmark.servlet-url}
+ * s nízkou náročností bcrypt, aby se neměřilo ověřování hesla u každého požadavku:
+ * <pre>
+ * mvn spring-boot:run -Dspring-boot.run.arguments=--pokladna.security.bcrypt.strength=4
+ * mvn -f reactive/pom.xml test -Dtest=ApiLoadComparisonTests -Dbenchmark=true
+ * </pre>
+ * Uživatel testu, jeho tržby a záznamy knihy transakcí se po testu smažou. Hlavní aplikace drží zůstatek a počty řádků
+ * v paměti, smazání zjistí až při další kontrole s databází.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ApiLoadComparisonTests {
+
+	private static final String PASSWORD = "heslo";
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private DatabaseClient databaseClient;
+
+	@Autowired
+	private TransactionalOperator transactionalOperator;
+
+	@Value("${pokladna.benchmark.servlet-url:http://localhost:8080}")
+	private String servletUrl;
+
+	@Value("${pokladna.benchmark.clients:1000}")
+	private int clients;
+
+	@Value("${pokladna.benchmark.requests:10000}")
+	private int requests;
+
+	private int transactionMark;
+
+	private int saleMark;
+
+	private String username;
+
+	@BeforeEach
+	public void markData() {
+		transactionMark = databaseClient.sql(LedgerTestData.TRANSACTION_MARK).map(row -> row.get(0, Integer.class)).one().block();
+		saleMark = databaseClient.sql(LedgerTestData.SALE_MARK).map(row -> row.get(0, Integer.class)).one().block();
+	}
+
+	@AfterEach
+	public void removeData() {
+		if (username == null) {
+			return;
+		}
+		Mono<Void> cleanup = databaseClient.sql(LedgerTestData.LOCK_LEDGER).then()
+				.then(bindTestData(LedgerTestData.FOREIGN_ROWS).map(row -> row.get(0, Long.class)).one())
+				.flatMap(foreignRows -> foreignRows > 0
+						? Mono.<Void>error(new IllegalStateException("Do knihy transakcí zapsal během testu i jiný uživatel ("
+						+ foreignRows + " záznamů), data testu " + username + " zůstávají v databázi."))
+						: Mono.<Void>empty())
+				.thenMany(Flux.fromIterable(LedgerTestData.DELETE).concatMap(sql -> bindTestData(sql).then()))
+				.then();
+		transactionalOperator.transactional(cleanup).block();
+		username = null;
+	}
+
+	/**
+	 * Stejná zátěž proti oběma API: každý čtvrtý požadavek zapíše tržbu, ostatní čtou stránku transakcí
+	 * a posledních 20 zůstatků. Vypíše propustnost, dobu odezvy (p50, p99) a počet chyb.
+	 */
+	@Test
+	public void compareServletAndReactiveApi() throws Exception {
+		String authorization = createUser();
+		HttpClient client = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(10))
+				.build();
+
+		// hlavni aplikace nema zapis jedne trzby v JSON, jedna trzba jde pres hromadne nahrani (NDJSON)
+		int servletErrors = run("servlet", client, List.of(
+				get(servletUrl + "/api/transactions/seek?size=20", authorization),
+				get(servletUrl + "/api/transactions/last20", authorization),
+				get(servletUrl + "/api/transactions/seek?size=20", authorization),
+				post(servletUrl + "/api/sales/bulk", "application/x-ndjson",
+						"{\"amount\": 100, \"soldGoods\": \"zatez\"}\n", authorization)));
+
+		String reactiveUrl = "http://localhost:" + port;
+		int reactiveErrors = run("reactive", client, List.of(
+				get(reactiveUrl + "/api/transactions/seek?size=20", authorization),
+				get(reactiveUrl + "/api/transactions/last20", authorization),
+				get(reactiveUrl + "/api/transactions/seek?size=20", authorization),
+				post(reactiveUrl + "/api/sales", "application/json",
+						"{\"amount\": 100, \"soldGoods\": \"zatez\"}", authorization)));
+
+		assertEquals(0, reactiveErrors, "Neúspěšné požadavky na neblokující API");
+		assertEquals(0, servletErrors, "Neúspěšné požadavky na API hlavní aplikace");
+	}
+
+	private String createUser() {
+		username = "reactive-benchmark-" + System.nanoTime();
+		// heslo s nizkou narocnosti - hlavni aplikace s pokladna.security.bcrypt.strength=4 ho neprevadi
+		String password = "{bcrypt}" + new BCryptPasswordEncoder(4).encode(PASSWORD);
+		databaseClient.sql("INSERT INTO users (id_user, username, password, enabled, role) " +
+						"VALUES (nextval('users_id_user_seq'), :username, :password, 1, 'EMPLOYEE')")
+				.bind("username", username)
+				.bind("password", password)
+				.then()
+				.block();
+		databaseClient.sql("INSERT INTO authorities (id_authority, username, authority) " +
+						"VALUES (nextval('authorities_id_authority_seq'), :username, 'ROLE_EMPLOYEE')")
+				.bind("username", username)
+				.then()
+				.block();
+		return "Basic " + Base64.getEncoder().encodeToString((username + ":" + PASSWORD).getBytes(StandardCharsets.UTF_8));
+	}
+
+	private int run(String api, HttpClient client, List<HttpRequest> mix) throws Exception {
+		LatencyBenchmark.Result result = LatencyBenchmark.run(clients, requests, index -> {
+			int status = client.send(mix.get(index % mix.size()), HttpResponse.BodyHandlers.discarding()).statusCode();
+			return status >= 200 && status < 300;
+		});
+		System.out.println("API: " + api + ", " + result);
+		return result.failed();
+	}
+
+	private DatabaseClient.GenericExecuteSpec bindTestData(String sql) {
+		DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql);
+		if (sql.contains(":transactionMark")) {
+			spec = spec.bind("transactionMark", transactionMark);
+		}
+		if (sql.contains(":saleMark")) {
+			spec = spec.bind("saleMark", saleMark);
+		}
+		if (sql.contains(":usernames")) {
+			spec = spec.bind("usernames", List.of(username));
+		}
+		return spec;
+	}
+
+	private static HttpRequest get(String url, String authorization) {
+		return HttpRequest.newBuilder(URI.create(url)).header("Authorization", authorization).GET().build();
+	}
+
+	private static HttpRequest post(String url, String contentType, String body, String authorization) {
+		return HttpRequest.newBuilder(URI.create(url))
+				.header("Authorization", authorization)
+				.header("Content-Type", contentType)
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.build();
+	}
+}
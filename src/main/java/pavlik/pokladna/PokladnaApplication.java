@@ -2,6 +2,7 @@ package pavlik.pokladna;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Hlavní třída aplikace Pokladna. Tato třída obsahuje metodu {@link #main(String[])},
@@ -11,6 +12,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  *  @version 1.0
  */
 @SpringBootApplication(scanBasePackages = "pavlik.pokladna")
+@EnableScheduling
 public class PokladnaApplication {
 
     /**
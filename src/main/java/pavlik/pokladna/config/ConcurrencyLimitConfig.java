@@ -0,0 +1,78 @@
+package pavlik.pokladna.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Omezení souběžných požadavků na tržby a transakce podle velikosti fronty spojení do databáze.
+ * Zapíná se vlastností {@code pokladna.web.limiter.enabled} (profil {@code virtual-threads}).
+ * Na platformních vláknech požadavky omezuje už velikost fronty vláken Tomcatu, na virtuálních vláknech
+ * by bez omezení všechny požadavky najednou čekaly ve frontě Hikari na spojení.
+ */
+@Configuration
+@ConditionalOnProperty(name = "pokladna.web.limiter.enabled", havingValue = "true")
+public class ConcurrencyLimitConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitConfig.class);
+
+    /**
+     * Registrace filtru omezujícího souběžné požadavky.
+     * Filtr běží před Spring Security, protože i ověření uživatele může potřebovat spojení do databáze.
+     *
+     * @param maxConcurrent    Nejvyšší počet souběžných požadavků, 0 pro velikost fronty spojení.
+     * @param poolSize         Nejvyšší počet spojení do databáze (Hikari).
+     * @param acquireTimeoutMs Nejdelší doba čekání požadavku na zpracování (ms).
+     * @param urlPatterns      Adresy, na které se omezení vztahuje.
+     * @return Registrace filtru.
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            @Value("${pokladna.web.limiter.max-concurrent:0}") int maxConcurrent,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${pokladna.web.limiter.acquire-timeout-ms:2000}") long acquireTimeoutMs,
+            @Value("${pokladna.web.limiter.url-patterns:/sales/*,/transactions/*,/api/transactions/*,/api/sales/*}") String[] urlPatterns) {
+        int limit = maxConcurrent > 0 ? maxConcurrent : poolSize;
+        logger.info("Souběžné požadavky na {} jsou omezeny na {} (spojení do databáze: {}).",
+                String.join(", ", urlPatterns), limit, poolSize);
+
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(limit, acquireTimeoutMs));
+        registration.addUrlPatterns(urlPatterns);
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
+    /**
+     * Metriky omezení - obsazená místa, čekající a odmítnuté požadavky.
+     *
+     * @param registration Registrace filtru omezujícího souběžné požadavky.
+     * @return Registrace metrik.
+     */
+    @Bean
+    public MeterBinder concurrencyLimitMetrics(FilterRegistrationBean<ConcurrencyLimitFilter> registration) {
+        ConcurrencyLimitFilter filter = registration.getFilter();
+        return registry -> {
+            Gauge.builder("pokladna.web.limiter.limit", filter, ConcurrencyLimitFilter::getMaxConcurrent)
+                    .description("Nejvyšší počet souběžných požadavků")
+                    .register(registry);
+            Gauge.builder("pokladna.web.limiter.active", filter, ConcurrencyLimitFilter::getActive)
+                    .description("Počet právě zpracovávaných požadavků")
+                    .register(registry);
+            Gauge.builder("pokladna.web.limiter.waiting", filter, ConcurrencyLimitFilter::getWaiting)
+                    .description("Počet požadavků čekajících na zpracování")
+                    .register(registry);
+            FunctionCounter.builder("pokladna.web.limiter.rejected", filter, ConcurrencyLimitFilter::getRejected)
+                    .description("Počet požadavků odmítnutých po uplynutí doby čekání")
+                    .register(registry);
+        };
+    }
+}
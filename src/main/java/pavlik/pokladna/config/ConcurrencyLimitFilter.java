@@ -0,0 +1,93 @@
+package pavlik.pokladna.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Omezuje počet souběžně zpracovávaných požadavků podle velikosti fronty spojení do databáze.
+ * Požadavek nad limit čeká na uvolnění nejvýše nastavenou dobu, potom dostane odpověď 503.
+ * S virtuálními vlákny tak čekající požadavky nezaberou spojení ani nečekají ve frontě Hikari.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+
+    private final int maxConcurrent;
+
+    private final long acquireTimeoutMs;
+
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Konstruktor pro ConcurrencyLimitFilter.
+     *
+     * @param maxConcurrent    Nejvyšší počet souběžně zpracovávaných požadavků.
+     * @param acquireTimeoutMs Nejdelší doba čekání na zpracování (ms).
+     */
+    public ConcurrencyLimitFilter(int maxConcurrent, long acquireTimeoutMs) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Server je přetížený, zkuste to prosím znovu.");
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * @return Nejvyšší počet souběžně zpracovávaných požadavků.
+     */
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /**
+     * @return Počet právě zpracovávaných požadavků.
+     */
+    public int getActive() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    /**
+     * @return Počet požadavků čekajících na zpracování.
+     */
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * @return Počet odmítnutých požadavků od startu aplikace.
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
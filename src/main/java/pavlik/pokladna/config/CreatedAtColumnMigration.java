@@ -0,0 +1,50 @@
+package pavlik.pokladna.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Před spuštěním Hibernate doplní do existující tabulky financialtransaction sloupec created_at.
+ * Sloupec se přidá bez výchozí hodnoty a výchozí hodnota se nastaví až dalším příkazem - oba příkazy mění
+ * jen popis tabulky, tabulka se nepřepisuje a dřívější záznamy mají čas zápisu null (neznámý),
+ * místo času migrace. Čas zápisu tak dostanou jen nové záznamy.
+ */
+@Component
+public class CreatedAtColumnMigration {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Konstruktor pro CreatedAtColumnMigration.
+     *
+     * @param jdbcTemplate JdbcTemplate pro přístup k databázi.
+     */
+    @Autowired
+    public CreatedAtColumnMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Doplní sloupec a jeho výchozí hodnotu. Na prázdné databázi tabulku i sloupec vytvoří až Hibernate.
+     */
+    @PostConstruct
+    public void migrate() {
+        jdbcTemplate.execute("ALTER TABLE IF EXISTS public.financialtransaction ADD COLUMN IF NOT EXISTS created_at TIMESTAMP WITH TIME ZONE");
+        jdbcTemplate.execute("ALTER TABLE IF EXISTS public.financialtransaction ALTER COLUMN created_at DROP NOT NULL");
+        jdbcTemplate.execute("ALTER TABLE IF EXISTS public.financialtransaction ALTER COLUMN created_at SET DEFAULT clock_timestamp()");
+    }
+
+    /**
+     * Zajistí, že migrace proběhne před vytvořením EntityManagerFactory - jinak by Hibernate sloupec
+     * přidal i s výchozí hodnotou a přepsal celou tabulku.
+     */
+    @Component
+    static class EntityManagerFactoryDependency extends EntityManagerFactoryDependsOnPostProcessor {
+        EntityManagerFactoryDependency() {
+            super(CreatedAtColumnMigration.class);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package pavlik.pokladna.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Při startu aplikace vytvoří (nebo aktualizuje) databázové funkce pro zápis do knihy transakcí.
+ * Skript se posílá celý jedním příkazem, protože těla funkcí obsahují středníky
+ * a rozdělení na příkazy zvládne až ovladač PostgreSQL.
+ */
+@Component
+public class DatabaseFunctionsInitializer {
+
+    private static final String SCRIPT = "db/ledger-functions.sql";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Konstruktor pro DatabaseFunctionsInitializer.
+     *
+     * @param jdbcTemplate JdbcTemplate pro přístup k databázi.
+     */
+    @Autowired
+    public DatabaseFunctionsInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Spustí skript s databázovými funkcemi.
+     */
+    @PostConstruct
+    public void initialize() {
+        try (InputStream script = new ClassPathResource(SCRIPT).getInputStream()) {
+            jdbcTemplate.execute(StreamUtils.copyToString(script, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nelze načíst skript " + SCRIPT, e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package pavlik.pokladna.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import pavlik.pokladna.service.LedgerBalanceHolder;
+import pavlik.pokladna.service.LedgerDataGenerator;
+import pavlik.pokladna.service.LedgerRollupService;
+import pavlik.pokladna.service.LedgerRowCounter;
+
+/**
+ * Spuštění generátoru testovacích dat (profil generator).
+ * Po vygenerování přepočítá denní souhrny, načte zůstatek a počet záznamů a ukončí aplikaci.
+ */
+@Component
+@Profile("generator")
+public class LedgerDataGeneratorRunner implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerDataGeneratorRunner.class);
+
+    private final LedgerDataGenerator generator;
+    private final LedgerRollupService rollupService;
+    private final LedgerBalanceHolder balanceHolder;
+    private final LedgerRowCounter rowCounter;
+    private final ConfigurableApplicationContext context;
+
+    /**
+     * Konstruktor pro LedgerDataGeneratorRunner.
+     *
+     * @param generator     Generátor testovacích dat.
+     * @param rollupService Služba pro denní souhrny.
+     * @param balanceHolder Zůstatek pokladny držený v paměti.
+     * @param rowCounter    Počet záznamů knihy transakcí.
+     * @param context       Kontext aplikace, který se po vygenerování ukončí.
+     */
+    @Autowired
+    public LedgerDataGeneratorRunner(LedgerDataGenerator generator, LedgerRollupService rollupService,
+                                     LedgerBalanceHolder balanceHolder, LedgerRowCounter rowCounter,
+                                     ConfigurableApplicationContext context) {
+        this.generator = generator;
+        this.rollupService = rollupService;
+        this.balanceHolder = balanceHolder;
+        this.rowCounter = rowCounter;
+        this.context = context;
+    }
+
+    @Override
+    public void run(String... args) {
+        long entries = generator.generate();
+        int rollups = rollupService.rebuild();
+        balanceHolder.verify();
+        rowCounter.resync();
+        logger.info("Generování dokončeno - záznamů knihy transakcí: {}, denních souhrnů: {}, zůstatek: {}.",
+                entries, rollups, balanceHolder.getBalance());
+        System.exit(SpringApplication.exit(context));
+    }
+}
@@ -0,0 +1,96 @@
+package pavlik.pokladna.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import pavlik.pokladna.security.AuthenticationStatistics;
+import pavlik.pokladna.security.PokladnaUserDetailsService;
+import pavlik.pokladna.service.LedgerAppendPipeline;
+import pavlik.pokladna.service.LedgerPipelineStatistics;
+
+/**
+ * Metriky aplikace pro Actuator ({@code /actuator/prometheus}).
+ * Doby požadavků na kontrolery (http.server.requests) a využití spojení do databáze (hikaricp.*)
+ * registruje Spring Boot, zde se přidává měření služeb anotací @Timed a statistiky
+ * dávkového zápisu do knihy transakcí a přihlašování.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Měření metod tříd a metod označených anotací @Timed.
+     *
+     * @param registry Registr metrik.
+     * @return Aspekt pro anotaci @Timed.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    /**
+     * Statistiky dávkového zápisu do knihy transakcí.
+     *
+     * @param pipeline Dávkový zápis do knihy transakcí.
+     * @return Registrace metrik.
+     */
+    @Bean
+    public MeterBinder ledgerPipelineMetrics(LedgerAppendPipeline pipeline) {
+        LedgerPipelineStatistics statistics = pipeline.getStatistics();
+        return registry -> {
+            Gauge.builder("pokladna.ledger.pipeline.queue", statistics, LedgerPipelineStatistics::getQueueSize)
+                    .description("Počet požadavků čekajících na zápis do knihy transakcí")
+                    .register(registry);
+            FunctionCounter.builder("pokladna.ledger.pipeline.flushes", statistics, LedgerPipelineStatistics::getFlushCount)
+                    .description("Počet zapsaných dávek")
+                    .register(registry);
+            FunctionCounter.builder("pokladna.ledger.pipeline.requests", statistics, LedgerPipelineStatistics::getPostedCount)
+                    .tag("result", "posted")
+                    .register(registry);
+            FunctionCounter.builder("pokladna.ledger.pipeline.requests", statistics, LedgerPipelineStatistics::getRejectedCount)
+                    .tag("result", "rejected")
+                    .register(registry);
+            FunctionCounter.builder("pokladna.ledger.pipeline.requests", statistics, LedgerPipelineStatistics::getFailedCount)
+                    .tag("result", "failed")
+                    .register(registry);
+            FunctionCounter.builder("pokladna.ledger.pipeline.requests", statistics, LedgerPipelineStatistics::getCancelledCount)
+                    .tag("result", "cancelled")
+                    .register(registry);
+            Gauge.builder("pokladna.ledger.pipeline.batch.max", statistics, LedgerPipelineStatistics::getMaxBatchSize)
+                    .description("Největší zapsaná dávka")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Statistiky přihlašování a mezipaměti uživatelů.
+     *
+     * @param userDetailsService Načítání uživatelů pro přihlášení.
+     * @return Registrace metrik.
+     */
+    @Bean
+    public MeterBinder authenticationMetrics(PokladnaUserDetailsService userDetailsService) {
+        AuthenticationStatistics statistics = userDetailsService.getStatistics();
+        return registry -> {
+            FunctionCounter.builder("pokladna.security.logins", statistics, s -> s.getLoginCount() - s.getFailedLoginCount())
+                    .tag("result", "success")
+                    .register(registry);
+            FunctionCounter.builder("pokladna.security.logins", statistics, AuthenticationStatistics::getFailedLoginCount)
+                    .tag("result", "failure")
+                    .register(registry);
+            FunctionCounter.builder("pokladna.security.user.cache", statistics, AuthenticationStatistics::getCacheHits)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("pokladna.security.user.cache", statistics, AuthenticationStatistics::getCacheMisses)
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("pokladna.security.user.cache.size", statistics, AuthenticationStatistics::getCacheSize)
+                    .description("Počet uživatelů v mezipaměti pro přihlášení")
+                    .register(registry);
+        };
+    }
+}
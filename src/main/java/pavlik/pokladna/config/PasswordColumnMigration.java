@@ -0,0 +1,44 @@
+package pavlik.pokladna.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rozšíří sloupec password v tabulce users na délku potřebnou pro hash hesla ({@code {bcrypt}} a 60 znaků).
+ * Hibernate (ddl-auto=update) délku existujícího sloupce nemění.
+ */
+@Component
+public class PasswordColumnMigration {
+
+    /**
+     * Délka sloupce pro heslo.
+     */
+    public static final int PASSWORD_LENGTH = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Konstruktor pro PasswordColumnMigration.
+     *
+     * @param jdbcTemplate JdbcTemplate pro přístup k databázi.
+     */
+    @Autowired
+    public PasswordColumnMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Rozšíří sloupec, pokud je kratší. Na prázdné databázi sloupec vytvoří až Hibernate se správnou délkou.
+     */
+    @PostConstruct
+    public void migrate() {
+        Integer length = jdbcTemplate.query("SELECT character_maximum_length FROM information_schema.columns " +
+                        "WHERE table_schema = 'public' AND table_name = 'users' AND column_name = 'password'",
+                rs -> rs.next() ? (Integer) rs.getObject(1) : null);
+        if (length != null && length < PASSWORD_LENGTH) {
+            jdbcTemplate.execute("ALTER TABLE public.users ALTER COLUMN password TYPE VARCHAR(" + PASSWORD_LENGTH + ")");
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package pavlik.pokladna.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Před spuštěním Hibernate nastaví krok sekvencí tabulek users a authorities na velikost bloku ID,
+ * který si Hibernate najednou rezervuje. Díky tomu se ID přidělují bez dotazu na sekvenci u každého řádku
+ * a vkládání může probíhat dávkově.
+ * Sekvence tabulek sales a financialtransaction se nemění - ID v knize transakcí přiděluje databáze
+ * v pořadí zápisu pod zámkem knihy.
+ */
+@Component
+public class SequenceIncrementMigration {
+
+    /**
+     * Počet ID rezervovaných najednou, musí odpovídat kroku sekvence v databázi.
+     */
+    public static final int ALLOCATION_SIZE = 50;
+
+    private static final String[] SEQUENCES = {
+            "public.users_id_user_seq",
+            "public.authorities_id_authority_seq"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Konstruktor pro SequenceIncrementMigration.
+     *
+     * @param jdbcTemplate JdbcTemplate pro přístup k databázi.
+     */
+    @Autowired
+    public SequenceIncrementMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Nastaví krok existujících sekvencí. Na prázdné databázi sekvence vytvoří až Hibernate se správným krokem.
+     */
+    @PostConstruct
+    public void migrate() {
+        for (String sequence : SEQUENCES) {
+            jdbcTemplate.execute("ALTER SEQUENCE IF EXISTS " + sequence + " INCREMENT BY " + ALLOCATION_SIZE);
+        }
+    }
+
+    /**
+     * Zajistí, že migrace proběhne před vytvořením EntityManagerFactory, která krok sekvencí ověřuje.
+     */
+    @Component
+    static class EntityManagerFactoryDependency extends EntityManagerFactoryDependsOnPostProcessor {
+        EntityManagerFactoryDependency() {
+            super(SequenceIncrementMigration.class);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package pavlik.pokladna.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import pavlik.pokladna.entity.LedgerRollup;
+import pavlik.pokladna.service.LedgerRollupService;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RestController pro přehledy tržeb, vkladů a výběrů z denních souhrnů přes API.
+ */
+@RestController
+@RequestMapping("/api/reports")
+public class ApiReportController {
+
+    private final LedgerRollupService rollupService;
+
+    /**
+     * Konstruktor pro ApiReportController.
+     *
+     * @param rollupService Služba pro denní souhrny knihy transakcí.
+     */
+    @Autowired
+    public ApiReportController(LedgerRollupService rollupService) {
+        this.rollupService = rollupService;
+    }
+
+    /**
+     * Metoda pro získání denních souhrnů za všechny pokladní přes API.
+     *
+     * @param from První den (včetně).
+     * @param to   Poslední den (včetně).
+     * @return Denní souhrny seřazené podle dne.
+     */
+    @GetMapping("/daily")
+    public List<LedgerRollup> getDaily(@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                       @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return rollupService.getDaily(from, to);
+    }
+
+    /**
+     * Metoda pro získání souhrnů po pokladních za období přes API.
+     *
+     * @param from První den (včetně).
+     * @param to   Poslední den (včetně).
+     * @return Souhrny seřazené podle ID uživatele.
+     */
+    @GetMapping("/cashiers")
+    public List<LedgerRollup> getByCashier(@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                           @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return rollupService.getByUser(from, to);
+    }
+
+    /**
+     * Metoda pro přepočet všech denních souhrnů z knihy transakcí přes API.
+     *
+     * @return Počet souhrnů po přepočtu, nebo 409, pokud přepočet již probíhá.
+     */
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        try {
+            return ResponseEntity.ok(Map.of("rollups", rollupService.rebuild()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package pavlik.pokladna.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import pavlik.pokladna.entity.SaleListItem;
+import pavlik.pokladna.entity.User;
+import pavlik.pokladna.service.KeysetPage;
+import pavlik.pokladna.service.SaleIngestResult;
+import pavlik.pokladna.service.SaleIngestService;
+import pavlik.pokladna.service.SaleService;
+import pavlik.pokladna.service.UserService;
+
+import java.io.IOException;
+
+/**
+ * RestController pro manipulaci s tržbami přes API.
+ */
+@RestController
+@RequestMapping("/api/sales")
+public class ApiSaleController {
+
+    private final SaleIngestService saleIngestService;
+    private final SaleService saleService;
+    private final UserService userService;
+
+    /**
+     * Konstruktor pro ApiSaleController.
+     *
+     * @param saleIngestService Služba pro hromadné nahrání tržeb.
+     * @param saleService       Služba pro práci s tržbami.
+     * @param userService       Služba pro práci s uživateli.
+     */
+    @Autowired
+    public ApiSaleController(SaleIngestService saleIngestService, SaleService saleService, UserService userService) {
+        this.saleIngestService = saleIngestService;
+        this.saleService = saleService;
+        this.userService = userService;
+    }
+
+    /**
+     * Metoda pro hromadné nahrání tržeb ve formátu CSV (sloupce jako database/data/salesExport.csv).
+     * Tržby jiného uživatele než přihlášeného smí nahrát jen správce.
+     *
+     * @param request HTTP požadavek, jehož tělo se čte průběžně.
+     * @return Souhrnný výsledek nahrání.
+     * @throws IOException Pokud čtení požadavku selže.
+     */
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    public SaleIngestResult bulkIngestCsv(HttpServletRequest request) throws IOException {
+        return saleIngestService.ingest(request.getInputStream(), SaleIngestService.Format.CSV, currentUserId(), request.isUserInRole("ADMIN"));
+    }
+
+    /**
+     * Metoda pro hromadné nahrání tržeb ve formátu NDJSON (jeden JSON objekt s amount, soldGoods a userId na řádek).
+     * Tržby jiného uživatele než přihlášeného smí nahrát jen správce.
+     *
+     * @param request HTTP požadavek, jehož tělo se čte průběžně.
+     * @return Souhrnný výsledek nahrání.
+     * @throws IOException Pokud čtení požadavku selže.
+     */
+    @PostMapping(value = "/bulk", consumes = "application/x-ndjson")
+    public SaleIngestResult bulkIngestNdjson(HttpServletRequest request) throws IOException {
+        return saleIngestService.ingest(request.getInputStream(), SaleIngestService.Format.NDJSON, currentUserId(), request.isUserInRole("ADMIN"));
+    }
+
+    /**
+     * Metoda pro získání stránky tržeb přes API se stránkováním podle klíče.
+     *
+     * @param before ID, před kterým stránka začíná (starší záznamy), nebo null.
+     * @param after  ID, za kterým stránka začíná (novější záznamy), nebo null.
+     * @param size   Velikost stránky (1 až {@link KeysetPage#MAX_SIZE}).
+     * @return Stránka tržeb s kurzory pro sousední stránky nebo 400 při neplatné velikosti stránky.
+     */
+    @GetMapping("/seek")
+    public ResponseEntity<KeysetPage<SaleListItem>> seek(@RequestParam(value = "before", required = false) Integer before,
+                                                         @RequestParam(value = "after", required = false) Integer after,
+                                                         @RequestParam(value = "size", defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(saleService.getSalesKeyset(before, after, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private Integer currentUserId() {
+        User currentUser = userService.getCurrentUser();
+        return currentUser != null ? currentUser.getIdUser() : null;
+    }
+}
@@ -1,15 +1,29 @@
 package pavlik.pokladna.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import pavlik.pokladna.entity.Transaction;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import pavlik.pokladna.common.entity.BalancePoint;
+import pavlik.pokladna.common.entity.TransactionListItem;
 import pavlik.pokladna.entity.TransactionSummary;
+import pavlik.pokladna.service.BalanceHistoryService;
+import pavlik.pokladna.service.KeysetPage;
+import pavlik.pokladna.service.LedgerAppendPipeline;
+import pavlik.pokladna.service.LedgerPipelineStatistics;
+import pavlik.pokladna.service.LedgerStreamBroadcaster;
 import pavlik.pokladna.service.TransactionService;
 
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -20,15 +34,30 @@ import java.util.List;
 public class ApiTransactionController {
 
     private final TransactionService transactionService;
+    private final LedgerAppendPipeline ledgerPipeline;
+    private final BalanceHistoryService balanceHistoryService;
+    private final LedgerStreamBroadcaster streamBroadcaster;
+
+    private final int maxHistoryPoints;
 
     /**
      * Konstruktor pro ApiTransactionController.
      *
-     * @param transactionService TransactionService pro manipulaci s transakcemi.
+     * @param transactionService    TransactionService pro manipulaci s transakcemi.
+     * @param ledgerPipeline        Dávkový zápis pohybů do knihy transakcí.
+     * @param balanceHistoryService Služba pro zjištění zůstatku k bodu v historii.
+     * @param streamBroadcaster     Rozesílání změn zůstatku připojeným obrazovkám.
+     * @param maxHistoryPoints      Nejvyšší povolený počet bodů průběhu zůstatku.
      */
     @Autowired
-    public ApiTransactionController(TransactionService transactionService) {
+    public ApiTransactionController(TransactionService transactionService, LedgerAppendPipeline ledgerPipeline,
+                                    BalanceHistoryService balanceHistoryService, LedgerStreamBroadcaster streamBroadcaster,
+                                    @Value("${pokladna.balance.history.max-points:5000}") int maxHistoryPoints) {
         this.transactionService = transactionService;
+        this.ledgerPipeline = ledgerPipeline;
+        this.balanceHistoryService = balanceHistoryService;
+        this.streamBroadcaster = streamBroadcaster;
+        this.maxHistoryPoints = maxHistoryPoints;
     }
 
     /**
@@ -38,21 +67,132 @@ public class ApiTransactionController {
      */
     @GetMapping("/last20")
     public List<TransactionSummary> getLast20Transactions() {
-        List<Transaction> first20TransactionsAscending = transactionService.getFirst20TransactionsAscending();
-        Collections.reverse(first20TransactionsAscending);
-
         // Vytvoření seznamu pro TransactionSummary
         List<TransactionSummary> transactionSummaries = new ArrayList<>();
 
-        // Převod každé transakce na TransactionSummary
-        for (Transaction transaction : first20TransactionsAscending) {
+        // Převod zůstatků posledních transakcí (bez načtení entit) na TransactionSummary
+        for (BalancePoint point : balanceHistoryService.getLastBalances(20)) {
             TransactionSummary summary = new TransactionSummary();
-            summary.setIdTransaction(transaction.getIdTransaction());
-            summary.setBalanceAfter(transaction.getBalanceAfter());
+            summary.setIdTransaction(point.getIdTransaction());
+            summary.setBalanceAfter(point.getBalance());
             transactionSummaries.add(summary);
         }
 
         return transactionSummaries;
     }
-}
 
+    /**
+     * Metoda pro získání statistik dávkového zápisu do knihy transakcí přes API.
+     *
+     * @return Velikosti dávek, doba jejich zápisu a počet čekajících požadavků.
+     */
+    @GetMapping("/pipeline")
+    public LedgerPipelineStatistics getPipelineStatistics() {
+        return ledgerPipeline.getStatistics();
+    }
+
+    /**
+     * Metoda pro získání stránky transakcí přes API se stránkováním podle klíče.
+     *
+     * @param before ID, před kterým stránka začíná (starší záznamy), nebo null.
+     * @param after  ID, za kterým stránka začíná (novější záznamy), nebo null.
+     * @param size   Velikost stránky (1 až {@link KeysetPage#MAX_SIZE}).
+     * @return Stránka transakcí s kurzory pro sousední stránky nebo 400 při neplatné velikosti stránky.
+     */
+    @GetMapping("/seek")
+    public ResponseEntity<KeysetPage<TransactionListItem>> seek(@RequestParam(value = "before", required = false) Integer before,
+                                                                @RequestParam(value = "after", required = false) Integer after,
+                                                                @RequestParam(value = "size", defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(transactionService.getTransactionsKeyset(before, after, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Metoda pro získání zůstatku pokladny k bodu v historii přes API.
+     * Zadává se právě jeden z parametrů: ID transakce, okamžik (ISO 8601 s časovým pásmem) nebo den.
+     *
+     * @param transactionId ID transakce, po které se zůstatek zjišťuje.
+     * @param at            Okamžik, ke kterému se zůstatek zjišťuje.
+     * @param day           Den, na jehož konci se zůstatek zjišťuje.
+     * @return Zůstatek s ID a časem transakce, po které platí, nebo 400, pokud není zadán právě jeden parametr
+     * nebo zůstatek k zadanému okamžiku není znám (před prvním záznamem s časem zápisu).
+     */
+    @GetMapping("/balance")
+    public ResponseEntity<BalancePoint> getBalance(@RequestParam(value = "transactionId", required = false) Integer transactionId,
+                                                   @RequestParam(value = "at", required = false)
+                                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime at,
+                                                   @RequestParam(value = "day", required = false)
+                                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day) {
+        int given = (transactionId != null ? 1 : 0) + (at != null ? 1 : 0) + (day != null ? 1 : 0);
+        if (given != 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (transactionId != null) {
+            return ResponseEntity.ok(balanceHistoryService.getBalanceAtTransaction(transactionId));
+        }
+        try {
+            return ResponseEntity.ok(at != null ? balanceHistoryService.getBalanceAt(at) : balanceHistoryService.getClosingBalance(day));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Metoda pro získání průběhu zůstatku pro graf přes API.
+     * Rozsah se zadává buď časem (from a to, ISO 8601 s časovým pásmem), nebo ID transakcí (fromId a toId, bez nich celá kniha).
+     * Řada se zmenší na nejvýše zadaný počet bodů se zachováním tvaru (první, poslední, nejnižší a nejvyšší bod každého intervalu).
+     *
+     * @param fromId Nejnižší ID transakce (včetně), nebo null.
+     * @param toId   Nejvyšší ID transakce (včetně), nebo null.
+     * @param from   Začátek období (včetně), nebo null.
+     * @param to     Konec období (včetně), nebo null.
+     * @param points Nejvyšší počet bodů.
+     * @return Body průběhu zůstatku seřazené podle ID transakce, nebo 400 při neplatném rozsahu nebo počtu bodů
+     * a při období začínajícím před prvním záznamem s časem zápisu.
+     */
+    @GetMapping("/balance-history")
+    public ResponseEntity<List<BalancePoint>> getBalanceHistory(@RequestParam(value = "fromId", required = false) Integer fromId,
+                                                                @RequestParam(value = "toId", required = false) Integer toId,
+                                                                @RequestParam(value = "from", required = false)
+                                                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+                                                                @RequestParam(value = "to", required = false)
+                                                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+                                                                @RequestParam(value = "points", defaultValue = "500") int points) {
+        if (points < 4 || points > maxHistoryPoints) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (from != null || to != null) {
+            if (from == null || to == null || from.isAfter(to) || fromId != null || toId != null) {
+                return ResponseEntity.badRequest().build();
+            }
+            try {
+                return ResponseEntity.ok(balanceHistoryService.getHistoryByTime(from, to, points));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        if (fromId != null && toId != null && fromId > toId) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(balanceHistoryService.getHistoryByIds(fromId, toId, points));
+    }
+
+    /**
+     * Metoda pro odběr změn zůstatku a nových transakcí přes API (Server-Sent Events).
+     * Po připojení přijde událost balance s aktuálním zůstatkem, po každém zápisu do knihy transakcí
+     * událost ledger se zůstatkem před a po zápisu a s posledními zapsanými transakcemi.
+     *
+     * @return Proud událostí, nebo 503, pokud je připojeno příliš mnoho klientů.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream() {
+        try {
+            return ResponseEntity.ok(streamBroadcaster.subscribe());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
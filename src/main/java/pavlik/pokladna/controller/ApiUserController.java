@@ -0,0 +1,66 @@
+package pavlik.pokladna.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import pavlik.pokladna.entity.UserListItem;
+import pavlik.pokladna.security.AuthenticationStatistics;
+import pavlik.pokladna.security.PokladnaUserDetailsService;
+import pavlik.pokladna.service.KeysetPage;
+import pavlik.pokladna.service.UserService;
+
+/**
+ * RestController pro manipulaci s uživateli přes API.
+ */
+@RestController
+@RequestMapping("/api/users")
+public class ApiUserController {
+
+    private final UserService userService;
+
+    private final PokladnaUserDetailsService userDetailsService;
+
+    /**
+     * Konstruktor pro ApiUserController.
+     *
+     * @param userService        Služba pro práci s uživateli.
+     * @param userDetailsService Načítání uživatelů pro přihlášení.
+     */
+    @Autowired
+    public ApiUserController(UserService userService, PokladnaUserDetailsService userDetailsService) {
+        this.userService = userService;
+        this.userDetailsService = userDetailsService;
+    }
+
+    /**
+     * Metoda pro získání stránky uživatelů (bez hesel) přes API se stránkováním podle klíče.
+     *
+     * @param before ID, před kterým stránka začíná (starší záznamy), nebo null.
+     * @param after  ID, za kterým stránka začíná (novější záznamy), nebo null.
+     * @param size   Velikost stránky (1 až {@link KeysetPage#MAX_SIZE}).
+     * @return Stránka uživatelů s kurzory pro sousední stránky nebo 400 při neplatné velikosti stránky.
+     */
+    @GetMapping("/seek")
+    public ResponseEntity<KeysetPage<UserListItem>> seek(@RequestParam(value = "before", required = false) Integer before,
+                                                         @RequestParam(value = "after", required = false) Integer after,
+                                                         @RequestParam(value = "size", defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(userService.getUsersKeyset(before, after, size).map(UserListItem::from));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Metoda pro získání statistik přihlašování přes API.
+     *
+     * @return Úspěšnost mezipaměti uživatelů, počet přihlášení a doba jejich zpracování.
+     */
+    @GetMapping("/authentication")
+    public AuthenticationStatistics getAuthenticationStatistics() {
+        return userDetailsService.getStatistics();
+    }
+}
@@ -1,19 +1,30 @@
 package pavlik.pokladna.controller;
 
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import pavlik.pokladna.entity.Sale;
+import pavlik.pokladna.entity.SaleListItem;
+import pavlik.pokladna.entity.User;
 import pavlik.pokladna.repository.SaleRepositoryInterface;
+import pavlik.pokladna.service.BulkDeletionProgress;
+import pavlik.pokladna.service.ExportFormat;
+import pavlik.pokladna.service.ExportService;
+import pavlik.pokladna.service.KeysetPage;
+import pavlik.pokladna.service.SaleDeletionJob;
 import pavlik.pokladna.service.SaleService;
 import pavlik.pokladna.service.UserService;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -24,21 +35,28 @@ public class SaleController {
     private final SaleService saleService;
     private final UserService userService;
     private final SaleRepositoryInterface saleRepository;
+    private final SaleDeletionJob saleDeletionJob;
+    private final ExportService exportService;
 
     private final List<Sale> sales = new ArrayList<>();
 
     /**
      * Konstruktor pro SaleController.
      *
-     * @param saleService    Služba pro práci s prodeji.
-     * @param userService    Služba pro práci s uživateli.
-     * @param saleRepository Rozhraní repozitáře pro přístup k datům prodejů.
+     * @param saleService     Služba pro práci s prodeji.
+     * @param userService     Služba pro práci s uživateli.
+     * @param saleRepository  Rozhraní repozitáře pro přístup k datům prodejů.
+     * @param saleDeletionJob Služba pro odstranění všech prodejů na pozadí.
+     * @param exportService   Služba pro export dat.
      */
     @Autowired
-    public SaleController(SaleService saleService, UserService userService, SaleRepositoryInterface saleRepository) {
+    public SaleController(SaleService saleService, UserService userService, SaleRepositoryInterface saleRepository,
+                          SaleDeletionJob saleDeletionJob, ExportService exportService) {
         this.saleService = saleService;
         this.userService = userService;
         this.saleRepository = saleRepository;
+        this.saleDeletionJob = saleDeletionJob;
+        this.exportService = exportService;
     }
 
     /**
@@ -53,10 +71,10 @@ public class SaleController {
     public String index(Model model, @PathVariable("page") int page, @PathVariable("size") int size) {
         // Načtení prodejů s podporou stránkování
         Pageable pageable = PageRequest.of(page, size, Sort.by("idSale").descending());
-        Page<Sale> salePage = saleRepository.findAll(pageable);
+        Page<SaleListItem> salePage = saleService.getSalesPage(pageable);
 
         // Seznam prodejů na aktuální stránce
-        List<Sale> sales = salePage.getContent();
+        List<SaleListItem> sales = salePage.getContent();
 
         // Celkový počet záznamů
         long totalElements = salePage.getTotalElements();
@@ -85,6 +103,38 @@ public class SaleController {
         return "sales/index/index";
     }
 
+    /**
+     * Metoda pro zobrazení seznamu prodejů se stránkováním podle klíče.
+     * Stránka se určuje kurzorem (ID prvního nebo posledního záznamu sousední stránky) místo čísla stránky,
+     * takže i velmi vzdálená stránka se načte stejně rychle jako první. Celkový počet se nepočítá.
+     *
+     * @param model  Model pro komunikaci s Thymeleaf šablonou.
+     * @param before ID, před kterým stránka začíná (starší záznamy), nebo null.
+     * @param after  ID, za kterým stránka začíná (novější záznamy), nebo null.
+     * @param size   Velikost stránky (omezí se na 1 až {@link KeysetPage#MAX_SIZE}).
+     * @return Název Thymeleaf šablony pro zobrazení seznamu prodejů.
+     */
+    @GetMapping("/seek")
+    public String seek(Model model, @RequestParam(value = "before", required = false) Integer before,
+                       @RequestParam(value = "after", required = false) Integer after,
+                       @RequestParam(value = "size", defaultValue = "20") int size) {
+        size = KeysetPage.limitSize(size);
+        KeysetPage<SaleListItem> salePage = saleService.getSalesKeyset(before, after, size);
+
+        model.addAttribute("sales", salePage.getItems());
+        model.addAttribute("size", size);
+
+        // Přidání kurzorů pro sousední stránky do modelu
+        model.addAttribute("keyset", true);
+        model.addAttribute("hasNewer", salePage.isHasNewer());
+        model.addAttribute("hasOlder", salePage.isHasOlder());
+        model.addAttribute("newerCursor", salePage.getNewerCursor());
+        model.addAttribute("olderCursor", salePage.getOlderCursor());
+        model.addAttribute("oldestCursor", KeysetPage.OLDEST);
+
+        return "sales/index/index";
+    }
+
 
     /**
      * Metoda pro zobrazení formuláře pro přidání nového prodeje.
@@ -143,8 +193,7 @@ public class SaleController {
     @PostMapping("/delete")
     public String processDeleteSaleForm(@RequestParam("transactionId") int saleId, Model model) {
 
-        Optional<Sale> saleOptional = saleRepository.findById(saleId);
-        if (saleOptional.isPresent()) {
+        if (saleRepository.existsById(saleId)) {
             try {
                 saleService.deleteSaleById(saleId);
                 model.addAttribute("successMessage", "Tržba byla odstraněna úspěšně.");
@@ -169,8 +218,7 @@ public class SaleController {
      */
     @PostMapping("/delete/{id}")
     public String deleteSale(@PathVariable("id") int saleId, Model model) {
-        Optional<Sale> saleOptional = saleRepository.findById(saleId);
-        if (saleOptional.isPresent()) {
+        if (saleRepository.existsById(saleId)) {
             try {
                 saleService.deleteSaleById(saleId); // Odstraní prodej podle ID
                 model.addAttribute("successMessage", "Tržba byla odstraněna úspěšně.");
@@ -201,21 +249,38 @@ public class SaleController {
 
     /**
      * Metoda pro zpracování formuláře pro odstranění všech prodejů.
+     * Odstranění se spustí na pozadí a zobrazí se stránka s jeho průběhem.
      *
      * @param model Model pro komunikaci s Thymeleaf šablonou.
-     * @return Název Thymeleaf šablony pro potvrzení odstranění všech prodejů nebo chybové zprávy.
+     * @return Název Thymeleaf šablony pro průběh odstranění všech prodejů nebo chybové zprávy.
      */
     @PostMapping("/deleteAll")
     public String processDeleteAllSales(Model model) {
         try {
-            int deletedCount = saleService.deleteAllSales();
-            model.addAttribute("successMessage", "Všechny tržby byly odstraněny úspěšně. Celkem odstraněno: " + deletedCount);
+            User currentUser = userService.getCurrentUser();
+            saleDeletionJob.start(currentUser != null ? currentUser.getIdUser() : null);
+            return "sales/delete/deleteAllProgress";
         } catch (IllegalStateException e) {
             model.addAttribute("errorMessage", "Při odstranění tržeb nastala chyba: " + e.getMessage());
         }
         return "sales/delete/deleteAllConfirmation";
     }
 
+    /**
+     * Metoda pro zjištění průběhu odstraňování všech prodejů.
+     *
+     * @return Průběh posledního spuštěného odstraňování nebo 404, pokud žádné nebylo spuštěno.
+     */
+    @GetMapping("/deleteAll/progress")
+    @ResponseBody
+    public ResponseEntity<BulkDeletionProgress> getDeleteAllSalesProgress() {
+        BulkDeletionProgress progress = saleDeletionJob.getProgress();
+        if (progress == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(progress);
+    }
+
 
     /**
      * Metoda pro zobrazení formuláře pro zobrazení detailů prodeje.
@@ -236,7 +301,7 @@ public class SaleController {
      */
     @GetMapping("show/{id}")
     public String showSaleDetails(@PathVariable("id") Integer id, Model model) {
-        Optional<Sale> saleOptional = saleRepository.findById(id);
+        Optional<SaleListItem> saleOptional = saleService.getSaleListItem(id);
         if (saleOptional.isPresent()) {
             model.addAttribute("sale", saleOptional.get());
             return "sales/show/showSaleDetail"; // Název šablony pro zobrazení detailů prodeje
@@ -246,4 +311,26 @@ public class SaleController {
         }
     }
 
+    /**
+     * Metoda pro export všech prodejů ve formátu CSV nebo NDJSON.
+     * Export se zapisuje do odpovědi průběžně přímo z databázového kurzoru.
+     *
+     * @param format   Formát exportu (csv nebo ndjson).
+     * @param response HTTP odpověď, do které se export zapisuje.
+     * @throws IOException Pokud zápis odpovědi selže.
+     */
+    @GetMapping("/export")
+    public void exportSales(@RequestParam(value = "format", defaultValue = "csv") String format, HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.fromName(format);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        response.setContentType(exportFormat.getContentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"salesExport." + exportFormat.getExtension() + "\"");
+        exportService.exportSales(exportFormat, response.getOutputStream());
+    }
 }
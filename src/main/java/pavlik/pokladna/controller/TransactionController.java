@@ -1,20 +1,27 @@
 package pavlik.pokladna.controller;
 
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import pavlik.pokladna.common.entity.TransactionListItem;
 import pavlik.pokladna.entity.Transaction;
 import pavlik.pokladna.entity.User;
 import pavlik.pokladna.repository.TransactionRepositoryInterface;
+import pavlik.pokladna.service.ExportFormat;
+import pavlik.pokladna.service.ExportService;
+import pavlik.pokladna.service.KeysetPage;
 import pavlik.pokladna.service.TransactionService;
 import pavlik.pokladna.service.UserService;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,18 +34,23 @@ public class TransactionController {
 
     private final TransactionRepositoryInterface transactionRepository;
 
+    private final ExportService exportService;
+
     /**
      * Konstruktor třídy TransactionController.
      *
      * @param transactionService    Servisní třída pro manipulaci s transakcemi.
      * @param userService           Servisní třída pro manipulaci s uživateli.
      * @param transactionRepository Rozhraní pro přístup k datům transakcí v databázi.
+     * @param exportService         Servisní třída pro export dat.
      */
     @Autowired
-    public TransactionController(TransactionService transactionService, UserService userService, TransactionRepositoryInterface transactionRepository) {
+    public TransactionController(TransactionService transactionService, UserService userService, TransactionRepositoryInterface transactionRepository,
+                                 ExportService exportService) {
         this.transactionService = transactionService;
         this.userService = userService;
         this.transactionRepository = transactionRepository;
+        this.exportService = exportService;
     }
 
     /**
@@ -53,10 +65,10 @@ public class TransactionController {
     public String index(Model model, @PathVariable("page") int page, @PathVariable("size") int size) {
         // Načtení transakcí s podporou stránkování a seřazených podle ID transakce od nejvyššího k nejnižšímu
         Pageable pageable = PageRequest.of(page, size, Sort.by("idTransaction").descending());
-        Page<Transaction> transactionPage = transactionRepository.findAll(pageable);
+        Page<TransactionListItem> transactionPage = transactionService.getTransactionsPage(pageable);
 
         // Seznam transakcí na aktuální stránce
-        List<Transaction> transactions = transactionPage.getContent();
+        List<TransactionListItem> transactions = transactionPage.getContent();
 
         // Celkový počet záznamů
         long totalElements = transactionPage.getTotalElements();
@@ -88,6 +100,41 @@ public class TransactionController {
         return "transactions/index/index";
     }
 
+    /**
+     * Metoda pro zobrazení seznamu transakcí se stránkováním podle klíče.
+     * Stránka se určuje kurzorem (ID prvního nebo posledního záznamu sousední stránky) místo čísla stránky,
+     * takže i velmi vzdálená stránka se načte stejně rychle jako první. Celkový počet se nepočítá.
+     *
+     * @param model  Model pro komunikaci s Thymeleaf šablonou.
+     * @param before ID, před kterým stránka začíná (starší záznamy), nebo null.
+     * @param after  ID, za kterým stránka začíná (novější záznamy), nebo null.
+     * @param size   Velikost stránky (omezí se na 1 až {@link KeysetPage#MAX_SIZE}).
+     * @return Název Thymeleaf šablony pro zobrazení seznamu transakcí.
+     */
+    @GetMapping("/seek")
+    public String seek(Model model, @RequestParam(value = "before", required = false) Integer before,
+                       @RequestParam(value = "after", required = false) Integer after,
+                       @RequestParam(value = "size", defaultValue = "20") int size) {
+        size = KeysetPage.limitSize(size);
+        KeysetPage<TransactionListItem> transactionPage = transactionService.getTransactionsKeyset(before, after, size);
+
+        model.addAttribute("transactions", transactionPage.getItems());
+        model.addAttribute("size", size);
+
+        // Přidání kurzorů pro sousední stránky do modelu
+        model.addAttribute("keyset", true);
+        model.addAttribute("hasNewer", transactionPage.isHasNewer());
+        model.addAttribute("hasOlder", transactionPage.isHasOlder());
+        model.addAttribute("newerCursor", transactionPage.getNewerCursor());
+        model.addAttribute("olderCursor", transactionPage.getOlderCursor());
+        model.addAttribute("oldestCursor", KeysetPage.OLDEST);
+
+        int currentBalance = transactionService.getCurrentStatusBalance();
+        model.addAttribute("balance", currentBalance);
+
+        return "transactions/index/index";
+    }
+
 
     /**
      * Zobrazí formulář pro vkládání peněz do pokladny.
@@ -292,28 +339,35 @@ public class TransactionController {
      */
     @GetMapping("/show/{id}")
     public String showSaleDetails(@PathVariable("id") Integer id, Model model) {
-        Optional<Transaction> transactionOptional = transactionRepository.findById(id);
+        Optional<TransactionListItem> transactionOptional = transactionService.getTransactionListItem(id);
         if (transactionOptional.isPresent()) {
-            Transaction transaction = transactionOptional.get();
-            model.addAttribute("transaction", transaction);
-            if (transaction.getSale() == null) {
-                model.addAttribute("sale.saleId", "null");
-            } else {
-                model.addAttribute("sale.saleId", transaction.getSale().getIdSale());
-            }
-
-            if (transaction.getUser() == null) {
-                model.addAttribute("user.idUser", "null");
-            } else {
-                model.addAttribute("user.idUser", transaction.getUser().getIdUser());
-            }
-            // Add other attributes if needed
+            model.addAttribute("transaction", transactionOptional.get());
             return "transactions/show/transactionDetail";
         } else {
             return "errors/transactions/transactionNotFound";
         }
     }
 
+    /**
+     * Metoda pro export všech transakcí ve formátu CSV nebo NDJSON.
+     * Export se zapisuje do odpovědi průběžně přímo z databázového kurzoru.
+     *
+     * @param format   Formát exportu (csv nebo ndjson).
+     * @param response HTTP odpověď, do které se export zapisuje.
+     * @throws IOException Pokud zápis odpovědi selže.
+     */
+    @GetMapping("/export")
+    public void exportTransactions(@RequestParam(value = "format", defaultValue = "csv") String format, HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.fromName(format);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
 
+        response.setContentType(exportFormat.getContentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactionsExport." + exportFormat.getExtension() + "\"");
+        exportService.exportTransactions(exportFormat, response.getOutputStream());
+    }
 }
-
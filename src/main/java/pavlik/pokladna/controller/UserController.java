@@ -1,19 +1,25 @@
 package pavlik.pokladna.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import pavlik.pokladna.entity.User;
 import pavlik.pokladna.repository.UserRepositoryInterface;
+import pavlik.pokladna.service.ExportFormat;
+import pavlik.pokladna.service.ExportService;
+import pavlik.pokladna.service.KeysetPage;
 import pavlik.pokladna.service.SaleService;
 import pavlik.pokladna.service.TransactionService;
 import pavlik.pokladna.service.UserService;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,6 +36,8 @@ public class UserController {
 
     private final UserRepositoryInterface userRepository;
 
+    private final ExportService exportService;
+
     /**
      * Konstruktor pro UserController.
      *
@@ -37,13 +45,16 @@ public class UserController {
      * @param saleService        Služba pro manipulaci s prodeji.
      * @param transactionService Služba pro manipulaci s transakcemi.
      * @param userRepository     Rozhraní repozitáře pro práci s uživatelskými daty.
+     * @param exportService      Služba pro export dat.
      */
     @Autowired
-    public UserController(UserService userService, SaleService saleService, TransactionService transactionService, UserRepositoryInterface userRepository) {
+    public UserController(UserService userService, SaleService saleService, TransactionService transactionService, UserRepositoryInterface userRepository,
+                          ExportService exportService) {
         this.userService = userService;
         this.saleService = saleService;
         this.transactionService = transactionService;
         this.userRepository = userRepository;
+        this.exportService = exportService;
     }
 
     /**
@@ -58,7 +69,7 @@ public class UserController {
     public String index(Model model, @PathVariable("page") int page, @PathVariable("size") int size) {
         // Načtení uživatelů s podporou stránkování a seřazených podle ID uživatele od nejvyššího k nejnižšímu
         Pageable pageable = PageRequest.of(page, size, Sort.by("idUser").descending());
-        Page<User> userPage = userRepository.findAll(pageable);
+        Page<User> userPage = userService.getUsersPage(pageable);
 
         // Seznam uživatelů na aktuální stránce
         List<User> users = userPage.getContent();
@@ -90,6 +101,38 @@ public class UserController {
         return "users/index/index";
     }
 
+    /**
+     * Metoda pro zobrazení seznamu uživatelů se stránkováním podle klíče.
+     * Stránka se určuje kurzorem (ID prvního nebo posledního záznamu sousední stránky) místo čísla stránky,
+     * takže i velmi vzdálená stránka se načte stejně rychle jako první. Celkový počet se nepočítá.
+     *
+     * @param model  Model pro komunikaci s Thymeleaf šablonou.
+     * @param before ID, před kterým stránka začíná (starší záznamy), nebo null.
+     * @param after  ID, za kterým stránka začíná (novější záznamy), nebo null.
+     * @param size   Velikost stránky (omezí se na 1 až {@link KeysetPage#MAX_SIZE}).
+     * @return Název Thymeleaf šablony pro zobrazení seznamu uživatelů.
+     */
+    @GetMapping("/seek")
+    public String seek(Model model, @RequestParam(value = "before", required = false) Integer before,
+                       @RequestParam(value = "after", required = false) Integer after,
+                       @RequestParam(value = "size", defaultValue = "20") int size) {
+        size = KeysetPage.limitSize(size);
+        KeysetPage<User> userPage = userService.getUsersKeyset(before, after, size);
+
+        model.addAttribute("users", userPage.getItems());
+        model.addAttribute("size", size);
+
+        // Přidání kurzorů pro sousední stránky do modelu
+        model.addAttribute("keyset", true);
+        model.addAttribute("hasNewer", userPage.isHasNewer());
+        model.addAttribute("hasOlder", userPage.isHasOlder());
+        model.addAttribute("newerCursor", userPage.getNewerCursor());
+        model.addAttribute("olderCursor", userPage.getOlderCursor());
+        model.addAttribute("oldestCursor", KeysetPage.OLDEST);
+
+        return "users/index/index";
+    }
+
     /**
      * Zobrazí formulář pro vytvoření nového uživatele.
      *
@@ -168,7 +211,7 @@ public class UserController {
         try {
             userService.updateUser(user);
             model.addAttribute("successMessage", "Uživatel byl upraven úspěšně.");
-        } catch (IllegalArgumentException e) {
+        } catch (IllegalArgumentException | IllegalStateException e) {
             model.addAttribute("errorMessage", "Při úpravě uživatele nastala chyba: " + e.getMessage());
         }
         return "users/update/updateConfirmation";
@@ -305,4 +348,26 @@ public class UserController {
         }
     }
 
+    /**
+     * Metoda pro export všech uživatelů (bez hesel) ve formátu CSV nebo NDJSON.
+     * Export se zapisuje do odpovědi průběžně přímo z databázového kurzoru.
+     *
+     * @param format   Formát exportu (csv nebo ndjson).
+     * @param response HTTP odpověď, do které se export zapisuje.
+     * @throws IOException Pokud zápis odpovědi selže.
+     */
+    @GetMapping("/export")
+    public void exportUsers(@RequestParam(value = "format", defaultValue = "csv") String format, HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.fromName(format);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        response.setContentType(exportFormat.getContentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"usersExport." + exportFormat.getExtension() + "\"");
+        exportService.exportUsers(exportFormat, response.getOutputStream());
+    }
 }
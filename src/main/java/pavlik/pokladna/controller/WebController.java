@@ -3,7 +3,7 @@ package pavlik.pokladna.controller;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
-import pavlik.pokladna.entity.Transaction;
+import pavlik.pokladna.common.entity.TransactionListItem;
 import pavlik.pokladna.service.TransactionService;
 
 import java.util.List;
@@ -34,7 +34,7 @@ public class WebController {
     @GetMapping("/")
     public String webIndex(Model model) {
 
-        List<Transaction> transactions = transactionService.getFirst20Transactions();
+        List<TransactionListItem> transactions = transactionService.getFirst20Transactions();
         model.addAttribute("transactions", transactions);
 
         int currentBalance = transactionService.getCurrentStatusBalance();
@@ -2,6 +2,7 @@ package pavlik.pokladna.entity;
 
 
 import jakarta.persistence.*;
+import pavlik.pokladna.config.SequenceIncrementMigration;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
@@ -12,7 +13,9 @@ import org.hibernate.annotations.OnDeleteAction;
 @Table(name = "authorities", schema = "public")
 public class Authority {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "authorities_id_authority_seq")
+    @SequenceGenerator(name = "authorities_id_authority_seq", sequenceName = "authorities_id_authority_seq", schema = "public",
+            allocationSize = SequenceIncrementMigration.ALLOCATION_SIZE)
     @Column(name = "id_authority")
     private Integer idAuthority;
 
@@ -0,0 +1,106 @@
+package pavlik.pokladna.entity;
+
+/**
+ * Třída LedgerEntry představuje jeden řádek tabulky financialtransaction
+ * zapisovaný přímo přes JDBC, bez vytváření entity Transaction.
+ */
+public class LedgerEntry {
+
+    private Integer idTransaction;
+    private String description;
+    private int amount;
+    private int balanceBefore;
+    private int balanceAfter;
+    private Integer saleId;
+    private Integer userId;
+    private boolean deleted;
+
+    public LedgerEntry() {
+
+    }
+
+    /**
+     * Konstruktor pro vytvoření řádku knihy transakcí.
+     *
+     * @param description   Popis transakce.
+     * @param amount        Částka transakce.
+     * @param balanceBefore Zůstatek před transakcí.
+     * @param balanceAfter  Zůstatek po transakci.
+     * @param saleId        ID prodeje spojeného s transakcí nebo null.
+     * @param userId        ID uživatele provádějícího transakci nebo null.
+     * @param deleted       Příznak, zda je transakce smazána.
+     */
+    public LedgerEntry(String description, int amount, int balanceBefore, int balanceAfter, Integer saleId, Integer userId, boolean deleted) {
+        this.description = description;
+        this.amount = amount;
+        this.balanceBefore = balanceBefore;
+        this.balanceAfter = balanceAfter;
+        this.saleId = saleId;
+        this.userId = userId;
+        this.deleted = deleted;
+    }
+
+    public Integer getIdTransaction() {
+        return idTransaction;
+    }
+
+    public void setIdTransaction(Integer idTransaction) {
+        this.idTransaction = idTransaction;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public int getAmount() {
+        return amount;
+    }
+
+    public void setAmount(int amount) {
+        this.amount = amount;
+    }
+
+    public int getBalanceBefore() {
+        return balanceBefore;
+    }
+
+    public void setBalanceBefore(int balanceBefore) {
+        this.balanceBefore = balanceBefore;
+    }
+
+    public int getBalanceAfter() {
+        return balanceAfter;
+    }
+
+    public void setBalanceAfter(int balanceAfter) {
+        this.balanceAfter = balanceAfter;
+    }
+
+    public Integer getSaleId() {
+        return saleId;
+    }
+
+    public void setSaleId(Integer saleId) {
+        this.saleId = saleId;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
+}
@@ -0,0 +1,111 @@
+package pavlik.pokladna.entity;
+
+import java.time.LocalDate;
+
+/**
+ * Třída LedgerRollup představuje souhrn záznamů knihy transakcí za jeden den,
+ * buď pro jednoho pokladního (uživatele), nebo za všechny pokladní dohromady.
+ * Částky jsou se znaménkem jako v knize transakcí (výběry a zrušení tržeb záporně).
+ */
+public class LedgerRollup {
+
+    private final LocalDate day;
+    private final Integer userId;
+    private final long salesCount;
+    private final long salesAmount;
+    private final long depositsCount;
+    private final long depositsAmount;
+    private final long withdrawalsCount;
+    private final long withdrawalsAmount;
+    private final long reversalsCount;
+    private final long reversalsAmount;
+
+    /**
+     * Konstruktor pro denní souhrn.
+     *
+     * @param day               Den.
+     * @param userId            ID uživatele, nebo null pro záznamy bez uživatele a souhrny za všechny uživatele.
+     * @param salesCount        Počet tržeb.
+     * @param salesAmount       Součet tržeb.
+     * @param depositsCount     Počet vkladů.
+     * @param depositsAmount    Součet vkladů.
+     * @param withdrawalsCount  Počet výběrů.
+     * @param withdrawalsAmount Součet výběrů.
+     * @param reversalsCount    Počet zrušení.
+     * @param reversalsAmount   Součet zrušení.
+     */
+    public LedgerRollup(LocalDate day, Integer userId, long salesCount, long salesAmount, long depositsCount, long depositsAmount,
+                        long withdrawalsCount, long withdrawalsAmount, long reversalsCount, long reversalsAmount) {
+        this.day = day;
+        this.userId = userId;
+        this.salesCount = salesCount;
+        this.salesAmount = salesAmount;
+        this.depositsCount = depositsCount;
+        this.depositsAmount = depositsAmount;
+        this.withdrawalsCount = withdrawalsCount;
+        this.withdrawalsAmount = withdrawalsAmount;
+        this.reversalsCount = reversalsCount;
+        this.reversalsAmount = reversalsAmount;
+    }
+
+    /**
+     * Sečte dva souhrny téhož dne a uživatele.
+     *
+     * @param other Přičítaný souhrn.
+     * @return Nový souhrn se součty.
+     */
+    public LedgerRollup plus(LedgerRollup other) {
+        return new LedgerRollup(day, userId,
+                salesCount + other.salesCount, salesAmount + other.salesAmount,
+                depositsCount + other.depositsCount, depositsAmount + other.depositsAmount,
+                withdrawalsCount + other.withdrawalsCount, withdrawalsAmount + other.withdrawalsAmount,
+                reversalsCount + other.reversalsCount, reversalsAmount + other.reversalsAmount);
+    }
+
+    /**
+     * @return Změna zůstatku pokladny za den (součet všech částek).
+     */
+    public long getNetAmount() {
+        return salesAmount + depositsAmount + withdrawalsAmount + reversalsAmount;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public long getSalesCount() {
+        return salesCount;
+    }
+
+    public long getSalesAmount() {
+        return salesAmount;
+    }
+
+    public long getDepositsCount() {
+        return depositsCount;
+    }
+
+    public long getDepositsAmount() {
+        return depositsAmount;
+    }
+
+    public long getWithdrawalsCount() {
+        return withdrawalsCount;
+    }
+
+    public long getWithdrawalsAmount() {
+        return withdrawalsAmount;
+    }
+
+    public long getReversalsCount() {
+        return reversalsCount;
+    }
+
+    public long getReversalsAmount() {
+        return reversalsAmount;
+    }
+}
@@ -0,0 +1,37 @@
+package pavlik.pokladna.entity;
+
+/**
+ * Třída LedgerRowCounts představuje počty řádků knihy transakcí a tržeb načtené jedním dotazem,
+ * tedy ze stejného stavu databáze, spolu s ID posledního záznamu knihy transakcí.
+ */
+public class LedgerRowCounts {
+
+    private final int lastTransactionId;
+    private final long transactions;
+    private final long sales;
+
+    /**
+     * Konstruktor pro počty řádků knihy transakcí a tržeb.
+     *
+     * @param lastTransactionId ID posledního záznamu knihy transakcí, který je v počtech obsažen.
+     * @param transactions      Počet záznamů v tabulce financialtransaction.
+     * @param sales             Počet záznamů v tabulce sales.
+     */
+    public LedgerRowCounts(int lastTransactionId, long transactions, long sales) {
+        this.lastTransactionId = lastTransactionId;
+        this.transactions = transactions;
+        this.sales = sales;
+    }
+
+    public int getLastTransactionId() {
+        return lastTransactionId;
+    }
+
+    public long getTransactions() {
+        return transactions;
+    }
+
+    public long getSales() {
+        return sales;
+    }
+}
@@ -0,0 +1,56 @@
+package pavlik.pokladna.entity;
+
+import pavlik.pokladna.common.entity.TransactionListItem;
+
+import java.util.List;
+
+/**
+ * Třída LedgerStreamMessage představuje zprávu posílanou připojeným obrazovkám po zápisu do knihy transakcí.
+ * Obsahuje nový zůstatek a nejnovější zapsané transakce (u hromadných zápisů jen posledních několik).
+ */
+public class LedgerStreamMessage {
+
+    private final int lastTransactionId;
+    private final int balanceBefore;
+    private final int balanceAfter;
+    private final int appendedTransactions;
+    private final List<TransactionListItem> transactions;
+
+    /**
+     * Konstruktor pro zprávu o zápisu do knihy transakcí.
+     *
+     * @param lastTransactionId    ID posledního zapsaného záznamu.
+     * @param balanceBefore        Zůstatek před zápisem.
+     * @param balanceAfter         Zůstatek po zápisu.
+     * @param appendedTransactions Počet zapsaných záznamů.
+     * @param transactions         Nejnovější zapsané záznamy seřazené vzestupně podle ID.
+     */
+    public LedgerStreamMessage(int lastTransactionId, int balanceBefore, int balanceAfter, int appendedTransactions,
+                               List<TransactionListItem> transactions) {
+        this.lastTransactionId = lastTransactionId;
+        this.balanceBefore = balanceBefore;
+        this.balanceAfter = balanceAfter;
+        this.appendedTransactions = appendedTransactions;
+        this.transactions = transactions;
+    }
+
+    public int getLastTransactionId() {
+        return lastTransactionId;
+    }
+
+    public int getBalanceBefore() {
+        return balanceBefore;
+    }
+
+    public int getBalanceAfter() {
+        return balanceAfter;
+    }
+
+    public int getAppendedTransactions() {
+        return appendedTransactions;
+    }
+
+    public List<TransactionListItem> getTransactions() {
+        return transactions;
+    }
+}
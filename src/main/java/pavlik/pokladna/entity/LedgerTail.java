@@ -0,0 +1,12 @@
+package pavlik.pokladna.entity;
+
+/**
+ * Projekce posledního záznamu v tabulce financialtransaction.
+ * Obsahuje pouze ID transakce a zůstatek po transakci, aby nebylo nutné načítat celou entitu Transaction.
+ */
+public interface LedgerTail {
+
+    Integer getIdTransaction();
+
+    Integer getBalanceAfter();
+}
@@ -0,0 +1,66 @@
+package pavlik.pokladna.entity;
+
+/**
+ * Třída OpenLedgerEntry představuje nevymazaný záznam knihy transakcí načtený pro hromadné zrušení.
+ * U záznamů patřících k tržbě obsahuje i údaje o tržbě.
+ */
+public class OpenLedgerEntry {
+
+    private final int idTransaction;
+    private final String description;
+    private final int amount;
+    private final Integer userId;
+    private final Integer saleId;
+    private final Integer saleAmount;
+    private final String soldGoods;
+
+    /**
+     * Konstruktor pro nevymazaný záznam knihy transakcí.
+     *
+     * @param idTransaction ID transakce.
+     * @param description   Popis transakce.
+     * @param amount        Částka transakce.
+     * @param userId        ID uživatele transakce nebo null.
+     * @param saleId        ID tržby nebo null, pokud transakce nepatří k tržbě.
+     * @param saleAmount    Částka tržby nebo null.
+     * @param soldGoods     Prodané zboží nebo null.
+     */
+    public OpenLedgerEntry(int idTransaction, String description, int amount, Integer userId,
+                           Integer saleId, Integer saleAmount, String soldGoods) {
+        this.idTransaction = idTransaction;
+        this.description = description;
+        this.amount = amount;
+        this.userId = userId;
+        this.saleId = saleId;
+        this.saleAmount = saleAmount;
+        this.soldGoods = soldGoods;
+    }
+
+    public int getIdTransaction() {
+        return idTransaction;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public int getAmount() {
+        return amount;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public Integer getSaleId() {
+        return saleId;
+    }
+
+    public Integer getSaleAmount() {
+        return saleAmount;
+    }
+
+    public String getSoldGoods() {
+        return soldGoods;
+    }
+}
@@ -20,7 +20,8 @@ public class Sale {
     @Column(name = "sold_goods")
     private String soldGoods;
 
-    @ManyToOne
+    // uzivatel se nacita jen na vyzadani, vypisy ho pripojuji v dotazu (SaleListItem)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
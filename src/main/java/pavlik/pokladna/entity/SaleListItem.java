@@ -0,0 +1,63 @@
+package pavlik.pokladna.entity;
+
+/**
+ * Třída SaleListItem představuje jeden řádek výpisu tržeb.
+ * Obsahuje jen zobrazované sloupce, ID a jméno uživatele místo celé entity.
+ */
+public class SaleListItem {
+
+    private final Integer idSale;
+    private final Integer amount;
+    private final String soldGoods;
+    private final Integer userId;
+    private final String username;
+
+    /**
+     * Konstruktor pro řádek výpisu tržeb.
+     *
+     * @param idSale    ID tržby.
+     * @param amount    Částka tržby.
+     * @param soldGoods Prodané zboží.
+     * @param userId    ID uživatele nebo null.
+     * @param username  Uživatelské jméno nebo null.
+     */
+    public SaleListItem(Integer idSale, Integer amount, String soldGoods, Integer userId, String username) {
+        this.idSale = idSale;
+        this.amount = amount;
+        this.soldGoods = soldGoods;
+        this.userId = userId;
+        this.username = username;
+    }
+
+    /**
+     * Vytvoří řádek výpisu z entity tržby.
+     *
+     * @param sale Tržba.
+     * @return Řádek výpisu.
+     */
+    public static SaleListItem from(Sale sale) {
+        User user = sale.getUser();
+        return new SaleListItem(sale.getIdSale(), sale.getAmount(), sale.getSoldGoods(),
+                user != null ? user.getIdUser() : null, user != null ? user.getUsername() : null);
+    }
+
+    public Integer getIdSale() {
+        return idSale;
+    }
+
+    public Integer getAmount() {
+        return amount;
+    }
+
+    public String getSoldGoods() {
+        return soldGoods;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+}
@@ -2,11 +2,17 @@ package pavlik.pokladna.entity;
 
 import jakarta.persistence.*;
 
+import java.time.OffsetDateTime;
+
 /**
  * Entitní třída reprezentující finanční transakci.
  */
 @Entity
-@Table(name = "financialtransaction", schema = "public")
+@Table(name = "financialtransaction", schema = "public",
+        indexes = {
+                @Index(name = "financialtransaction_sale_id_idx", columnList = "sale_id"),
+                @Index(name = "financialtransaction_created_at_idx", columnList = "created_at")
+        })
 public class Transaction {
 
     @Id
@@ -29,11 +35,18 @@ public class Transaction {
     @Column(name = "deleted") // Nový sloupec pro označení, zda je transakce smazána
     private boolean deleted; // Může být true nebo false
 
-    @ManyToOne
+    // cas zapisu doplni databaze; clock_timestamp() se vyhodnoti az pod zamkem knihy transakci, cas tedy roste s ID
+    // zaznamy zapsane pred zavedenim sloupce maji cas null (CreatedAtColumnMigration)
+    @Column(name = "created_at", insertable = false, updatable = false,
+            columnDefinition = "TIMESTAMP WITH TIME ZONE DEFAULT clock_timestamp()")
+    private OffsetDateTime createdAt;
+
+    // souvisejici entity se nacitaji jen na vyzadani, vypisy je pripojuji v dotazu (TransactionListItem)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "sale_id", nullable = true)
     private Sale sale;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = true)
     private User user;
 
@@ -128,4 +141,11 @@ public class Transaction {
     public void setDeleted(boolean deleted) {
         this.deleted = deleted;
     }
+
+    /**
+     * @return Čas zápisu transakce doplněný databází, u právě uložené entity null.
+     */
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
 }
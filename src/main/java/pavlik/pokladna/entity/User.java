@@ -1,6 +1,8 @@
 package pavlik.pokladna.entity;
 
 import jakarta.persistence.*;
+import pavlik.pokladna.config.PasswordColumnMigration;
+import pavlik.pokladna.config.SequenceIncrementMigration;
 
 import java.util.Set;
 
@@ -12,14 +14,16 @@ import java.util.Set;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_user_seq")
+    @SequenceGenerator(name = "users_id_user_seq", sequenceName = "users_id_user_seq", schema = "public",
+            allocationSize = SequenceIncrementMigration.ALLOCATION_SIZE)
     @Column(name = "id_user")
     private Integer idUser;
 
     @Column(name = "username", unique = true)
     private String username;
 
-    @Column(name = "password")
+    @Column(name = "password", length = PasswordColumnMigration.PASSWORD_LENGTH)
     private String password;
 
     @Column(name = "enabled")
@@ -28,10 +32,10 @@ public class User {
     @Column(name = "role")
     private String role;
 
-    @OneToMany(mappedBy = "user")
+    @OneToMany(mappedBy = "user", fetch = FetchType.LAZY)
     private Set<Sale> sales;
 
-    @OneToMany(mappedBy = "user", cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    @OneToMany(mappedBy = "user", fetch = FetchType.LAZY, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
     private Set<Transaction> transactions;
 
     /**
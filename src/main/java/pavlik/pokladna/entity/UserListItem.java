@@ -0,0 +1,53 @@
+package pavlik.pokladna.entity;
+
+/**
+ * Třída UserListItem představuje jeden řádek výpisu uživatelů (bez hesla).
+ */
+public class UserListItem {
+
+    private final Integer idUser;
+    private final String username;
+    private final short enabled;
+    private final String role;
+
+    /**
+     * Konstruktor pro řádek výpisu uživatelů.
+     *
+     * @param idUser   ID uživatele.
+     * @param username Uživatelské jméno.
+     * @param enabled  Zda je uživatel povolen (1) nebo zakázán (0).
+     * @param role     Role uživatele.
+     */
+    public UserListItem(Integer idUser, String username, short enabled, String role) {
+        this.idUser = idUser;
+        this.username = username;
+        this.enabled = enabled;
+        this.role = role;
+    }
+
+    /**
+     * Vytvoří řádek výpisu z entity uživatele.
+     *
+     * @param user Uživatel.
+     * @return Řádek výpisu.
+     */
+    public static UserListItem from(User user) {
+        return new UserListItem(user.getIdUser(), user.getUsername(), user.getEnabled(), user.getRole());
+    }
+
+    public Integer getIdUser() {
+        return idUser;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public short getEnabled() {
+        return enabled;
+    }
+
+    public String getRole() {
+        return role;
+    }
+}
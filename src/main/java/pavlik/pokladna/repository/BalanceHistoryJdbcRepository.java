@@ -0,0 +1,167 @@
+package pavlik.pokladna.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import pavlik.pokladna.common.entity.BalancePoint;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Dotazy na historii zůstatku pokladny přes JDBC.
+ * Každý záznam knihy transakcí nese zůstatek po sobě, zůstatek k libovolnému bodu je tedy
+ * zůstatek po posledním záznamu před tímto bodem a najde se jedním průchodem indexem
+ * (primární klíč pro ID, index financialtransaction_created_at_idx pro čas).
+ * Průchody řadou zůstatků se čtou přes JDBC kurzor po částech, volající proto musí být transakční.
+ */
+@Repository
+public class BalanceHistoryJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    /**
+     * Konstruktor pro BalanceHistoryJdbcRepository.
+     *
+     * @param jdbcTemplate JdbcTemplate pro přístup k databázi.
+     * @param fetchSize    Počet řádků načítaných z kurzoru najednou při průchodu řadou zůstatků.
+     */
+    @Autowired
+    public BalanceHistoryJdbcRepository(JdbcTemplate jdbcTemplate, @Value("${pokladna.balance.history.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Najde poslední záznam s ID menším nebo rovným zadanému.
+     *
+     * @param idTransaction ID transakce.
+     * @return Zůstatek po nalezeném záznamu, nebo null, pokud žádný takový záznam neexistuje.
+     */
+    public BalancePoint findAtTransaction(int idTransaction) {
+        List<BalancePoint> points = jdbcTemplate.query(
+                "SELECT id_transaction, created_at, balance_after FROM financialtransaction " +
+                        "WHERE id_transaction <= ? ORDER BY id_transaction DESC LIMIT 1",
+                (rs, rowNum) -> mapPoint(rs), idTransaction);
+        return points.isEmpty() ? null : points.get(0);
+    }
+
+    /**
+     * Najde poslední záznam zapsaný před zadaným okamžikem (exkluzivně).
+     *
+     * @param before Okamžik.
+     * @return Zůstatek po nalezeném záznamu, nebo null, pokud žádný takový záznam neexistuje.
+     */
+    public BalancePoint findBefore(OffsetDateTime before) {
+        List<BalancePoint> points = jdbcTemplate.query(
+                "SELECT id_transaction, created_at, balance_after FROM financialtransaction " +
+                        "WHERE created_at < ? ORDER BY created_at DESC, id_transaction DESC LIMIT 1",
+                (rs, rowNum) -> mapPoint(rs), before);
+        return points.isEmpty() ? null : points.get(0);
+    }
+
+    /**
+     * Najde poslední záznam zapsaný nejpozději v zadaném okamžiku (včetně).
+     *
+     * @param at Okamžik.
+     * @return Zůstatek po nalezeném záznamu, nebo null, pokud žádný takový záznam neexistuje.
+     */
+    public BalancePoint findAtOrBefore(OffsetDateTime at) {
+        List<BalancePoint> points = jdbcTemplate.query(
+                "SELECT id_transaction, created_at, balance_after FROM financialtransaction " +
+                        "WHERE created_at <= ? ORDER BY created_at DESC, id_transaction DESC LIMIT 1",
+                (rs, rowNum) -> mapPoint(rs), at);
+        return points.isEmpty() ? null : points.get(0);
+    }
+
+    /**
+     * Zjistí, zda kniha transakcí obsahuje záznamy bez času zápisu (zapsané před zavedením sloupce created_at).
+     * Hodnoty null jsou v indexu nad created_at, dotaz tedy neprochází tabulku.
+     *
+     * @return Zda existuje záznam bez času zápisu.
+     */
+    public boolean hasEntriesWithoutTime() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM financialtransaction WHERE created_at IS NULL)", Boolean.class));
+    }
+
+    /**
+     * Vrátí nejstarší známý čas zápisu.
+     *
+     * @return Nejstarší čas zápisu, nebo null, pokud žádný záznam čas zápisu nemá.
+     */
+    public OffsetDateTime findEarliestTime() {
+        return jdbcTemplate.queryForObject("SELECT MIN(created_at) FROM financialtransaction", OffsetDateTime.class);
+    }
+
+    /**
+     * Vrátí posledních několik záznamů bez načtení celých entit.
+     *
+     * @param limit Počet záznamů.
+     * @return Záznamy seřazené vzestupně podle ID.
+     */
+    public List<BalancePoint> findLast(int limit) {
+        return jdbcTemplate.query(
+                "SELECT * FROM (SELECT id_transaction, created_at, balance_after FROM financialtransaction " +
+                        "ORDER BY id_transaction DESC LIMIT ?) last ORDER BY id_transaction",
+                (rs, rowNum) -> mapPoint(rs), limit);
+    }
+
+    /**
+     * Vrátí nejnižší a nejvyšší ID v zadaném rozsahu.
+     *
+     * @param fromId Nejnižší ID (včetně).
+     * @param toId   Nejvyšší ID (včetně).
+     * @return Dvojice [nejnižší, nejvyšší], nebo null, pokud rozsah neobsahuje žádný záznam.
+     */
+    public int[] findIdBounds(int fromId, int toId) {
+        return jdbcTemplate.query(
+                "SELECT MIN(id_transaction), MAX(id_transaction) FROM financialtransaction " +
+                        "WHERE id_transaction BETWEEN ? AND ?",
+                rs -> {
+                    rs.next();
+                    int min = rs.getInt(1);
+                    return rs.wasNull() ? null : new int[]{min, rs.getInt(2)};
+                }, fromId, toId);
+    }
+
+    /**
+     * Projde zůstatky po záznamech s ID v zadaném rozsahu seřazené podle ID.
+     *
+     * @param fromId  Nejnižší ID (včetně).
+     * @param toId    Nejvyšší ID (včetně).
+     * @param handler Zpracování jednoho bodu.
+     */
+    public void streamByIds(int fromId, int toId, Consumer<BalancePoint> handler) {
+        streamingJdbcTemplate.query(
+                "SELECT id_transaction, created_at, balance_after FROM financialtransaction " +
+                        "WHERE id_transaction BETWEEN ? AND ? ORDER BY id_transaction",
+                (RowCallbackHandler) rs -> handler.accept(mapPoint(rs)), fromId, toId);
+    }
+
+    /**
+     * Projde zůstatky po záznamech zapsaných v zadaném období seřazené podle času zápisu.
+     *
+     * @param from    Začátek období (včetně).
+     * @param to      Konec období (včetně).
+     * @param handler Zpracování jednoho bodu.
+     */
+    public void streamByTime(OffsetDateTime from, OffsetDateTime to, Consumer<BalancePoint> handler) {
+        streamingJdbcTemplate.query(
+                "SELECT id_transaction, created_at, balance_after FROM financialtransaction " +
+                        "WHERE created_at BETWEEN ? AND ? ORDER BY created_at, id_transaction",
+                (RowCallbackHandler) rs -> handler.accept(mapPoint(rs)), from, to);
+    }
+
+    private BalancePoint mapPoint(ResultSet rs) throws SQLException {
+        return new BalancePoint(rs.getInt("id_transaction"), rs.getObject("created_at", OffsetDateTime.class), rs.getInt("balance_after"));
+    }
+}
@@ -0,0 +1,121 @@
+package pavlik.pokladna.repository;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+/**
+ * Hromadné vkládání řádků příkazem COPY (PostgreSQL CopyManager).
+ * Řádky se zapisují jako CSV přímo do spojení po blocích, bez dotazu na každý řádek a bez držení dat v paměti.
+ * Spojení se bere z probíhající databázové transakce, pokud nějaká je, COPY se tedy potvrdí spolu s ní.
+ */
+@Repository
+public class BulkLoadJdbcRepository {
+
+    // velikost bloku odesilaneho do spojeni najednou
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Konstruktor pro BulkLoadJdbcRepository.
+     *
+     * @param jdbcTemplate JdbcTemplate pro přístup k databázi.
+     */
+    @Autowired
+    public BulkLoadJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Vloží řádky do tabulky příkazem COPY.
+     *
+     * @param table   Název tabulky.
+     * @param columns Názvy sloupců oddělené čárkou, v pořadí hodnot řádku.
+     * @param rows    Zápis řádků.
+     * @return Počet vložených řádků.
+     */
+    public long copy(String table, String columns, RowSource rows) {
+        Long copied = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyIn("COPY public." + table + " (" + columns + ") FROM STDIN WITH (FORMAT csv)");
+            try {
+                CsvRowWriter writer = new CsvRowWriter(copyIn);
+                rows.write(writer);
+                writer.flush();
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        });
+        return copied != null ? copied : 0;
+    }
+
+    /**
+     * Zdroj řádků pro COPY.
+     */
+    @FunctionalInterface
+    public interface RowSource {
+
+        /**
+         * Zapíše všechny řádky.
+         *
+         * @param writer Zápis jednoho řádku.
+         * @throws SQLException Pokud se zápis do spojení nepodaří.
+         */
+        void write(CsvRowWriter writer) throws SQLException;
+    }
+
+    /**
+     * Zápis řádků ve formátu CSV do probíhajícího COPY.
+     */
+    public static final class CsvRowWriter {
+
+        private final CopyIn copyIn;
+
+        private final StringBuilder buffer = new StringBuilder(BUFFER_SIZE);
+
+        private CsvRowWriter(CopyIn copyIn) {
+            this.copyIn = copyIn;
+        }
+
+        /**
+         * Zapíše jeden řádek. Hodnota null se zapíše jako NULL.
+         *
+         * @param values Hodnoty sloupců.
+         * @throws SQLException Pokud se zápis do spojení nepodaří.
+         */
+        public void row(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    buffer.append(',');
+                }
+                Object value = values[i];
+                if (value instanceof String text) {
+                    // textova hodnota vzdy v uvozovkach, prazdny text se tak nezapise jako NULL
+                    buffer.append('"').append(text.replace("\"", "\"\"")).append('"');
+                } else if (value != null) {
+                    buffer.append(value);
+                }
+            }
+            buffer.append('\n');
+            if (buffer.length() >= BUFFER_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+    }
+}
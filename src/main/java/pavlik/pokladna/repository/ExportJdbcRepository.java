@@ -0,0 +1,72 @@
+package pavlik.pokladna.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Čtení celých tabulek pro export přes JDBC kurzor.
+ * Řádky se z databáze načítají po částech o pevné velikosti a předávají se po jednom,
+ * výsledek se tedy nikdy nedrží celý v paměti a nevytvářejí se žádné entity.
+ * Kurzor PostgreSQL funguje jen uvnitř databázové transakce, volající proto musí být transakční.
+ */
+@Repository
+public class ExportJdbcRepository {
+
+    private static final String SELECT_TRANSACTIONS =
+            "SELECT id_transaction AS \"idTransaction\", description, amount, balance_before AS \"balanceBefore\", " +
+                    "balance_after AS \"balanceAfter\", sale_id AS \"saleId\", user_id AS \"userId\", deleted " +
+                    "FROM financialtransaction ORDER BY id_transaction";
+
+    private static final String SELECT_SALES =
+            "SELECT id_sale AS \"idSale\", amount, sold_goods AS \"soldGoods\", user_id AS \"userId\" " +
+                    "FROM sales ORDER BY id_sale";
+
+    // heslo se neexportuje, sloupec zustava kvuli shodnemu rozlozeni s database/data/usersExport.csv
+    private static final String SELECT_USERS =
+            "SELECT id_user AS \"idUser\", username, CAST(NULL AS VARCHAR) AS password, enabled, role " +
+                    "FROM users ORDER BY id_user";
+
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    /**
+     * Konstruktor pro ExportJdbcRepository.
+     *
+     * @param jdbcTemplate JdbcTemplate pro přístup k databázi.
+     * @param fetchSize    Počet řádků načítaných z kurzoru najednou.
+     */
+    @Autowired
+    public ExportJdbcRepository(JdbcTemplate jdbcTemplate, @Value("${pokladna.export.fetch-size:1000}") int fetchSize) {
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Projde všechny transakce seřazené podle ID.
+     *
+     * @param handler Zpracování jednoho řádku.
+     */
+    public void streamTransactions(RowCallbackHandler handler) {
+        streamingJdbcTemplate.query(SELECT_TRANSACTIONS, handler);
+    }
+
+    /**
+     * Projde všechny tržby seřazené podle ID.
+     *
+     * @param handler Zpracování jednoho řádku.
+     */
+    public void streamSales(RowCallbackHandler handler) {
+        streamingJdbcTemplate.query(SELECT_SALES, handler);
+    }
+
+    /**
+     * Projde všechny uživatele seřazené podle ID (bez hesel).
+     *
+     * @param handler Zpracování jednoho řádku.
+     */
+    public void streamUsers(RowCallbackHandler handler) {
+        streamingJdbcTemplate.query(SELECT_USERS, handler);
+    }
+}
@@ -0,0 +1,388 @@
+package pavlik.pokladna.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import pavlik.pokladna.entity.LedgerEntry;
+import pavlik.pokladna.entity.OpenLedgerEntry;
+import pavlik.pokladna.entity.Sale;
+import pavlik.pokladna.entity.User;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Přístup ke knize transakcí (tabulka financialtransaction) přes JDBC.
+ * Slouží pro dávkové zápisy, u kterých by načítání entit přes JPA bylo zbytečně drahé.
+ * Každý zápis záznamů zároveň přičte tyto záznamy do denních souhrnů (tabulka ledger_daily_rollup).
+ */
+@Repository
+public class LedgerJdbcRepository {
+
+    /**
+     * Klíč transakčního advisory zámku, kterým se serializují všechny zápisy do knihy transakcí.
+     */
+    public static final long LEDGER_LOCK_KEY = 7_431_001L;
+
+    private static final String INSERT_SALE =
+            "INSERT INTO sales (amount, sold_goods, user_id) VALUES (?, ?, ?)";
+
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO financialtransaction (description, amount, balance_before, balance_after, sale_id, user_id, deleted) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * SQLSTATE, kterým databázová funkce ledger_append hlásí nedostatek peněz v pokladně.
+     */
+    private static final String INSUFFICIENT_FUNDS_STATE = "PK001";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final String zone;
+
+    /**
+     * Konstruktor pro LedgerJdbcRepository.
+     *
+     * @param jdbcTemplate JdbcTemplate pro přístup k databázi.
+     * @param zone         Časové pásmo, ve kterém se určují hranice dnů denních souhrnů.
+     */
+    @Autowired
+    public LedgerJdbcRepository(JdbcTemplate jdbcTemplate, @Value("${pokladna.balance.zone:Europe/Prague}") String zone) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.zone = zone;
+    }
+
+    /**
+     * Uzamkne knihu transakcí do konce probíhající databázové transakce.
+     * Musí být voláno uvnitř transakce, jinak se zámek ihned uvolní.
+     */
+    public void lockLedger() {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", (ResultSetExtractor<Void>) rs -> null, LEDGER_LOCK_KEY);
+    }
+
+    /**
+     * Vrátí zůstatek po posledním záznamu v knize transakcí.
+     *
+     * @return Zůstatek po poslední transakci, nebo 0, pokud je kniha prázdná.
+     */
+    public int findTailBalance() {
+        Integer balance = jdbcTemplate.queryForObject(
+                "SELECT COALESCE((SELECT balance_after FROM financialtransaction ORDER BY id_transaction DESC LIMIT 1), 0)",
+                Integer.class);
+        return balance != null ? balance : 0;
+    }
+
+    /**
+     * Vrátí ID posledního záznamu v knize transakcí.
+     *
+     * @return ID posledního záznamu nebo null, pokud je kniha prázdná.
+     */
+    public Integer findMaxTransactionId() {
+        return jdbcTemplate.queryForObject("SELECT MAX(id_transaction) FROM financialtransaction", Integer.class);
+    }
+
+    /**
+     * Sečte částky nevymazaných záznamů až do zadaného ID včetně.
+     *
+     * @param maxTransactionId Nejvyšší ID zahrnuté do součtu.
+     * @return Součet částek nevymazaných záznamů.
+     */
+    public long sumOpenAmounts(int maxTransactionId) {
+        Long sum = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(amount), 0) FROM financialtransaction WHERE deleted = false AND id_transaction <= ?",
+                Long.class, maxTransactionId);
+        return sum != null ? sum : 0;
+    }
+
+    /**
+     * Načte další část nevymazaných záznamů, které nepatří k tržbě, seřazených podle ID.
+     *
+     * @param afterId          ID, za kterým se má pokračovat (exkluzivně).
+     * @param maxTransactionId Nejvyšší zahrnuté ID.
+     * @param limit            Maximální počet načtených záznamů.
+     * @return Nevymazané záznamy bez tržby.
+     */
+    public List<OpenLedgerEntry> findOpenEntriesWithoutSale(int afterId, int maxTransactionId, int limit) {
+        return jdbcTemplate.query(
+                "SELECT id_transaction, description, amount, user_id FROM financialtransaction " +
+                        "WHERE deleted = false AND sale_id IS NULL AND id_transaction > ? AND id_transaction <= ? " +
+                        "ORDER BY id_transaction LIMIT ?",
+                (rs, rowNum) -> new OpenLedgerEntry(rs.getInt("id_transaction"), rs.getString("description"), rs.getInt("amount"),
+                        (Integer) rs.getObject("user_id"), null, null, null),
+                afterId, maxTransactionId, limit);
+    }
+
+    /**
+     * Načte další část nevymazaných záznamů patřících k tržbě spolu s údaji o tržbě, seřazených podle ID.
+     *
+     * @param afterId          ID, za kterým se má pokračovat (exkluzivně).
+     * @param maxTransactionId Nejvyšší zahrnuté ID.
+     * @param limit            Maximální počet načtených záznamů.
+     * @return Nevymazané záznamy tržeb.
+     */
+    public List<OpenLedgerEntry> findOpenSaleEntries(int afterId, int maxTransactionId, int limit) {
+        return jdbcTemplate.query(
+                "SELECT t.id_transaction, t.description, t.amount, t.user_id, s.id_sale, s.amount AS sale_amount, s.sold_goods " +
+                        "FROM financialtransaction t JOIN sales s ON s.id_sale = t.sale_id " +
+                        "WHERE t.deleted = false AND t.id_transaction > ? AND t.id_transaction <= ? " +
+                        "ORDER BY t.id_transaction LIMIT ?",
+                (rs, rowNum) -> mapOpenSaleEntry(rs),
+                afterId, maxTransactionId, limit);
+    }
+
+    /**
+     * Označí jedním příkazem všechny nevymazané záznamy bez tržby až do zadaného ID jako smazané.
+     *
+     * @param maxTransactionId Nejvyšší zahrnuté ID.
+     * @return Počet označených záznamů.
+     */
+    public int markOpenEntriesWithoutSaleDeleted(int maxTransactionId) {
+        return jdbcTemplate.update(
+                "UPDATE financialtransaction SET deleted = true WHERE deleted = false AND sale_id IS NULL AND id_transaction <= ?",
+                maxTransactionId);
+    }
+
+    /**
+     * Jedním příkazem označí nevymazané záznamy tržeb až do zadaného ID jako smazané, odpojí je od tržeb
+     * a tyto tržby odstraní.
+     *
+     * @param maxTransactionId Nejvyšší zahrnuté ID.
+     * @return Počet odstraněných tržeb.
+     */
+    public int markOpenSaleEntriesDeletedAndDeleteSales(int maxTransactionId) {
+        return jdbcTemplate.update(
+                "WITH reversed AS (" +
+                        "UPDATE financialtransaction t SET deleted = true, sale_id = NULL, description = CONCAT('(smazáno) ', t.description) " +
+                        "FROM financialtransaction o " +
+                        "WHERE o.id_transaction = t.id_transaction AND o.deleted = false AND o.sale_id IS NOT NULL AND o.id_transaction <= ? " +
+                        "RETURNING o.sale_id) " +
+                        "DELETE FROM sales WHERE id_sale IN (SELECT sale_id FROM reversed)",
+                maxTransactionId);
+    }
+
+    /**
+     * Vrátí ID poslední tržby.
+     *
+     * @return ID poslední tržby nebo null, pokud žádná tržba neexistuje.
+     */
+    public Integer findMaxSaleId() {
+        return jdbcTemplate.queryForObject("SELECT MAX(id_sale) FROM sales", Integer.class);
+    }
+
+    /**
+     * Spočítá tržby až do zadaného ID včetně.
+     *
+     * @param maxSaleId Nejvyšší zahrnuté ID tržby.
+     * @return Počet tržeb.
+     */
+    public long countSales(int maxSaleId) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sales WHERE id_sale <= ?", Long.class, maxSaleId);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Sečte částky tržeb až do zadaného ID včetně.
+     *
+     * @param maxSaleId Nejvyšší zahrnuté ID tržby.
+     * @return Součet částek tržeb.
+     */
+    public long sumSaleAmounts(int maxSaleId) {
+        Long sum = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(amount), 0) FROM sales WHERE id_sale <= ?", Long.class, maxSaleId);
+        return sum != null ? sum : 0;
+    }
+
+    /**
+     * Načte další část tržeb spolu s jejich transakcemi jedním dotazem, seřazených podle ID tržby.
+     *
+     * @param afterSaleId ID tržby, za kterým se má pokračovat (exkluzivně).
+     * @param maxSaleId   Nejvyšší zahrnuté ID tržby.
+     * @param limit       Maximální počet načtených tržeb.
+     * @return Záznamy tržeb s jejich transakcemi.
+     */
+    public List<OpenLedgerEntry> findSaleEntries(int afterSaleId, int maxSaleId, int limit) {
+        return jdbcTemplate.query(
+                "SELECT t.id_transaction, t.description, t.amount, t.user_id, s.id_sale, s.amount AS sale_amount, s.sold_goods " +
+                        "FROM sales s JOIN financialtransaction t ON t.sale_id = s.id_sale " +
+                        "WHERE s.id_sale > ? AND s.id_sale <= ? " +
+                        "ORDER BY s.id_sale LIMIT ?",
+                (rs, rowNum) -> mapOpenSaleEntry(rs),
+                afterSaleId, maxSaleId, limit);
+    }
+
+    /**
+     * Jedním příkazem označí transakce tržeb v zadaném rozsahu ID jako smazané, odpojí je od tržeb
+     * a tyto tržby odstraní.
+     *
+     * @param afterSaleId ID tržby, za kterým rozsah začíná (exkluzivně).
+     * @param lastSaleId  Poslední ID tržby v rozsahu (inkluzivně).
+     * @return Počet odstraněných tržeb.
+     */
+    public int deleteSalesInRange(int afterSaleId, int lastSaleId) {
+        return jdbcTemplate.update(
+                "WITH reversed AS (" +
+                        "UPDATE financialtransaction SET deleted = true, sale_id = NULL, description = CONCAT('(smazáno) ', description) " +
+                        "WHERE sale_id > ? AND sale_id <= ? RETURNING id_transaction) " +
+                        "DELETE FROM sales WHERE id_sale > ? AND id_sale <= ?",
+                afterSaleId, lastSaleId, afterSaleId, lastSaleId);
+    }
+
+    /**
+     * Vloží tržby jednou dávkou a doplní jim vygenerovaná ID.
+     *
+     * @param sales Tržby k vložení.
+     */
+    public void insertSales(List<Sale> sales) {
+        if (sales.isEmpty()) {
+            return;
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SALE, new String[]{"id_sale"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Sale sale = sales.get(i);
+                        ps.setInt(1, sale.getAmount());
+                        ps.setString(2, sale.getSoldGoods());
+                        ps.setObject(3, sale.getUser() != null ? sale.getUser().getIdUser() : null, Types.INTEGER);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return sales.size();
+                    }
+                }, keyHolder);
+
+        List<Integer> ids = extractKeys(keyHolder, "id_sale");
+        for (int i = 0; i < sales.size(); i++) {
+            sales.get(i).setIdSale(ids.get(i));
+        }
+    }
+
+    /**
+     * Vloží záznamy do knihy transakcí jednou dávkou, doplní jim vygenerovaná ID a přičte je do denních souhrnů.
+     * Volající musí držet zámek knihy transakcí, vložené záznamy pak mají souvislý rozsah ID.
+     *
+     * @param entries Záznamy k vložení, v pořadí, v jakém navazují zůstatky.
+     */
+    public void insertTransactions(List<LedgerEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_TRANSACTION, new String[]{"id_transaction"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        LedgerEntry entry = entries.get(i);
+                        ps.setString(1, entry.getDescription());
+                        ps.setInt(2, entry.getAmount());
+                        ps.setInt(3, entry.getBalanceBefore());
+                        ps.setInt(4, entry.getBalanceAfter());
+                        ps.setObject(5, entry.getSaleId(), Types.INTEGER);
+                        ps.setObject(6, entry.getUserId(), Types.INTEGER);
+                        ps.setBoolean(7, entry.isDeleted());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return entries.size();
+                    }
+                }, keyHolder);
+
+        List<Integer> ids = extractKeys(keyHolder, "id_transaction");
+        for (int i = 0; i < entries.size(); i++) {
+            entries.get(i).setIdTransaction(ids.get(i));
+        }
+        applyRollups(ids.get(0), ids.get(ids.size() - 1));
+    }
+
+    /**
+     * Přičte záznamy knihy transakcí s ID v zadaném rozsahu do denních souhrnů.
+     * Volá se ve stejné databázové transakci jako zápis záznamů.
+     *
+     * @param fromId Nejnižší ID (včetně).
+     * @param toId   Nejvyšší ID (včetně).
+     */
+    public void applyRollups(int fromId, int toId) {
+        jdbcTemplate.query("SELECT ledger_rollup_apply(?, ?, ?)", (ResultSetExtractor<Void>) rs -> null, fromId, toId, zone);
+    }
+
+    private List<Integer> extractKeys(KeyHolder keyHolder, String column) {
+        List<Integer> ids = new ArrayList<>();
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            ids.add(((Number) keys.get(column)).intValue());
+        }
+        return ids;
+    }
+
+    /**
+     * Zapíše jeden pohyb do knihy transakcí jedním dotazem na databázovou funkci ledger_append.
+     * Zůstatek před transakcí se dopočítá v databázi pod zámkem knihy transakcí.
+     *
+     * @param description    Popis transakce.
+     * @param amount         Částka transakce (u výběru záporná).
+     * @param userId         ID uživatele provádějícího transakci nebo null.
+     * @param rejectNegative Zda odmítnout zápis, po kterém by byl zůstatek záporný.
+     * @return Zapsaný záznam včetně ID a zůstatků.
+     * @throws IllegalStateException Pokud by byl zůstatek po zápisu záporný.
+     */
+    public LedgerEntry appendEntry(String description, int amount, Integer userId, boolean rejectNegative) {
+        try {
+            return jdbcTemplate.queryForObject(
+                    "SELECT id_transaction, balance_before, balance_after FROM ledger_append(?, ?, NULL, ?, ?, ?)",
+                    (rs, rowNum) -> mapAppended(rs, description, amount, null, userId),
+                    description, amount, userId, rejectNegative, zone);
+        } catch (DataAccessException e) {
+            throw translateInsufficientFunds(e);
+        }
+    }
+
+    /**
+     * Vloží tržbu a její záznam v knize transakcí jedním dotazem na databázovou funkci ledger_post_sale.
+     * Tržbě se doplní vygenerované ID.
+     *
+     * @param sale        Tržba k vložení.
+     * @param description Popis transakce.
+     * @return Zapsaný záznam včetně ID a zůstatků.
+     */
+    public LedgerEntry postSale(Sale sale, String description) {
+        User user = sale.getUser();
+        Integer userId = user != null ? user.getIdUser() : null;
+        LedgerEntry entry = jdbcTemplate.queryForObject(
+                "SELECT id_sale, id_transaction, balance_before, balance_after FROM ledger_post_sale(?, ?, ?, ?, ?)",
+                (rs, rowNum) -> mapAppended(rs, description, sale.getAmount(), rs.getInt("id_sale"), userId),
+                sale.getAmount(), sale.getSoldGoods(), userId, description, zone);
+        sale.setIdSale(entry.getSaleId());
+        return entry;
+    }
+
+    private OpenLedgerEntry mapOpenSaleEntry(ResultSet rs) throws SQLException {
+        return new OpenLedgerEntry(rs.getInt("id_transaction"), rs.getString("description"), rs.getInt("amount"),
+                (Integer) rs.getObject("user_id"), rs.getInt("id_sale"), rs.getInt("sale_amount"), rs.getString("sold_goods"));
+    }
+
+    private LedgerEntry mapAppended(ResultSet rs, String description, int amount, Integer saleId, Integer userId) throws SQLException {
+        LedgerEntry entry = new LedgerEntry(description, amount, rs.getInt("balance_before"), rs.getInt("balance_after"), saleId, userId, false);
+        entry.setIdTransaction(rs.getInt("id_transaction"));
+        return entry;
+    }
+
+    private RuntimeException translateInsufficientFunds(DataAccessException e) {
+        if (e.getMostSpecificCause() instanceof SQLException sqlException
+                && INSUFFICIENT_FUNDS_STATE.equals(sqlException.getSQLState())) {
+            return new IllegalStateException("Nedostatek peněz v pokladně.");
+        }
+        return e;
+    }
+}
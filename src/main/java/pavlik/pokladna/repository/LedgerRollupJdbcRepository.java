@@ -0,0 +1,169 @@
+package pavlik.pokladna.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import pavlik.pokladna.entity.LedgerRollup;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Přístup k denním souhrnům knihy transakcí (tabulka ledger_daily_rollup) přes JDBC.
+ * Souhrny průběžně doplňují zápisy do knihy transakcí (viz {@link LedgerJdbcRepository#applyRollups(int, int)}),
+ * tento repozitář slouží pro jejich čtení a úplné přepočítání.
+ */
+@Repository
+public class LedgerRollupJdbcRepository {
+
+    private static final String COLUMNS =
+            "day, user_id, sales_count, sales_amount, deposits_count, deposits_amount, " +
+                    "withdrawals_count, withdrawals_amount, reversals_count, reversals_amount";
+
+    private static final String SUMS =
+            "SUM(sales_count) AS sales_count, SUM(sales_amount) AS sales_amount, " +
+                    "SUM(deposits_count) AS deposits_count, SUM(deposits_amount) AS deposits_amount, " +
+                    "SUM(withdrawals_count) AS withdrawals_count, SUM(withdrawals_amount) AS withdrawals_amount, " +
+                    "SUM(reversals_count) AS reversals_count, SUM(reversals_amount) AS reversals_amount";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final String zone;
+
+    /**
+     * Konstruktor pro LedgerRollupJdbcRepository.
+     *
+     * @param jdbcTemplate JdbcTemplate pro přístup k databázi.
+     * @param zone         Časové pásmo, ve kterém se určují hranice dnů.
+     */
+    @Autowired
+    public LedgerRollupJdbcRepository(JdbcTemplate jdbcTemplate, @Value("${pokladna.balance.zone:Europe/Prague}") String zone) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.zone = zone;
+    }
+
+    /**
+     * Vrátí souhrny za všechny pokladní po dnech v zadaném období.
+     *
+     * @param from První den (včetně).
+     * @param to   Poslední den (včetně).
+     * @return Souhrny seřazené podle dne, s userId null.
+     */
+    public List<LedgerRollup> findDaily(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(
+                "SELECT day, CAST(NULL AS INTEGER) AS user_id, " + SUMS + " FROM ledger_daily_rollup WHERE day BETWEEN ? AND ? GROUP BY day ORDER BY day",
+                (rs, rowNum) -> mapRollup(rs), Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * Vrátí souhrny po pokladních za celé zadané období.
+     *
+     * @param from První den (včetně).
+     * @param to   Poslední den (včetně).
+     * @return Souhrny seřazené podle ID uživatele, den je první den období.
+     */
+    public List<LedgerRollup> findByUser(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(
+                "SELECT CAST(? AS DATE) AS day, user_id, " + SUMS + " FROM ledger_daily_rollup WHERE day BETWEEN ? AND ? " +
+                        "GROUP BY user_id ORDER BY user_id NULLS LAST",
+                (rs, rowNum) -> mapRollup(rs), Date.valueOf(from), Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * Spočítá souhrny záznamů knihy transakcí s ID v zadaném rozsahu, bez zápisu.
+     *
+     * @param fromId Nejnižší ID (včetně).
+     * @param toId   Nejvyšší ID (včetně).
+     * @return Souhrny po dnech a uživatelích.
+     */
+    public List<LedgerRollup> compute(int fromId, int toId) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM ledger_rollup_compute(?, ?, ?)",
+                (rs, rowNum) -> mapRollup(rs), fromId, toId, zone);
+    }
+
+    /**
+     * @return Nejnižší a nejvyšší ID v knize transakcí, nebo null, pokud je kniha prázdná.
+     */
+    public int[] findTransactionIdRange() {
+        return jdbcTemplate.query("SELECT MIN(id_transaction), MAX(id_transaction) FROM financialtransaction",
+                rs -> {
+                    rs.next();
+                    int min = rs.getInt(1);
+                    return rs.wasNull() ? null : new int[]{min, rs.getInt(2)};
+                });
+    }
+
+    /**
+     * @return true, pokud neexistuje žádný souhrn.
+     */
+    public boolean isEmpty() {
+        return Boolean.FALSE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM ledger_daily_rollup)", Boolean.class));
+    }
+
+    /**
+     * Nahradí všechny souhrny zadanými.
+     *
+     * @param rollups Nové souhrny, nejvýše jeden pro každý den a uživatele.
+     */
+    public void replaceAll(List<LedgerRollup> rollups) {
+        jdbcTemplate.update("DELETE FROM ledger_daily_rollup");
+        jdbcTemplate.batchUpdate("INSERT INTO ledger_daily_rollup (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        LedgerRollup rollup = rollups.get(i);
+                        ps.setDate(1, Date.valueOf(rollup.getDay()));
+                        ps.setObject(2, rollup.getUserId(), Types.INTEGER);
+                        ps.setLong(3, rollup.getSalesCount());
+                        ps.setLong(4, rollup.getSalesAmount());
+                        ps.setLong(5, rollup.getDepositsCount());
+                        ps.setLong(6, rollup.getDepositsAmount());
+                        ps.setLong(7, rollup.getWithdrawalsCount());
+                        ps.setLong(8, rollup.getWithdrawalsAmount());
+                        ps.setLong(9, rollup.getReversalsCount());
+                        ps.setLong(10, rollup.getReversalsAmount());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rollups.size();
+                    }
+                });
+    }
+
+    /**
+     * Přesune souhrny uživatelů, kteří už neexistují, mezi souhrny bez uživatele,
+     * stejně jako se jejich záznamům v knize transakcí nastaví user_id na null.
+     *
+     * @return Počet přesunutých souhrnů.
+     */
+    public int reassignMissingUsers() {
+        return jdbcTemplate.update(
+                "WITH moved AS (" +
+                        "DELETE FROM ledger_daily_rollup r WHERE r.user_id IS NOT NULL " +
+                        "AND NOT EXISTS (SELECT 1 FROM users u WHERE u.id_user = r.user_id) RETURNING r.*) " +
+                        "INSERT INTO ledger_daily_rollup AS r (" + COLUMNS + ") " +
+                        "SELECT day, CAST(NULL AS INTEGER), " + SUMS + " FROM moved GROUP BY day " +
+                        "ON CONFLICT (day, (COALESCE(user_id, 0))) DO UPDATE SET " +
+                        "sales_count = r.sales_count + EXCLUDED.sales_count, sales_amount = r.sales_amount + EXCLUDED.sales_amount, " +
+                        "deposits_count = r.deposits_count + EXCLUDED.deposits_count, deposits_amount = r.deposits_amount + EXCLUDED.deposits_amount, " +
+                        "withdrawals_count = r.withdrawals_count + EXCLUDED.withdrawals_count, " +
+                        "withdrawals_amount = r.withdrawals_amount + EXCLUDED.withdrawals_amount, " +
+                        "reversals_count = r.reversals_count + EXCLUDED.reversals_count, reversals_amount = r.reversals_amount + EXCLUDED.reversals_amount");
+    }
+
+    private LedgerRollup mapRollup(ResultSet rs) throws SQLException {
+        return new LedgerRollup(rs.getDate("day").toLocalDate(), (Integer) rs.getObject("user_id"),
+                rs.getLong("sales_count"), rs.getLong("sales_amount"),
+                rs.getLong("deposits_count"), rs.getLong("deposits_amount"),
+                rs.getLong("withdrawals_count"), rs.getLong("withdrawals_amount"),
+                rs.getLong("reversals_count"), rs.getLong("reversals_amount"));
+    }
+}
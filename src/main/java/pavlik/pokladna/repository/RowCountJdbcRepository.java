@@ -0,0 +1,75 @@
+package pavlik.pokladna.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import pavlik.pokladna.entity.LedgerRowCounts;
+
+/**
+ * Zjišťování počtu řádků tabulek přes JDBC.
+ * Názvy tabulek se do dotazů doplňují jen z pevného výčtu, nikdy ze vstupu uživatele.
+ */
+@Repository
+public class RowCountJdbcRepository {
+
+    // odhad planovace: hustota radku ze statistik vynasobena aktualnim poctem stranek tabulky
+    private static final String ESTIMATE =
+            "SELECT CASE WHEN c.reltuples < 0 OR c.relpages = 0 THEN NULL " +
+                    "ELSE CAST(c.reltuples / c.relpages * (pg_relation_size(c.oid) / current_setting('block_size')::int) AS BIGINT) END " +
+                    "FROM pg_class c WHERE c.oid = to_regclass(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Konstruktor pro RowCountJdbcRepository.
+     *
+     * @param jdbcTemplate JdbcTemplate pro přístup k databázi.
+     */
+    @Autowired
+    public RowCountJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Spočítá přesný počet řádků tabulky.
+     *
+     * @param tableName Název tabulky.
+     * @return Počet řádků.
+     */
+    public long countExact(String tableName) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + tableName, Long.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Odhadne počet řádků tabulky ze statistik PostgreSQL.
+     *
+     * @param tableName Název tabulky.
+     * @return Odhad počtu řádků, nebo null, pokud tabulka ještě nebyla analyzována.
+     */
+    public Long estimate(String tableName) {
+        return jdbcTemplate.queryForObject(ESTIMATE, Long.class, "public." + tableName);
+    }
+
+    /**
+     * Spočítá záznamy knihy transakcí a tržby jedním dotazem a vrátí je spolu s ID posledního záznamu.
+     * Tabulky, které se počítat nemají, se neprochází a jejich počet je 0.
+     *
+     * @param transactions Zda spočítat záznamy knihy transakcí.
+     * @param sales        Zda spočítat tržby.
+     * @return Počty řádků ze stejného stavu databáze.
+     */
+    public LedgerRowCounts countLedger(boolean transactions, boolean sales) {
+        return jdbcTemplate.queryForObject(
+                "SELECT (SELECT MAX(id_transaction) FROM financialtransaction), " +
+                        (transactions ? "(SELECT COUNT(*) FROM financialtransaction)" : "0") + ", " +
+                        (sales ? "(SELECT COUNT(*) FROM sales)" : "0"),
+                (rs, rowNum) -> {
+                    int lastTransactionId = rs.getInt(1);
+                    if (rs.wasNull()) {
+                        lastTransactionId = Integer.MIN_VALUE;
+                    }
+                    return new LedgerRowCounts(lastTransactionId, rs.getLong(2), rs.getLong(3));
+                });
+    }
+}
@@ -1,13 +1,17 @@
 package pavlik.pokladna.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import pavlik.pokladna.entity.Sale;
+import pavlik.pokladna.entity.SaleListItem;
 
 import java.util.List;
+import java.util.Optional;
 
 
 /**
@@ -15,6 +19,13 @@ import java.util.List;
  */
 @Repository
 public interface SaleRepositoryInterface extends JpaRepository<Sale, Integer> {
+
+    /**
+     * Dotaz na řádky výpisu tržeb - jen zobrazované sloupce, uživatel připojen v jednom dotazu.
+     */
+    String LIST_ITEM_QUERY = "SELECT new pavlik.pokladna.entity.SaleListItem(s.idSale, s.amount, s.soldGoods, u.idUser, u.username) " +
+            "FROM Sale s LEFT JOIN s.user u";
+
     /**
      * Metoda pro nalezení prodejů prováděných daným uživatelem.
      *
@@ -30,4 +41,42 @@ public interface SaleRepositoryInterface extends JpaRepository<Sale, Integer> {
     @Modifying
     @Query("UPDATE Sale s SET s.user = null WHERE s.user.idUser IS NOT NULL")
     void updateSalesWithNullUserId();
+
+    /**
+     * Metoda pro nalezení řádků výpisu tržeb s ID menším než zadaný kurzor (stránkování podle klíče).
+     *
+     * @param idSale   Kurzor - ID, od kterého se hledají starší záznamy (exkluzivně).
+     * @param pageable Omezení počtu a řazení výsledků, bez dotazu na celkový počet.
+     * @return Řádky výpisu starší než kurzor.
+     */
+    @Query(LIST_ITEM_QUERY + " WHERE s.idSale < :idSale")
+    List<SaleListItem> findListItemsBefore(@Param("idSale") Integer idSale, Pageable pageable);
+
+    /**
+     * Metoda pro nalezení řádků výpisu tržeb s ID větším než zadaný kurzor (stránkování podle klíče).
+     *
+     * @param idSale   Kurzor - ID, od kterého se hledají novější záznamy (exkluzivně).
+     * @param pageable Omezení počtu a řazení výsledků, bez dotazu na celkový počet.
+     * @return Řádky výpisu novější než kurzor.
+     */
+    @Query(LIST_ITEM_QUERY + " WHERE s.idSale > :idSale")
+    List<SaleListItem> findListItemsAfter(@Param("idSale") Integer idSale, Pageable pageable);
+
+    /**
+     * Metoda pro načtení jedné stránky řádků výpisu tržeb bez načtení entit a bez dotazu na celkový počet.
+     *
+     * @param pageable Číslo a velikost stránky a řazení výsledků.
+     * @return Řádky výpisu na stránce.
+     */
+    @Query(LIST_ITEM_QUERY)
+    List<SaleListItem> findListItems(Pageable pageable);
+
+    /**
+     * Metoda pro nalezení řádku výpisu jedné tržby bez načtení entit.
+     *
+     * @param idSale ID tržby.
+     * @return Řádek výpisu, nebo prázdný Optional, pokud tržba neexistuje.
+     */
+    @Query(LIST_ITEM_QUERY + " WHERE s.idSale = :idSale")
+    Optional<SaleListItem> findListItemById(@Param("idSale") Integer idSale);
 }
@@ -7,15 +7,26 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import pavlik.pokladna.common.entity.TransactionListItem;
+import pavlik.pokladna.entity.LedgerTail;
 import pavlik.pokladna.entity.Transaction;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Rozhraní pro přístup k datům transakcí v databázi.
  */
 @Repository
 public interface TransactionRepositoryInterface extends JpaRepository<Transaction, Integer> {
+
+    /**
+     * Dotaz na řádky výpisu transakcí - jen zobrazované sloupce, tržba a uživatel připojeny v jednom dotazu.
+     */
+    String LIST_ITEM_QUERY = "SELECT new pavlik.pokladna.common.entity.TransactionListItem(t.idTransaction, t.description, t.amount, " +
+            "t.balanceBefore, t.balanceAfter, s.idSale, s.soldGoods, u.idUser, u.username, t.deleted) " +
+            "FROM Transaction t LEFT JOIN t.sale s LEFT JOIN t.user u";
+
     /**
      * Metoda pro nalezení poslední transakce.
      *
@@ -24,6 +35,22 @@ public interface TransactionRepositoryInterface extends JpaRepository<Transactio
     @Query(value = "SELECT * FROM financialTransaction ORDER BY id_transaction DESC LIMIT 1", nativeQuery = true)
     Transaction findLastTransaction();
 
+    /**
+     * Metoda pro nalezení ID a zůstatku posledního záznamu bez načtení celé entity.
+     *
+     * @return Projekce posledního záznamu nebo null, pokud je tabulka prázdná.
+     */
+    @Query(value = "SELECT id_transaction AS idTransaction, balance_after AS balanceAfter FROM financialTransaction ORDER BY id_transaction DESC LIMIT 1", nativeQuery = true)
+    LedgerTail findLedgerTail();
+
+    /**
+     * Metoda pro získání zůstatku po poslední transakci bez načtení celé entity.
+     *
+     * @return Zůstatek po poslední transakci nebo null, pokud je tabulka prázdná.
+     */
+    @Query(value = "SELECT balance_after FROM financialTransaction ORDER BY id_transaction DESC LIMIT 1", nativeQuery = true)
+    Integer findLastBalanceAfter();
+
     /**
      * Metoda pro nalezení transakce podle ID prodeje.
      *
@@ -57,11 +84,50 @@ public interface TransactionRepositoryInterface extends JpaRepository<Transactio
     void updateTransactionsWithNullUserId();
 
     /**
-     * Metoda pro získání prvních 20 transakcí seřazených podle id transakce sestupně.
+     * Metoda pro načtení jedné stránky řádků výpisu transakcí bez načtení entit a bez dotazu na celkový počet.
+     *
+     * @param pageable Číslo a velikost stránky a řazení výsledků.
+     * @return Řádky výpisu na stránce.
+     */
+    @Query(LIST_ITEM_QUERY)
+    List<TransactionListItem> findListItems(Pageable pageable);
+
+    /**
+     * Metoda pro nalezení řádků výpisu transakcí s ID menším než zadaný kurzor (stránkování podle klíče).
+     *
+     * @param idTransaction Kurzor - ID, od kterého se hledají starší záznamy (exkluzivně).
+     * @param pageable      Omezení počtu a řazení výsledků, bez dotazu na celkový počet.
+     * @return Řádky výpisu starší než kurzor.
+     */
+    @Query(LIST_ITEM_QUERY + " WHERE t.idTransaction < :idTransaction")
+    List<TransactionListItem> findListItemsBefore(@Param("idTransaction") Integer idTransaction, Pageable pageable);
+
+    /**
+     * Metoda pro nalezení řádků výpisu transakcí s ID větším než zadaný kurzor (stránkování podle klíče).
+     *
+     * @param idTransaction Kurzor - ID, od kterého se hledají novější záznamy (exkluzivně).
+     * @param pageable      Omezení počtu a řazení výsledků, bez dotazu na celkový počet.
+     * @return Řádky výpisu novější než kurzor.
+     */
+    @Query(LIST_ITEM_QUERY + " WHERE t.idTransaction > :idTransaction")
+    List<TransactionListItem> findListItemsAfter(@Param("idTransaction") Integer idTransaction, Pageable pageable);
+
+    /**
+     * Metoda pro nalezení řádku výpisu jedné transakce bez načtení entit.
+     *
+     * @param idTransaction ID transakce.
+     * @return Řádek výpisu, nebo prázdný Optional, pokud transakce neexistuje.
+     */
+    @Query(LIST_ITEM_QUERY + " WHERE t.idTransaction = :idTransaction")
+    Optional<TransactionListItem> findListItemById(@Param("idTransaction") Integer idTransaction);
+
+    /**
+     * Metoda pro načtení řádků výpisu transakcí s ID menším nebo rovným zadanému, bez načtení entit.
      *
-     * @param pageable Objekt Pageable pro stránkování výsledků.
-     * @return Seznam prvních 20 transakcí seřazených podle id transakce sestupně.
+     * @param lastId   Nejvyšší ID (včetně).
+     * @param pageable Omezení počtu výsledků.
+     * @return Řádky výpisu seřazené sestupně podle ID.
      */
-    @Query("SELECT t FROM Transaction t ORDER BY t.idTransaction DESC")
-    List<Transaction> findFirst20Transactions(Pageable pageable);
+    @Query(LIST_ITEM_QUERY + " WHERE t.idTransaction <= :lastId ORDER BY t.idTransaction DESC")
+    List<TransactionListItem> findListItemsUpTo(@Param("lastId") Integer lastId, Pageable pageable);
 }
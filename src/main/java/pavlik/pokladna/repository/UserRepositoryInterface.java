@@ -1,9 +1,12 @@
 package pavlik.pokladna.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import pavlik.pokladna.entity.User;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -20,4 +23,37 @@ public interface UserRepositoryInterface extends JpaRepository<User, Integer> {
      */
     Optional<User> findByUsername(String username);
 
+    /**
+     * Metoda pro získání ID všech uživatelů bez načtení entit.
+     *
+     * @return Seznam ID všech uživatelů.
+     */
+    @Query("SELECT u.idUser FROM User u")
+    List<Integer> findAllIds();
+
+    /**
+     * Metoda pro nalezení uživatelů s ID menším než zadaný kurzor (stránkování podle klíče).
+     *
+     * @param idUser   Kurzor - ID, od kterého se hledají starší záznamy (exkluzivně).
+     * @param pageable Omezení počtu a řazení výsledků, bez dotazu na celkový počet.
+     * @return Seznam uživatelů starších než kurzor.
+     */
+    List<User> findByIdUserLessThan(Integer idUser, Pageable pageable);
+
+    /**
+     * Metoda pro nalezení uživatelů s ID větším než zadaný kurzor (stránkování podle klíče).
+     *
+     * @param idUser   Kurzor - ID, od kterého se hledají novější záznamy (exkluzivně).
+     * @param pageable Omezení počtu a řazení výsledků, bez dotazu na celkový počet.
+     * @return Seznam uživatelů novějších než kurzor.
+     */
+    List<User> findByIdUserGreaterThan(Integer idUser, Pageable pageable);
+
+    /**
+     * Metoda pro načtení jedné stránky uživatelů bez dotazu na celkový počet.
+     *
+     * @param pageable Číslo a velikost stránky a řazení výsledků.
+     * @return Seznam uživatelů na stránce.
+     */
+    List<User> findAllBy(Pageable pageable);
 }
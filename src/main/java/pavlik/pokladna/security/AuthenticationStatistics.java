@@ -0,0 +1,88 @@
+package pavlik.pokladna.security;
+
+import pavlik.pokladna.service.ExpiringCache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistiky přihlašování - úspěšnost mezipaměti uživatelů a doba zpracování přihlášení.
+ */
+public class AuthenticationStatistics {
+
+    private final ExpiringCache<?, ?> userCache;
+
+    private final AtomicLong loginCount = new AtomicLong();
+    private final AtomicLong failedLoginCount = new AtomicLong();
+    private final AtomicLong totalLoginNanos = new AtomicLong();
+    private final AtomicLong maxLoginNanos = new AtomicLong();
+    private volatile long lastLoginNanos;
+
+    /**
+     * Konstruktor pro statistiky.
+     *
+     * @param userCache Mezipaměť uživatelů pro přihlášení.
+     */
+    AuthenticationStatistics(ExpiringCache<?, ?> userCache) {
+        this.userCache = userCache;
+    }
+
+    /**
+     * Zaznamená jedno přihlášení.
+     *
+     * @param successful Zda bylo přihlášení úspěšné.
+     * @param loginNanos Doba zpracování přihlášení v nanosekundách.
+     */
+    void recordLogin(boolean successful, long loginNanos) {
+        loginCount.incrementAndGet();
+        if (!successful) {
+            failedLoginCount.incrementAndGet();
+        }
+        totalLoginNanos.addAndGet(loginNanos);
+        maxLoginNanos.accumulateAndGet(loginNanos, Math::max);
+        lastLoginNanos = loginNanos;
+    }
+
+    public long getCacheHits() {
+        return userCache.getHits();
+    }
+
+    public long getCacheMisses() {
+        return userCache.getMisses();
+    }
+
+    public double getCacheHitRate() {
+        long hits = userCache.getHits();
+        long total = hits + userCache.getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public int getCacheSize() {
+        return userCache.size();
+    }
+
+    public long getLoginCount() {
+        return loginCount.get();
+    }
+
+    public long getFailedLoginCount() {
+        return failedLoginCount.get();
+    }
+
+    public double getLastLoginMillis() {
+        return toMillis(lastLoginNanos);
+    }
+
+    public double getMaxLoginMillis() {
+        return toMillis(maxLoginNanos.get());
+    }
+
+    public double getAverageLoginMillis() {
+        long logins = loginCount.get();
+        return logins == 0 ? 0 : toMillis(totalLoginNanos.get()) / logins;
+    }
+
+    private static double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
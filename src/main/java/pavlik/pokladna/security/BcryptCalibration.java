@@ -0,0 +1,43 @@
+package pavlik.pokladna.security;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+/**
+ * Nastavení náročnosti bcrypt podle výkonu serveru.
+ * Změří dobu hashe s nejnižší povolenou náročností a zvyšuje ji, dokud hash nepřesáhne cílovou dobu.
+ * Každé zvýšení náročnosti o 1 dobu hashe zdvojnásobí.
+ */
+final class BcryptCalibration {
+
+    private static final int MEASUREMENTS = 3;
+
+    private BcryptCalibration() {
+    }
+
+    /**
+     * Určí náročnost, při které hash trvá nejvýše cílovou dobu.
+     *
+     * @param targetMs    Cílová doba jednoho hashe (ms).
+     * @param minStrength Nejnižší náročnost.
+     * @param maxStrength Nejvyšší náročnost.
+     * @return Náročnost pro bcrypt.
+     */
+    static int calibrate(long targetMs, int minStrength, int maxStrength) {
+        // prvni mereni zahrne zahrati JIT, pouzije se nejkratsi doba
+        BCrypt.hashpw("kalibrace", BCrypt.gensalt(minStrength));
+        long nanos = Long.MAX_VALUE;
+        for (int i = 0; i < MEASUREMENTS; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("kalibrace", BCrypt.gensalt(minStrength));
+            nanos = Math.min(nanos, System.nanoTime() - start);
+        }
+
+        long targetNanos = targetMs * 1_000_000L;
+        int strength = minStrength;
+        while (strength < maxStrength && nanos * 2 <= targetNanos) {
+            nanos *= 2;
+            strength++;
+        }
+        return strength;
+    }
+}
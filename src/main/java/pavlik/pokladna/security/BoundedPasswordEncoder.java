@@ -0,0 +1,119 @@
+package pavlik.pokladna.security;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashování hesel na omezeném počtu vláken.
+ * Výpočet hashe je záměrně náročný na procesor. Při hromadném přihlašování by ho jinak počítala všechna vlákna
+ * serveru současně a zpomalila by tím i ostatní požadavky. Zde se současně počítá nejvýše tolik hashů,
+ * kolik je vláken, další čekají v omezené frontě. Pokud je fronta plná nebo se na výsledek čeká příliš dlouho,
+ * přihlášení se odmítne.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private final PasswordEncoder delegate;
+
+    private final ThreadPoolExecutor executor;
+
+    private final long timeoutMs;
+
+    /**
+     * Konstruktor pro BoundedPasswordEncoder.
+     *
+     * @param delegate      Kódování hesel, které se provádí na vláknech pro hashování.
+     * @param threads       Počet vláken pro hashování.
+     * @param queueCapacity Nejvyšší počet čekajících požadavků.
+     * @param timeoutMs     Nejdelší doba čekání na výsledek (ms).
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long timeoutMs) {
+        this.delegate = delegate;
+        this.timeoutMs = timeoutMs;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Zakóduje heslo. Volá se při vytvoření a změně uživatele.
+     *
+     * @throws IllegalStateException Pokud je hashování přetížené.
+     */
+    @Override
+    public String encode(CharSequence rawPassword) {
+        try {
+            return call(() -> delegate.encode(rawPassword));
+        } catch (AuthenticationServiceException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Ověří heslo. Volá se při přihlášení.
+     *
+     * @throws AuthenticationServiceException Pokud je hashování přetížené, přihlášení se odmítne.
+     */
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return call(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * @return Počet požadavků čekajících na vlákno pro hashování.
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Ukončí vlákna pro hashování.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private <T> T call(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new AuthenticationServiceException("Příliš mnoho současných přihlášení, zkuste to prosím znovu.", e);
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new AuthenticationServiceException("Ověření hesla trvalo příliš dlouho, zkuste to prosím znovu.", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AuthenticationServiceException("Ověření hesla bylo přerušeno.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
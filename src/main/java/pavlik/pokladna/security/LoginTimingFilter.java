@@ -0,0 +1,52 @@
+package pavlik.pokladna.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Měří dobu zpracování přihlášení formulářem a zapisuje ji do statistik přihlašování.
+ */
+public class LoginTimingFilter extends OncePerRequestFilter {
+
+    private final String loginProcessingUrl;
+
+    private final AuthenticationStatistics statistics;
+
+    /**
+     * Konstruktor pro LoginTimingFilter.
+     *
+     * @param loginProcessingUrl Adresa, na kterou se odesílá přihlašovací formulář.
+     * @param statistics         Statistiky přihlašování.
+     */
+    public LoginTimingFilter(String loginProcessingUrl, AuthenticationStatistics statistics) {
+        this.loginProcessingUrl = loginProcessingUrl;
+        this.statistics = statistics;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !loginProcessingUrl.equals(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            boolean successful = authentication != null && authentication.isAuthenticated()
+                    && !(authentication instanceof AnonymousAuthenticationToken);
+            statistics.recordLogin(successful, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package pavlik.pokladna.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+
+/**
+ * Kódování hesel.
+ * Nová hesla se ukládají jako bcrypt ({@code {bcrypt}...}), dříve uložená hesla ve tvaru {@code {noop}...}
+ * se dál ověřují a při příštím úspěšném přihlášení se převedou na bcrypt.
+ * Náročnost bcrypt se při startu nastaví tak, aby hash trval přibližně cílovou dobu.
+ */
+@Configuration
+public class PasswordEncoderConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordEncoderConfig.class);
+
+    /**
+     * Kódování hesel pro přihlášení a správu uživatelů.
+     *
+     * @param strength      Pevná náročnost bcrypt, 0 pro nastavení podle výkonu serveru.
+     * @param targetMs      Cílová doba jednoho hashe při nastavení podle výkonu (ms).
+     * @param minStrength   Nejnižší náročnost bcrypt.
+     * @param maxStrength   Nejvyšší náročnost bcrypt.
+     * @param threads       Počet vláken pro hashování, 0 pro počet procesorů.
+     * @param queueCapacity Nejvyšší počet požadavků čekajících na hashování.
+     * @param timeoutMs     Nejdelší doba čekání na výsledek hashování (ms).
+     * @return Kódování hesel.
+     */
+    @Bean
+    // NoOpPasswordEncoder jen pro overeni starsich hesel {noop}, pri prihlaseni se prevedou na bcrypt
+    @SuppressWarnings("deprecation")
+    public PasswordEncoder passwordEncoder(@Value("${pokladna.security.bcrypt.strength:0}") int strength,
+                                           @Value("${pokladna.security.bcrypt.target-ms:250}") long targetMs,
+                                           @Value("${pokladna.security.bcrypt.min-strength:10}") int minStrength,
+                                           @Value("${pokladna.security.bcrypt.max-strength:14}") int maxStrength,
+                                           @Value("${pokladna.security.hashing.threads:0}") int threads,
+                                           @Value("${pokladna.security.hashing.queue-capacity:256}") int queueCapacity,
+                                           @Value("${pokladna.security.hashing.timeout-ms:10000}") long timeoutMs) {
+        int bcryptStrength = strength > 0 ? strength : BcryptCalibration.calibrate(targetMs, minStrength, maxStrength);
+        int hashingThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        logger.info("Hesla se kódují bcrypt s náročností {} na {} vláknech.", bcryptStrength, hashingThreads);
+
+        DelegatingPasswordEncoder delegatingEncoder = new DelegatingPasswordEncoder("bcrypt", Map.of(
+                "bcrypt", new BCryptPasswordEncoder(bcryptStrength),
+                "noop", NoOpPasswordEncoder.getInstance()));
+        return new BoundedPasswordEncoder(delegatingEncoder, hashingThreads, queueCapacity, timeoutMs);
+    }
+}
@@ -0,0 +1,136 @@
+package pavlik.pokladna.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import pavlik.pokladna.service.ExpiringCache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Načítání uživatelů pro přihlášení.
+ * Uživatel i jeho oprávnění se načtou jedním dotazem a uloží se do mezipaměti s omezenou platností,
+ * opakované přihlášení téhož uživatele (např. při střídání směn) tak nejde do databáze.
+ * Mezipaměť zneplatňuje {@link pavlik.pokladna.service.UserService} při vytvoření, změně a smazání uživatele.
+ * Heslo uložené starším způsobem (např. {@code {noop}}) se po úspěšném přihlášení uloží znovu jako bcrypt.
+ */
+@Service
+public class PokladnaUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final String USER_WITH_AUTHORITIES = """
+            SELECT u.username, u.password, u.enabled, a.authority
+            FROM public.users u
+            LEFT JOIN public.authorities a ON a.username = u.username
+            WHERE u.username = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ExpiringCache<String, UserDetails> userCache;
+
+    private final AuthenticationStatistics statistics;
+
+    /**
+     * Konstruktor pro PokladnaUserDetailsService.
+     *
+     * @param jdbcTemplate JdbcTemplate pro přístup k databázi.
+     * @param ttlMs        Doba platnosti uživatele v mezipaměti (ms).
+     * @param maxSize      Nejvyšší počet uživatelů v mezipaměti.
+     */
+    @Autowired
+    public PokladnaUserDetailsService(JdbcTemplate jdbcTemplate,
+                                      @Value("${pokladna.security.user-cache.ttl-ms:300000}") long ttlMs,
+                                      @Value("${pokladna.security.user-cache.max-size:1000}") int maxSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userCache = new ExpiringCache<>(ttlMs, maxSize);
+        this.statistics = new AuthenticationStatistics(userCache);
+    }
+
+    /**
+     * Vrátí uživatele pro přihlášení z mezipaměti, nebo ho načte z databáze.
+     *
+     * @param username Uživatelské jméno.
+     * @return Uživatel s heslem a oprávněními.
+     * @throws UsernameNotFoundException Pokud uživatel neexistuje nebo nemá žádné oprávnění.
+     */
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        UserDetails cachedUser = userCache.get(username, this::loadUser);
+        if (cachedUser == null) {
+            throw new UsernameNotFoundException("Uživatel " + username + " nebyl nalezen.");
+        }
+        // po prihlaseni se heslo z uzivatele maze, v mezipameti proto zustava puvodni instance
+        return User.withUserDetails(cachedUser).build();
+    }
+
+    /**
+     * Uloží heslo převedené na aktuální způsob kódování po úspěšném přihlášení.
+     * Heslo se přepíše jen tehdy, pokud se mezitím nezměnilo.
+     *
+     * @param user        Přihlášený uživatel s původním zakódovaným heslem.
+     * @param newPassword Nově zakódované heslo.
+     * @return Uživatel s novým heslem.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        jdbcTemplate.update("UPDATE public.users SET password = ? WHERE username = ? AND password = ?",
+                newPassword, user.getUsername(), user.getPassword());
+        evict(user.getUsername());
+        return User.withUserDetails(user).password(newPassword).build();
+    }
+
+    /**
+     * Odstraní uživatele z mezipaměti.
+     *
+     * @param username Uživatelské jméno.
+     */
+    public void evict(String username) {
+        userCache.invalidate(username);
+    }
+
+    /**
+     * Odstraní všechny uživatele z mezipaměti.
+     */
+    public void evictAll() {
+        userCache.invalidateAll();
+    }
+
+    /**
+     * @return Statistiky mezipaměti uživatelů a doby přihlášení.
+     */
+    public AuthenticationStatistics getStatistics() {
+        return statistics;
+    }
+
+    private UserDetails loadUser(String username) {
+        return jdbcTemplate.query(USER_WITH_AUTHORITIES, (ResultSetExtractor<UserDetails>) rs -> {
+            User.UserBuilder builder = null;
+            List<String> authorities = new ArrayList<>();
+            while (rs.next()) {
+                if (builder == null) {
+                    builder = User.withUsername(rs.getString("username"))
+                            .password(rs.getString("password"))
+                            .disabled(!rs.getBoolean("enabled"));
+                }
+                String authority = rs.getString("authority");
+                if (authority != null) {
+                    authorities.add(authority);
+                }
+            }
+
+            // uzivatel bez opravneni se nemuze prihlasit
+            if (builder == null || authorities.isEmpty()) {
+                return null;
+            }
+            return builder.authorities(authorities.toArray(String[]::new)).build();
+        }, username);
+    }
+}
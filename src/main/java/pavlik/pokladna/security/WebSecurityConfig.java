@@ -2,36 +2,68 @@ package pavlik.pokladna.security;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.provisioning.JdbcUserDetailsManager;
-import org.springframework.security.provisioning.UserDetailsManager;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
-
-import javax.sql.DataSource;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestHeaderRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 @Configuration
 public class WebSecurityConfig {
 
+    private static final String LOGIN_PROCESSING_URL = "/authenticateTheUser";
+
+    // pokladny a Prometheus volaji bez prohlizece - HTTP Basic u kazdeho pozadavku, bez session a CSRF tokenu;
+    // cteni API s hlavickou Authorization (session cookie z prohlizece jde do hlavniho retezce)
+    private static final RequestMatcher BASIC_CLIENT_REQUESTS = new OrRequestMatcher(
+            new AntPathRequestMatcher("/api/sales/bulk"),
+            new AntPathRequestMatcher("/actuator/**"),
+            new AndRequestMatcher(new AntPathRequestMatcher("/api/**", "GET"), new RequestHeaderRequestMatcher("Authorization")));
+
+    // uzivatele pro prihlaseni nacita PokladnaUserDetailsService (jeden dotaz, mezipamet)
 
     @Bean
-    public UserDetailsManager userDetailsManager(DataSource dataSource) {
-        return new JdbcUserDetailsManager(dataSource);
+    @Order(1)
+    public SecurityFilterChain basicClientFilterChain(HttpSecurity http) throws Exception {
+        http.securityMatcher(BASIC_CLIENT_REQUESTS)
+                .authorizeHttpRequests(configurer ->
+                        configurer
+                                // stav aplikace pro load balancer, metriky (Prometheus) jen pro spravce
+                                .requestMatchers("/actuator/health").permitAll()
+                                .requestMatchers("/actuator/**").hasAnyRole("ADMIN")
+                                .requestMatchers("/api/sales/bulk").hasAnyRole("EMPLOYEE")
+                                .requestMatchers("/api/users/**", "/api/reports/**").hasAnyRole("ADMIN")
+                                .anyRequest().authenticated()
+                )
+                .httpBasic(Customizer.withDefaults())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .csrf(csrf -> csrf.disable());
+
+        return http.build();
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    @Order(2)
+    public SecurityFilterChain filterChain(HttpSecurity http, PokladnaUserDetailsService userDetailsService) throws Exception {
         http.authorizeHttpRequests(configurer ->
                         configurer
                                 .requestMatchers("/js/**", "/css/**").permitAll()
                                 .requestMatchers(
                                         "/",
-                                        "/sales/index/**", "/sales/show/**", "/sales/create/**",
-                                        "/transactions/index/**", "/transactions/show/**", "/transactions/currentBalance"
+                                        "/sales/index/**", "/sales/seek", "/sales/show/**", "/sales/create/**",
+                                        "/transactions/index/**", "/transactions/seek", "/transactions/show/**", "/transactions/currentBalance"
                                 ).hasAnyRole("EMPLOYEE")
                                 .requestMatchers(
                                         "/admin",
-                                        "/sales/delete/**", "/sales/deleteAll/**",
+                                        "/sales/delete/**", "/sales/deleteAll/**", "/sales/export",
                                         "/transactions/deposit", "/transactions/withdraw", "/transactions/delete/**", "/transactions/deleteAll/**",
+                                        "/transactions/export", "/users/export", "/users/seek", "/api/users/**", "/api/reports/**",
                                         "users/**"
                                 ).hasAnyRole("ADMIN")
 
@@ -40,14 +72,16 @@ public class WebSecurityConfig {
                 .formLogin(form ->
                         form
                                 .loginPage("/authentication/login")
-                                .loginProcessingUrl("/authenticateTheUser")
+                                .loginProcessingUrl(LOGIN_PROCESSING_URL)
                                 .permitAll()
                 )
                 .logout(logout -> logout.permitAll()
                 )
                 .exceptionHandling(configurer ->
                         configurer.accessDeniedPage("/authentication/accesDenied")
-                );
+                )
+                .addFilterBefore(new LoginTimingFilter(LOGIN_PROCESSING_URL, userDetailsService.getStatistics()),
+                        UsernamePasswordAuthenticationFilter.class);
 
 
         return http.build();
@@ -0,0 +1,150 @@
+package pavlik.pokladna.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pavlik.pokladna.common.entity.BalancePoint;
+import pavlik.pokladna.common.service.BalanceDownsampler;
+import pavlik.pokladna.repository.BalanceHistoryJdbcRepository;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Služba pro zjištění zůstatku pokladny k libovolnému bodu v historii a pro průběh zůstatku pro graf.
+ * Záznamy zapsané před zavedením času zápisu mají čas null - zůstatek k okamžiku před prvním záznamem
+ * s časem proto není znám a dotaz skončí chybou místo nulového zůstatku.
+ */
+@Service
+public class BalanceHistoryService {
+
+    private final BalanceHistoryJdbcRepository balanceHistoryRepository;
+
+    private final ZoneId zone;
+
+    /**
+     * Konstruktor pro BalanceHistoryService.
+     *
+     * @param balanceHistoryRepository Repozitář pro dotazy na historii zůstatku.
+     * @param zone                     Časové pásmo, ve kterém se určují hranice dnů.
+     */
+    @Autowired
+    public BalanceHistoryService(BalanceHistoryJdbcRepository balanceHistoryRepository,
+                                 @Value("${pokladna.balance.zone:Europe/Prague}") ZoneId zone) {
+        this.balanceHistoryRepository = balanceHistoryRepository;
+        this.zone = zone;
+    }
+
+    /**
+     * Vrátí zůstatek po zadané transakci.
+     * Pokud transakce s tímto ID neexistuje, vrátí zůstatek po nejbližší starší transakci.
+     *
+     * @param idTransaction ID transakce.
+     * @return Zůstatek po transakci.
+     */
+    public BalancePoint getBalanceAtTransaction(int idTransaction) {
+        return orEmpty(balanceHistoryRepository.findAtTransaction(idTransaction));
+    }
+
+    /**
+     * Vrátí zůstatek v zadaném okamžiku, tedy po poslední transakci zapsané nejpozději v tomto okamžiku.
+     *
+     * @param at Okamžik.
+     * @return Zůstatek v daném okamžiku.
+     * @throws IllegalArgumentException Pokud okamžik předchází prvnímu záznamu se známým časem zápisu.
+     */
+    public BalancePoint getBalanceAt(OffsetDateTime at) {
+        return orEmptyIfKnown(balanceHistoryRepository.findAtOrBefore(at), at);
+    }
+
+    /**
+     * Vrátí zůstatek na konci zadaného dne (po poslední transakci dne nebo dnů předchozích).
+     *
+     * @param day Den v nastaveném časovém pásmu.
+     * @return Zůstatek na konci dne.
+     * @throws IllegalArgumentException Pokud den předchází prvnímu záznamu se známým časem zápisu.
+     */
+    public BalancePoint getClosingBalance(LocalDate day) {
+        OffsetDateTime nextDayStart = day.plusDays(1).atStartOfDay(zone).toOffsetDateTime();
+        return orEmptyIfKnown(balanceHistoryRepository.findBefore(nextDayStart), nextDayStart);
+    }
+
+    /**
+     * Vrátí zůstatky po posledních transakcích.
+     *
+     * @param count Počet transakcí.
+     * @return Zůstatky seřazené vzestupně podle ID transakce.
+     */
+    public List<BalancePoint> getLastBalances(int count) {
+        return balanceHistoryRepository.findLast(count);
+    }
+
+    /**
+     * Vrátí průběh zůstatku po transakcích v rozsahu ID zmenšený na nejvýše zadaný počet bodů.
+     * Řada se projde jednou a v paměti se drží jen body vybrané pro výsledek.
+     *
+     * @param fromId    Nejnižší ID (včetně), nebo null pro začátek knihy transakcí.
+     * @param toId      Nejvyšší ID (včetně), nebo null pro konec knihy transakcí.
+     * @param maxPoints Nejvyšší počet bodů výsledku.
+     * @return Body průběhu zůstatku seřazené podle ID transakce.
+     */
+    @Transactional(readOnly = true)
+    public List<BalancePoint> getHistoryByIds(Integer fromId, Integer toId, int maxPoints) {
+        int[] bounds = balanceHistoryRepository.findIdBounds(fromId != null ? fromId : Integer.MIN_VALUE,
+                toId != null ? toId : Integer.MAX_VALUE);
+        if (bounds == null) {
+            return List.of();
+        }
+        BalanceDownsampler downsampler = new BalanceDownsampler(bounds[0], bounds[1], maxPoints);
+        balanceHistoryRepository.streamByIds(bounds[0], bounds[1], point -> downsampler.add(point.getIdTransaction(), point));
+        return downsampler.result();
+    }
+
+    /**
+     * Vrátí průběh zůstatku v období zmenšený na nejvýše zadaný počet bodů.
+     * Řada se projde jednou a v paměti se drží jen body vybrané pro výsledek.
+     *
+     * @param from      Začátek období (včetně).
+     * @param to        Konec období (včetně).
+     * @param maxPoints Nejvyšší počet bodů výsledku.
+     * @return Body průběhu zůstatku seřazené podle ID transakce.
+     * @throws IllegalArgumentException Pokud začátek období předchází prvnímu záznamu se známým časem zápisu.
+     */
+    @Transactional(readOnly = true)
+    public List<BalancePoint> getHistoryByTime(OffsetDateTime from, OffsetDateTime to, int maxPoints) {
+        if (balanceHistoryRepository.hasEntriesWithoutTime()) {
+            OffsetDateTime earliest = balanceHistoryRepository.findEarliestTime();
+            if (earliest == null || from.isBefore(earliest)) {
+                throw unknownBefore(earliest);
+            }
+        }
+        BalanceDownsampler downsampler = new BalanceDownsampler(0, ChronoUnit.MICROS.between(from, to), maxPoints);
+        balanceHistoryRepository.streamByTime(from, to,
+                point -> downsampler.add(ChronoUnit.MICROS.between(from, point.getCreatedAt()), point));
+        return downsampler.result();
+    }
+
+    private BalancePoint orEmpty(BalancePoint point) {
+        return point != null ? point : BalancePoint.empty();
+    }
+
+    /**
+     * Prázdný výsledek znamená nulový zůstatek jen tehdy, pokud před hledaným okamžikem opravdu nic nebylo zapsáno.
+     */
+    private BalancePoint orEmptyIfKnown(BalancePoint point, OffsetDateTime at) {
+        if (point == null && balanceHistoryRepository.hasEntriesWithoutTime()) {
+            throw unknownBefore(balanceHistoryRepository.findEarliestTime());
+        }
+        return orEmpty(point);
+    }
+
+    private IllegalArgumentException unknownBefore(OffsetDateTime earliest) {
+        return new IllegalArgumentException(earliest == null
+                ? "Záznamy knihy transakcí nemají čas zápisu, zůstatek k okamžiku není znám."
+                : "Zůstatek před " + earliest + " není znám, starší záznamy knihy transakcí nemají čas zápisu.");
+    }
+}
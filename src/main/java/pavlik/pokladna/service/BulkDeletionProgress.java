@@ -0,0 +1,99 @@
+package pavlik.pokladna.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Průběh hromadného odstraňování záznamů - počet zpracovaných záznamů a výsledek operace.
+ */
+public class BulkDeletionProgress {
+
+    /**
+     * Stav hromadného odstraňování.
+     */
+    public enum State {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    private final AtomicLong processed = new AtomicLong();
+    private final long startedAt = System.currentTimeMillis();
+    private volatile State state = State.RUNNING;
+    private volatile long total;
+    private volatile long finishedAt;
+    private volatile String message;
+
+    /**
+     * Nastaví celkový počet záznamů určených k odstranění.
+     *
+     * @param total Celkový počet záznamů.
+     */
+    void begin(long total) {
+        this.total = total;
+    }
+
+    /**
+     * Připočte zpracované záznamy.
+     *
+     * @param count Počet nově zpracovaných záznamů.
+     */
+    void advance(int count) {
+        processed.addAndGet(count);
+    }
+
+    /**
+     * Označí operaci jako úspěšně dokončenou.
+     *
+     * @param message Zpráva o výsledku.
+     */
+    void complete(String message) {
+        this.message = message;
+        this.finishedAt = System.currentTimeMillis();
+        this.state = State.COMPLETED;
+    }
+
+    /**
+     * Označí operaci jako neúspěšnou. Změny provedené operací byly vráceny.
+     *
+     * @param message Popis chyby.
+     */
+    void fail(String message) {
+        this.message = message;
+        this.finishedAt = System.currentTimeMillis();
+        this.state = State.FAILED;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getProcessed() {
+        return processed.get();
+    }
+
+    public int getPercent() {
+        long currentTotal = total;
+        if (state == State.COMPLETED || currentTotal == 0) {
+            return state == State.RUNNING ? 0 : 100;
+        }
+        return (int) Math.min(100, processed.get() * 100 / currentTotal);
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public boolean isRunning() {
+        return state == State.RUNNING;
+    }
+}
@@ -0,0 +1,29 @@
+package pavlik.pokladna.service;
+
+/**
+ * Způsob určení celkového počtu řádků tabulky pro stránkované seznamy.
+ */
+public enum CountStrategy {
+
+    /**
+     * Přesný počet dotazem COUNT(*). Vhodné pro malé tabulky, u velkých tabulek prochází celý index nebo tabulku.
+     */
+    EXACT,
+
+    /**
+     * Odhad ze statistik PostgreSQL (pg_class), přepočtený na aktuální velikost tabulky.
+     * Stojí jeden dotaz do katalogu bez ohledu na velikost tabulky, může se ale o několik procent lišit.
+     */
+    ESTIMATE,
+
+    /**
+     * Počítadlo v paměti, načtené při startu a průběžně aktualizované zápisy do knihy transakcí.
+     * Dostupné jen pro tabulky financialtransaction a sales.
+     */
+    COUNTER,
+
+    /**
+     * Odhad ze statistik, pod nastaveným prahem přesný počet.
+     */
+    AUTO
+}
@@ -0,0 +1,23 @@
+package pavlik.pokladna.service;
+
+/**
+ * Tabulky, jejichž celkový počet řádků se zobrazuje u stránkovaných seznamů.
+ */
+public enum CountedTable {
+    TRANSACTIONS("financialtransaction"),
+    SALES("sales"),
+    USERS("users");
+
+    private final String tableName;
+
+    CountedTable(String tableName) {
+        this.tableName = tableName;
+    }
+
+    /**
+     * @return Název tabulky v databázi.
+     */
+    public String getTableName() {
+        return tableName;
+    }
+}
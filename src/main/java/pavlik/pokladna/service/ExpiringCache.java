@@ -0,0 +1,140 @@
+package pavlik.pokladna.service;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Jednoduchá mezipaměť s omezenou dobou platnosti záznamů a omezeným počtem záznamů.
+ * Hodnota načtená během zneplatnění se do mezipaměti neuloží, po změně dat se tedy nevrátí starý stav.
+ * Hodnoty null se neukládají.
+ *
+ * @param <K> Typ klíče.
+ * @param <V> Typ hodnoty.
+ */
+public class ExpiringCache<K, V> {
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    private final long ttlNanos;
+
+    private final int maxSize;
+
+    private final LongSupplier clock;
+
+    // zvysuje se pri kazdem zneplatneni
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Konstruktor pro ExpiringCache.
+     *
+     * @param ttlMillis Doba platnosti záznamu v milisekundách.
+     * @param maxSize   Nejvyšší počet záznamů.
+     */
+    public ExpiringCache(long ttlMillis, int maxSize) {
+        this(ttlMillis, maxSize, System::nanoTime);
+    }
+
+    ExpiringCache(long ttlMillis, int maxSize, LongSupplier clock) {
+        if (ttlMillis < 0 || maxSize < 1) {
+            throw new IllegalArgumentException("Doba platnosti nesmí být záporná a velikost mezipaměti musí být kladná.");
+        }
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    /**
+     * Vrátí platnou hodnotu z mezipaměti, nebo ji načte a uloží.
+     *
+     * @param key    Klíč.
+     * @param loader Načtení hodnoty, pokud v mezipaměti není.
+     * @return Hodnota, nebo null, pokud ji nelze načíst.
+     */
+    public V get(K key, Function<K, V> loader) {
+        long now = clock.getAsLong();
+        Entry<V> entry = entries.get(key);
+        if (entry != null && now - entry.loadedAt < ttlNanos) {
+            hits.increment();
+            return entry.value;
+        }
+        misses.increment();
+
+        long generationBefore = generation.get();
+        V value = loader.apply(key);
+        if (value == null) {
+            entries.remove(key);
+            return null;
+        }
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            evict(now);
+        }
+        entries.put(key, new Entry<>(value, now));
+        // behem nacitani doslo ke zneplatneni - nactena hodnota muze byt stara
+        if (generation.get() != generationBefore) {
+            entries.remove(key);
+        }
+        return value;
+    }
+
+    /**
+     * Odstraní záznam z mezipaměti.
+     *
+     * @param key Klíč.
+     */
+    public void invalidate(K key) {
+        generation.incrementAndGet();
+        entries.remove(key);
+    }
+
+    /**
+     * Odstraní všechny záznamy z mezipaměti.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    /**
+     * @return Počet záznamů v mezipaměti (včetně záznamů s uplynulou platností).
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return Počet nalezení platné hodnoty v mezipaměti.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return Počet načtení hodnoty mimo mezipaměť.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private void evict(long now) {
+        // nejdriv zaznamy s uplynulou platnosti
+        entries.values().removeIf(entry -> now - entry.loadedAt >= ttlNanos);
+        // pak libovolne zaznamy, dokud neni misto
+        Iterator<K> keys = entries.keySet().iterator();
+        while (entries.size() >= maxSize && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private record Entry<V>(V value, long loadedAt) {
+    }
+}
@@ -0,0 +1,47 @@
+package pavlik.pokladna.service;
+
+/**
+ * Formát exportu tabulky.
+ */
+public enum ExportFormat {
+    /**
+     * CSV bez hlavičky, stejné rozložení jako soubory v database/data.
+     */
+    CSV("text/csv", "csv"),
+    /**
+     * Jeden JSON objekt na řádek.
+     */
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Vrátí formát podle názvu bez ohledu na velikost písmen.
+     *
+     * @param name Název formátu (csv nebo ndjson).
+     * @return Formát exportu.
+     * @throws IllegalArgumentException Pokud formát neexistuje.
+     */
+    public static ExportFormat fromName(String name) {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Neznámý formát exportu: " + name);
+    }
+}
@@ -0,0 +1,180 @@
+package pavlik.pokladna.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pavlik.pokladna.repository.ExportJdbcRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.function.Consumer;
+
+/**
+ * Služba pro export transakcí, tržeb a uživatelů.
+ * Řádky se čtou z databázového kurzoru a hned se zapisují do výstupu, paměťová náročnost
+ * tak nezávisí na počtu exportovaných řádků.
+ */
+@Service
+public class ExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ExportJdbcRepository exportRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Konstruktor pro ExportService.
+     *
+     * @param exportRepository Repozitář pro čtení tabulek přes kurzor.
+     * @param objectMapper     Zápis řádků ve formátu JSON.
+     */
+    @Autowired
+    public ExportService(ExportJdbcRepository exportRepository, ObjectMapper objectMapper) {
+        this.exportRepository = exportRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Exportuje všechny transakce.
+     *
+     * @param format Formát exportu.
+     * @param output Výstup, do kterého se export zapisuje.
+     * @throws IOException Pokud zápis do výstupu selže.
+     */
+    @Transactional(readOnly = true)
+    public void exportTransactions(ExportFormat format, OutputStream output) throws IOException {
+        export(format, output, exportRepository::streamTransactions);
+    }
+
+    /**
+     * Exportuje všechny tržby.
+     *
+     * @param format Formát exportu.
+     * @param output Výstup, do kterého se export zapisuje.
+     * @throws IOException Pokud zápis do výstupu selže.
+     */
+    @Transactional(readOnly = true)
+    public void exportSales(ExportFormat format, OutputStream output) throws IOException {
+        export(format, output, exportRepository::streamSales);
+    }
+
+    /**
+     * Exportuje všechny uživatele. Hesla se neexportují.
+     *
+     * @param format Formát exportu.
+     * @param output Výstup, do kterého se export zapisuje.
+     * @throws IOException Pokud zápis do výstupu selže.
+     */
+    @Transactional(readOnly = true)
+    public void exportUsers(ExportFormat format, OutputStream output) throws IOException {
+        export(format, output, exportRepository::streamUsers);
+    }
+
+    private void export(ExportFormat format, OutputStream output, Consumer<RowCallbackHandler> source) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE);
+        try {
+            if (format == ExportFormat.CSV) {
+                source.accept(rs -> writeCsvRow(rs, writer));
+                writer.flush();
+            } else {
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+                // radky oddeluje novy radek, ne vychozi mezera
+                generator.setRootValueSeparator(null);
+                source.accept(rs -> writeJsonRow(rs, generator));
+                generator.flush();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void writeCsvRow(ResultSet rs, Writer writer) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        try {
+            for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                if (column > 1) {
+                    writer.write(',');
+                }
+                writeCsvValue(rs, metaData.getColumnType(column), column, writer);
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeCsvValue(ResultSet rs, int type, int column, Writer writer) throws SQLException, IOException {
+        if (type == Types.BOOLEAN || type == Types.BIT) {
+            boolean value = rs.getBoolean(column);
+            if (!rs.wasNull()) {
+                // stejne jako export z PostgreSQL
+                writer.write(value ? 't' : 'f');
+            }
+            return;
+        }
+
+        String value = rs.getString(column);
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(value);
+        }
+    }
+
+    private static void writeJsonRow(ResultSet rs, JsonGenerator generator) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        try {
+            generator.writeStartObject();
+            for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                generator.writeFieldName(metaData.getColumnLabel(column));
+                switch (metaData.getColumnType(column)) {
+                    case Types.BOOLEAN, Types.BIT -> {
+                        boolean value = rs.getBoolean(column);
+                        if (rs.wasNull()) {
+                            generator.writeNull();
+                        } else {
+                            generator.writeBoolean(value);
+                        }
+                    }
+                    case Types.INTEGER, Types.SMALLINT, Types.BIGINT -> {
+                        long value = rs.getLong(column);
+                        if (rs.wasNull()) {
+                            generator.writeNull();
+                        } else {
+                            generator.writeNumber(value);
+                        }
+                    }
+                    default -> {
+                        String value = rs.getString(column);
+                        if (value == null) {
+                            generator.writeNull();
+                        } else {
+                            generator.writeString(value);
+                        }
+                    }
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
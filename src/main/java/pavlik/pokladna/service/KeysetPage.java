@@ -0,0 +1,154 @@
+package pavlik.pokladna.service;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Stránka záznamů seřazených sestupně podle ID, načtená podle klíče (keyset / seek).
+ * Místo posunu (OFFSET) se hledají záznamy před nebo za kurzorem, který je ID prvního nebo posledního
+ * záznamu předchozí stránky. Cena načtení tak nezávisí na tom, jak daleko stránka je, a nepočítá se celkový počet.
+ *
+ * @param <T> Typ záznamů na stránce.
+ */
+public class KeysetPage<T> {
+
+    /**
+     * Kurzor pro nejstarší stránku.
+     */
+    public static final int OLDEST = Integer.MIN_VALUE;
+
+    /**
+     * Nejvyšší povolená velikost stránky.
+     */
+    public static final int MAX_SIZE = 200;
+
+    private final List<T> items;
+    private final int size;
+    private final boolean hasNewer;
+    private final boolean hasOlder;
+    private final Integer newerCursor;
+    private final Integer olderCursor;
+
+    private KeysetPage(List<T> items, int size, boolean hasNewer, boolean hasOlder, Integer newerCursor, Integer olderCursor) {
+        this.items = items;
+        this.size = size;
+        this.hasNewer = hasNewer;
+        this.hasOlder = hasOlder;
+        this.newerCursor = newerCursor;
+        this.olderCursor = olderCursor;
+    }
+
+    /**
+     * Načte stránku záznamů podle kurzoru.
+     * Bez kurzoru se vrátí nejnovější stránka, s kurzorem {@code before} stránka starších záznamů,
+     * s kurzorem {@code after} stránka novějších záznamů.
+     *
+     * @param before     ID, před kterým stránka začíná (exkluzivně), nebo null.
+     * @param after      ID, za kterým stránka začíná (exkluzivně), nebo null.
+     * @param size       Počet záznamů na stránce (1 až {@link #MAX_SIZE}).
+     * @param idProperty Název vlastnosti s ID pro řazení.
+     * @param olderQuery Dotaz na záznamy s ID menším než kurzor.
+     * @param newerQuery Dotaz na záznamy s ID větším než kurzor.
+     * @param idOf       Získání ID záznamu.
+     * @param <T>        Typ záznamů.
+     * @return Stránka záznamů seřazených sestupně podle ID.
+     */
+    public static <T> KeysetPage<T> seek(Integer before, Integer after, int size, String idProperty,
+                                         BiFunction<Integer, Pageable, List<T>> olderQuery,
+                                         BiFunction<Integer, Pageable, List<T>> newerQuery,
+                                         ToIntFunction<T> idOf) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Velikost stránky musí být od 1 do " + MAX_SIZE + ".");
+        }
+
+        if (after != null) {
+            // o jeden zaznam vic, aby bylo poznat, zda existuje dalsi stranka
+            List<T> rows = new ArrayList<>(newerQuery.apply(after, PageRequest.of(0, size + 1, Sort.by(idProperty).ascending())));
+            if (rows.isEmpty()) {
+                return seek(null, null, size, idProperty, olderQuery, newerQuery, idOf);
+            }
+            boolean hasNewer = rows.size() > size;
+            if (hasNewer) {
+                rows = new ArrayList<>(rows.subList(0, size));
+            }
+            Collections.reverse(rows);
+            return of(rows, size, hasNewer, after != OLDEST, idOf);
+        }
+
+        List<T> rows = olderQuery.apply(before != null ? before : Integer.MAX_VALUE,
+                PageRequest.of(0, size + 1, Sort.by(idProperty).descending()));
+        if (rows.isEmpty() && before != null) {
+            return seek(null, OLDEST, size, idProperty, olderQuery, newerQuery, idOf);
+        }
+        boolean hasOlder = rows.size() > size;
+        if (hasOlder) {
+            rows = rows.subList(0, size);
+        }
+        return of(rows, size, before != null, hasOlder, idOf);
+    }
+
+    /**
+     * Omezí velikost stránky na povolený rozsah (pro stránky v prohlížeči, kde se chybná hodnota jen opraví).
+     *
+     * @param size Požadovaná velikost stránky.
+     * @return Velikost stránky od 1 do {@link #MAX_SIZE}.
+     */
+    public static int limitSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    private static <T> KeysetPage<T> of(List<T> rows, int size, boolean hasNewer, boolean hasOlder, ToIntFunction<T> idOf) {
+        Integer newerCursor = rows.isEmpty() ? null : idOf.applyAsInt(rows.get(0));
+        Integer olderCursor = rows.isEmpty() ? null : idOf.applyAsInt(rows.get(rows.size() - 1));
+        return new KeysetPage<>(List.copyOf(rows), size, hasNewer, hasOlder, newerCursor, olderCursor);
+    }
+
+    /**
+     * Převede záznamy stránky na jiný typ, kurzory zůstanou zachovány.
+     *
+     * @param mapper Převod jednoho záznamu.
+     * @param <R>    Nový typ záznamů.
+     * @return Stránka s převedenými záznamy.
+     */
+    public <R> KeysetPage<R> map(Function<T, R> mapper) {
+        return new KeysetPage<>(items.stream().map(mapper).toList(), size, hasNewer, hasOlder, newerCursor, olderCursor);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isHasNewer() {
+        return hasNewer;
+    }
+
+    public boolean isHasOlder() {
+        return hasOlder;
+    }
+
+    /**
+     * @return ID prvního (nejnovějšího) záznamu stránky - kurzor {@code after} pro novější stránku.
+     */
+    public Integer getNewerCursor() {
+        return newerCursor;
+    }
+
+    /**
+     * @return ID posledního (nejstaršího) záznamu stránky - kurzor {@code before} pro starší stránku.
+     */
+    public Integer getOlderCursor() {
+        return olderCursor;
+    }
+}
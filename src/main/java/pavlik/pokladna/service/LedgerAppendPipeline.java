@@ -0,0 +1,289 @@
+package pavlik.pokladna.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import pavlik.pokladna.entity.LedgerEntry;
+import pavlik.pokladna.entity.Sale;
+import pavlik.pokladna.repository.LedgerJdbcRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Dávkový zápis pohybů do knihy transakcí (group commit).
+ * Požadavky z kontrolerů se řadí do fronty, jediné zapisovací vlákno jim v pořadí přidělí
+ * zůstatky před a po transakci a zapíše je jednou JDBC dávkou v jedné databázové transakci.
+ * Dávka se zapíše po dosažení maximální velikosti nebo po uplynutí maximální prodlevy.
+ * Pokud zápis dávky selže, zapíšou se její požadavky znovu po jednom, aby chybný požadavek neshodil ostatní.
+ */
+@Service
+public class LedgerAppendPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerAppendPipeline.class);
+
+    private final LedgerJdbcRepository ledgerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final long awaitTimeoutMillis;
+    private final BlockingQueue<LedgerPostingRequest> queue;
+    private final LedgerPipelineStatistics statistics;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    /**
+     * Konstruktor pro LedgerAppendPipeline.
+     *
+     * @param ledgerRepository   Repozitář pro JDBC zápis do knihy transakcí.
+     * @param transactionTemplate Šablona pro řízení databázových transakcí.
+     * @param eventPublisher     Publikování událostí o zápisu do knihy transakcí.
+     * @param maxBatchSize       Maximální počet požadavků v jedné dávce.
+     * @param maxDelayMillis     Maximální doba čekání na další požadavky do dávky.
+     * @param queueCapacity      Maximální počet čekajících požadavků.
+     * @param awaitTimeoutMillis Maximální doba čekání volajícího na potvrzení zápisu.
+     */
+    @Autowired
+    public LedgerAppendPipeline(LedgerJdbcRepository ledgerRepository, TransactionTemplate transactionTemplate,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${pokladna.ledger.pipeline.max-batch-size:256}") int maxBatchSize,
+                                @Value("${pokladna.ledger.pipeline.max-delay-ms:2}") long maxDelayMillis,
+                                @Value("${pokladna.ledger.pipeline.queue-capacity:10000}") int queueCapacity,
+                                @Value("${pokladna.ledger.pipeline.await-timeout-ms:10000}") long awaitTimeoutMillis) {
+        this.ledgerRepository = ledgerRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.awaitTimeoutMillis = awaitTimeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.statistics = new LedgerPipelineStatistics(queue::size);
+    }
+
+    /**
+     * Spustí zapisovací vlákno.
+     */
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::run, "ledger-append-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Zastaví zapisovací vlákno. Požadavky, které jsou již ve frontě, se ještě zapíšou.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    /**
+     * Zařadí požadavek do fronty k zápisu.
+     *
+     * @param request Požadavek na zápis.
+     * @return Future, které se dokončí po potvrzení zápisu nebo výjimkou při jeho odmítnutí.
+     */
+    public CompletableFuture<LedgerPostingResult> submit(LedgerPostingRequest request) {
+        if (!running) {
+            request.getFuture().completeExceptionally(new IllegalStateException("Zápis do pokladny není k dispozici."));
+        } else if (!queue.offer(request)) {
+            request.getFuture().completeExceptionally(new IllegalStateException("Pokladna je přetížená, zkuste to prosím znovu."));
+        }
+        return request.getFuture();
+    }
+
+    /**
+     * Zařadí požadavek do fronty a počká na potvrzení jeho zápisu.
+     * Pokud zápis není potvrzen včas a požadavek je stále ve frontě, zruší se a nezapíše.
+     *
+     * @param request Požadavek na zápis.
+     * @return Výsledek potvrzeného zápisu.
+     * @throws IllegalStateException Pokud byl zápis odmítnut nebo nebyl potvrzen včas.
+     */
+    public LedgerPostingResult post(LedgerPostingRequest request) {
+        CompletableFuture<LedgerPostingResult> future = submit(request);
+        try {
+            return future.get(awaitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw notConfirmed(request, "Zápis do pokladny nebyl potvrzen včas", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw notConfirmed(request, "Čekání na zápis do pokladny bylo přerušeno", e);
+        }
+    }
+
+    private static IllegalStateException notConfirmed(LedgerPostingRequest request, String reason, Exception cause) {
+        if (request.cancel()) {
+            return new IllegalStateException(reason + " a nebyl proveden, zkuste to prosím znovu.", cause);
+        }
+        // zapisovaci vlakno uz pozadavek prevzalo, transakce se jeste muze potvrdit
+        return new IllegalStateException(reason + " a jeho výsledek není znám, před opakováním zkontrolujte poslední transakce.", cause);
+    }
+
+    /**
+     * @return Statistiky velikosti dávek a doby jejich zápisu.
+     */
+    public LedgerPipelineStatistics getStatistics() {
+        return statistics;
+    }
+
+    private void run() {
+        List<LedgerPostingRequest> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                LedgerPostingRequest first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collectBatch(batch);
+            } catch (InterruptedException e) {
+                // pri zastavovani se zbytek fronty jeste zapise
+                queue.drainTo(batch, maxBatchSize - batch.size());
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void collectBatch(List<LedgerPostingRequest> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                return;
+            }
+            LedgerPostingRequest next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<LedgerPostingRequest> batch) {
+        long start = System.nanoTime();
+        int batchSize = batch.size();
+        // pozadavky, na ktere volajici prestal cekat, se nezapisuji
+        batch.removeIf(request -> !request.claim());
+        FlushCounts counts = new FlushCounts();
+        if (!batch.isEmpty() && !commitBatch(batch, counts)) {
+            for (LedgerPostingRequest request : batch) {
+                commitBatch(List.of(request), counts);
+            }
+        }
+        statistics.recordFlush(batchSize, counts.posted, counts.rejected, counts.failed, batchSize - batch.size(), System.nanoTime() - start);
+    }
+
+    /**
+     * Zapíše požadavky v jedné databázové transakci a po jejím potvrzení dokončí jejich futures.
+     *
+     * @return false, pokud zápis dávky více požadavků selhal a futures zůstaly nedokončené.
+     */
+    private boolean commitBatch(List<LedgerPostingRequest> batch, FlushCounts counts) {
+        List<LedgerPostingRequest> accepted = new ArrayList<>(batch.size());
+        List<LedgerPostingRequest> rejected = new ArrayList<>();
+        List<LedgerPostingResult> results = new ArrayList<>(batch.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> appendBatch(batch, accepted, rejected, results));
+        } catch (RuntimeException e) {
+            if (batch.size() > 1) {
+                logger.warn("Zápis dávky {} požadavků do knihy transakcí selhal, požadavky se zapíšou po jednom.", batch.size(), e);
+                return false;
+            }
+            logger.error("Zápis požadavku do knihy transakcí selhal.", e);
+            batch.get(0).getFuture().completeExceptionally(e);
+            counts.failed++;
+            return true;
+        }
+        // futures se dokoncuji az po potvrzeni transakce
+        for (int i = 0; i < accepted.size(); i++) {
+            accepted.get(i).getFuture().complete(results.get(i));
+        }
+        for (LedgerPostingRequest request : rejected) {
+            request.getFuture().completeExceptionally(new IllegalStateException("Nedostatek peněz v pokladně."));
+        }
+        counts.posted += accepted.size();
+        counts.rejected += rejected.size();
+        return true;
+    }
+
+    private void appendBatch(List<LedgerPostingRequest> batch, List<LedgerPostingRequest> accepted,
+                             List<LedgerPostingRequest> rejected, List<LedgerPostingResult> results) {
+        ledgerRepository.lockLedger();
+        int balanceAtStart = ledgerRepository.findTailBalance();
+        int balance = balanceAtStart;
+
+        // prideleni zustatku v poradi fronty, vybery do zaporu se odmitnou
+        List<LedgerEntry> entries = new ArrayList<>(batch.size());
+        List<Sale> sales = new ArrayList<>();
+        for (LedgerPostingRequest request : batch) {
+            int balanceAfter = balance + request.getAmount();
+            if (request.getType() == LedgerPostingRequest.Type.WITHDRAWAL && balanceAfter < 0) {
+                rejected.add(request);
+                continue;
+            }
+            entries.add(new LedgerEntry(request.getDescription(), request.getAmount(), balance, balanceAfter, null, request.getUserId(), false));
+            if (request.getSale() != null) {
+                sales.add(request.getSale());
+            }
+            accepted.add(request);
+            balance = balanceAfter;
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        ledgerRepository.insertSales(sales);
+        for (int i = 0; i < accepted.size(); i++) {
+            Sale sale = accepted.get(i).getSale();
+            if (sale != null) {
+                entries.get(i).setSaleId(sale.getIdSale());
+            }
+        }
+        ledgerRepository.insertTransactions(entries);
+
+        for (int i = 0; i < accepted.size(); i++) {
+            LedgerEntry entry = entries.get(i);
+            results.add(new LedgerPostingResult(entry.getIdTransaction(), entry.getSaleId(), entry.getBalanceBefore(), entry.getBalanceAfter()));
+        }
+        LedgerEntry last = entries.get(entries.size() - 1);
+        eventPublisher.publishEvent(new LedgerAppendedEvent(last.getIdTransaction(), balanceAtStart, last.getBalanceAfter(), entries.size(), sales.size()));
+    }
+
+    /**
+     * Počty výsledků požadavků jednoho zápisu pro statistiky.
+     */
+    private static class FlushCounts {
+        int posted;
+        int rejected;
+        int failed;
+    }
+}
@@ -0,0 +1,53 @@
+package pavlik.pokladna.service;
+
+/**
+ * Událost publikovaná po zápisu nových záznamů do tabulky financialtransaction.
+ * Nese ID posledního zapsaného záznamu, zůstatek před a po zápisu
+ * a změnu počtu řádků v tabulkách financialtransaction a sales.
+ * Posluchači ji zpracují až po potvrzení (commit) databázové transakce.
+ */
+public class LedgerAppendedEvent {
+
+    private final int lastTransactionId;
+    private final int balanceBefore;
+    private final int balanceAfter;
+    private final int appendedTransactions;
+    private final int salesDelta;
+
+    /**
+     * Konstruktor pro vytvoření události o zápisu do knihy transakcí.
+     *
+     * @param lastTransactionId    ID posledního zapsaného záznamu.
+     * @param balanceBefore        Zůstatek před zápisem.
+     * @param balanceAfter         Zůstatek po zápisu.
+     * @param appendedTransactions Počet zapsaných záznamů v tabulce financialtransaction.
+     * @param salesDelta           Změna počtu tržeb (přidané kladně, odstraněné záporně).
+     */
+    public LedgerAppendedEvent(int lastTransactionId, int balanceBefore, int balanceAfter, int appendedTransactions, int salesDelta) {
+        this.lastTransactionId = lastTransactionId;
+        this.balanceBefore = balanceBefore;
+        this.balanceAfter = balanceAfter;
+        this.appendedTransactions = appendedTransactions;
+        this.salesDelta = salesDelta;
+    }
+
+    public int getLastTransactionId() {
+        return lastTransactionId;
+    }
+
+    public int getBalanceBefore() {
+        return balanceBefore;
+    }
+
+    public int getBalanceAfter() {
+        return balanceAfter;
+    }
+
+    public int getAppendedTransactions() {
+        return appendedTransactions;
+    }
+
+    public int getSalesDelta() {
+        return salesDelta;
+    }
+}
@@ -0,0 +1,151 @@
+package pavlik.pokladna.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pavlik.pokladna.entity.LedgerTail;
+import pavlik.pokladna.repository.TransactionRepositoryInterface;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Komponenta držící aktuální zůstatek pokladny v paměti.
+ * Zůstatek se načte jednou při startu aplikace z posledního záznamu v tabulce financialtransaction
+ * a dále se aktualizuje až po potvrzení (commit) každého zápisu do knihy transakcí.
+ * Pokud zapsaný záznam nenavazuje na držený zůstatek, hodnota se znovu načte z databáze.
+ */
+@Component
+public class LedgerBalanceHolder {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerBalanceHolder.class);
+
+    private final TransactionRepositoryInterface transactionRepository;
+
+    // null znamená, že zůstatek ještě nebyl načten
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    /**
+     * Konstruktor pro LedgerBalanceHolder.
+     *
+     * @param transactionRepository Repozitář pro transakce.
+     */
+    @Autowired
+    public LedgerBalanceHolder(TransactionRepositoryInterface transactionRepository) {
+        this.transactionRepository = transactionRepository;
+    }
+
+    /**
+     * Vrátí aktuální zůstatek pokladny bez dotazu do databáze.
+     * Pokud zůstatek ještě nebyl načten, načte se z databáze.
+     *
+     * @return Aktuální zůstatek pokladny.
+     */
+    public int getBalance() {
+        Snapshot snapshot = current.get();
+        if (snapshot == null) {
+            snapshot = reload();
+        }
+        return snapshot.balance;
+    }
+
+    /**
+     * Načte zůstatek z databáze při startu aplikace.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        reload();
+    }
+
+    /**
+     * Aktualizuje zůstatek po potvrzení zápisu do knihy transakcí.
+     * Pokud zápis nenavazuje na držený zůstatek, zůstatek se znovu načte z databáze.
+     *
+     * @param event Událost o zápisu do knihy transakcí.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLedgerAppended(LedgerAppendedEvent event) {
+        Snapshot snapshot = current.get();
+        if (snapshot == null) {
+            reload();
+            return;
+        }
+
+        // zapis uz je v drzenem zustatku obsazen (napr. po nacteni z databaze)
+        if (event.getLastTransactionId() <= snapshot.lastTransactionId) {
+            return;
+        }
+
+        if (event.getBalanceBefore() != snapshot.balance) {
+            logger.warn("Zůstatek v paměti ({}) nenavazuje na transakci ID {} (stav před {}), načítám znovu z databáze.",
+                    snapshot.balance, event.getLastTransactionId(), event.getBalanceBefore());
+            reload();
+            return;
+        }
+
+        Snapshot next = new Snapshot(event.getLastTransactionId(), event.getBalanceAfter());
+        if (!current.compareAndSet(snapshot, next)) {
+            // soubezna zmena - spolehlivy stav je v databazi
+            reload();
+        }
+    }
+
+    /**
+     * Pravidelně porovná držený zůstatek s posledním záznamem v databázi.
+     * Zachytí zápisy provedené mimo aplikaci.
+     */
+    @Scheduled(fixedDelayString = "${pokladna.ledger.balance.verify-interval-ms:60000}",
+            initialDelayString = "${pokladna.ledger.balance.verify-interval-ms:60000}")
+    public void verify() {
+        // stav z pameti se cte pred dotazem, databaze tedy musi obsahovat alespon drzeny zaznam
+        Snapshot snapshot = current.get();
+        Snapshot loaded = load();
+        if (snapshot != null && (loaded.lastTransactionId < snapshot.lastTransactionId
+                || (loaded.lastTransactionId == snapshot.lastTransactionId && loaded.balance != snapshot.balance))) {
+            logger.warn("Zůstatek v paměti ({}) se liší od databáze ({}), opravuji.", snapshot.balance, loaded.balance);
+            current.set(loaded);
+            return;
+        }
+        publish(loaded);
+    }
+
+    /**
+     * Znovu načte zůstatek z posledního záznamu v tabulce financialtransaction.
+     *
+     * @return Načtený stav.
+     */
+    private Snapshot reload() {
+        return publish(load());
+    }
+
+    private Snapshot load() {
+        LedgerTail tail = transactionRepository.findLedgerTail();
+        if (tail == null) {
+            return new Snapshot(Integer.MIN_VALUE, 0);
+        }
+        return new Snapshot(tail.getIdTransaction(), tail.getBalanceAfter());
+    }
+
+    private Snapshot publish(Snapshot loaded) {
+        // novejsi stav nastaveny jinym vlaknem behem nacitani neprepisujeme
+        return current.accumulateAndGet(loaded, (existing, candidate) ->
+                existing == null || candidate.lastTransactionId >= existing.lastTransactionId ? candidate : existing);
+    }
+
+    /**
+     * Neměnný stav knihy transakcí - ID posledního záznamu a zůstatek po něm.
+     */
+    private static final class Snapshot {
+        private final int lastTransactionId;
+        private final int balance;
+
+        private Snapshot(int lastTransactionId, int balance) {
+            this.lastTransactionId = lastTransactionId;
+            this.balance = balance;
+        }
+    }
+}
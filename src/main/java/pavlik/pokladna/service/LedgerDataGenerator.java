@@ -0,0 +1,197 @@
+package pavlik.pokladna.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pavlik.pokladna.config.SequenceIncrementMigration;
+import pavlik.pokladna.repository.BulkLoadJdbcRepository;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Generátor testovacích dat pro měření při velkém objemu.
+ * Vytvoří pokladní s oprávněním EMPLOYEE, tržby a knihu transakcí s navazujícími zůstatky,
+ * vklady, výběry a zrušenými záznamy. Data se vkládají příkazem COPY v jedné databázové transakci.
+ * Tržby a záznamy knihy se generují dvěma průchody stejného deterministického průběhu,
+ * v paměti se tak drží jen čekající zrušení.
+ * Generátor počítá s tím, že do databáze během generování nezapisuje jiná instance aplikace.
+ */
+@Service
+public class LedgerDataGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerDataGenerator.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BulkLoadJdbcRepository bulkLoadRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    private final int users;
+    private final int sales;
+    private final double depositRatio;
+    private final double withdrawalRatio;
+    private final double deleteRatio;
+    private final int maxBalance;
+    private final int days;
+    private final long seed;
+    private final String usernamePrefix;
+    private final String password;
+    private final boolean replace;
+
+    /**
+     * Konstruktor pro LedgerDataGenerator.
+     *
+     * @param jdbcTemplate       JdbcTemplate pro přístup k databázi.
+     * @param bulkLoadRepository Hromadné vkládání příkazem COPY.
+     * @param passwordEncoder    Kódování hesla pokladních.
+     * @param users              Počet pokladních.
+     * @param sales              Počet tržeb.
+     * @param depositRatio       Podíl vkladů na zápisech.
+     * @param withdrawalRatio    Podíl výběrů na zápisech.
+     * @param deleteRatio        Podíl zápisů, které se později zruší.
+     * @param maxBalance         Zůstatek, nad kterým se peníze z pokladny odvedou výběrem.
+     * @param days               Počet dní do minulosti, přes které se záznamy rozloží.
+     * @param seed               Semínko náhodného generátoru, stejné semínko vytvoří stejná data.
+     * @param usernamePrefix     Začátek uživatelského jména pokladních.
+     * @param password           Heslo všech pokladních.
+     * @param replace            Zda nahradit existující tržby, transakce a dříve vygenerované pokladní.
+     */
+    @Autowired
+    public LedgerDataGenerator(JdbcTemplate jdbcTemplate, BulkLoadJdbcRepository bulkLoadRepository, PasswordEncoder passwordEncoder,
+                               @Value("${pokladna.generator.users:100}") int users,
+                               @Value("${pokladna.generator.sales:1000000}") int sales,
+                               @Value("${pokladna.generator.deposit-ratio:0.01}") double depositRatio,
+                               @Value("${pokladna.generator.withdrawal-ratio:0.01}") double withdrawalRatio,
+                               @Value("${pokladna.generator.delete-ratio:0.005}") double deleteRatio,
+                               @Value("${pokladna.generator.max-balance:1000000}") int maxBalance,
+                               @Value("${pokladna.generator.days:365}") int days,
+                               @Value("${pokladna.generator.seed:42}") long seed,
+                               @Value("${pokladna.generator.username-prefix:pokladni-}") String usernamePrefix,
+                               @Value("${pokladna.generator.password:heslo}") String password,
+                               @Value("${pokladna.generator.replace:false}") boolean replace) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bulkLoadRepository = bulkLoadRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.users = users;
+        this.sales = sales;
+        this.depositRatio = depositRatio;
+        this.withdrawalRatio = withdrawalRatio;
+        this.deleteRatio = deleteRatio;
+        this.maxBalance = maxBalance;
+        this.days = days;
+        this.seed = seed;
+        this.usernamePrefix = usernamePrefix;
+        this.password = password;
+        this.replace = replace;
+    }
+
+    /**
+     * Vygeneruje a vloží pokladní, tržby a knihu transakcí.
+     * Denní souhrny se po vložení musí přepočítat ({@link LedgerRollupService#rebuild()}).
+     *
+     * @return Počet vložených záznamů knihy transakcí.
+     * @throws IllegalStateException Pokud kniha transakcí není prázdná a nahrazení není povoleno.
+     */
+    @Transactional
+    public long generate() {
+        if (users < 1 || sales < 0) {
+            throw new IllegalArgumentException("Počet pokladních musí být kladný a počet tržeb nezáporný.");
+        }
+        long start = System.nanoTime();
+
+        if (replace) {
+            jdbcTemplate.execute("TRUNCATE public.ledger_daily_rollup, public.financialtransaction, public.sales RESTART IDENTITY");
+            jdbcTemplate.update("DELETE FROM public.authorities WHERE username LIKE ?", usernamePrefix + "%");
+            jdbcTemplate.update("DELETE FROM public.users WHERE username LIKE ?", usernamePrefix + "%");
+        } else if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM public.financialtransaction)", Boolean.class))) {
+            throw new IllegalStateException("Kniha transakcí není prázdná, pro nahrazení dat nastavte pokladna.generator.replace=true.");
+        }
+
+        int[] userIds = insertUsers();
+
+        OffsetDateTime now = OffsetDateTime.now();
+        SyntheticLedger ledger = new SyntheticLedger(seed, sales, userIds, depositRatio, withdrawalRatio, deleteRatio,
+                maxBalance, now.minusDays(days), now);
+        int firstSaleId = maxId("sales", "id_sale") + 1;
+        int firstEntryId = maxId("financialtransaction", "id_transaction") + 1;
+
+        // prvni pruchod - tabulka sales, na kterou zaznamy knihy odkazuji
+        bulkLoadRepository.copy("sales", "id_sale, amount, sold_goods, user_id", writer ->
+                ledger.run(new SyntheticLedger.Sink() {
+                    @Override
+                    public void sale(int idSale, int amount, String soldGoods, int userId) throws java.sql.SQLException {
+                        writer.row(idSale, amount, soldGoods, userId);
+                    }
+                }, firstSaleId, firstEntryId));
+
+        // druhy pruchod - kniha transakci
+        SyntheticLedger.Totals[] totals = new SyntheticLedger.Totals[1];
+        bulkLoadRepository.copy("financialtransaction",
+                "id_transaction, description, amount, balance_before, balance_after, sale_id, user_id, deleted, created_at", writer ->
+                        totals[0] = ledger.run(new SyntheticLedger.Sink() {
+                            @Override
+                            public void entry(int idTransaction, String description, int amount, int balanceBefore, int balanceAfter,
+                                              Integer saleId, int userId, boolean deleted, OffsetDateTime createdAt) throws java.sql.SQLException {
+                                writer.row(idTransaction, description, amount, balanceBefore, balanceAfter, saleId, userId, deleted, createdAt);
+                            }
+                        }, firstSaleId, firstEntryId));
+
+        // ID pridelovana databazi navazuji za vlozenymi radky
+        if (totals[0].lastSaleId >= firstSaleId) {
+            jdbcTemplate.queryForObject("SELECT setval(pg_get_serial_sequence('public.sales', 'id_sale'), ?)", Long.class, totals[0].lastSaleId);
+        }
+        if (totals[0].entries > 0) {
+            jdbcTemplate.queryForObject("SELECT setval(pg_get_serial_sequence('public.financialtransaction', 'id_transaction'), ?)",
+                    Long.class, firstEntryId + totals[0].entries - 1);
+        }
+        jdbcTemplate.execute("ANALYZE public.users, public.authorities, public.sales, public.financialtransaction");
+
+        logger.info("Vygenerováno {} pokladních, {} záznamů knihy transakcí ({} tržeb, {} vkladů, {} výběrů, {} zrušení), " +
+                        "zůstatek {}, za {} s.", users, totals[0].entries, totals[0].sales, totals[0].deposits, totals[0].withdrawals,
+                totals[0].reversals, totals[0].balance, (System.nanoTime() - start) / 1_000_000_000);
+        return totals[0].entries;
+    }
+
+    private int[] insertUsers() {
+        int firstUserId = maxId("users", "id_user") + 1;
+        int firstAuthorityId = maxId("authorities", "id_authority") + 1;
+        // stejne heslo pro vsechny pokladni, hash se pocita jednou
+        String encodedPassword = passwordEncoder.encode(password);
+
+        int[] userIds = new int[users];
+        bulkLoadRepository.copy("users", "id_user, username, password, enabled, role", writer -> {
+            for (int i = 0; i < users; i++) {
+                userIds[i] = firstUserId + i;
+                writer.row(userIds[i], username(i), encodedPassword, 1, "EMPLOYEE");
+            }
+        });
+        bulkLoadRepository.copy("authorities", "id_authority, username, authority", writer -> {
+            for (int i = 0; i < users; i++) {
+                writer.row(firstAuthorityId + i, username(i), "ROLE_EMPLOYEE");
+            }
+        });
+
+        // Hibernate si z posunute sekvence rezervuje dalsi blok ID az za vlozenymi radky
+        advanceSequence("users_id_user_seq", firstUserId + users - 1);
+        advanceSequence("authorities_id_authority_seq", firstAuthorityId + users - 1);
+        return userIds;
+    }
+
+    private String username(int index) {
+        return usernamePrefix + String.format("%05d", index + 1);
+    }
+
+    private int maxId(String table, String idColumn) {
+        Integer max = jdbcTemplate.queryForObject("SELECT MAX(" + idColumn + ") FROM public." + table, Integer.class);
+        return max != null ? Math.max(max, 0) : 0;
+    }
+
+    private void advanceSequence(String sequence, int lastId) {
+        jdbcTemplate.queryForObject("SELECT setval('public." + sequence + "', GREATEST(?, (SELECT last_value FROM public." + sequence + ")))",
+                Long.class, (long) lastId + SequenceIncrementMigration.ALLOCATION_SIZE);
+    }
+}
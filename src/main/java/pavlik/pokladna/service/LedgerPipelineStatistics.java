@@ -0,0 +1,110 @@
+package pavlik.pokladna.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * Statistiky dávkového zápisu do knihy transakcí - velikost dávek a doba jejich zápisu.
+ */
+public class LedgerPipelineStatistics {
+
+    private final IntSupplier queueSizeSupplier;
+
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong postedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong cancelledCount = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private final AtomicLong maxBatchSize = new AtomicLong();
+    private volatile int lastBatchSize;
+    private volatile long lastFlushNanos;
+
+    /**
+     * Konstruktor pro statistiky.
+     *
+     * @param queueSizeSupplier Zdroj aktuálního počtu čekajících požadavků.
+     */
+    public LedgerPipelineStatistics(IntSupplier queueSizeSupplier) {
+        this.queueSizeSupplier = queueSizeSupplier;
+    }
+
+    /**
+     * Zaznamená jeden zápis dávky.
+     *
+     * @param batchSize  Počet požadavků v dávce.
+     * @param posted     Počet zapsaných požadavků.
+     * @param rejected   Počet odmítnutých požadavků (např. nedostatek peněz).
+     * @param failed     Počet požadavků, jejichž zápis selhal.
+     * @param cancelled  Počet požadavků zrušených volajícím před zápisem.
+     * @param flushNanos Doba zápisu dávky včetně potvrzení v nanosekundách.
+     */
+    void recordFlush(int batchSize, int posted, int rejected, int failed, int cancelled, long flushNanos) {
+        flushCount.incrementAndGet();
+        postedCount.addAndGet(posted);
+        rejectedCount.addAndGet(rejected);
+        failedCount.addAndGet(failed);
+        cancelledCount.addAndGet(cancelled);
+        totalFlushNanos.addAndGet(flushNanos);
+        maxFlushNanos.accumulateAndGet(flushNanos, Math::max);
+        maxBatchSize.accumulateAndGet(batchSize, Math::max);
+        lastBatchSize = batchSize;
+        lastFlushNanos = flushNanos;
+    }
+
+    public int getQueueSize() {
+        return queueSizeSupplier.getAsInt();
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    public long getPostedCount() {
+        return postedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public long getCancelledCount() {
+        return cancelledCount.get();
+    }
+
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public long getMaxBatchSize() {
+        return maxBatchSize.get();
+    }
+
+    public double getAverageBatchSize() {
+        long flushes = flushCount.get();
+        return flushes == 0 ? 0 : (double) (postedCount.get() + rejectedCount.get() + failedCount.get() + cancelledCount.get()) / flushes;
+    }
+
+    public double getLastFlushMillis() {
+        return toMillis(lastFlushNanos);
+    }
+
+    public double getMaxFlushMillis() {
+        return toMillis(maxFlushNanos.get());
+    }
+
+    public double getAverageFlushMillis() {
+        long flushes = flushCount.get();
+        return flushes == 0 ? 0 : toMillis(totalFlushNanos.get()) / flushes;
+    }
+
+    private static double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
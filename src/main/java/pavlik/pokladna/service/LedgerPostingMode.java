@@ -0,0 +1,18 @@
+package pavlik.pokladna.service;
+
+/**
+ * Způsob zápisu tržeb, vkladů a výběrů do knihy transakcí.
+ */
+public enum LedgerPostingMode {
+
+    /**
+     * Požadavky se řadí do fronty a zapisují dávkově jedním zapisovacím vláknem (group commit).
+     */
+    PIPELINE,
+
+    /**
+     * Každý požadavek se zapíše samostatně jedním dotazem na databázovou funkci,
+     * zůstatek se dopočítá v databázi.
+     */
+    DATABASE
+}
@@ -0,0 +1,125 @@
+package pavlik.pokladna.service;
+
+import pavlik.pokladna.entity.Sale;
+import pavlik.pokladna.entity.User;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Požadavek na zápis jednoho pohybu do knihy transakcí (tržba, vklad nebo výběr).
+ * Výsledek zápisu je dostupný přes {@link #getFuture()} až po potvrzení (commit) databázové transakce.
+ * Požadavek, který zapisovací vlákno ještě nepřevzalo, lze zrušit - pak se nezapíše.
+ */
+public class LedgerPostingRequest {
+
+    /**
+     * Druh pohybu v pokladně.
+     */
+    public enum Type {
+        SALE, DEPOSIT, WITHDRAWAL
+    }
+
+    private enum State {
+        QUEUED, CLAIMED, CANCELLED
+    }
+
+    private final Type type;
+    private final String description;
+    private final int amount;
+    private final Sale sale;
+    private final Integer userId;
+    private final CompletableFuture<LedgerPostingResult> future = new CompletableFuture<>();
+    private final AtomicReference<State> state = new AtomicReference<>(State.QUEUED);
+
+    private LedgerPostingRequest(Type type, String description, int amount, Sale sale, Integer userId) {
+        this.type = type;
+        this.description = description;
+        this.amount = amount;
+        this.sale = sale;
+        this.userId = userId;
+    }
+
+    /**
+     * Vytvoří požadavek na zápis nové tržby.
+     *
+     * @param sale Tržba k zápisu (ID se doplní po vložení).
+     * @return Požadavek na zápis.
+     */
+    public static LedgerPostingRequest sale(Sale sale) {
+        User user = sale.getUser();
+        return new LedgerPostingRequest(Type.SALE, "Nová tržba - prodané zboží: " + sale.getSoldGoods(),
+                sale.getAmount(), sale, user != null ? user.getIdUser() : null);
+    }
+
+    /**
+     * Vytvoří požadavek na vklad peněz do pokladny.
+     *
+     * @param amount Částka k vložení.
+     * @param userId ID uživatele provádějícího vklad nebo null.
+     * @return Požadavek na zápis.
+     */
+    public static LedgerPostingRequest deposit(int amount, Integer userId) {
+        return new LedgerPostingRequest(Type.DEPOSIT, "Vklad peněz do pokladny", amount, null, userId);
+    }
+
+    /**
+     * Vytvoří požadavek na výběr peněz z pokladny.
+     *
+     * @param amount Částka k výběru (kladné číslo).
+     * @param userId ID uživatele provádějícího výběr nebo null.
+     * @return Požadavek na zápis.
+     */
+    public static LedgerPostingRequest withdrawal(int amount, Integer userId) {
+        return new LedgerPostingRequest(Type.WITHDRAWAL, "Výběr peněz z pokladny", -amount, null, userId);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * @return Částka zapisovaná do knihy transakcí (u výběru záporná).
+     */
+    public int getAmount() {
+        return amount;
+    }
+
+    public Sale getSale() {
+        return sale;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public CompletableFuture<LedgerPostingResult> getFuture() {
+        return future;
+    }
+
+    /**
+     * Zruší požadavek, pokud jej zapisovací vlákno ještě nepřevzalo.
+     *
+     * @return true, pokud byl požadavek zrušen a nebude zapsán; false, pokud se již zapisuje nebo je zapsán.
+     */
+    public boolean cancel() {
+        if (!state.compareAndSet(State.QUEUED, State.CANCELLED)) {
+            return false;
+        }
+        future.cancel(false);
+        return true;
+    }
+
+    /**
+     * Převezme požadavek k zápisu, od té chvíle jej nelze zrušit.
+     *
+     * @return false, pokud byl požadavek mezitím zrušen.
+     */
+    boolean claim() {
+        return state.compareAndSet(State.QUEUED, State.CLAIMED);
+    }
+}
@@ -0,0 +1,43 @@
+package pavlik.pokladna.service;
+
+/**
+ * Výsledek potvrzeného zápisu do knihy transakcí.
+ */
+public class LedgerPostingResult {
+
+    private final int idTransaction;
+    private final Integer idSale;
+    private final int balanceBefore;
+    private final int balanceAfter;
+
+    /**
+     * Konstruktor pro výsledek zápisu.
+     *
+     * @param idTransaction ID zapsané transakce.
+     * @param idSale        ID vložené tržby nebo null, pokud nejde o tržbu.
+     * @param balanceBefore Zůstatek před transakcí.
+     * @param balanceAfter  Zůstatek po transakci.
+     */
+    public LedgerPostingResult(int idTransaction, Integer idSale, int balanceBefore, int balanceAfter) {
+        this.idTransaction = idTransaction;
+        this.idSale = idSale;
+        this.balanceBefore = balanceBefore;
+        this.balanceAfter = balanceAfter;
+    }
+
+    public int getIdTransaction() {
+        return idTransaction;
+    }
+
+    public Integer getIdSale() {
+        return idSale;
+    }
+
+    public int getBalanceBefore() {
+        return balanceBefore;
+    }
+
+    public int getBalanceAfter() {
+        return balanceAfter;
+    }
+}
@@ -0,0 +1,99 @@
+package pavlik.pokladna.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import pavlik.pokladna.entity.LedgerEntry;
+import pavlik.pokladna.repository.LedgerJdbcRepository;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Služba pro zápis tržeb, vkladů a výběrů do knihy transakcí.
+ * Podle nastavení pokladna.ledger.posting-mode zapisuje přes dávkový zápis ({@link LedgerAppendPipeline})
+ * nebo přímo jedním dotazem na databázovou funkci.
+ */
+@Service
+public class LedgerPostingService {
+
+    private final LedgerAppendPipeline ledgerPipeline;
+    private final LedgerJdbcRepository ledgerRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LedgerPostingMode postingMode;
+
+    /**
+     * Konstruktor pro LedgerPostingService.
+     *
+     * @param ledgerPipeline   Dávkový zápis pohybů do knihy transakcí.
+     * @param ledgerRepository Repozitář pro JDBC přístup ke knize transakcí.
+     * @param eventPublisher   Publikování událostí o zápisu do knihy transakcí.
+     * @param postingMode      Způsob zápisu do knihy transakcí.
+     */
+    @Autowired
+    public LedgerPostingService(LedgerAppendPipeline ledgerPipeline, LedgerJdbcRepository ledgerRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${pokladna.ledger.posting-mode:PIPELINE}") LedgerPostingMode postingMode) {
+        this.ledgerPipeline = ledgerPipeline;
+        this.ledgerRepository = ledgerRepository;
+        this.eventPublisher = eventPublisher;
+        this.postingMode = postingMode;
+    }
+
+    /**
+     * Zapíše požadavek do knihy transakcí a vrátí výsledek po jeho potvrzení.
+     *
+     * @param request Požadavek na zápis.
+     * @return Výsledek potvrzeného zápisu.
+     * @throws IllegalStateException Pokud byl zápis odmítnut (např. nedostatek peněz v pokladně).
+     */
+    public LedgerPostingResult post(LedgerPostingRequest request) {
+        if (postingMode == LedgerPostingMode.PIPELINE) {
+            return ledgerPipeline.post(request);
+        }
+        return postDirect(request);
+    }
+
+    /**
+     * Odešle požadavek k zápisu bez čekání na jeho potvrzení.
+     * V režimu DATABASE se požadavek zapíše hned a vrácené future je již dokončené.
+     *
+     * @param request Požadavek na zápis.
+     * @return Future, které se dokončí po potvrzení zápisu nebo výjimkou při jeho odmítnutí.
+     */
+    public CompletableFuture<LedgerPostingResult> submit(LedgerPostingRequest request) {
+        if (postingMode == LedgerPostingMode.PIPELINE) {
+            return ledgerPipeline.submit(request);
+        }
+        try {
+            return CompletableFuture.completedFuture(postDirect(request));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Zapíše požadavek jedním dotazem na databázovou funkci.
+     * Mimo probíhající transakci se dotaz potvrdí sám, celý zápis tedy stojí jednu cestu do databáze.
+     */
+    private LedgerPostingResult postDirect(LedgerPostingRequest request) {
+        LedgerEntry entry;
+        if (request.getType() == LedgerPostingRequest.Type.SALE) {
+            entry = ledgerRepository.postSale(request.getSale(), request.getDescription());
+        } else {
+            entry = ledgerRepository.appendEntry(request.getDescription(), request.getAmount(), request.getUserId(),
+                    request.getType() == LedgerPostingRequest.Type.WITHDRAWAL);
+        }
+
+        eventPublisher.publishEvent(new LedgerAppendedEvent(entry.getIdTransaction(), entry.getBalanceBefore(), entry.getBalanceAfter(),
+                1, request.getType() == LedgerPostingRequest.Type.SALE ? 1 : 0));
+        return new LedgerPostingResult(entry.getIdTransaction(), entry.getSaleId(), entry.getBalanceBefore(), entry.getBalanceAfter());
+    }
+
+    /**
+     * @return Nastavený způsob zápisu do knihy transakcí.
+     */
+    public LedgerPostingMode getPostingMode() {
+        return postingMode;
+    }
+}
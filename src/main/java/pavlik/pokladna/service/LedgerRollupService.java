@@ -0,0 +1,187 @@
+package pavlik.pokladna.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import pavlik.pokladna.entity.LedgerRollup;
+import pavlik.pokladna.repository.LedgerJdbcRepository;
+import pavlik.pokladna.repository.LedgerRollupJdbcRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Služba pro denní souhrny tržeb, vkladů, výběrů a zrušení po pokladních.
+ * Souhrny se doplňují při každém zápisu do knihy transakcí ve stejné databázové transakci,
+ * přehledy tak čtou několik set řádků souhrnů místo všech záznamů knihy transakcí.
+ * Přepočet z knihy transakcí počítá souhrny paralelně po rozsazích ID a souhrny nahradí
+ * v jedné krátké transakci pod zámkem knihy, během výpočtu se do knihy dál zapisuje.
+ */
+@Service
+public class LedgerRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerRollupService.class);
+
+    private final LedgerRollupJdbcRepository rollupRepository;
+
+    private final LedgerJdbcRepository ledgerRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int parallelism;
+
+    private final int rangeSize;
+
+    private final boolean rebuildOnStart;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    /**
+     * Konstruktor pro LedgerRollupService.
+     *
+     * @param rollupRepository    Repozitář pro denní souhrny.
+     * @param ledgerRepository    Repozitář pro JDBC přístup ke knize transakcí.
+     * @param transactionTemplate Šablona pro řízení databázových transakcí.
+     * @param parallelism         Počet rozsahů ID počítaných současně při přepočtu.
+     * @param rangeSize           Počet ID v jednom rozsahu při přepočtu.
+     * @param rebuildOnStart      Zda souhrny přepočítat při každém startu aplikace (jinak jen pokud žádné neexistují).
+     */
+    @Autowired
+    public LedgerRollupService(LedgerRollupJdbcRepository rollupRepository, LedgerJdbcRepository ledgerRepository,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${pokladna.rollup.rebuild.parallelism:4}") int parallelism,
+                               @Value("${pokladna.rollup.rebuild.range-size:100000}") int rangeSize,
+                               @Value("${pokladna.rollup.rebuild-on-start:false}") boolean rebuildOnStart) {
+        this.rollupRepository = rollupRepository;
+        this.ledgerRepository = ledgerRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.parallelism = parallelism;
+        this.rangeSize = rangeSize;
+        this.rebuildOnStart = rebuildOnStart;
+    }
+
+    /**
+     * Vrátí souhrny za všechny pokladní po dnech.
+     *
+     * @param from První den (včetně).
+     * @param to   Poslední den (včetně).
+     * @return Denní souhrny seřazené podle dne.
+     */
+    public List<LedgerRollup> getDaily(LocalDate from, LocalDate to) {
+        return rollupRepository.findDaily(from, to);
+    }
+
+    /**
+     * Vrátí souhrny po pokladních za celé období.
+     *
+     * @param from První den (včetně).
+     * @param to   Poslední den (včetně).
+     * @return Souhrny seřazené podle ID uživatele, záznamy bez uživatele na konci.
+     */
+    public List<LedgerRollup> getByUser(LocalDate from, LocalDate to) {
+        return rollupRepository.findByUser(from, to);
+    }
+
+    /**
+     * Při startu aplikace přepočítá souhrny, pokud žádné neexistují (například po nasazení nebo po načtení data.sql),
+     * nebo pokud je přepočet při startu zapnutý.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfNeeded() {
+        if (rebuildOnStart || rollupRepository.isEmpty()) {
+            int rollups = rebuild();
+            logger.info("Denní souhrny knihy transakcí přepočítány, počet souhrnů: {}", rollups);
+        }
+    }
+
+    /**
+     * Přepočítá všechny souhrny z knihy transakcí.
+     *
+     * @return Počet souhrnů po přepočtu.
+     * @throws IllegalStateException Pokud přepočet již probíhá nebo selže.
+     */
+    public int rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("Přepočet souhrnů již probíhá.");
+        }
+        try {
+            Map<RollupKey, LedgerRollup> merged = new HashMap<>();
+
+            // zaznamy existujici na zacatku se pocitaji paralelne mimo zamek knihy
+            int[] idRange = rollupRepository.findTransactionIdRange();
+            int computedTo = idRange != null ? idRange[1] : Integer.MIN_VALUE;
+            if (idRange != null) {
+                computeInParallel(idRange[0], idRange[1], merged);
+            }
+
+            // zaznamy zapsane behem vypoctu se dopocitaji pod zamkem a souhrny se nahradi najednou
+            Integer count = transactionTemplate.execute(status -> {
+                ledgerRepository.lockLedger();
+                Integer maxTransactionId = ledgerRepository.findMaxTransactionId();
+                if (maxTransactionId != null && maxTransactionId > computedTo) {
+                    merge(merged, rollupRepository.compute(idRange != null ? computedTo + 1 : Integer.MIN_VALUE, maxTransactionId));
+                }
+                rollupRepository.replaceAll(new ArrayList<>(merged.values()));
+                // uzivatele smazani behem vypoctu
+                rollupRepository.reassignMissingUsers();
+                return merged.size();
+            });
+            return count != null ? count : 0;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private void computeInParallel(int minId, int maxId, Map<RollupKey, LedgerRollup> merged) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "rollup-rebuild-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<List<LedgerRollup>>> futures = new ArrayList<>();
+            for (long from = minId; from <= maxId; from += rangeSize) {
+                int rangeFrom = (int) from;
+                int rangeTo = (int) Math.min(from + rangeSize - 1, maxId);
+                futures.add(executor.submit(() -> rollupRepository.compute(rangeFrom, rangeTo)));
+            }
+            for (Future<List<LedgerRollup>> future : futures) {
+                merge(merged, future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Přepočet souhrnů byl přerušen.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Přepočet souhrnů selhal.", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void merge(Map<RollupKey, LedgerRollup> merged, List<LedgerRollup> rollups) {
+        for (LedgerRollup rollup : rollups) {
+            merged.merge(new RollupKey(rollup.getDay(), rollup.getUserId()), rollup, LedgerRollup::plus);
+        }
+    }
+
+    /**
+     * Klíč souhrnu - den a ID uživatele (null pro záznamy bez uživatele).
+     */
+    private record RollupKey(LocalDate day, Integer userId) {
+    }
+}
@@ -0,0 +1,189 @@
+package pavlik.pokladna.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pavlik.pokladna.entity.LedgerRowCounts;
+import pavlik.pokladna.repository.RowCountJdbcRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Komponenta držící počet záznamů knihy transakcí a tržeb v paměti.
+ * Počty se načtou jednou při startu aplikace a dále se po potvrzení (commit) každého zápisu
+ * do knihy transakcí upraví o změnu nesenou událostí {@link LedgerAppendedEvent}.
+ * Události, jejichž záznamy už jsou v načtených počtech obsaženy, se přeskočí.
+ * Z databáze se počítají jen tabulky se způsobem počtu {@link CountStrategy#COUNTER}.
+ * Události potvrzené během načítání z databáze se po načtení přičtou k načteným počtům.
+ */
+@Component
+public class LedgerRowCounter implements RowCountProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerRowCounter.class);
+
+    private final RowCountJdbcRepository rowCountRepository;
+
+    private final boolean countTransactions;
+
+    private final boolean countSales;
+
+    // null znamená, že počty ještě nebyly načteny; mění se jen pod zámkem updateLock
+    private volatile LedgerRowCounts current;
+
+    // události potvrzené během načítání z databáze, null mimo načítání
+    private List<LedgerAppendedEvent> pending;
+
+    private final Object updateLock = new Object();
+
+    // nacitani z databaze probiha vzdy jen jedno
+    private final Object reloadLock = new Object();
+
+    /**
+     * Konstruktor pro LedgerRowCounter.
+     *
+     * @param rowCountRepository   Repozitář pro zjišťování počtu řádků.
+     * @param transactionsStrategy Způsob určení počtu transakcí.
+     * @param salesStrategy        Způsob určení počtu tržeb.
+     */
+    @Autowired
+    public LedgerRowCounter(RowCountJdbcRepository rowCountRepository,
+                            @Value("${pokladna.count.strategy.transactions:COUNTER}") CountStrategy transactionsStrategy,
+                            @Value("${pokladna.count.strategy.sales:COUNTER}") CountStrategy salesStrategy) {
+        this.rowCountRepository = rowCountRepository;
+        this.countTransactions = transactionsStrategy == CountStrategy.COUNTER;
+        this.countSales = salesStrategy == CountStrategy.COUNTER;
+    }
+
+    /**
+     * Vrátí počet záznamů bez dotazu do databáze.
+     * Pokud počty ještě nebyly načteny, načtou se z databáze.
+     *
+     * @param table Tabulka financialtransaction nebo sales se způsobem počtu COUNTER.
+     * @return Počet záznamů tabulky.
+     * @throws IllegalArgumentException Pokud se počet zadané tabulky nepočítá.
+     */
+    @Override
+    public long count(CountedTable table) {
+        if (!isCounted(table)) {
+            throw new IllegalArgumentException("Počet řádků tabulky " + table.getTableName() + " se v paměti nepočítá.");
+        }
+        LedgerRowCounts counts = current;
+        if (counts == null) {
+            counts = reload();
+        }
+        return switch (table) {
+            case TRANSACTIONS -> counts.getTransactions();
+            case SALES -> counts.getSales();
+            default -> throw new IllegalArgumentException("Počet řádků tabulky " + table.getTableName() + " se v paměti nepočítá.");
+        };
+    }
+
+    /**
+     * @param table Tabulka.
+     * @return true, pokud se počet řádků tabulky drží v paměti.
+     */
+    public boolean supports(CountedTable table) {
+        return table == CountedTable.TRANSACTIONS || table == CountedTable.SALES;
+    }
+
+    /**
+     * Načte počty z databáze při startu aplikace.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        if (countTransactions || countSales) {
+            reload();
+        }
+    }
+
+    /**
+     * Upraví počty po potvrzení zápisu do knihy transakcí.
+     *
+     * @param event Událost o zápisu do knihy transakcí.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLedgerAppended(LedgerAppendedEvent event) {
+        if (!countTransactions && !countSales) {
+            return;
+        }
+        boolean notLoaded;
+        synchronized (updateLock) {
+            if (pending != null) {
+                pending.add(event);
+            }
+            if (current != null) {
+                current = add(current, event);
+            }
+            notLoaded = current == null && pending == null;
+        }
+        if (notLoaded) {
+            reload();
+        }
+    }
+
+    /**
+     * Pravidelně znovu načte počty z databáze.
+     * Opraví odchylky způsobené zápisy mimo knihu transakcí (například odstranění tržby bez transakce)
+     * a zápisy provedené mimo aplikaci.
+     */
+    @Scheduled(fixedDelayString = "${pokladna.count.counter.resync-interval-ms:600000}",
+            initialDelayString = "${pokladna.count.counter.resync-interval-ms:600000}")
+    public void resync() {
+        if (!countTransactions && !countSales) {
+            return;
+        }
+        LedgerRowCounts before = current;
+        LedgerRowCounts loaded = reload();
+        if (before != null && (before.getTransactions() != loaded.getTransactions() || before.getSales() != loaded.getSales())) {
+            logger.info("Počty v paměti ({} transakcí, {} tržeb) opraveny podle databáze ({} transakcí, {} tržeb).",
+                    before.getTransactions(), before.getSales(), loaded.getTransactions(), loaded.getSales());
+        }
+    }
+
+    private boolean isCounted(CountedTable table) {
+        return (table == CountedTable.TRANSACTIONS && countTransactions) || (table == CountedTable.SALES && countSales);
+    }
+
+    private LedgerRowCounts reload() {
+        synchronized (reloadLock) {
+            // od zacatku dotazu se udalosti zaznamenavaji, nactene pocty je jinak prepisou
+            synchronized (updateLock) {
+                pending = new ArrayList<>();
+            }
+            LedgerRowCounts loaded;
+            try {
+                loaded = rowCountRepository.countLedger(countTransactions, countSales);
+            } catch (RuntimeException e) {
+                synchronized (updateLock) {
+                    pending = null;
+                }
+                throw e;
+            }
+            synchronized (updateLock) {
+                for (LedgerAppendedEvent event : pending) {
+                    loaded = add(loaded, event);
+                }
+                pending = null;
+                current = loaded;
+                return loaded;
+            }
+        }
+    }
+
+    private static LedgerRowCounts add(LedgerRowCounts counts, LedgerAppendedEvent event) {
+        // hranice nacteni se neposouva, potvrzeni ruznych zapisu muze dorazit v libovolnem poradi;
+        // zapis potvrzeny pred nactenim poctu uz je v nich obsazen
+        if (event.getLastTransactionId() <= counts.getLastTransactionId()) {
+            return counts;
+        }
+        return new LedgerRowCounts(counts.getLastTransactionId(),
+                counts.getTransactions() + event.getAppendedTransactions(), counts.getSales() + event.getSalesDelta());
+    }
+}
@@ -0,0 +1,279 @@
+package pavlik.pokladna.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import pavlik.pokladna.common.entity.TransactionListItem;
+import pavlik.pokladna.entity.LedgerStreamMessage;
+import pavlik.pokladna.repository.TransactionRepositoryInterface;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rozesílání změn zůstatku a nových transakcí připojeným obrazovkám (Server-Sent Events).
+ * Po potvrzení každého zápisu do knihy transakcí se jednou připraví zpráva (jeden dotaz, jedna serializace)
+ * a vloží se do omezené fronty každého klienta. Pokud klient nestíhá číst, nejstarší zprávy se zahodí,
+ * poslední zpráva tedy vždy nese aktuální zůstatek. Mezi zápisy se neprovádí nic kromě občasného udržovacího komentáře.
+ */
+@Component
+public class LedgerStreamBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerStreamBroadcaster.class);
+
+    private final TransactionRepositoryInterface transactionRepository;
+
+    private final LedgerBalanceHolder balanceHolder;
+
+    private final ObjectMapper objectMapper;
+
+    private final int bufferSize;
+
+    private final int maxTransactions;
+
+    private final int maxClients;
+
+    private final long timeoutMs;
+
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+
+    // priprava zprav v poradi potvrzeni zapisu
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ledger-stream-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // odesilani klientum, pomaly klient blokuje jen jedno vlakno
+    private final ExecutorService senders;
+
+    // posledni rozeslany zapis, cte a meni jen vlakno dispatcher
+    private int lastBroadcastTransactionId = Integer.MIN_VALUE;
+
+    /**
+     * Konstruktor pro LedgerStreamBroadcaster.
+     *
+     * @param transactionRepository Repozitář pro transakce.
+     * @param balanceHolder         Komponenta držící aktuální zůstatek v paměti.
+     * @param objectMapper          Převod zpráv do JSON.
+     * @param bufferSize            Nejvyšší počet neodeslaných zpráv jednoho klienta.
+     * @param maxTransactions       Nejvyšší počet transakcí v jedné zprávě.
+     * @param maxClients            Nejvyšší počet současně připojených klientů.
+     * @param timeoutMs             Doba, po které se spojení ukončí (klient se sám znovu připojí).
+     * @param senderThreads         Počet vláken pro odesílání zpráv klientům.
+     */
+    @Autowired
+    public LedgerStreamBroadcaster(TransactionRepositoryInterface transactionRepository, LedgerBalanceHolder balanceHolder,
+                                   ObjectMapper objectMapper,
+                                   @Value("${pokladna.stream.buffer-size:32}") int bufferSize,
+                                   @Value("${pokladna.stream.max-transactions:20}") int maxTransactions,
+                                   @Value("${pokladna.stream.max-clients:1000}") int maxClients,
+                                   @Value("${pokladna.stream.timeout-ms:1800000}") long timeoutMs,
+                                   @Value("${pokladna.stream.sender-threads:4}") int senderThreads) {
+        this.transactionRepository = transactionRepository;
+        this.balanceHolder = balanceHolder;
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.maxTransactions = maxTransactions;
+        this.maxClients = maxClients;
+        this.timeoutMs = timeoutMs;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "ledger-stream-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Připojí nového klienta. Klient hned dostane aktuální zůstatek (událost balance)
+     * a dále zprávy o každém zápisu do knihy transakcí (událost ledger).
+     *
+     * @return Spojení pro odesílání událostí.
+     * @throws IllegalStateException Pokud je připojeno příliš mnoho klientů.
+     */
+    public SseEmitter subscribe() {
+        if (clients.size() >= maxClients) {
+            throw new IllegalStateException("Připojeno příliš mnoho klientů.");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Client client = new Client(emitter);
+        emitter.onCompletion(() -> clients.remove(client));
+        emitter.onTimeout(() -> clients.remove(client));
+        emitter.onError(e -> clients.remove(client));
+        clients.add(client);
+
+        client.offer(SseEmitter.event().name("balance")
+                .data(toJson(Map.of("balance", balanceHolder.getBalance())), MediaType.APPLICATION_JSON).build());
+        return emitter;
+    }
+
+    /**
+     * @return Počet připojených klientů.
+     */
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    /**
+     * Po potvrzení zápisu do knihy transakcí připraví zprávu pro připojené klienty.
+     * Pokud není nikdo připojen, neprovede se nic. Zápis starší než již rozeslaný se nerozesílá,
+     * aby nepřepsal novější zůstatek.
+     *
+     * @param event Událost o zápisu do knihy transakcí.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLedgerAppended(LedgerAppendedEvent event) {
+        if (clients.isEmpty()) {
+            return;
+        }
+        // zapisujici vlakno (napr. davkovy zapis) se nezdrzuje dotazem ani odesilanim
+        dispatcher.execute(() -> broadcast(event));
+    }
+
+    /**
+     * Pravidelně pošle nečinným klientům udržovací komentář, aby spojení neukončily proxy servery.
+     */
+    @Scheduled(fixedDelayString = "${pokladna.stream.heartbeat-ms:30000}", initialDelayString = "${pokladna.stream.heartbeat-ms:30000}")
+    public void heartbeat() {
+        if (clients.isEmpty()) {
+            return;
+        }
+        Set<DataWithMediaType> comment = SseEmitter.event().comment("heartbeat").build();
+        for (Client client : clients) {
+            client.offerIfIdle(comment);
+        }
+    }
+
+    /**
+     * Ukončí spojení se všemi klienty při zastavení aplikace.
+     */
+    @PreDestroy
+    public void stop() {
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+        for (Client client : clients) {
+            client.emitter.complete();
+        }
+        clients.clear();
+    }
+
+    private void broadcast(LedgerAppendedEvent event) {
+        // udalosti z ruznych zapisujicich vlaken mohou prijit mimo poradi potvrzeni
+        if (event.getLastTransactionId() <= lastBroadcastTransactionId) {
+            return;
+        }
+        lastBroadcastTransactionId = event.getLastTransactionId();
+        try {
+            int limit = Math.min(event.getAppendedTransactions(), maxTransactions);
+            List<TransactionListItem> transactions = new ArrayList<>();
+            if (limit > 0) {
+                transactions.addAll(transactionRepository.findListItemsUpTo(event.getLastTransactionId(), PageRequest.of(0, limit)));
+                Collections.reverse(transactions);
+            }
+            LedgerStreamMessage message = new LedgerStreamMessage(event.getLastTransactionId(), event.getBalanceBefore(),
+                    event.getBalanceAfter(), event.getAppendedTransactions(), transactions);
+
+            Set<DataWithMediaType> payload = SseEmitter.event().name("ledger").id(String.valueOf(event.getLastTransactionId()))
+                    .data(toJson(message), MediaType.APPLICATION_JSON).build();
+            for (Client client : clients) {
+                client.offer(payload);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Zprávu o zápisu transakce ID {} se nepodařilo rozeslat.", event.getLastTransactionId(), e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Zprávu nelze převést do JSON.", e);
+        }
+    }
+
+    /**
+     * Připojený klient s vlastní omezenou frontou neodeslaných zpráv.
+     */
+    private final class Client {
+        private final SseEmitter emitter;
+        private final ArrayDeque<Set<DataWithMediaType>> buffer = new ArrayDeque<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Client(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void offer(Set<DataWithMediaType> payload) {
+            synchronized (this) {
+                // pomaly klient - zahodi se nejstarsi zprava
+                if (buffer.size() >= bufferSize) {
+                    buffer.pollFirst();
+                }
+                buffer.addLast(payload);
+            }
+            scheduleDrain();
+        }
+
+        private void offerIfIdle(Set<DataWithMediaType> payload) {
+            synchronized (this) {
+                if (!buffer.isEmpty() || draining.get()) {
+                    return;
+                }
+                buffer.addLast(payload);
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Set<DataWithMediaType> payload;
+                synchronized (this) {
+                    payload = buffer.pollFirst();
+                    if (payload == null) {
+                        draining.set(false);
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(payload);
+                } catch (IOException | IllegalStateException e) {
+                    // klient se odpojil
+                    clients.remove(this);
+                    synchronized (this) {
+                        buffer.clear();
+                        draining.set(false);
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package pavlik.pokladna.service;
+
+/**
+ * Zdroj celkového počtu řádků tabulky pro stránkované seznamy.
+ */
+@FunctionalInterface
+public interface RowCountProvider {
+
+    /**
+     * @param table Tabulka.
+     * @return Celkový (přesný nebo odhadnutý) počet řádků tabulky.
+     */
+    long count(CountedTable table);
+}
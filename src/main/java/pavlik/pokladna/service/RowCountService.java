@@ -0,0 +1,87 @@
+package pavlik.pokladna.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import pavlik.pokladna.repository.RowCountJdbcRepository;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Služba pro zjištění celkového počtu řádků tabulek u stránkovaných seznamů.
+ * Pro každou tabulku se podle nastavení použije přesný počet, odhad ze statistik,
+ * počítadlo v paměti nebo odhad s přesným počtem pod nastaveným prahem.
+ */
+@Service
+public class RowCountService {
+
+    private final RowCountJdbcRepository rowCountRepository;
+
+    private final long exactThreshold;
+
+    private final Map<CountedTable, RowCountProvider> providers = new EnumMap<>(CountedTable.class);
+
+    /**
+     * Konstruktor pro RowCountService.
+     *
+     * @param rowCountRepository   Repozitář pro zjišťování počtu řádků.
+     * @param ledgerRowCounter     Počítadlo záznamů knihy transakcí a tržeb v paměti.
+     * @param transactionsStrategy Způsob určení počtu transakcí.
+     * @param salesStrategy        Způsob určení počtu tržeb.
+     * @param usersStrategy        Způsob určení počtu uživatelů.
+     * @param exactThreshold       Odhad, pod kterým se při způsobu AUTO počítá přesně.
+     * @throws IllegalStateException Pokud je počítadlo v paměti nastaveno pro tabulku, pro kterou není k dispozici.
+     */
+    @Autowired
+    public RowCountService(RowCountJdbcRepository rowCountRepository, LedgerRowCounter ledgerRowCounter,
+                           @Value("${pokladna.count.strategy.transactions:COUNTER}") CountStrategy transactionsStrategy,
+                           @Value("${pokladna.count.strategy.sales:COUNTER}") CountStrategy salesStrategy,
+                           @Value("${pokladna.count.strategy.users:EXACT}") CountStrategy usersStrategy,
+                           @Value("${pokladna.count.exact-threshold:100000}") long exactThreshold) {
+        this.rowCountRepository = rowCountRepository;
+        this.exactThreshold = exactThreshold;
+
+        Map<CountedTable, CountStrategy> strategies = new EnumMap<>(CountedTable.class);
+        strategies.put(CountedTable.TRANSACTIONS, transactionsStrategy);
+        strategies.put(CountedTable.SALES, salesStrategy);
+        strategies.put(CountedTable.USERS, usersStrategy);
+
+        strategies.forEach((table, strategy) -> {
+            if (strategy == CountStrategy.COUNTER && !ledgerRowCounter.supports(table)) {
+                throw new IllegalStateException("Počítadlo v paměti není pro tabulku " + table.getTableName() + " k dispozici.");
+            }
+            providers.put(table, switch (strategy) {
+                case EXACT -> this::countExact;
+                case ESTIMATE -> this::estimate;
+                case COUNTER -> ledgerRowCounter;
+                case AUTO -> this::estimateOrCountExact;
+            });
+        });
+    }
+
+    /**
+     * Vrátí celkový počet řádků tabulky podle nastaveného způsobu.
+     *
+     * @param table Tabulka.
+     * @return Přesný nebo odhadnutý počet řádků.
+     */
+    public long count(CountedTable table) {
+        return providers.get(table).count(table);
+    }
+
+    private long countExact(CountedTable table) {
+        return rowCountRepository.countExact(table.getTableName());
+    }
+
+    private long estimate(CountedTable table) {
+        Long estimate = rowCountRepository.estimate(table.getTableName());
+        // tabulka jeste nebyla analyzovana
+        return estimate != null ? estimate : countExact(table);
+    }
+
+    private long estimateOrCountExact(CountedTable table) {
+        Long estimate = rowCountRepository.estimate(table.getTableName());
+        return estimate != null && estimate >= exactThreshold ? estimate : countExact(table);
+    }
+}
@@ -0,0 +1,85 @@
+package pavlik.pokladna.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Služba spouštějící odstranění všech tržeb na pozadí.
+ * Požadavek administrátora se tak nemusí čekat na dokončení a průběh lze sledovat dotazem na stav.
+ * Najednou může běžet jen jedno odstraňování.
+ */
+@Service
+public class SaleDeletionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(SaleDeletionJob.class);
+
+    private final SaleService saleService;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sale-deletion");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // prubeh posledniho spusteneho odstranovani, null pokud zadne nebylo spusteno
+    private volatile BulkDeletionProgress progress;
+
+    /**
+     * Konstruktor pro SaleDeletionJob.
+     *
+     * @param saleService Služba pro manipulaci s tržbami.
+     */
+    @Autowired
+    public SaleDeletionJob(SaleService saleService) {
+        this.saleService = saleService;
+    }
+
+    /**
+     * Spustí odstranění všech tržeb na pozadí.
+     *
+     * @param currentUserId ID uživatele, pod kterým se zapíší negační transakce, nebo null.
+     * @return Průběh spuštěného odstraňování.
+     * @throws IllegalStateException Pokud odstraňování tržeb již probíhá.
+     */
+    public synchronized BulkDeletionProgress start(Integer currentUserId) {
+        if (progress != null && progress.isRunning()) {
+            throw new IllegalStateException("Odstraňování tržeb již probíhá.");
+        }
+
+        BulkDeletionProgress started = new BulkDeletionProgress();
+        progress = started;
+        executor.execute(() -> {
+            try {
+                int deletedCount = saleService.deleteAllSales(currentUserId, started);
+                started.complete("Všechny tržby byly odstraněny úspěšně. Celkem odstraněno: " + deletedCount);
+            } catch (RuntimeException e) {
+                logger.warn("Odstranění všech tržeb selhalo.", e);
+                started.fail("Při odstranění tržeb nastala chyba: " + e.getMessage());
+            }
+        });
+        return started;
+    }
+
+    /**
+     * Vrátí průběh posledního spuštěného odstraňování.
+     *
+     * @return Průběh odstraňování nebo null, pokud žádné nebylo spuštěno.
+     */
+    public BulkDeletionProgress getProgress() {
+        return progress;
+    }
+
+    /**
+     * Ukončí vlákno pro odstraňování při zastavení aplikace.
+     */
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+}
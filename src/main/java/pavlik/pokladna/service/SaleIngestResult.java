@@ -0,0 +1,152 @@
+package pavlik.pokladna.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Souhrnný výsledek hromadného nahrání tržeb.
+ * Úspěšně zapsané tržby dostávají ID vzestupně v pořadí řádků, proto stačí rozsah ID.
+ * U neúspěšných řádků se vrací číslo řádku a důvod, nejvýše {@link #MAX_ERRORS} řádků.
+ * Řádky s neznámým výsledkem (zápis nebyl potvrzen včas) se mohly zapsat, před opakováním je třeba je ověřit.
+ */
+public class SaleIngestResult {
+
+    /**
+     * Maximální počet vrácených chybových řádků.
+     */
+    public static final int MAX_ERRORS = 1000;
+
+    private long rows;
+    private long posted;
+    private long rejected;
+    private long failed;
+    private long unknown;
+    private Integer firstSaleId;
+    private Integer lastSaleId;
+    private Integer balanceAfter;
+    private boolean errorsTruncated;
+    private final List<RowError> errors = new ArrayList<>();
+
+    /**
+     * Započítá načtený řádek.
+     */
+    void rowRead() {
+        rows++;
+    }
+
+    /**
+     * Zaznamená úspěšně zapsanou tržbu.
+     *
+     * @param result Výsledek zápisu.
+     */
+    void posted(LedgerPostingResult result) {
+        posted++;
+        if (firstSaleId == null) {
+            firstSaleId = result.getIdSale();
+        }
+        lastSaleId = result.getIdSale();
+        balanceAfter = result.getBalanceAfter();
+    }
+
+    /**
+     * Zaznamená řádek odmítnutý při kontrole (nebyl odeslán k zápisu).
+     *
+     * @param line    Číslo řádku.
+     * @param message Důvod odmítnutí.
+     */
+    void rejected(long line, String message) {
+        rejected++;
+        addError(line, message);
+    }
+
+    /**
+     * Zaznamená řádek, jehož zápis do knihy transakcí selhal.
+     *
+     * @param line    Číslo řádku.
+     * @param message Důvod selhání.
+     */
+    void failed(long line, String message) {
+        failed++;
+        addError(line, message);
+    }
+
+    /**
+     * Zaznamená řádek, jehož zápis nebyl potvrzen včas a mohl se ještě zapsat.
+     *
+     * @param line    Číslo řádku.
+     * @param message Popis stavu.
+     */
+    void unknown(long line, String message) {
+        unknown++;
+        addError(line, message);
+    }
+
+    private void addError(long line, String message) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RowError(line, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getPosted() {
+        return posted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public long getUnknown() {
+        return unknown;
+    }
+
+    public Integer getFirstSaleId() {
+        return firstSaleId;
+    }
+
+    public Integer getLastSaleId() {
+        return lastSaleId;
+    }
+
+    public Integer getBalanceAfter() {
+        return balanceAfter;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Neúspěšný řádek nahrávaného souboru.
+     */
+    public static class RowError {
+        private final long line;
+        private final String message;
+
+        RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package pavlik.pokladna.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import pavlik.pokladna.entity.Sale;
+import pavlik.pokladna.entity.User;
+import pavlik.pokladna.repository.UserRepositoryInterface;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Služba pro hromadné nahrání tržeb (např. z pokladny, která byla offline).
+ * Vstup se čte po řádcích bez načtení celého souboru do paměti. Tržby se odesílají k zápisu
+ * (podle pokladna.ledger.posting-mode) v pořadí řádků a najednou se čeká nejvýše na zadaný počet nepotvrzených zápisů.
+ */
+@Service
+public class SaleIngestService {
+
+    /**
+     * Formát nahrávaných tržeb.
+     */
+    public enum Format {
+        /**
+         * CSV se sloupci id_sale, amount, sold_goods, user_id (stejně jako database/data/salesExport.csv).
+         * Sloupec id_sale se ignoruje, prázdné user_id znamená přihlášeného uživatele.
+         */
+        CSV,
+        /**
+         * Jeden JSON objekt na řádek s položkami amount, soldGoods a volitelně userId.
+         */
+        NDJSON
+    }
+
+    private static final int SOLD_GOODS_MAX_LENGTH = 255;
+
+    private final LedgerPostingService ledgerPostingService;
+    private final UserRepositoryInterface userRepository;
+    private final ObjectMapper objectMapper;
+    private final int window;
+    private final long awaitTimeoutMillis;
+
+    /**
+     * Konstruktor pro SaleIngestService.
+     *
+     * @param ledgerPostingService Služba pro zápis do knihy transakcí.
+     * @param userRepository       Repozitář pro uživatele.
+     * @param objectMapper         Převod JSON řádků.
+     * @param window               Maximální počet odeslaných a dosud nepotvrzených tržeb.
+     * @param awaitTimeoutMillis   Maximální doba čekání na potvrzení jedné tržby.
+     */
+    @Autowired
+    public SaleIngestService(LedgerPostingService ledgerPostingService, UserRepositoryInterface userRepository, ObjectMapper objectMapper,
+                             @Value("${pokladna.sales.bulk.window:1024}") int window,
+                             @Value("${pokladna.ledger.pipeline.await-timeout-ms:10000}") long awaitTimeoutMillis) {
+        this.ledgerPostingService = ledgerPostingService;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.window = window;
+        this.awaitTimeoutMillis = awaitTimeoutMillis;
+    }
+
+    /**
+     * Načte tržby ze vstupu a zapíše je do knihy transakcí.
+     * Chybné řádky se přeskočí a uvedou ve výsledku, ostatní tržby se zapíšou.
+     *
+     * @param input          Vstup v kódování UTF-8.
+     * @param format         Formát vstupu.
+     * @param currentUserId  ID přihlášeného uživatele pro řádky bez uživatele.
+     * @param anyUserAllowed Zda smí řádky uvádět jiného uživatele než přihlášeného (jen správce).
+     * @return Souhrnný výsledek nahrání.
+     * @throws IOException Pokud čtení vstupu selže.
+     */
+    public SaleIngestResult ingest(InputStream input, Format format, Integer currentUserId, boolean anyUserAllowed) throws IOException {
+        // uzivatelu je malo, neexistujici uzivatel by jinak shodil celou davku zapisu
+        Set<Integer> userIds = new HashSet<>(userRepository.findAllIds());
+
+        SaleIngestResult result = new SaleIngestResult();
+        Deque<PendingSale> pending = new ArrayDeque<>(window);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (lineNumber == 1 && format == Format.CSV && line.startsWith("id_sale"))) {
+                continue;
+            }
+            result.rowRead();
+
+            Sale sale;
+            try {
+                sale = format == Format.CSV ? parseCsv(line, currentUserId) : parseJson(line, currentUserId);
+                validate(sale, userIds);
+                if (!anyUserAllowed && !Objects.equals(userIdOf(sale), currentUserId)) {
+                    throw new IllegalArgumentException("Tržby jiného uživatele smí nahrát jen správce.");
+                }
+            } catch (IllegalArgumentException e) {
+                result.rejected(lineNumber, e.getMessage());
+                continue;
+            }
+
+            // okno nepotvrzenych zapisu je plne - pockam na nejstarsi
+            if (pending.size() >= window) {
+                complete(pending.removeFirst(), result);
+            }
+            LedgerPostingRequest request = LedgerPostingRequest.sale(sale);
+            pending.addLast(new PendingSale(lineNumber, request, ledgerPostingService.submit(request)));
+        }
+
+        while (!pending.isEmpty()) {
+            complete(pending.removeFirst(), result);
+        }
+        return result;
+    }
+
+    private void complete(PendingSale pendingSale, SaleIngestResult result) {
+        try {
+            result.posted(pendingSale.future.get(awaitTimeoutMillis, TimeUnit.MILLISECONDS));
+        } catch (ExecutionException e) {
+            result.failed(pendingSale.line, e.getCause().getMessage());
+        } catch (TimeoutException e) {
+            if (pendingSale.request.cancel()) {
+                result.failed(pendingSale.line, "Zápis do pokladny nebyl potvrzen včas a nebyl proveden.");
+            } else {
+                // zapisovaci vlakno uz trzbu prevzalo, transakce se jeste muze potvrdit
+                result.unknown(pendingSale.line, "Zápis do pokladny nebyl potvrzen včas, výsledek není znám.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Čekání na zápis do pokladny bylo přerušeno.", e);
+        }
+    }
+
+    private Sale parseCsv(String line, Integer currentUserId) {
+        List<String> fields = splitCsvLine(line);
+        if (fields.size() != 4) {
+            throw new IllegalArgumentException("Očekávány 4 sloupce (id_sale, amount, sold_goods, user_id), nalezeno " + fields.size() + ".");
+        }
+        Integer amount = parseInteger(fields.get(1), "amount");
+        if (amount == null) {
+            throw new IllegalArgumentException("Chybí částka.");
+        }
+        Integer userId = parseInteger(fields.get(3), "user_id");
+        return newSale(amount, fields.get(2), userId != null ? userId : currentUserId);
+    }
+
+    private Sale parseJson(String line, Integer currentUserId) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Neplatný JSON: " + e.getOriginalMessage());
+        }
+        JsonNode amount = node.get("amount");
+        if (amount == null || !amount.canConvertToInt() || !amount.isIntegralNumber()) {
+            throw new IllegalArgumentException("Chybí nebo je neplatná částka.");
+        }
+        JsonNode soldGoods = node.get("soldGoods");
+        JsonNode userId = node.get("userId");
+        if (userId != null && !userId.isNull() && !userId.canConvertToInt()) {
+            throw new IllegalArgumentException("Neplatné ID uživatele.");
+        }
+        return newSale(amount.intValue(), soldGoods != null && !soldGoods.isNull() ? soldGoods.asText() : null,
+                userId != null && !userId.isNull() ? userId.intValue() : currentUserId);
+    }
+
+    private void validate(Sale sale, Set<Integer> userIds) {
+        if (sale.getAmount() <= 0) {
+            throw new IllegalArgumentException("Částka musí být kladná.");
+        }
+        if (sale.getSoldGoods() == null || sale.getSoldGoods().isBlank()) {
+            throw new IllegalArgumentException("Chybí prodané zboží.");
+        }
+        if (sale.getSoldGoods().length() > SOLD_GOODS_MAX_LENGTH) {
+            throw new IllegalArgumentException("Prodané zboží je delší než " + SOLD_GOODS_MAX_LENGTH + " znaků.");
+        }
+        if (sale.getUser() != null && !userIds.contains(sale.getUser().getIdUser())) {
+            throw new IllegalArgumentException("Uživatel s ID " + sale.getUser().getIdUser() + " neexistuje.");
+        }
+    }
+
+    private static Integer userIdOf(Sale sale) {
+        return sale.getUser() != null ? sale.getUser().getIdUser() : null;
+    }
+
+    private static Sale newSale(int amount, String soldGoods, Integer userId) {
+        User user = null;
+        if (userId != null) {
+            user = new User();
+            user.setIdUser(userId);
+        }
+        return new Sale(amount, soldGoods, user);
+    }
+
+    private static Integer parseInteger(String value, String column) {
+        if (value.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Neplatná hodnota ve sloupci " + column + ": " + value);
+        }
+    }
+
+    /**
+     * Rozdělí řádek CSV na sloupce. Podporuje hodnoty v uvozovkách včetně zdvojených uvozovek.
+     */
+    private static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Neukončené uvozovky.");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static final class PendingSale {
+        private final long line;
+        private final LedgerPostingRequest request;
+        private final CompletableFuture<LedgerPostingResult> future;
+
+        private PendingSale(long line, LedgerPostingRequest request, CompletableFuture<LedgerPostingResult> future) {
+            this.line = line;
+            this.request = request;
+            this.future = future;
+        }
+    }
+}
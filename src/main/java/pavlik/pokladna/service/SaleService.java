@@ -1,26 +1,55 @@
 package pavlik.pokladna.service;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pavlik.pokladna.entity.LedgerEntry;
+import pavlik.pokladna.entity.OpenLedgerEntry;
 import pavlik.pokladna.entity.Sale;
+import pavlik.pokladna.entity.SaleListItem;
 import pavlik.pokladna.entity.Transaction;
+import pavlik.pokladna.entity.User;
+import pavlik.pokladna.repository.LedgerJdbcRepository;
 import pavlik.pokladna.repository.SaleRepositoryInterface;
 import pavlik.pokladna.repository.TransactionRepositoryInterface;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Služba pro manipulaci s tržbami a transakcemi.
+ * Doba každé veřejné metody se měří (metrika pokladna.service se štítky class a method).
  */
 @Service
+@Timed(value = "pokladna.service", histogram = true)
 public class SaleService {
     private final SaleRepositoryInterface saleRepository;
     private final TransactionRepositoryInterface transactionRepository;
 
     private final UserService userService;
 
+    private final LedgerPostingService ledgerPostingService;
+
+    private final LedgerJdbcRepository ledgerRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final RowCountService rowCountService;
+
+    private final int bulkChunkSize;
+
+    private final DistributionSummary bulkDeletedRows;
+
 
     /**
      * Konstruktor pro SaleService.
@@ -28,53 +57,44 @@ public class SaleService {
      * @param saleRepository        Repozitář pro tržby.
      * @param transactionRepository Repozitář pro transakce.
      * @param userService           Služba pro správu uživatelů.
+     * @param ledgerPostingService  Služba pro zápis pohybů do knihy transakcí.
+     * @param ledgerRepository      Repozitář pro JDBC přístup ke knize transakcí.
+     * @param eventPublisher        Publikování událostí o zápisu do knihy transakcí.
+     * @param rowCountService       Služba pro zjištění celkového počtu tržeb.
+     * @param bulkChunkSize         Počet tržeb zpracovaných najednou při hromadném mazání.
+     * @param meterRegistry         Registr metrik pro počet tržeb při hromadném mazání.
      */
     @Autowired
-    public SaleService(SaleRepositoryInterface saleRepository, TransactionRepositoryInterface transactionRepository, UserService userService) {
+    public SaleService(SaleRepositoryInterface saleRepository, TransactionRepositoryInterface transactionRepository, UserService userService,
+                       LedgerPostingService ledgerPostingService, LedgerJdbcRepository ledgerRepository, ApplicationEventPublisher eventPublisher,
+                       RowCountService rowCountService, @Value("${pokladna.ledger.bulk.chunk-size:1000}") int bulkChunkSize,
+                       MeterRegistry meterRegistry) {
         this.saleRepository = saleRepository;
         this.transactionRepository = transactionRepository;
         this.userService = userService;
-
+        this.ledgerPostingService = ledgerPostingService;
+        this.ledgerRepository = ledgerRepository;
+        this.eventPublisher = eventPublisher;
+        this.rowCountService = rowCountService;
+        this.bulkChunkSize = bulkChunkSize;
+        this.bulkDeletedRows = DistributionSummary.builder("pokladna.ledger.bulk.rows")
+                .description("Počet záznamů zrušených hromadným mazáním")
+                .baseUnit("rows")
+                .tag("operation", "deleteAllSales")
+                .register(meterRegistry);
     }
 
     /**
      * Přidá tržbu s odpovídající transakcí.
+     * Tržba i transakce se zapíšou v jedné databázové transakci, zůstatek se určí až pod zámkem knihy transakcí.
+     * Metoda čeká na potvrzení zápisu.
      *
      * @param sale Přidávaná tržba.
-     * @return Přidaná tržba.
+     * @return Přidaná tržba s doplněným ID.
      */
     public Sale addSaleWithTransaction(Sale sale) {
-        // Přidání záznamu do tabulky 'Sale'
-        Sale savedSale = saleRepository.save(sale);
-
-        // nastaveni balance Before z posledniho zaznanu z financialtransaction ze sloupce balance after
-        Transaction lastTransaction = transactionRepository.findLastTransaction();
-        int balanceBefore = 0;
-        if (lastTransaction != null) {
-            balanceBefore = lastTransaction.getBalanceAfter();
-        }
-
-        // vypocet balance after
-
-        int balanceAfter = balanceBefore + sale.getAmount();
-
-
-        // Vytvoření záznamu pro tabulku 'Transaction'
-
-
-        Transaction transaction = new Transaction();
-        transaction.setDescription("Nová tržba - prodané zboží: " + sale.getSoldGoods());
-        transaction.setAmount(sale.getAmount());
-        transaction.setBalanceBefore(balanceBefore);
-        transaction.setBalanceAfter(balanceAfter);
-        transaction.setSale(savedSale);
-        transaction.setUser(sale.getUser());
-        transaction.setDeleted(false);
-
-        // Přidání záznamu do tabulky 'Transaction'
-        transactionRepository.save(transaction);
-
-        return savedSale;
+        ledgerPostingService.post(LedgerPostingRequest.sale(sale));
+        return sale;
     }
 
 
@@ -85,6 +105,9 @@ public class SaleService {
      */
     @Transactional
     public void deleteSaleById(int saleID) {
+        // zamceni knihy transakci proti soubeznym zapisum
+        ledgerRepository.lockLedger();
+
         // Ziskani trzby pro zruseni
         Sale sale = saleRepository.findById(saleID)
                 .orElseThrow(() -> new EntityNotFoundException("Tržba s ID " + saleID + " nebyla nalezena."));
@@ -98,11 +121,7 @@ public class SaleService {
                 transactionInDatabase.setDeleted(true);
 
             // nastaveni balance Before z posledniho zaznanu z financialtransaction ze sloupce balance after
-            Transaction lastTransaction = transactionRepository.findLastTransaction();
-            int balanceBefore = 0;
-            if (lastTransaction != null) {
-                balanceBefore = lastTransaction.getBalanceAfter();
-            }
+            int balanceBefore = findLastBalanceAfter();
 
             // vypocet balance after
 
@@ -131,7 +150,9 @@ public class SaleService {
 
             // ulozeni transakci
             transactionRepository.save(transactionInDatabase);
-            transactionRepository.save(deleteTransaction);
+            Transaction savedDeleteTransaction = transactionRepository.save(deleteTransaction);
+            ledgerRepository.applyRollups(savedDeleteTransaction.getIdTransaction(), savedDeleteTransaction.getIdTransaction());
+            eventPublisher.publishEvent(new LedgerAppendedEvent(savedDeleteTransaction.getIdTransaction(), balanceBefore, balanceAfter, 1, -1));
         }
 
 
@@ -142,80 +163,87 @@ public class SaleService {
 
     /**
      * Odstraní všechny tržby a odpovídající transakce.
+     * Negační transakce se zapíší pod aktuálně přihlášeným uživatelem.
      *
      * @return Počet odstraněných tržeb.
      */
     @Transactional
     public int deleteAllSales() {
-        // Získání všech tržeb pro zrušení
-        List<Sale> allSales = saleRepository.findAll();
-        int deletedCount = 0;
-
-        // kontrola součtu hodnoty tržeb
-        int totalSaleAmount = allSales.stream().mapToInt(Sale::getAmount).sum();
-
-        // Ziskání posledního záznamu z financial transaction
-        Transaction lastTransaction = transactionRepository.findLastTransaction();
+        User currentUser = userService.getCurrentUser();
+        return deleteAllSales(currentUser != null ? currentUser.getIdUser() : null, new BulkDeletionProgress());
+    }
 
-        // kontrola, zda součet hodnoty tržeb nepřesahuje balance after
-        int balanceAfter = 0;
-        if (lastTransaction != null) {
-            balanceAfter = lastTransaction.getBalanceAfter();
+    /**
+     * Odstraní všechny tržby a odpovídající transakce a průběžně hlásí počet zpracovaných tržeb.
+     * Tržby se procházejí po částech podle ID, transakce každé části se načtou jedním dotazem,
+     * negační transakce se vloží dávkově a tržby části se odstraní jedním příkazem.
+     * Celá operace proběhne v jedné databázové transakci, při chybě se neprovede nic.
+     *
+     * @param currentUserId ID uživatele, pod kterým se zapíší negační transakce, nebo null.
+     * @param progress      Průběh odstraňování, do kterého se hlásí zpracované tržby.
+     * @return Počet odstraněných tržeb.
+     * @throws IllegalStateException Pokud součet hodnoty tržeb přesahuje aktuální stav pokladny.
+     */
+    @Transactional
+    public int deleteAllSales(Integer currentUserId, BulkDeletionProgress progress) {
+        // zamceni knihy transakci proti soubeznym zapisum
+        ledgerRepository.lockLedger();
+
+        // zpracovavaji se jen trzby existujici pred zacatkem mazani
+        Integer maxSaleId = ledgerRepository.findMaxSaleId();
+        if (maxSaleId == null) {
+            progress.begin(0);
+            return 0;
         }
+        progress.begin(ledgerRepository.countSales(maxSaleId));
 
-        if (totalSaleAmount > balanceAfter) {
+        // kontrola, zda součet hodnoty tržeb nepřesahuje balance after
+        int balanceAtStart = ledgerRepository.findTailBalance();
+        if (ledgerRepository.sumSaleAmounts(maxSaleId) > balanceAtStart) {
             throw new IllegalStateException("Operace odstranění není možná, protože není dostatek peněz v pokladně.");
         }
 
-        for (Sale sale : allSales) {
-
-            deletedCount++;
-            // Ziskani trzby pro zruseni
-            int currentSaleId = sale.getIdSale();
-            Transaction transactionInDatabase = transactionRepository.findBySaleId(currentSaleId);
-            transactionInDatabase.setSale(null);
-            transactionInDatabase.setDeleted(true);
-
-            // Ziskání posledního záznamu z financial transaction
-            Transaction lastTransactionLoop = transactionRepository.findLastTransaction();
-
-            // nastaveni balance Before z posledniho zaznanu z financialtransaction ze sloupce balance after
-            int balanceBefore = 0;
-            if (lastTransactionLoop != null) {
-                balanceBefore = lastTransactionLoop.getBalanceAfter();
-            }
-
-            // vypocet balance after
-            int balanceAfterSale = balanceBefore + (-sale.getAmount());
-
-            // Kontrola, zda balanceAfterSale není záporná
-            if (balanceAfterSale < 0) {
-                throw new IllegalStateException("Operace odstranění není možná, protože není dostatek peněz v pokladně.");
+        int balance = balanceAtStart;
+        int deletedCount = 0;
+        int lastReversalId = 0;
+        int reversedCount = 0;
+
+        int afterSaleId = Integer.MIN_VALUE;
+        List<OpenLedgerEntry> chunk;
+        while (!(chunk = ledgerRepository.findSaleEntries(afterSaleId, maxSaleId, bulkChunkSize)).isEmpty()) {
+            List<LedgerEntry> reversals = new ArrayList<>(chunk.size());
+            for (OpenLedgerEntry original : chunk) {
+                // vypocet balance after
+                int balanceAfterSale = balance - original.getSaleAmount();
+
+                // Kontrola, zda balanceAfterSale není záporná
+                if (balanceAfterSale < 0) {
+                    throw new IllegalStateException("Operace odstranění není možná, protože není dostatek peněz v pokladně.");
+                }
+
+                reversals.add(new LedgerEntry("Zrušená transankce ID: " + original.getIdTransaction() + " Tržba - " + original.getSoldGoods(),
+                        -original.getSaleAmount(), balance, balanceAfterSale, null, currentUserId, true));
+                balance = balanceAfterSale;
             }
+            ledgerRepository.insertTransactions(reversals);
+            lastReversalId = reversals.get(reversals.size() - 1).getIdTransaction();
+            reversedCount += reversals.size();
+
+            // zruseni trzeb teto casti jednim prikazem
+            int lastSaleId = chunk.get(chunk.size() - 1).getSaleId();
+            int deletedInChunk = ledgerRepository.deleteSalesInRange(afterSaleId, lastSaleId);
+            deletedCount += deletedInChunk;
+            progress.advance(deletedInChunk);
+            afterSaleId = lastSaleId;
+        }
 
+        // zbyvajici trzby bez transakce
+        deletedCount += ledgerRepository.deleteSalesInRange(afterSaleId, maxSaleId);
 
-            String newDescription = "(smazáno) " + transactionInDatabase.getDescription();
-            transactionInDatabase.setDescription(newDescription);
-
-            int idTransactionInDatabase = transactionInDatabase.getIdTransaction();
-
-            Transaction deleteTransaction = new Transaction();
-            deleteTransaction.setDescription("Zrušená transankce ID: " + idTransactionInDatabase + " Tržba - " + sale.getSoldGoods());
-
-            deleteTransaction.setAmount(-sale.getAmount()); // Záporná hodnota pro zrušení
-            deleteTransaction.setBalanceBefore(balanceBefore);
-            deleteTransaction.setBalanceAfter(balanceAfterSale); // Odečtení hodnoty tržby
-            deleteTransaction.setSale(null);
-            deleteTransaction.setUser(userService.getCurrentUser());
-            deleteTransaction.setDeleted(true);
-
-            // ulozeni transakci
-            transactionRepository.save(transactionInDatabase);
-            transactionRepository.save(deleteTransaction);
+        if (reversedCount > 0) {
+            eventPublisher.publishEvent(new LedgerAppendedEvent(lastReversalId, balanceAtStart, balance, reversedCount, -deletedCount));
         }
-
-        // zruseni vsech trzeb
-        saleRepository.deleteAll(allSales);
+        bulkDeletedRows.record(deletedCount);
         return deletedCount;
     }
 
@@ -233,7 +261,49 @@ public class SaleService {
         saleRepository.saveAll(sales);
     }
 
+    /**
+     * Vrátí zůstatek po posledním záznamu v tabulce financialtransaction bez načtení celé entity.
+     *
+     * @return Zůstatek po poslední transakci, nebo 0, pokud žádná transakce neexistuje.
+     */
+    private int findLastBalanceAfter() {
+        Integer lastBalanceAfter = transactionRepository.findLastBalanceAfter();
+        return lastBalanceAfter != null ? lastBalanceAfter : 0;
+    }
 
-}
+    /**
+     * Metoda pro získání jedné tržby pro zobrazení, bez načtení entity uživatele.
+     *
+     * @param idSale ID tržby.
+     * @return Řádek výpisu tržby, nebo prázdný Optional, pokud tržba neexistuje.
+     */
+    public Optional<SaleListItem> getSaleListItem(int idSale) {
+        return saleRepository.findListItemById(idSale);
+    }
 
+    /**
+     * Metoda pro získání stránky tržeb seřazených sestupně podle ID, stránkované podle klíče.
+     * Načtení libovolně vzdálené stránky stojí stejně jako načtení první stránky.
+     *
+     * @param before ID, před kterým stránka začíná (starší tržeb), nebo null.
+     * @param after  ID, za kterým stránka začíná (novější tržeb), nebo null.
+     * @param size   Počet tržeb na stránce.
+     * @return Stránka tržeb.
+     */
+    public KeysetPage<SaleListItem> getSalesKeyset(Integer before, Integer after, int size) {
+        return KeysetPage.seek(before, after, size, "idSale",
+                saleRepository::findListItemsBefore, saleRepository::findListItemsAfter, SaleListItem::getIdSale);
+    }
 
+    /**
+     * Metoda pro získání stránky tržeb podle čísla stránky.
+     * Obsah stránky se načte bez dotazu COUNT(*), celkový počet tržeb určí {@link RowCountService}
+     * podle nastaveného způsobu (přesně, odhadem nebo z počítadla v paměti).
+     *
+     * @param pageable Číslo a velikost stránky a řazení výsledků.
+     * @return Stránka tržeb s celkovým počtem.
+     */
+    public Page<SaleListItem> getSalesPage(Pageable pageable) {
+        return new PageImpl<>(saleRepository.findListItems(pageable), pageable, rowCountService.count(CountedTable.SALES));
+    }
+}
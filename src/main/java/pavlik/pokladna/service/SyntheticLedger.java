@@ -0,0 +1,201 @@
+package pavlik.pokladna.service;
+
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+/**
+ * Deterministický průběh knihy transakcí pro generování testovacích dat.
+ * Se stejným nastavením a semínkem vznikne vždy stejná posloupnost, průběh se tak dá projít vícekrát
+ * (nejdřív pro tabulku sales, potom pro financialtransaction) bez držení záznamů v paměti.
+ * Záznamy mají navazující zůstatky, zůstatek nikdy neklesne pod nulu a zrušení odpovídá tomu,
+ * co zapisuje aplikace (původní záznam označený jako smazaný a negační transakce).
+ */
+final class SyntheticLedger {
+
+    private static final String[] GOODS = {
+            "mobil", "televize", "notebook", "sluchátka", "tablet", "tiskárna", "monitor", "klávesnice",
+            "myš", "reproduktor", "nabíječka", "kabel", "lednice", "pračka", "mikrovlnka", "fén"
+    };
+
+    private static final String SALE = "Nová tržba - prodané zboží: ";
+    private static final String DEPOSIT = "Vklad peněz do pokladny";
+    private static final String WITHDRAWAL = "Výběr peněz z pokladny";
+
+    // nejvyssi pocet zaznamu mezi puvodnim zaznamem a jeho zrusenim
+    private static final int MAX_REVERSAL_DELAY = 200;
+
+    private final long seed;
+    private final int sales;
+    private final int[] userIds;
+    private final double depositRatio;
+    private final double withdrawalRatio;
+    private final double deleteRatio;
+    private final int maxBalance;
+    private final OffsetDateTime from;
+    private final long stepMicros;
+
+    /**
+     * @param seed            Semínko náhodného generátoru.
+     * @param sales           Počet tržeb.
+     * @param userIds         ID pokladních, pod kterými se záznamy zapisují.
+     * @param depositRatio    Podíl vkladů na zápisech.
+     * @param withdrawalRatio Podíl výběrů na zápisech.
+     * @param deleteRatio     Podíl zápisů, které se později zruší.
+     * @param maxBalance      Zůstatek, nad kterým se peníze z pokladny odvedou výběrem.
+     * @param from            Čas prvního záznamu.
+     * @param to              Čas posledního záznamu (nejpozdější).
+     */
+    SyntheticLedger(long seed, int sales, int[] userIds, double depositRatio, double withdrawalRatio, double deleteRatio,
+                    int maxBalance, OffsetDateTime from, OffsetDateTime to) {
+        this.seed = seed;
+        this.sales = sales;
+        this.userIds = userIds;
+        this.depositRatio = depositRatio;
+        this.withdrawalRatio = withdrawalRatio;
+        this.deleteRatio = deleteRatio;
+        this.maxBalance = maxBalance;
+        this.from = from;
+        // pocet zaznamu zavisi i na odvodech hotovosti a doplneni na konci, zjisti se pruchodem bez zapisu
+        int entries = countEntries();
+        this.stepMicros = Math.max(1, ChronoUnit.MICROS.between(from, to) / Math.max(1, entries - 1));
+    }
+
+    private int countEntries() {
+        try {
+            return run(new Sink() {
+            }, 1, 1).entries;
+        } catch (SQLException e) {
+            // pruchod bez zapisu nic nezpracovava
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Projde celý průběh knihy transakcí.
+     *
+     * @param sink          Zpracování tržeb a záznamů knihy transakcí.
+     * @param firstSaleId   ID první tržby.
+     * @param firstEntryId  ID prvního záznamu knihy transakcí.
+     * @return Souhrn vygenerovaných dat.
+     * @throws SQLException Pokud zpracování záznamu selže.
+     */
+    Totals run(Sink sink, int firstSaleId, int firstEntryId) throws SQLException {
+        Random random = new Random(seed);
+        Deque<Reversal> pending = new ArrayDeque<>();
+        Totals totals = new Totals();
+        int saleId = firstSaleId - 1;
+        int entryId = firstEntryId - 1;
+        int balance = 0;
+        int salesPosted = 0;
+
+        while (salesPosted < sales || !pending.isEmpty()) {
+            entryId++;
+            int userId = userIds[random.nextInt(userIds.length)];
+            OffsetDateTime createdAt = from.plus((long) (entryId - firstEntryId) * stepMicros, ChronoUnit.MICROS);
+
+            Reversal reversal = pending.peekFirst();
+            if (reversal != null && (reversal.dueAt() <= entryId || salesPosted >= sales)) {
+                if (balance + reversal.amount() >= 0) {
+                    pending.pollFirst();
+                    sink.entry(entryId, reversal.description(), reversal.amount(), balance, balance + reversal.amount(), null, userId, true, createdAt);
+                    balance += reversal.amount();
+                    totals.reversals++;
+                    continue;
+                }
+                if (salesPosted >= sales) {
+                    // na konci neni z ceho zrusit - doplneni penez vkladem
+                    int amount = -reversal.amount();
+                    sink.entry(entryId, DEPOSIT, amount, balance, balance + amount, null, userId, false, createdAt);
+                    balance += amount;
+                    totals.deposits++;
+                    continue;
+                }
+            }
+
+            boolean deleted = random.nextDouble() < deleteRatio;
+            double kind = random.nextDouble();
+            int amount;
+            String description;
+            if (balance > maxBalance) {
+                // odvod hotovosti, aby zustatek nepresahl rozsah sloupce
+                amount = -(balance - maxBalance / 2);
+                description = WITHDRAWAL;
+                deleted = false;
+                totals.withdrawals++;
+            } else if (kind < depositRatio) {
+                amount = 1000 + random.nextInt(19001);
+                description = DEPOSIT;
+                totals.deposits++;
+            } else if (kind < depositRatio + withdrawalRatio && balance >= 500) {
+                amount = -Math.min(balance, 500 + random.nextInt(9501));
+                description = WITHDRAWAL;
+                totals.withdrawals++;
+            } else {
+                saleId++;
+                salesPosted++;
+                amount = 10 + random.nextInt(4991);
+                String soldGoods = GOODS[random.nextInt(GOODS.length)];
+                description = SALE + soldGoods;
+                if (deleted) {
+                    // zrusena trzba se z tabulky sales odstrani, zaznam na ni neodkazuje
+                    sink.entry(entryId, "(smazáno) " + description, amount, balance, balance + amount, null, userId, true, createdAt);
+                    pending.addLast(new Reversal("Zrušená transankce ID: " + entryId + " Tržba - " + soldGoods, -amount,
+                            entryId + 1 + random.nextInt(MAX_REVERSAL_DELAY)));
+                } else {
+                    sink.sale(saleId, amount, soldGoods, userId);
+                    sink.entry(entryId, description, amount, balance, balance + amount, saleId, userId, false, createdAt);
+                    totals.sales++;
+                }
+                balance += amount;
+                continue;
+            }
+
+            if (deleted) {
+                sink.entry(entryId, "(smazáno) - " + description, amount, balance, balance + amount, null, userId, true, createdAt);
+                pending.addLast(new Reversal("Zrušení transakce ID: " + entryId + " - " + description, -amount,
+                        entryId + 1 + random.nextInt(MAX_REVERSAL_DELAY)));
+            } else {
+                sink.entry(entryId, description, amount, balance, balance + amount, null, userId, false, createdAt);
+            }
+            balance += amount;
+        }
+
+        totals.entries = entryId - firstEntryId + 1;
+        totals.lastSaleId = saleId;
+        totals.balance = balance;
+        return totals;
+    }
+
+    /**
+     * Zpracování vygenerovaných záznamů, každý průchod zpracuje jen to, co potřebuje.
+     */
+    interface Sink {
+
+        default void sale(int idSale, int amount, String soldGoods, int userId) throws SQLException {
+        }
+
+        default void entry(int idTransaction, String description, int amount, int balanceBefore, int balanceAfter,
+                           Integer saleId, int userId, boolean deleted, OffsetDateTime createdAt) throws SQLException {
+        }
+    }
+
+    /**
+     * Souhrn vygenerovaných dat.
+     */
+    static final class Totals {
+        int entries;
+        int sales;
+        int deposits;
+        int withdrawals;
+        int reversals;
+        int lastSaleId;
+        int balance;
+    }
+
+    private record Reversal(String description, int amount, int dueAt) {
+    }
+}
@@ -1,27 +1,48 @@
 package pavlik.pokladna.service;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pavlik.pokladna.common.entity.TransactionListItem;
+import pavlik.pokladna.entity.LedgerEntry;
+import pavlik.pokladna.entity.OpenLedgerEntry;
 import pavlik.pokladna.entity.Transaction;
 import pavlik.pokladna.entity.User;
+import pavlik.pokladna.repository.LedgerJdbcRepository;
 import pavlik.pokladna.repository.TransactionRepositoryInterface;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Služba pro manipulaci s transakcemi.
+ * Doba každé veřejné metody se měří (metrika pokladna.service se štítky class a method).
  */
 @Service
+@Timed(value = "pokladna.service", histogram = true)
 public class TransactionService {
     private final TransactionRepositoryInterface transactionRepository;
     private final SaleService saleService;
     private final UserService userService;
+    private final LedgerBalanceHolder balanceHolder;
+    private final LedgerPostingService ledgerPostingService;
+    private final LedgerJdbcRepository ledgerRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RowCountService rowCountService;
+    private final int bulkChunkSize;
+    private final DistributionSummary bulkDeletedRows;
 
     /**
      * Konstruktor pro vytvoření instance TransactionService s určenými repozitáři a službami.
@@ -29,97 +50,78 @@ public class TransactionService {
      * @param transactionRepository Rozhraní repozitáře transakcí.
      * @param saleService           Služba pro prodej.
      * @param userService           Služba pro uživatele.
+     * @param balanceHolder         Komponenta držící aktuální zůstatek v paměti.
+     * @param ledgerPostingService  Služba pro zápis pohybů do knihy transakcí.
+     * @param ledgerRepository      Repozitář pro JDBC přístup ke knize transakcí.
+     * @param eventPublisher        Publikování událostí o zápisu do knihy transakcí.
+     * @param rowCountService       Služba pro zjištění celkového počtu transakcí.
+     * @param bulkChunkSize         Počet záznamů zpracovaných najednou při hromadném mazání.
+     * @param meterRegistry         Registr metrik pro počet záznamů při hromadném mazání.
      */
     @Autowired
-    public TransactionService(TransactionRepositoryInterface transactionRepository, SaleService saleService, UserService userService) {
+    public TransactionService(TransactionRepositoryInterface transactionRepository, SaleService saleService, UserService userService,
+                              LedgerBalanceHolder balanceHolder, LedgerPostingService ledgerPostingService,
+                              LedgerJdbcRepository ledgerRepository, ApplicationEventPublisher eventPublisher,
+                              RowCountService rowCountService, @Value("${pokladna.ledger.bulk.chunk-size:1000}") int bulkChunkSize,
+                              MeterRegistry meterRegistry) {
         this.transactionRepository = transactionRepository;
         this.saleService = saleService;
         this.userService = userService;
+        this.balanceHolder = balanceHolder;
+        this.ledgerPostingService = ledgerPostingService;
+        this.ledgerRepository = ledgerRepository;
+        this.eventPublisher = eventPublisher;
+        this.rowCountService = rowCountService;
+        this.bulkChunkSize = bulkChunkSize;
+        this.bulkDeletedRows = DistributionSummary.builder("pokladna.ledger.bulk.rows")
+                .description("Počet záznamů zrušených hromadným mazáním")
+                .baseUnit("rows")
+                .tag("operation", "deleteAllTransactions")
+                .register(meterRegistry);
     }
 
     /**
      * Metoda pro získání aktuálního stavu zůstatku.
+     * Zůstatek se čte z paměti, bez dotazu do databáze.
      *
      * @return Aktuální stav zůstatku.
      */
     public int getCurrentStatusBalance() {
-        // nastaveni balance Before z posledniho zaznanu z financialtransaction ze sloupce balance after
-        Transaction lastTransaction = transactionRepository.findLastTransaction();
-        int currentStatusBalance = 0;
-        if (lastTransaction != null) {
-            currentStatusBalance = lastTransaction.getBalanceAfter();
-        }
-        return currentStatusBalance;
+        return balanceHolder.getBalance();
     }
 
     /**
      * Metoda pro vložení peněz do pokladny.
+     * Vklad se zapíše do knihy transakcí, metoda čeká na jeho potvrzení.
      *
      * @param amount      Částka k vložení.
      * @param currentUser Aktuálně přihlášený uživatel.
      */
-    @Transactional
     public void depositMoney(int amount, User currentUser) {
 
         if (amount <= 0) {
             throw new IllegalArgumentException("Částka musí být kladné číslo.");
         }
 
-        Transaction lastTransaction = transactionRepository.findLastTransaction();
-        int balanceBefore = 0;
-        if (lastTransaction != null) {
-            balanceBefore = lastTransaction.getBalanceAfter();
-        }
-        int balanceAfter = balanceBefore + amount;
-
-        Transaction transaction = new Transaction();
-        transaction.setDescription("Vklad peněz do pokladny");
-        transaction.setAmount(amount);
-        transaction.setBalanceBefore(balanceBefore);
-        transaction.setBalanceAfter(balanceAfter);
-        transaction.setSale(null);
-        transaction.setUser(currentUser);
-
-        transactionRepository.save(transaction);
+        ledgerPostingService.post(LedgerPostingRequest.deposit(amount, currentUser != null ? currentUser.getIdUser() : null));
     }
 
     /**
      * Metoda pro odebrání peněz z pokladny.
+     * Výběr se zapíše do knihy transakcí, metoda čeká na jeho potvrzení.
+     * Zůstatek se kontroluje až při zápisu, takže ani souběžné výběry nemohou pokladnu dostat do záporu.
      *
      * @param amount      Částka k odebrání.
      * @param currentUser Aktuálně přihlášený uživatel.
      * @throws IllegalArgumentException Pokud je zadaná záporná nebo nulová částka.
      * @throws IllegalStateException    Pokud není dostatek finančních prostředků na účtu.
      */
-    @Transactional
     public void withdrawMoney(int amount, User currentUser) {
         if (amount <= 0) {
             throw new IllegalArgumentException("Částka musí být kladné číslo.");
         }
 
-
-        Transaction lastTransaction = transactionRepository.findLastTransaction();
-        int balanceBefore = 0;
-        if (lastTransaction != null) {
-            balanceBefore = lastTransaction.getBalanceAfter();
-        }
-
-
-        if (balanceBefore < amount) {
-            throw new IllegalStateException("Nedostatek peněz v pokladně.");
-        }
-
-        int balanceAfter = balanceBefore - amount;
-
-        Transaction transaction = new Transaction();
-        transaction.setDescription("Výběr peněz z pokladny");
-        transaction.setAmount(-amount); // Negative amount for withdrawal
-        transaction.setBalanceBefore(balanceBefore);
-        transaction.setBalanceAfter(balanceAfter);
-        transaction.setSale(null);
-        transaction.setUser(currentUser);
-
-        transactionRepository.save(transaction);
+        ledgerPostingService.post(LedgerPostingRequest.withdrawal(amount, currentUser != null ? currentUser.getIdUser() : null));
     }
 
     /**
@@ -133,6 +135,9 @@ public class TransactionService {
      */
     @Transactional
     public void deleteTransactionById(int transactionId) {
+        // zamceni knihy transakci proti soubeznym zapisum
+        ledgerRepository.lockLedger();
+
         // Získání transakce pro odstranění
         Transaction transactionToDelete = transactionRepository.findById(transactionId)
                 .orElseThrow(() -> new EntityNotFoundException("Transaction with ID " + transactionId + " not found."));
@@ -173,127 +178,89 @@ public class TransactionService {
         repairTransaction.setDeleted(true);
 
         // Uložení nové transakce
-        transactionRepository.save(repairTransaction);
+        Transaction savedRepairTransaction = transactionRepository.save(repairTransaction);
+        ledgerRepository.applyRollups(savedRepairTransaction.getIdTransaction(), savedRepairTransaction.getIdTransaction());
+        eventPublisher.publishEvent(new LedgerAppendedEvent(savedRepairTransaction.getIdTransaction(), balanceBefore, balanceAfterCurrent, 1, 0));
     }
 
     /**
      * Odstraní všechny transakce, které nebyly smazány.
      * Kontroluje, zda součet hodnoty transakcí nepřesahuje aktuální stav pokladny.
+     * Záznamy se čtou po částech podle ID, zůstatky negačních transakcí se počítají průběžně v paměti
+     * a negační transakce se vkládají dávkově. Původní záznamy se označí jako smazané jedním příkazem
+     * na konci. Paměťová náročnost tak nezávisí na velikosti knihy transakcí.
      *
      * @return Počet odstraněných transakcí.
      * @throws IllegalStateException Pokud součet hodnoty transakcí přesahuje aktuální stav pokladny.
      */
     @Transactional
     public int deleteAllTransactions() {
+        // zamceni knihy transakci proti soubeznym zapisum
+        ledgerRepository.lockLedger();
 
-        // Získání všech transakcí, které nebyly smazány
-        List<Transaction> transactions = transactionRepository.findByDeletedFalse();
-        int deletedCount = 0;
-
-        // Výpočet součtu hodnoty transakcí
-        int totalTransactionAmount = transactions.stream().mapToInt(Transaction::getAmount).sum();
-
-        // Získání posledního záznamu z finanční transakce
-        Transaction lastTransaction = transactionRepository.findLastTransaction();
-
-        // Kontrola, zda součet hodnoty transakcí nepřesahuje balance after
-        int balanceAfter = 0;
-        if (lastTransaction != null) {
-            balanceAfter = lastTransaction.getBalanceAfter();
+        // zpracovavaji se jen zaznamy existujici pred zacatkem mazani, negacni transakce maji vyssi ID
+        Integer maxTransactionId = ledgerRepository.findMaxTransactionId();
+        if (maxTransactionId == null) {
+            return 0;
         }
 
-        if (totalTransactionAmount > balanceAfter) {
+        // Kontrola, zda součet hodnoty transakcí nepřesahuje balance after
+        int balanceAtStart = ledgerRepository.findTailBalance();
+        if (ledgerRepository.sumOpenAmounts(maxTransactionId) > balanceAtStart) {
             throw new IllegalStateException("Operace odstranění není možná, protože není dostatek peněz v pokladně.");
         }
 
-        // Nejdrive odstranim ostatni transakce aby byl dostatek penez na odstraneni trzeb
-        List<Transaction> saleTransactions = new ArrayList<>();
-        List<Transaction> otherTransactions = new ArrayList<>();
-
-
-        for (Transaction transaction : transactions) {
-            if (transaction.getSale() != null) {
-                saleTransactions.add(transaction);
-            } else {
-                otherTransactions.add(transaction);
-            }
-        }
-
-
-        // nejdrive smazu ostatni transakce
-        for (Transaction transactionToDelete : otherTransactions) {
-            // Kontrola, zda transakce patří k prodeji
-            if (transactionToDelete.getSale() != null) {
-                // Pokud transakce patří k prodeji, použij metodu pro odstranění tržby z prodeje
-                saleService.deleteSaleById(transactionToDelete.getSale().getIdSale());
-                deletedCount++;
-            } else {
-
-                // Nastavení sloupce deleted na true
-                transactionToDelete.setDeleted(true);
-                transactionRepository.save(transactionToDelete);
-
-                int balanceBefore = calculateBalanceBefore();
-                int balanceAfterCurrent = balanceBefore - transactionToDelete.getAmount();
-
-
-                int idCurrentTransaction = transactionToDelete.getIdTransaction();
-
-                // Vytvoření nové transakce, která neguje původní transakci
-                Transaction repairTransaction = new Transaction();
-                String originalDescription = transactionToDelete.getDescription();
-                repairTransaction.setDescription("Zrušení transakce ID: " + idCurrentTransaction + " - " + originalDescription);
-                repairTransaction.setAmount(-transactionToDelete.getAmount());
-                repairTransaction.setBalanceBefore(balanceBefore);
-                repairTransaction.setBalanceAfter(balanceAfterCurrent);
-                repairTransaction.setSale(null); // Nepřiřazujeme k žádnému prodeji
-                repairTransaction.setUser(transactionToDelete.getUser());
-                repairTransaction.setDeleted(true);
+        int balance = balanceAtStart;
+        int deletedCount = 0;
+        int lastReversalId = 0;
 
-                // Uložení nové transakce
-                transactionRepository.save(repairTransaction);
-                deletedCount++;
+        // Nejdrive odstranim ostatni transakce aby byl dostatek penez na odstraneni trzeb
+        int afterId = Integer.MIN_VALUE;
+        List<OpenLedgerEntry> chunk;
+        while (!(chunk = ledgerRepository.findOpenEntriesWithoutSale(afterId, maxTransactionId, bulkChunkSize)).isEmpty()) {
+            List<LedgerEntry> reversals = new ArrayList<>(chunk.size());
+            for (OpenLedgerEntry original : chunk) {
+                int balanceAfter = balance - original.getAmount();
+                reversals.add(new LedgerEntry("Zrušení transakce ID: " + original.getIdTransaction() + " - " + original.getDescription(),
+                        -original.getAmount(), balance, balanceAfter, null, original.getUserId(), true));
+                balance = balanceAfter;
             }
-
+            ledgerRepository.insertTransactions(reversals);
+            lastReversalId = reversals.get(reversals.size() - 1).getIdTransaction();
+            afterId = chunk.get(chunk.size() - 1).getIdTransaction();
+            deletedCount += chunk.size();
         }
+        ledgerRepository.markOpenEntriesWithoutSaleDeleted(maxTransactionId);
 
         // nasledne smazu transakce s trzbami
-        for (Transaction transactionToDelete : saleTransactions) {
-            // Kontrola, zda transakce patří k prodeji
-            if (transactionToDelete.getSale() != null) {
-                // Pokud transakce patří k prodeji, použij metodu pro odstranění tržby z prodeje
-                saleService.deleteSaleById(transactionToDelete.getSale().getIdSale());
-                deletedCount++;
-            } else {
-
-                // Nastavení sloupce deleted na true
-                transactionToDelete.setDeleted(true);
-                transactionRepository.save(transactionToDelete);
-
-                int balanceBefore = calculateBalanceBefore();
-                int balanceAfterCurrent = balanceBefore - transactionToDelete.getAmount();
-
-
-                int idCurrentTransaction = transactionToDelete.getIdTransaction();
-
-                // Vytvoření nové transakce, která neguje původní transakci
-                Transaction repairTransaction = new Transaction();
-                String originalDescription = transactionToDelete.getDescription();
-                repairTransaction.setDescription("Zrušení transakce ID: " + idCurrentTransaction + " - " + originalDescription);
-                repairTransaction.setAmount(-transactionToDelete.getAmount());
-                repairTransaction.setBalanceBefore(balanceBefore);
-                repairTransaction.setBalanceAfter(balanceAfterCurrent);
-                repairTransaction.setSale(null); // Nepřiřazujeme k žádnému prodeji
-                repairTransaction.setUser(transactionToDelete.getUser());
-                repairTransaction.setDeleted(true);
-
-                // Uložení nové transakce
-                transactionRepository.save(repairTransaction);
-                deletedCount++;
+        User currentUser = userService.getCurrentUser();
+        Integer currentUserId = currentUser != null ? currentUser.getIdUser() : null;
+        afterId = Integer.MIN_VALUE;
+        while (!(chunk = ledgerRepository.findOpenSaleEntries(afterId, maxTransactionId, bulkChunkSize)).isEmpty()) {
+            List<LedgerEntry> reversals = new ArrayList<>(chunk.size());
+            for (OpenLedgerEntry original : chunk) {
+                int balanceAfter = balance - original.getSaleAmount();
+
+                // Kontrola, zda balanceAfter není záporná
+                if (balanceAfter < 0) {
+                    throw new IllegalStateException("Operace odstranění není možná, protože není dostatek peněz v pokladně.");
+                }
+
+                reversals.add(new LedgerEntry("Zrušená transankce ID: " + original.getIdTransaction() + " Tržba - " + original.getSoldGoods(),
+                        -original.getSaleAmount(), balance, balanceAfter, null, currentUserId, true));
+                balance = balanceAfter;
             }
-
+            ledgerRepository.insertTransactions(reversals);
+            lastReversalId = reversals.get(reversals.size() - 1).getIdTransaction();
+            afterId = chunk.get(chunk.size() - 1).getIdTransaction();
+            deletedCount += chunk.size();
         }
+        int deletedSales = ledgerRepository.markOpenSaleEntriesDeletedAndDeleteSales(maxTransactionId);
 
+        if (deletedCount > 0) {
+            eventPublisher.publishEvent(new LedgerAppendedEvent(lastReversalId, balanceAtStart, balance, deletedCount, -deletedSales));
+        }
+        bulkDeletedRows.record(deletedCount);
         return deletedCount;
     }
 
@@ -313,40 +280,75 @@ public class TransactionService {
 
     /**
      * Metoda pro výpočet zůstatku před provedením transakce.
+     * Čte se přímo z databáze, aby byly v rámci probíhající transakce vidět i dosud nepotvrzené zápisy.
      *
      * @return zůstatek před transakcí
      */
     public int calculateBalanceBefore() {
-        Transaction lastTransaction = transactionRepository.findLastTransaction();
-        int balanceBefore = 0;
-        if (lastTransaction != null) {
-            balanceBefore = lastTransaction.getBalanceAfter();
-        }
-        return balanceBefore;
+        Integer lastBalanceAfter = transactionRepository.findLastBalanceAfter();
+        return lastBalanceAfter != null ? lastBalanceAfter : 0;
     }
 
     /**
      * Metoda pro získání prvních 20 transakcí seřazených sestupně podle ID transakce.
+     * Načtou se jen zobrazované sloupce bez entit tržeb a uživatelů.
      *
      * @return Seznam prvních 20 transakcí seřazených sestupně podle ID transakce.
      */
-    public List<Transaction> getFirst20Transactions() {
+    public List<TransactionListItem> getFirst20Transactions() {
         // Vytvoření instance Pageable s požadovaným počtem transakcí
         Pageable pageable = PageRequest.of(0, 20, Sort.by("idTransaction").descending());
         // Získání prvních 20 transakcí
-        return transactionRepository.findFirst20Transactions(pageable);
+        return transactionRepository.findListItems(pageable);
     }
 
     /**
      * Metoda pro získání prvních 20 transakcí seřazených vzestupně podle ID transakce.
+     * Načtou se jen zobrazované sloupce bez entit tržeb a uživatelů.
      *
      * @return Seznam prvních 20 transakcí seřazených vzestupně podle ID transakce.
      */
-    public List<Transaction> getFirst20TransactionsAscending() {
+    public List<TransactionListItem> getFirst20TransactionsAscending() {
         // Vytvoření instance Pageable s požadovaným počtem transakcí
         Pageable pageable = PageRequest.of(0, 20, Sort.by("idTransaction").ascending());
         // Získání prvních 20 transakcí
 
-        return transactionRepository.findFirst20Transactions(pageable);
+        return transactionRepository.findListItems(pageable);
+    }
+
+    /**
+     * Metoda pro získání jedné transakce pro zobrazení, bez načtení entit tržby a uživatele.
+     *
+     * @param idTransaction ID transakce.
+     * @return Řádek výpisu transakce, nebo prázdný Optional, pokud transakce neexistuje.
+     */
+    public Optional<TransactionListItem> getTransactionListItem(int idTransaction) {
+        return transactionRepository.findListItemById(idTransaction);
+    }
+
+    /**
+     * Metoda pro získání stránky transakcí seřazených sestupně podle ID, stránkované podle klíče.
+     * Načtení libovolně vzdálené stránky stojí stejně jako načtení první stránky.
+     *
+     * @param before ID, před kterým stránka začíná (starší transakcí), nebo null.
+     * @param after  ID, za kterým stránka začíná (novější transakcí), nebo null.
+     * @param size   Počet transakcí na stránce.
+     * @return Stránka transakcí.
+     */
+    public KeysetPage<TransactionListItem> getTransactionsKeyset(Integer before, Integer after, int size) {
+        return KeysetPage.seek(before, after, size, "idTransaction",
+                transactionRepository::findListItemsBefore, transactionRepository::findListItemsAfter, TransactionListItem::getIdTransaction);
+    }
+
+    /**
+     * Metoda pro získání stránky transakcí podle čísla stránky.
+     * Obsah stránky se načte bez dotazu COUNT(*), celkový počet transakcí určí {@link RowCountService}
+     * podle nastaveného způsobu (přesně, odhadem nebo z počítadla v paměti).
+     *
+     * @param pageable Číslo a velikost stránky a řazení výsledků.
+     * @return Stránka transakcí s celkovým počtem.
+     */
+    public Page<TransactionListItem> getTransactionsPage(Pageable pageable) {
+        return new PageImpl<>(transactionRepository.findListItems(pageable), pageable, rowCountService.count(CountedTable.TRANSACTIONS));
     }
 }
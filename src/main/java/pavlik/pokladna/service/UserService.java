@@ -1,20 +1,30 @@
 package pavlik.pokladna.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import pavlik.pokladna.entity.Authority;
 import pavlik.pokladna.entity.Sale;
 import pavlik.pokladna.entity.Transaction;
 import pavlik.pokladna.entity.User;
 import pavlik.pokladna.repository.AuthorityRepositoryInterface;
+import pavlik.pokladna.repository.LedgerJdbcRepository;
+import pavlik.pokladna.repository.LedgerRollupJdbcRepository;
 import pavlik.pokladna.repository.SaleRepositoryInterface;
 import pavlik.pokladna.repository.TransactionRepositoryInterface;
 import pavlik.pokladna.repository.UserRepositoryInterface;
+import pavlik.pokladna.security.PokladnaUserDetailsService;
 
 import java.util.List;
 import java.util.Optional;
@@ -32,6 +42,19 @@ public class UserService {
 
     private final TransactionRepositoryInterface transactionRepository;
 
+    private final RowCountService rowCountService;
+
+    private final LedgerJdbcRepository ledgerRepository;
+
+    private final LedgerRollupJdbcRepository rollupRepository;
+
+    // prihlaseny uzivatel podle uzivatelskeho jmena - jen ID, jmeno, role a stav, bez hesla
+    private final ExpiringCache<String, User> currentUserCache;
+
+    private final PokladnaUserDetailsService userDetailsService;
+
+    private final PasswordEncoder passwordEncoder;
+
     /**
      * Konstruktor služby pro manipulaci s uživateli.
      *
@@ -39,13 +62,31 @@ public class UserService {
      * @param authorityRepository   Rozhraní pro přístup k datům autorit uživatelů v databázi.
      * @param saleRepository        Rozhraní pro přístup k datům prodejů v databázi.
      * @param transactionRepository Rozhraní pro přístup k datům transakcí v databázi.
+     * @param rowCountService       Služba pro zjištění celkového počtu uživatelů.
+     * @param ledgerRepository      Repozitář pro JDBC přístup ke knize transakcí.
+     * @param rollupRepository      Repozitář pro denní souhrny knihy transakcí.
+     * @param userDetailsService    Načítání uživatelů pro přihlášení (mezipaměť se zneplatňuje při změně uživatele).
+     * @param passwordEncoder       Kódování hesel.
+     * @param currentUserTtlMs      Doba platnosti přihlášeného uživatele v mezipaměti (ms).
+     * @param currentUserCacheSize  Nejvyšší počet uživatelů v mezipaměti.
      */
     @Autowired
-    public UserService(UserRepositoryInterface userRepository, AuthorityRepositoryInterface authorityRepository, SaleRepositoryInterface saleRepository, TransactionRepositoryInterface transactionRepository) {
+    public UserService(UserRepositoryInterface userRepository, AuthorityRepositoryInterface authorityRepository, SaleRepositoryInterface saleRepository, TransactionRepositoryInterface transactionRepository,
+                       RowCountService rowCountService, LedgerJdbcRepository ledgerRepository,
+                       LedgerRollupJdbcRepository rollupRepository, PokladnaUserDetailsService userDetailsService,
+                       PasswordEncoder passwordEncoder,
+                       @Value("${pokladna.user.cache.ttl-ms:60000}") long currentUserTtlMs,
+                       @Value("${pokladna.user.cache.max-size:1000}") int currentUserCacheSize) {
         this.userRepository = userRepository;
         this.authorityRepository = authorityRepository;
         this.saleRepository = saleRepository;
         this.transactionRepository = transactionRepository;
+        this.rowCountService = rowCountService;
+        this.ledgerRepository = ledgerRepository;
+        this.rollupRepository = rollupRepository;
+        this.userDetailsService = userDetailsService;
+        this.passwordEncoder = passwordEncoder;
+        this.currentUserCache = new ExpiringCache<>(currentUserTtlMs, currentUserCacheSize);
     }
 
     /**
@@ -64,24 +105,69 @@ public class UserService {
 
     /**
      * Metoda pro získání aktuálně přihlášeného uživatele.
+     * Uživatel se načte z databáze jen při prvním volání, dále se bere z mezipaměti s omezenou platností,
+     * kterou zneplatní změna nebo smazání uživatele. Vrácený uživatel obsahuje jen ID, uživatelské jméno,
+     * roli a stav (bez hesla) a slouží pro přiřazení k tržbám a transakcím, ne pro uložení změn uživatele.
      *
      * @return Aktuálně přihlášený uživatel nebo null, pokud není žádný uživatel přihlášen nebo není nalezen uživatel.
      */
     public User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.isAuthenticated() && authentication.getPrincipal() instanceof UserDetails userDetails) {
-            String username = userDetails.getUsername();
-
+            User cachedUser = currentUserCache.get(userDetails.getUsername(), this::loadCurrentUser);
 
-            Optional<User> optionalUser = userRepository.findByUsername(username);
-
-            // Pokud uživatel existuje, vrátíme ho, jinak null.
-            return optionalUser.orElse(null);
+            // Pokud uživatel existuje, vrátíme jeho kopii, jinak null.
+            return cachedUser != null ? copyOf(cachedUser) : null;
         }
 
         return null; // Vrací null, pokud není přihlášený žádný uživatel nebo není nalezen uživatel.
     }
 
+    /**
+     * Načte uživatele pro mezipaměť přihlášených uživatelů.
+     *
+     * @param username Uživatelské jméno.
+     * @return Uživatel bez hesla, nebo null, pokud neexistuje.
+     */
+    private User loadCurrentUser(String username) {
+        Optional<User> optionalUser = userRepository.findByUsername(username);
+        return optionalUser.map(this::copyOf).orElse(null);
+    }
+
+    private User copyOf(User user) {
+        User copy = new User(user.getUsername(), null, user.getEnabled(), user.getRole());
+        copy.setIdUser(user.getIdUser());
+        return copy;
+    }
+
+    /**
+     * Zneplatní uživatele v mezipaměti přihlášených uživatelů a v mezipaměti pro přihlášení
+     * hned a znovu po skončení databázové transakce,
+     * aby se do mezipaměti nevrátil stav načtený před potvrzením změny.
+     *
+     * @param username Uživatelské jméno, nebo null pro zneplatnění všech uživatelů.
+     */
+    private void evictCachedUser(String username) {
+        Runnable eviction = username != null
+                ? () -> {
+                    currentUserCache.invalidate(username);
+                    userDetailsService.evict(username);
+                }
+                : () -> {
+                    currentUserCache.invalidateAll();
+                    userDetailsService.evictAll();
+                };
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
     /**
      * Metoda pro získání uživatele podle ID.
      *
@@ -101,9 +187,8 @@ public class UserService {
      * @param user Nový uživatel.
      */
     public void createUser(User user) {
-        // Zašifrujeme heslo uživatele - zde zatim bez šifrace
-
-        user.setPassword("{noop}" + user.getPassword());
+        // Zašifrujeme heslo uživatele (bcrypt)
+        user.setPassword(passwordEncoder.encode(user.getPassword()));
 
 
         // Uložíme uživatele do databáze
@@ -122,6 +207,8 @@ public class UserService {
             authorityRepository.save(authorityAdmin);
         }
 
+        evictCachedUser(user.getUsername());
+
     }
 
     /**
@@ -139,12 +226,13 @@ public class UserService {
         authorityRepository.deleteByUsername(existingUser.getUsername());
 
         // Aktualizace atributů
-        existingUser.setPassword("{noop}" + updatedUser.getPassword());
+        existingUser.setPassword(passwordEncoder.encode(updatedUser.getPassword()));
         existingUser.setEnabled(updatedUser.getEnabled());
         existingUser.setRole(updatedUser.getRole());
 
         // Uložení aktualizovaného uživatele do databáze
         userRepository.save(existingUser);
+        evictCachedUser(existingUser.getUsername());
 
         // Vytvoření nových záznamů v tabulce authorities pro daného uživatele
         Authority authorityEmployee = new Authority();
@@ -167,6 +255,9 @@ public class UserService {
      */
     @Transactional
     public void deleteUserByIdAndSetNullUserInOthersTable(int userId) {
+        // zamceni knihy transakci - meni se zaznamy knihy i denni souhrny
+        ledgerRepository.lockLedger();
+
         // Získání uživatele k odstranění z databáze
         User userToDelete = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("Uživatel nebyl nalezen."));
@@ -191,6 +282,11 @@ public class UserService {
 
         // Odstranění uživatele z databáze
         userRepository.delete(userToDelete);
+        userRepository.flush();
+        evictCachedUser(userToDelete.getUsername());
+
+        // presun dennich souhrnu smazaneho uzivatele mezi souhrny bez uzivatele
+        rollupRepository.reassignMissingUsers();
     }
 
     /**
@@ -200,6 +296,7 @@ public class UserService {
     public void deleteAllUsers() {
         authorityRepository.deleteAll(); // Smazání všech záznamů v tabulce authorities
         userRepository.deleteAll(); // Smazání všech uživatelů
+        evictCachedUser(null);
     }
 
     /**
@@ -207,6 +304,9 @@ public class UserService {
      */
     @Transactional
     public void deleteAllUsersAndSetNullUserInOthersTable() {
+        // zamceni knihy transakci - meni se zaznamy knihy i denni souhrny
+        ledgerRepository.lockLedger();
+
         // Nastavení user_id na NULL v tabulce sales
         saleRepository.updateSalesWithNullUserId();
 
@@ -217,9 +317,37 @@ public class UserService {
 
         // Smazání všech uživatelů
         userRepository.deleteAll();
+        userRepository.flush();
+        evictCachedUser(null);
 
+        // presun dennich souhrnu smazanych uzivatelu mezi souhrny bez uzivatele
+        rollupRepository.reassignMissingUsers();
 
     }
 
+    /**
+     * Metoda pro získání stránky uživatelů seřazených sestupně podle ID, stránkované podle klíče.
+     * Načtení libovolně vzdálené stránky stojí stejně jako načtení první stránky.
+     *
+     * @param before ID, před kterým stránka začíná (starší uživatelů), nebo null.
+     * @param after  ID, za kterým stránka začíná (novější uživatelů), nebo null.
+     * @param size   Počet uživatelů na stránce.
+     * @return Stránka uživatelů.
+     */
+    public KeysetPage<User> getUsersKeyset(Integer before, Integer after, int size) {
+        return KeysetPage.seek(before, after, size, "idUser",
+                userRepository::findByIdUserLessThan, userRepository::findByIdUserGreaterThan, User::getIdUser);
+    }
 
+    /**
+     * Metoda pro získání stránky uživatelů podle čísla stránky.
+     * Obsah stránky se načte bez dotazu COUNT(*), celkový počet uživatelů určí {@link RowCountService}
+     * podle nastaveného způsobu (přesně, odhadem nebo z počítadla v paměti).
+     *
+     * @param pageable Číslo a velikost stránky a řazení výsledků.
+     * @return Stránka uživatelů s celkovým počtem.
+     */
+    public Page<User> getUsersPage(Pageable pageable) {
+        return new PageImpl<>(userRepository.findAllBy(pageable), pageable, rowCountService.count(CountedTable.USERS));
+    }
 }
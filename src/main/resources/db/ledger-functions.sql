@@ -0,0 +1,160 @@
+-- Funkce pro zapis do knihy transakci jednim dotazem.
+-- Zustatek pred transakci se cte az po ziskani zamku knihy, takze navaznost zustatku
+-- je zachovana i pri soubeznych zapisech z vice pokladen.
+-- Klic zamku musi odpovidat LedgerJdbcRepository.LEDGER_LOCK_KEY.
+-- Kazdy zapis zaroven pricte sve zaznamy do denniho souhrnu (ledger_daily_rollup) ve stejne transakci.
+
+-- starsi verze funkci bez casoveho pasma pro denni souhrny
+DROP FUNCTION IF EXISTS public.ledger_post_sale(INTEGER, VARCHAR, INTEGER, VARCHAR);
+DROP FUNCTION IF EXISTS public.ledger_append(VARCHAR, INTEGER, INTEGER, INTEGER, BOOLEAN);
+
+-- Denni souhrny trzeb, vkladu, vyberu a zruseni podle pokladniho (user_id).
+-- Castky jsou se znamenkem jako v knize transakci, soucet vsech castek dne je tedy zmena zustatku za den.
+CREATE TABLE IF NOT EXISTS public.ledger_daily_rollup (
+    day DATE NOT NULL,
+    user_id INTEGER,
+    sales_count BIGINT NOT NULL DEFAULT 0,
+    sales_amount BIGINT NOT NULL DEFAULT 0,
+    deposits_count BIGINT NOT NULL DEFAULT 0,
+    deposits_amount BIGINT NOT NULL DEFAULT 0,
+    withdrawals_count BIGINT NOT NULL DEFAULT 0,
+    withdrawals_amount BIGINT NOT NULL DEFAULT 0,
+    reversals_count BIGINT NOT NULL DEFAULT 0,
+    reversals_amount BIGINT NOT NULL DEFAULT 0
+);
+
+-- zaznamy bez uzivatele se scitaji do jednoho radku dne; ID 0 sekvence uzivatelu nikdy nevygeneruje
+CREATE UNIQUE INDEX IF NOT EXISTS ledger_daily_rollup_day_user_idx
+    ON public.ledger_daily_rollup (day, (COALESCE(user_id, 0)));
+
+-- Druh zaznamu podle popisu: S - trzba, D - vklad, W - vyber, R - zruseni.
+-- Popis puvodniho zaznamu se pri zruseni doplni o "(smazáno) ", druh zustava stejny.
+CREATE OR REPLACE FUNCTION public.ledger_entry_kind(p_description VARCHAR, p_amount INTEGER)
+    RETURNS CHAR
+    LANGUAGE sql
+    IMMUTABLE
+AS
+$$
+SELECT CASE
+           WHEN p_description LIKE 'Zrušen%' THEN 'R'
+           WHEN regexp_replace(p_description, '^\(smazáno\) (- )?', '') LIKE 'Nová tržba%' THEN 'S'
+           WHEN regexp_replace(p_description, '^\(smazáno\) (- )?', '') LIKE 'Vklad%' THEN 'D'
+           WHEN regexp_replace(p_description, '^\(smazáno\) (- )?', '') LIKE 'Výběr%' THEN 'W'
+           -- zaznamy s jinym popisem (napr. importovane) podle znamenka castky
+           WHEN p_amount >= 0 THEN 'D'
+           ELSE 'W'
+           END;
+$$;
+
+-- Souhrny zaznamu knihy transakci s ID v zadanem rozsahu (vcetne) po dnech a uzivatelich.
+-- Zaznamy zapsane pred zavedenim sloupce created_at maji cas null, jejich den neni znam a do souhrnu se nepocitaji.
+CREATE OR REPLACE FUNCTION public.ledger_rollup_compute(p_from INTEGER, p_to INTEGER, p_zone VARCHAR)
+    RETURNS TABLE (day DATE, user_id INTEGER,
+                   sales_count BIGINT, sales_amount BIGINT,
+                   deposits_count BIGINT, deposits_amount BIGINT,
+                   withdrawals_count BIGINT, withdrawals_amount BIGINT,
+                   reversals_count BIGINT, reversals_amount BIGINT)
+    LANGUAGE plpgsql
+    STABLE
+AS
+$$
+#variable_conflict use_column
+BEGIN
+    RETURN QUERY
+        SELECT CAST(t.created_at AT TIME ZONE p_zone AS DATE), t.user_id,
+               COUNT(*) FILTER (WHERE k.kind = 'S'), COALESCE(SUM(t.amount) FILTER (WHERE k.kind = 'S'), 0),
+               COUNT(*) FILTER (WHERE k.kind = 'D'), COALESCE(SUM(t.amount) FILTER (WHERE k.kind = 'D'), 0),
+               COUNT(*) FILTER (WHERE k.kind = 'W'), COALESCE(SUM(t.amount) FILTER (WHERE k.kind = 'W'), 0),
+               COUNT(*) FILTER (WHERE k.kind = 'R'), COALESCE(SUM(t.amount) FILTER (WHERE k.kind = 'R'), 0)
+        FROM public.financialtransaction t
+                 CROSS JOIN LATERAL (SELECT public.ledger_entry_kind(t.description, t.amount) AS kind) k
+        WHERE t.id_transaction BETWEEN p_from AND p_to
+          AND t.created_at IS NOT NULL
+        GROUP BY 1, 2;
+END;
+$$;
+
+-- Pricte zaznamy s ID v zadanem rozsahu (vcetne) do dennich souhrnu.
+CREATE OR REPLACE FUNCTION public.ledger_rollup_apply(p_from INTEGER, p_to INTEGER, p_zone VARCHAR)
+    RETURNS VOID
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    INSERT INTO public.ledger_daily_rollup AS r (day, user_id, sales_count, sales_amount, deposits_count, deposits_amount,
+                                                 withdrawals_count, withdrawals_amount, reversals_count, reversals_amount)
+    SELECT *
+    FROM public.ledger_rollup_compute(p_from, p_to, p_zone)
+    ON CONFLICT (day, (COALESCE(user_id, 0))) DO UPDATE
+        SET sales_count        = r.sales_count + EXCLUDED.sales_count,
+            sales_amount       = r.sales_amount + EXCLUDED.sales_amount,
+            deposits_count     = r.deposits_count + EXCLUDED.deposits_count,
+            deposits_amount    = r.deposits_amount + EXCLUDED.deposits_amount,
+            withdrawals_count  = r.withdrawals_count + EXCLUDED.withdrawals_count,
+            withdrawals_amount = r.withdrawals_amount + EXCLUDED.withdrawals_amount,
+            reversals_count    = r.reversals_count + EXCLUDED.reversals_count,
+            reversals_amount   = r.reversals_amount + EXCLUDED.reversals_amount;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION public.ledger_append(p_description VARCHAR,
+                                                p_amount INTEGER,
+                                                p_sale_id INTEGER,
+                                                p_user_id INTEGER,
+                                                p_reject_negative BOOLEAN,
+                                                p_zone VARCHAR)
+    RETURNS TABLE (id_transaction INTEGER, balance_before INTEGER, balance_after INTEGER)
+    LANGUAGE plpgsql
+AS
+$$
+#variable_conflict use_column
+DECLARE
+    v_balance_before INTEGER;
+    v_id_transaction INTEGER;
+    v_balance_after  INTEGER;
+BEGIN
+    PERFORM pg_advisory_xact_lock(7431001);
+
+    SELECT t.balance_after
+    INTO v_balance_before
+    FROM public.financialtransaction t
+    ORDER BY t.id_transaction DESC
+    LIMIT 1;
+    v_balance_before := COALESCE(v_balance_before, 0);
+
+    IF p_reject_negative AND v_balance_before + p_amount < 0 THEN
+        RAISE EXCEPTION 'Nedostatek peněz v pokladně.' USING ERRCODE = 'PK001';
+    END IF;
+
+    INSERT INTO public.financialtransaction AS t (description, amount, balance_before, balance_after, sale_id, user_id, deleted)
+    VALUES (p_description, p_amount, v_balance_before, v_balance_before + p_amount, p_sale_id, p_user_id, false)
+    RETURNING t.id_transaction, t.balance_after INTO v_id_transaction, v_balance_after;
+
+    PERFORM public.ledger_rollup_apply(v_id_transaction, v_id_transaction, p_zone);
+
+    RETURN QUERY SELECT v_id_transaction, v_balance_before, v_balance_after;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION public.ledger_post_sale(p_amount INTEGER,
+                                                   p_sold_goods VARCHAR,
+                                                   p_user_id INTEGER,
+                                                   p_description VARCHAR,
+                                                   p_zone VARCHAR)
+    RETURNS TABLE (id_sale INTEGER, id_transaction INTEGER, balance_before INTEGER, balance_after INTEGER)
+    LANGUAGE plpgsql
+AS
+$$
+#variable_conflict use_column
+DECLARE
+    v_id_sale INTEGER;
+BEGIN
+    INSERT INTO public.sales AS s (amount, sold_goods, user_id)
+    VALUES (p_amount, p_sold_goods, p_user_id)
+    RETURNING s.id_sale INTO v_id_sale;
+
+    RETURN QUERY
+        SELECT v_id_sale, a.id_transaction, a.balance_before, a.balance_after
+        FROM public.ledger_append(p_description, p_amount, v_id_sale, p_user_id, false, p_zone) a;
+END;
+$$;
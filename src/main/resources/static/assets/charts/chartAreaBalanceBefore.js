@@ -1,13 +1,13 @@
 // Funkce pro načtení dat pomocí AJAX
 function loadDataAndCreateChart() {
-    // Načtení dat z endpointu /cashflow
+    // Načtení průběhu zůstatku za celou historii, zmenšeného na nejvýše 200 bodů
     $.ajax({
-        url: '/api/transactions/last20',
+        url: '/api/transactions/balance-history?points=200',
         type: 'GET',
         success: function(data) {
             // Úspěšně načtená data
             const labels = data.map(entry => entry.idTransaction); // Použijeme saleId jako popisky osy X
-            const balances = data.map(entry => entry.balanceAfter); // Použijeme balanceAfter jako data
+            const balances = data.map(entry => entry.balance); // Použijeme zůstatek po transakci jako data
 
             // Vytvoření grafu pomocí Chart.js
             var ctx = document.getElementById("AreaChartBalanceBefore");
@@ -20,7 +20,7 @@ function loadDataAndCreateChart() {
                         lineTension: 0.3,
                         backgroundColor: "rgba(2,117,216,0.2)",
                         borderColor: "rgba(2,117,216,1)",
-                        pointRadius: 5,
+                        pointRadius: 2,
                         pointBackgroundColor: "rgba(2,117,216,1)",
                         pointBorderColor: "rgba(255,255,255,0.8)",
                         pointHoverRadius: 5,
@@ -0,0 +1,41 @@
+// Pravidelne zjistuje prubeh hromadneho odstranovani a zobrazuje ho na strance
+
+(function () {
+    const container = document.getElementById('bulkDeletionProgress');
+    if (!container) {
+        return;
+    }
+
+    const progressUrl = container.dataset.progressUrl;
+    const bar = document.getElementById('bulkDeletionProgressBar');
+    const count = document.getElementById('bulkDeletionProgressCount');
+    const message = document.getElementById('bulkDeletionProgressMessage');
+
+    function refresh() {
+        fetch(progressUrl)
+            .then(response => response.ok ? response.json() : null)
+            .then(progress => {
+                if (!progress) {
+                    return;
+                }
+
+                bar.style.width = progress.percent + '%';
+                bar.textContent = progress.percent + ' %';
+                count.textContent = 'Zpracováno ' + progress.processed + ' z ' + progress.total;
+
+                if (progress.state === 'RUNNING') {
+                    setTimeout(refresh, 1000);
+                    return;
+                }
+
+                message.textContent = progress.message;
+                message.style.color = progress.state === 'COMPLETED' ? 'green' : 'red';
+                if (progress.state === 'FAILED') {
+                    bar.classList.add('bg-danger');
+                }
+            })
+            .catch(() => setTimeout(refresh, 1000));
+    }
+
+    refresh();
+})();
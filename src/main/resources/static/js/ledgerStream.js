@@ -0,0 +1,67 @@
+// Prijima zmeny zustatku a nove transakce ze serveru (Server-Sent Events) misto opakovaneho nacitani stranky
+
+(function () {
+    function cell(text, align) {
+        const td = document.createElement('td');
+        td.className = align;
+        td.textContent = text;
+        return td;
+    }
+
+    function start() {
+        const balances = document.querySelectorAll('[data-ledger-balance]');
+        const table = document.querySelector('[data-ledger-transactions]');
+        if (balances.length === 0 && !table) {
+            return;
+        }
+
+        function showBalance(balance) {
+            balances.forEach(element => element.textContent = balance);
+        }
+
+        function prependTransaction(transaction) {
+            const row = document.createElement('tr');
+            row.appendChild(cell(transaction.idTransaction, 'text-center'));
+            row.appendChild(cell(transaction.description, 'text-left'));
+            row.appendChild(cell(transaction.amount, 'text-center'));
+            row.appendChild(cell(transaction.balanceBefore, 'text-center'));
+            row.appendChild(cell(transaction.balanceAfter, 'text-center'));
+            row.appendChild(cell(transaction.saleId == null ? 'null' : transaction.saleId, 'text-center'));
+            row.appendChild(cell(transaction.userId == null ? 'null' : transaction.userId, 'text-center'));
+            row.appendChild(cell(transaction.deleted ? 'Ano' : 'Ne', 'text-center'));
+            table.insertBefore(row, table.firstChild);
+
+            // tabulka zobrazuje stale stejny pocet radku
+            const limit = parseInt(table.dataset.ledgerTransactions, 10);
+            while (limit > 0 && table.rows.length > limit) {
+                table.deleteRow(table.rows.length - 1);
+            }
+        }
+
+        // EventSource se po vypadku spojeni pripoji znovu sam
+        const source = new EventSource('/api/transactions/stream');
+
+        // zprava o starsim zapisu nesmi prepsat novejsi zustatek
+        let lastTransactionId = null;
+
+        source.addEventListener('balance', event => showBalance(JSON.parse(event.data).balance));
+
+        source.addEventListener('ledger', event => {
+            const message = JSON.parse(event.data);
+            if (lastTransactionId !== null && message.lastTransactionId <= lastTransactionId) {
+                return;
+            }
+            lastTransactionId = message.lastTransactionId;
+            showBalance(message.balanceAfter);
+            if (table) {
+                message.transactions.forEach(prependTransaction);
+            }
+        });
+    }
+
+    if (document.readyState === 'loading') {
+        document.addEventListener('DOMContentLoaded', start);
+    } else {
+        start();
+    }
+})();
@@ -0,0 +1,60 @@
+package pavlik.pokladna;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import pavlik.pokladna.entity.User;
+import pavlik.pokladna.repository.UserRepositoryInterface;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class JdbcBatchingTests {
+
+	private static final int ROWS = 10_000;
+
+	@Autowired
+	private UserRepositoryInterface userRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	@Transactional
+	public void testSaveAllUsesBatchedStatements() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		// vlozeni 10 000 uzivatelu
+		List<User> users = new ArrayList<>(ROWS);
+		for (int i = 0; i < ROWS; i++) {
+			users.add(new User("batch-test-" + i, "{noop}heslo", (short) 1, "EMPLOYEE"));
+		}
+		userRepository.saveAll(users);
+		userRepository.flush();
+
+		assertEquals(ROWS, statistics.getEntityInsertCount());
+		// bez davek by to bylo 10 000 insertu a 10 000 dotazu na sekvenci
+		long insertStatements = statistics.getPrepareStatementCount();
+		assertTrue(insertStatements < ROWS / 10, "Počet příkazů pro vložení: " + insertStatements);
+
+		// zmena vsech uzivatelu
+		statistics.clear();
+		for (User user : users) {
+			user.setEnabled((short) 0);
+		}
+		userRepository.saveAll(users);
+		userRepository.flush();
+
+		assertEquals(ROWS, statistics.getEntityUpdateCount());
+		long updateStatements = statistics.getPrepareStatementCount();
+		assertTrue(updateStatements < ROWS / 10, "Počet příkazů pro změnu: " + updateStatements);
+	}
+}
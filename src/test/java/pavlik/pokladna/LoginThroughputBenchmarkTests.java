@@ -0,0 +1,94 @@
+package pavlik.pokladna;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import pavlik.pokladna.common.test.LatencyBenchmark;
+import pavlik.pokladna.entity.User;
+import pavlik.pokladna.repository.UserRepositoryInterface;
+import pavlik.pokladna.service.UserService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.authenticated;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class LoginThroughputBenchmarkTests {
+
+	private static final String PASSWORD = "heslo";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepositoryInterface userRepository;
+
+	@Autowired
+	private ApplicationContext context;
+
+	@Value("${pokladna.benchmark.login.threads:32}")
+	private int threads;
+
+	@Value("${pokladna.benchmark.login.count:400}")
+	private int logins;
+
+	@Value("${pokladna.benchmark.login.max-p99-ms:3000}")
+	private long maxP99Ms;
+
+	private TestDataCleanup cleanup;
+
+	@BeforeEach
+	public void markData() {
+		cleanup = new TestDataCleanup(context);
+	}
+
+	@AfterEach
+	public void removeData() {
+		cleanup.cleanUp();
+	}
+
+	@Test
+	public void testNoopPasswordIsUpgradedOnLogin() throws Exception {
+		String username = cleanup.user("noop-test-" + System.nanoTime());
+		userService.createUser(new User(username, PASSWORD, (short) 1, "EMPLOYEE"));
+		// heslo ulozene drivejsim zpusobem
+		User user = userRepository.findByUsername(username).orElseThrow();
+		user.setPassword("{noop}" + PASSWORD);
+		userRepository.save(user);
+
+		mockMvc.perform(formLogin("/authenticateTheUser").user(username).password(PASSWORD)).andExpect(authenticated());
+
+		String storedPassword = userRepository.findByUsername(username).orElseThrow().getPassword();
+		assertTrue(storedPassword.startsWith("{bcrypt}"), "Uložené heslo: " + storedPassword);
+	}
+
+	/**
+	 * Souběžné přihlašování jednoho uživatele - propustnost a doba přihlášení (p50, p99).
+	 * Spouští se jen na vyžádání: mvn test -Dtest=LoginThroughputBenchmarkTests -Dbenchmark=true
+	 */
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	public void benchmarkConcurrentLogins() throws Exception {
+		String username = cleanup.user("login-benchmark-" + System.nanoTime());
+		userService.createUser(new User(username, PASSWORD, (short) 1, "EMPLOYEE"));
+
+		LatencyBenchmark.Result result = LatencyBenchmark.run(threads, logins, index -> {
+			mockMvc.perform(formLogin("/authenticateTheUser").user(username).password(PASSWORD)).andExpect(authenticated());
+			return true;
+		});
+		System.out.println("Přihlášení - " + result);
+
+		assertTrue(result.p99Millis() <= maxP99Ms, "p99 přihlášení " + result.p99Millis() + " ms přesahuje " + maxP99Ms + " ms");
+	}
+}
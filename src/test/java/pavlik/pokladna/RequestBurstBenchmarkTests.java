@@ -0,0 +1,112 @@
+package pavlik.pokladna;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationContext;
+import pavlik.pokladna.common.test.LatencyBenchmark;
+import pavlik.pokladna.entity.User;
+import pavlik.pokladna.service.UserService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Nápor pokladen - souběžné zápisy tržeb a čtení transakcí přes HTTP.
+ * Spouští se jen na vyžádání, pro porovnání obou režimů dvakrát:
+ * <pre>
+ * mvn test -Dtest=RequestBurstBenchmarkTests -Dbenchmark=true
+ * mvn test -Pjdk21 -Dtest=RequestBurstBenchmarkTests -Dbenchmark=true -Dspring.profiles.active=virtual-threads
+ * </pre>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		// overeni hesla pri kazdem pozadavku (HTTP Basic) nema merit bcrypt
+		"pokladna.security.bcrypt.strength=4",
+		"pokladna.security.hashing.queue-capacity=4096"
+})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RequestBurstBenchmarkTests {
+
+	private static final String PASSWORD = "heslo";
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private ApplicationContext context;
+
+	@Value("${spring.threads.virtual.enabled:false}")
+	private boolean virtualThreads;
+
+	@Value("${pokladna.benchmark.burst.clients:400}")
+	private int clients;
+
+	@Value("${pokladna.benchmark.burst.requests:4000}")
+	private int requests;
+
+	@Value("${pokladna.benchmark.burst.max-p99-ms:10000}")
+	private long maxP99Ms;
+
+	private TestDataCleanup cleanup;
+
+	@BeforeEach
+	public void markData() {
+		cleanup = new TestDataCleanup(context);
+	}
+
+	@AfterEach
+	public void removeData() {
+		cleanup.cleanUp();
+	}
+
+	/**
+	 * Každý druhý požadavek zapíše tržbu ({@code POST /api/sales/bulk}), ostatní čtou stránku transakcí
+	 * ({@code GET /api/transactions/seek}). Vypíše propustnost, dobu odezvy (p50, p99) a počet odmítnutých požadavků
+	 * (HTTP 503) jako neúspěšné.
+	 */
+	@Test
+	public void benchmarkRequestBurst() throws Exception {
+		String username = cleanup.user("burst-benchmark-" + System.nanoTime());
+		userService.createUser(new User(username, PASSWORD, (short) 1, "EMPLOYEE"));
+		String authorization = "Basic " + Base64.getEncoder()
+				.encodeToString((username + ":" + PASSWORD).getBytes(StandardCharsets.UTF_8));
+
+		HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		HttpRequest sale = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/sales/bulk"))
+				.header("Authorization", authorization)
+				.header("Content-Type", "text/csv")
+				.POST(HttpRequest.BodyPublishers.ofString("0,100,zatez,\n"))
+				.build();
+		HttpRequest seek = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/transactions/seek?size=20"))
+				.header("Authorization", authorization)
+				.GET()
+				.build();
+
+		LatencyBenchmark.Result result = LatencyBenchmark.run(clients, requests, index -> {
+			HttpRequest request = index % 2 == 0 ? sale : seek;
+			int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+			if (status == 503) {
+				return false;
+			}
+			assertEquals(200, status, request.method() + " " + request.uri());
+			return true;
+		});
+		System.out.println("Režim: " + (virtualThreads ? "virtuální vlákna" : "platformní vlákna") + ", " + result);
+
+		assertTrue(result.p99Millis() <= maxP99Ms, "p99 požadavků " + result.p99Millis() + " ms přesahuje " + maxP99Ms + " ms");
+	}
+}
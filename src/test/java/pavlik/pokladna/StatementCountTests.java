@@ -0,0 +1,105 @@
+package pavlik.pokladna;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import pavlik.pokladna.entity.Sale;
+import pavlik.pokladna.entity.User;
+import pavlik.pokladna.repository.TransactionRepositoryInterface;
+import pavlik.pokladna.repository.UserRepositoryInterface;
+import pavlik.pokladna.service.SaleService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Hlídá počet SQL příkazů na jeden požadavek. Pokud obrazovka začne načítat související entity
+ * po jedné (N+1), počet příkazů poroste s počtem řádků a test selže.
+ * Počítají se příkazy připravené přes Hibernate, limit určuje {@code pokladna.test.max-statements-per-request}.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@WithMockUser(roles = {"EMPLOYEE", "ADMIN"})
+class StatementCountTests {
+
+	private static final int ROWS = 25;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private UserRepositoryInterface userRepository;
+
+	@Autowired
+	private TransactionRepositoryInterface transactionRepository;
+
+	@Autowired
+	private SaleService saleService;
+
+	@Autowired
+	private ApplicationContext context;
+
+	@Value("${pokladna.test.max-statements-per-request:5}")
+	private int maxStatements;
+
+	private int saleId;
+
+	private int transactionId;
+
+	private TestDataCleanup cleanup;
+
+	@BeforeEach
+	public void createRows() {
+		cleanup = new TestDataCleanup(context);
+		// kazda trzba jinym uzivatelem, aby se pripadne nacitani po jedne projevilo
+		long suffix = System.nanoTime();
+		for (int i = 0; i < ROWS; i++) {
+			User user = userRepository.save(new User(cleanup.user("statement-test-" + suffix + "-" + i), "{noop}heslo", (short) 1, "EMPLOYEE"));
+			Sale sale = saleService.addSaleWithTransaction(new Sale(10, "zbozi " + i, user));
+			saleId = sale.getIdSale();
+		}
+		transactionId = transactionRepository.findLedgerTail().getIdTransaction();
+	}
+
+	@AfterEach
+	public void removeRows() {
+		cleanup.cleanUp();
+	}
+
+	@Test
+	public void testListingsUseBoundedNumberOfStatements() throws Exception {
+		assertStatementsAtMost("/");
+		assertStatementsAtMost("/transactions/index/0/20");
+		assertStatementsAtMost("/transactions/seek");
+		assertStatementsAtMost("/transactions/show/" + transactionId);
+		assertStatementsAtMost("/sales/index/0/20");
+		assertStatementsAtMost("/sales/seek");
+		assertStatementsAtMost("/sales/show/" + saleId);
+		assertStatementsAtMost("/api/transactions/seek");
+		assertStatementsAtMost("/api/sales/seek");
+	}
+
+	private void assertStatementsAtMost(String url) throws Exception {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		mockMvc.perform(get(url)).andExpect(status().isOk());
+
+		long statements = statistics.getPrepareStatementCount();
+		assertTrue(statements <= maxStatements, "Počet SQL příkazů pro " + url + ": " + statements + " (limit " + maxStatements + ")");
+	}
+}
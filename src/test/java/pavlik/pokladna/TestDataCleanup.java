@@ -0,0 +1,80 @@
+package pavlik.pokladna;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pavlik.pokladna.common.test.LedgerTestData;
+import pavlik.pokladna.service.LedgerBalanceHolder;
+import pavlik.pokladna.service.LedgerRowCounter;
+
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Úklid uživatelů, tržeb a záznamů knihy transakcí zapsaných testem (viz {@link LedgerTestData}).
+ * Vytváří se před zápisem testu, po smazání se znovu načte zůstatek a počty řádků držené v paměti.
+ */
+final class TestDataCleanup {
+
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final LedgerBalanceHolder balanceHolder;
+	private final LedgerRowCounter rowCounter;
+	private final int transactionMark;
+	private final int saleMark;
+	private final Set<String> usernames = ConcurrentHashMap.newKeySet();
+
+	TestDataCleanup(ApplicationContext context) {
+		this.jdbcTemplate = context.getBean(NamedParameterJdbcTemplate.class);
+		this.transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		this.balanceHolder = context.getBean(LedgerBalanceHolder.class);
+		this.rowCounter = context.getBean(LedgerRowCounter.class);
+		this.transactionMark = jdbcTemplate.getJdbcTemplate().queryForObject(LedgerTestData.TRANSACTION_MARK, Integer.class);
+		this.saleMark = jdbcTemplate.getJdbcTemplate().queryForObject(LedgerTestData.SALE_MARK, Integer.class);
+	}
+
+	/**
+	 * Zaznamená uživatele vytvořeného testem.
+	 *
+	 * @param username Uživatelské jméno.
+	 * @return Uživatelské jméno.
+	 */
+	String user(String username) {
+		usernames.add(username);
+		return username;
+	}
+
+	/**
+	 * Smaže uživatele testu, jejich souhrny a vše zapsané do knihy transakcí a tržeb od vytvoření.
+	 *
+	 * @throws IllegalStateException Pokud do knihy nebo tržeb mezitím zapisoval jiný uživatel.
+	 */
+	void cleanUp() {
+		if (usernames.isEmpty()) {
+			return;
+		}
+		MapSqlParameterSource parameters = new MapSqlParameterSource()
+				.addValue("transactionMark", transactionMark)
+				.addValue("saleMark", saleMark)
+				.addValue("usernames", new ArrayList<>(usernames));
+		transactionTemplate.executeWithoutResult(status -> {
+			jdbcTemplate.getJdbcTemplate().query(LedgerTestData.LOCK_LEDGER, (ResultSetExtractor<Void>) rs -> null);
+			Long foreignRows = jdbcTemplate.queryForObject(LedgerTestData.FOREIGN_ROWS, parameters, Long.class);
+			if (foreignRows != null && foreignRows > 0) {
+				throw new IllegalStateException("Do knihy transakcí zapsal během testu i jiný uživatel (" + foreignRows
+						+ " záznamů), data testu " + usernames + " zůstávají v databázi.");
+			}
+			for (String sql : LedgerTestData.DELETE) {
+				jdbcTemplate.update(sql, parameters);
+			}
+		});
+		usernames.clear();
+
+		balanceHolder.verify();
+		rowCounter.resync();
+	}
+}